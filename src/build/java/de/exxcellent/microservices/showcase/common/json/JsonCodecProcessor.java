@@ -0,0 +1,539 @@
+package de.exxcellent.microservices.showcase.common.json;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Generates the JSON codec of the types annotated with {@code JsonCodecType} while they are compiled: for each type a method writing it
+ * with its getters and, for the readable types, a method reading it with its setters. So the API types are serialized and parsed
+ * without reflection and without building a tree of the document.
+ * Is compiled by the build before the application (phase {@code generate-sources}) and run by the compiler as annotation processor,
+ * so it only depends on the JDK. The simple name of the codec is passed with the option {@code jsonCodec}, it is generated in the package of the types.
+ * <p>
+ * The properties of a type are its instance fields, each with a public getter. Like JSON-B, the properties are written in lexicographical order
+ * and {@code null} properties are left out, so the output equals the one of JSON-B. The setters of the readable types must not validate the values:
+ * they are validated once by the service receiving them.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class JsonCodecProcessor extends AbstractProcessor {
+    /**
+     * The annotation of the types of the codec.
+     */
+    private static final String ANNOTATION = "de.exxcellent.microservices.showcase.common.json.JsonCodecType";
+    /**
+     * The option holding the simple name of the generated codec.
+     */
+    private static final String CODEC_OPTION = "jsonCodec";
+    /**
+     * The element type of a list.
+     */
+    private static final Pattern LIST = Pattern.compile("List<(\\w+)>");
+    private static final String STRING = "String";
+    private static final String DOUBLE = "Double";
+    private static final String BOOLEAN = "Boolean";
+
+    /**
+     * Set if an error was reported, so the codec is not generated.
+     */
+    private boolean errors;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(ANNOTATION);
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(CODEC_OPTION);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnvironment) {
+        if(annotations.isEmpty()) {
+            return false;
+        } // else: the annotated types are only found in the first round, the generated codec is not annotated.
+        final Set<TypeElement> elements = ElementFilter.typesIn(roundEnvironment.getElementsAnnotatedWith(annotations.iterator().next()));
+        final String codec = this.processingEnv.getOptions().get(CODEC_OPTION);
+        if(codec == null) {
+            error("Missing option -A" + CODEC_OPTION + " with the name of the JSON codec", elements.iterator().next());
+            return true;
+        } // else: read all annotated types, ordered by name.
+        final Map<String, JsonType> types = new TreeMap<>();
+        final Set<String> readTypes = new LinkedHashSet<>();
+        String packageName = null;
+        for(final TypeElement element : elements) {
+            final String elementPackage = this.processingEnv.getElementUtils().getPackageOf(element).getQualifiedName().toString();
+            if(packageName != null && !packageName.equals(elementPackage)) {
+                error("Type of the JSON codec " + codec + " is not in package " + packageName, element);
+            }
+            packageName = elementPackage;
+            final JsonType type = parse(element);
+            types.put(type.name, type);
+            if(isReadable(element)) {
+                readTypes.add(type.name);
+            }
+        }
+        for(final String readType : readTypes) {
+            checkReadable(readTypes, types.get(readType));
+        }
+        if(!this.errors) {
+            write(packageName, codec, generateCodec(codec, types, readTypes), elements);
+        }
+        return true;
+    }
+
+    private void error(final String message, final Element element) {
+        this.errors = true;
+        this.processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Read the properties of the given annotated type.
+     *
+     * @param element the type.
+     * @return the {@link JsonType}.
+     */
+    private JsonType parse(final TypeElement element) {
+        final JsonType type = new JsonType(element, element.getSimpleName().toString(),
+                                           element.getTypeParameters().isEmpty() ? null : element.getTypeParameters().get(0).getSimpleName().toString());
+        for(final VariableElement field : ElementFilter.fieldsIn(element.getEnclosedElements())) {
+            if(field.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            } // else: the field is a property with a public getter.
+            final JsonProperty property = new JsonProperty(field, field.getSimpleName().toString(), typeName(field.asType()));
+            final ExecutableElement getter = findMethod(element, property.getter(), 0);
+            if(getter == null || !typeName(getter.getReturnType()).equals(property.type)) {
+                error("Missing public getter " + property.getter() + " of field " + property.name, field);
+            }
+            type.properties.put(property.name, property);
+        }
+        return type;
+    }
+
+    /**
+     * Check if the given type is annotated as readable.
+     *
+     * @param element the annotated type.
+     * @return the value of {@code readable}.
+     */
+    private static boolean isReadable(final TypeElement element) {
+        for(final AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            if(((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().contentEquals(ANNOTATION)) {
+                for(final Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotation.getElementValues().entrySet()) {
+                    if(value.getKey().getSimpleName().contentEquals("readable")) {
+                        return Boolean.TRUE.equals(value.getValue().getValue());
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check that the given read type can be read with its setters.
+     *
+     * @param readTypes the names of the read types.
+     * @param type the read type.
+     */
+    private void checkReadable(final Set<String> readTypes, final JsonType type) {
+        if(type.typeParameter != null) {
+            error("Readable type " + type.name + " must not be generic", type.element);
+        } else if(ElementFilter.constructorsIn(type.element.getEnclosedElements()).stream()
+                                .noneMatch(constructor -> constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC))) {
+            error("Readable type " + type.name + " needs a public constructor without parameters", type.element);
+        } // else: check all properties.
+        for(final JsonProperty property : type.properties.values()) {
+            final String valueType = property.elementType() != null ? property.elementType() : property.type;
+            final ExecutableElement setter = findMethod(type.element, property.setter(), 1);
+            if(setter == null || !typeName(setter.getParameters().get(0).asType()).equals(property.type)) {
+                error("Missing public setter " + property.setter() + " of field " + property.name + " of readable type " + type.name, property.field);
+            } else if(!valueType.equals(STRING) && !valueType.equals(BOOLEAN) && !valueType.equals(DOUBLE) && !valueType.equals("boolean")
+                      && !readTypes.contains(valueType)) {
+                error("Field " + property.name + " of readable type " + type.name + " has unsupported type " + property.type, property.field);
+            }
+        }
+    }
+
+    /**
+     * Find a public method of the given type.
+     *
+     * @param element the type.
+     * @param name the name of the method.
+     * @param parameters the number of parameters.
+     * @return the method, {@code null} if not existing.
+     */
+    private static ExecutableElement findMethod(final TypeElement element, final String name, final int parameters) {
+        for(final ExecutableElement method : ElementFilter.methodsIn(element.getEnclosedElements())) {
+            if(method.getSimpleName().contentEquals(name) && method.getParameters().size() == parameters && method.getModifiers().contains(Modifier.PUBLIC)) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the name of the given type as used in the generated source, which imports all used types.
+     *
+     * @param type the type.
+     * @return the simple name with the simple names of its type arguments, e.g. {@code List<LanguageTO>}.
+     */
+    private static String typeName(final TypeMirror type) {
+        if(!(type instanceof DeclaredType)) {
+            // primitives and type variables.
+            return type.toString();
+        } // else: a class with its type arguments.
+        final DeclaredType declaredType = (DeclaredType) type;
+        final String name = declaredType.asElement().getSimpleName().toString();
+        final List<? extends TypeMirror> typeArguments = declaredType.getTypeArguments();
+        return typeArguments.isEmpty() ? name : name + typeArguments.stream().map(JsonCodecProcessor::typeName).collect(Collectors.joining(", ", "<", ">"));
+    }
+
+    /**
+     * Write the source of the codec.
+     *
+     * @param packageName the package of the codec.
+     * @param codec the simple name of the codec.
+     * @param source the Java source.
+     * @param elements the types of the codec.
+     */
+    private void write(final String packageName, final String codec, final String source, final Set<TypeElement> elements) {
+        try(Writer writer = this.processingEnv.getFiler().createSourceFile(packageName + "." + codec, elements.toArray(new Element[0])).openWriter()) {
+            writer.write("package " + packageName + ";\n\n" + source);
+        } catch(final IOException e) {
+            throw new UncheckedIOException("The JSON codec " + codec + " cannot be written", e);
+        }
+    }
+
+    /**
+     * Generate the source of the codec without its package declaration.
+     *
+     * @param codec the simple name of the codec.
+     * @param types all types by name.
+     * @param readTypes the names of the read types.
+     * @return the Java source.
+     */
+    private static String generateCodec(final String codec, final Map<String, JsonType> types, final Set<String> readTypes) {
+        final Map<String, String> names = new TreeMap<>();
+        final Set<String> listReaders = new LinkedHashSet<>();
+        for(final JsonType type : types.values()) {
+            for(final JsonProperty property : type.properties.values()) {
+                names.put(property.name, constant(property.name));
+                if(readTypes.contains(type.name) && property.elementType() != null && !property.elementType().equals(STRING)) {
+                    listReaders.add(property.elementType());
+                }
+            }
+        }
+        final StringBuilder source = new StringBuilder();
+        source.append("import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;\n")
+              .append("import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;\n")
+              .append("import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;\n")
+              .append("import de.exxcellent.microservices.showcase.common.json.JsonReader;\n")
+              .append("import de.exxcellent.microservices.showcase.common.json.JsonWriter;\n\n")
+              .append("import java.util.ArrayList;\n")
+              .append("import java.util.Collection;\n")
+              .append("import java.util.List;\n\n")
+              .append("/**\n")
+              .append(" * The JSON codec of the types annotated with {@code JsonCodecType}, generated by {@code JsonCodecProcessor} while compiling them. Do not edit.\n")
+              .append(" * The types are written with their getters in the order of JSON-B without {@code null} properties, the readable types are read with\n")
+              .append(" * their setters without validation, which is done once by the service receiving them.\n")
+              .append(" */\n")
+              .append("public final class ").append(codec).append(" {\n");
+        for(final Map.Entry<String, String> name : names.entrySet()) {
+            source.append("    private static final byte[] ").append(name.getValue()).append(" = JsonWriter.encodeName(\"").append(name.getKey()).append("\");\n");
+        }
+        source.append("\n    /**\n     * private constructor to hide implicit public one.\n")
+              .append("     * @exception TechnicalException when class is tried to be instantiated.\n     */\n")
+              .append("    private ").append(codec).append("() {\n")
+              .append("        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, \"").append(codec)
+              .append(" is a utility class with static methods and must not be instantiated\");\n")
+              .append("    }\n\n");
+        generateSupport(source, types.keySet(), readTypes);
+        generateDispatch(source, types, readTypes);
+        for(final JsonType type : types.values()) {
+            generateWriter(source, type);
+        }
+        for(final String readType : readTypes) {
+            generateReader(source, types.get(readType));
+        }
+        for(final String elementType : listReaders) {
+            source.append("\n    private static List<").append(elementType).append("> read").append(elementType).append("s(final JsonReader reader) {\n")
+                  .append("        final List<").append(elementType).append("> values = new ArrayList<>();\n")
+                  .append("        reader.beginArray();\n")
+                  .append("        while(reader.hasNext()) {\n")
+                  .append("            values.add(reader.readNull() ? null : read").append(elementType).append("(reader));\n")
+                  .append("        }\n")
+                  .append("        return values;\n")
+                  .append("    }\n");
+        }
+        source.append("\n    /**\n     * Read an array of strings.\n     *\n     * @param reader the {@link JsonReader}.\n")
+              .append("     * @return the strings, {@code null} for {@code null} values.\n")
+              .append("     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is no array of strings.\n     */\n")
+              .append("    public static List<String> readStrings(final JsonReader reader) {\n")
+              .append("        final List<String> values = new ArrayList<>();\n")
+              .append("        reader.beginArray();\n")
+              .append("        while(reader.hasNext()) {\n")
+              .append("            values.add(reader.readNull() ? null : reader.readString());\n")
+              .append("        }\n")
+              .append("        return values;\n")
+              .append("    }\n");
+        return source.append("}\n").toString();
+    }
+
+    private static void generateSupport(final StringBuilder source, final Set<String> types, final Set<String> readTypes) {
+        source.append("    /**\n     * Check if values of the given class can be written.\n     *\n     * @param type the class.\n")
+              .append("     * @return {@code true} for the API types (not for subclasses of them, whose further properties would be missing).\n     */\n")
+              .append("    public static boolean isWriteable(final Class<?> type) {\n")
+              .append("        return ").append(types.stream().map(type -> "type == " + type + ".class").collect(Collectors.joining("\n               || ")))
+              .append(";\n    }\n\n")
+              .append("    /**\n     * Check if values of the given class can be read.\n     *\n     * @param type the class.\n")
+              .append("     * @return {@code true} for the types of the request bodies.\n     */\n")
+              .append("    public static boolean isReadable(final Class<?> type) {\n")
+              .append("        return ").append(readTypes.isEmpty() ? "false" : readTypes.stream().map(type -> "type == " + type + ".class").collect(Collectors.joining(" || ")))
+              .append(";\n    }\n\n");
+    }
+
+    private static void generateDispatch(final StringBuilder source, final Map<String, JsonType> types, final Set<String> readTypes) {
+        source.append("    /**\n     * Write the given value.\n     *\n     * @param writer the {@link JsonWriter}.\n")
+              .append("     * @param value the value: an API type, a string, a collection of them or {@code null}.\n")
+              .append("     * @exception TechnicalException with {@link ErrorCode#INTERNAL_ERROR} if the value (or an item of it) cannot be written.\n     */\n")
+              .append("    public static void write(final JsonWriter writer, final Object value) {\n")
+              .append("        if(value == null) {\n")
+              .append("            writer.nullValue();\n");
+        for(final JsonType type : types.values()) {
+            source.append("        } else if(value instanceof ").append(type.name).append(") {\n")
+                  .append("            write").append(type.name).append("(writer, (").append(type.parameterType()).append(") value);\n");
+        }
+        source.append("        } else if(value instanceof String) {\n")
+              .append("            writer.value((String) value);\n")
+              .append("        } else if(value instanceof Collection) {\n")
+              .append("            writer.beginArray();\n")
+              .append("            for(final Object item : (Collection<?>) value) {\n")
+              .append("                write(writer, item);\n")
+              .append("            }\n")
+              .append("            writer.endArray();\n")
+              .append("        } else {\n")
+              .append("            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, \"Cannot write \" + value.getClass().getName() + \" as JSON\");\n")
+              .append("        }\n")
+              .append("    }\n\n")
+              .append("    /**\n     * Read a value of the given class.\n     *\n     * @param reader the {@link JsonReader}.\n")
+              .append("     * @param type the class of the value, see {@link #isReadable(Class)}.\n")
+              .append("     * @return the value, not validated.\n")
+              .append("     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is no valid representation of the class.\n     */\n")
+              .append("    public static Object read(final JsonReader reader, final Class<?> type) {\n");
+        String keyword = "if";
+        for(final String type : readTypes) {
+            source.append("        ").append(keyword).append("(type == ").append(type).append(".class) {\n")
+                  .append("            return read").append(type).append("(reader);\n");
+            keyword = "} else if";
+        }
+        source.append(readTypes.isEmpty() ? "        {\n" : "        } else {\n")
+              .append("            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, \"Cannot read \" + type.getName() + \" from JSON\");\n")
+              .append("        }\n")
+              .append("    }\n");
+    }
+
+    private static void generateWriter(final StringBuilder source, final JsonType type) {
+        source.append("\n    public static void write").append(type.name).append("(final JsonWriter writer, final ").append(type.parameterType()).append(" value) {\n")
+              .append("        writer.beginObject();\n");
+        for(final JsonProperty property : type.properties.values()) {
+            final String valueType = property.type.equals(type.typeParameter) ? "Object"
+                                                                              : property.type.replace("<" + type.typeParameter + ">", "<?>");
+            final String nameConstant = constant(property.name);
+            if(property.isPrimitive()) {
+                source.append("        writer.name(").append(nameConstant).append(");\n")
+                      .append("        writer.value(value.").append(property.getter()).append("());\n");
+                continue;
+            } // else: the property is left out if null.
+            source.append("        final ").append(valueType).append(' ').append(property.name).append(" = value.").append(property.getter()).append("();\n")
+                  .append("        if(").append(property.name).append(" != null) {\n")
+                  .append("            writer.name(").append(nameConstant).append(");\n");
+            final String elementType = property.elementType();
+            if(elementType != null) {
+                final String itemType = elementType.equals(type.typeParameter) ? "Object" : elementType;
+                source.append("            writer.beginArray();\n")
+                      .append("            for(final ").append(itemType).append(" item : ").append(property.name).append(") {\n");
+                if(itemType.equals("Object")) {
+                    source.append("                write(writer, item);\n");
+                } else {
+                    source.append("                if(item == null) {\n")
+                          .append("                    writer.nullValue();\n")
+                          .append("                } else {\n")
+                          .append("                    ").append(writeValue(itemType, "item")).append('\n')
+                          .append("                }\n");
+                }
+                source.append("            }\n")
+                      .append("            writer.endArray();\n");
+            } else {
+                source.append("            ").append(writeValue(valueType, property.name)).append('\n');
+            }
+            source.append("        }\n");
+        }
+        source.append("        writer.endObject();\n")
+              .append("    }\n");
+    }
+
+    /**
+     * Generate the statement writing a value which is not {@code null}.
+     *
+     * @param type the type of the value, {@code Object} for values of a type parameter.
+     * @param value the expression of the value.
+     * @return the statement.
+     */
+    private static String writeValue(final String type, final String value) {
+        if(type.equals(STRING) || type.equals(DOUBLE) || type.equals(BOOLEAN)) {
+            return "writer.value(" + value + ");";
+        } else if(type.equals("Object")) {
+            return "write(writer, " + value + ");";
+        } // else: an API type.
+        return "write" + type + "(writer, " + value + ");";
+    }
+
+    private static void generateReader(final StringBuilder source, final JsonType type) {
+        source.append("\n    public static ").append(type.name).append(" read").append(type.name).append("(final JsonReader reader) {\n")
+              .append("        final ").append(type.name).append(" value = new ").append(type.name).append("();\n")
+              .append("        reader.beginObject();\n")
+              .append("        for(String name = reader.nextName(); name != null; name = reader.nextName()) {\n")
+              .append("            if(reader.readNull()) {\n")
+              .append("                continue;\n")
+              .append("            } // else: read the value of a known property.\n")
+              .append("            switch(name) {\n");
+        for(final JsonProperty property : type.properties.values()) {
+            final String elementType = property.elementType();
+            final String read;
+            if(elementType != null) {
+                read = elementType.equals(STRING) ? "readStrings(reader)" : "read" + elementType + "s(reader)";
+            } else if(property.type.equals(STRING)) {
+                read = "reader.readString()";
+            } else if(property.type.equals(DOUBLE)) {
+                read = "reader.readDouble()";
+            } else if(property.type.equals(BOOLEAN) || property.type.equals("boolean")) {
+                read = "reader.readBoolean()";
+            } else {
+                read = "read" + property.type + "(reader)";
+            }
+            source.append("                case \"").append(property.name).append("\":\n")
+                  .append("                    value.").append(property.setter()).append('(').append(read).append(");\n")
+                  .append("                    break;\n");
+        }
+        source.append("                default:\n")
+              .append("                    reader.skipValue();\n")
+              .append("            }\n")
+              .append("        }\n")
+              .append("        return value;\n")
+              .append("    }\n");
+    }
+
+    /**
+     * Get the name of the constant of the given property name, e.g. {@code DISPLAY_NAME} for {@code displayName}.
+     *
+     * @param name the name of the property.
+     * @return the name of the constant.
+     */
+    private static String constant(final String name) {
+        return name.replaceAll("([a-z])([A-Z])", "$1_$2").toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * An annotated type with its properties.
+     */
+    private static final class JsonType {
+        private final TypeElement element;
+        private final String name;
+        /**
+         * The name of the type parameter, {@code null} if the type is not generic.
+         */
+        private final String typeParameter;
+        /**
+         * The properties by name, in lexicographical order like written by JSON-B.
+         */
+        private final Map<String, JsonProperty> properties = new TreeMap<>();
+
+        private JsonType(final TypeElement element, final String name, final String typeParameter) {
+            this.element = element;
+            this.name = name;
+            this.typeParameter = typeParameter;
+        }
+
+        /**
+         * Get the type of parameters holding values of this type.
+         *
+         * @return the name, with a wildcard if the type is generic.
+         */
+        private String parameterType() {
+            return this.typeParameter != null ? this.name + "<?>" : this.name;
+        }
+    }
+
+    /**
+     * A property of an annotated type, backed by a field.
+     */
+    private static final class JsonProperty {
+        private final VariableElement field;
+        private final String name;
+        private final String type;
+
+        private JsonProperty(final VariableElement field, final String name, final String type) {
+            this.field = field;
+            this.name = name;
+            this.type = type;
+        }
+
+        private boolean isPrimitive() {
+            return Character.isLowerCase(this.type.charAt(0));
+        }
+
+        private String getter() {
+            return (this.type.equals("boolean") ? "is" : "get") + capitalizedName();
+        }
+
+        private String setter() {
+            return "set" + capitalizedName();
+        }
+
+        private String capitalizedName() {
+            return Character.toUpperCase(this.name.charAt(0)) + this.name.substring(1);
+        }
+
+        /**
+         * Get the element type of a list.
+         *
+         * @return the element type, {@code null} if the property is no list.
+         */
+        private String elementType() {
+            final Matcher list = LIST.matcher(this.type);
+            return list.matches() ? list.group(1) : null;
+        }
+    }
+}
@@ -0,0 +1,334 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * Compiles the reference data from the tab separated source files in {@code src/main/reference} into the lookup tables {@code ReferenceTables}
+ * (generated Java source) and the names of the languages with their display names {@code reference-data.bin} read by {@link ReferenceDataset}.
+ * Is compiled and run by the build before the application is compiled (phase {@code generate-sources}), so it only depends on the JDK.
+ * <p>
+ * Each line of the languages file contains the short name and the name of a language, each line of the countries file
+ * the short name of a country and the short name of its language, followed by optional columns which are ignored.
+ * Each line of the display names file contains the short name of a language, the language tag of a display locale and the name in this locale.
+ * Empty lines and lines starting with {@code #} are skipped.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class ReferenceDatasetGenerator {
+    /**
+     * The separator of the columns.
+     */
+    private static final String SEPARATOR = "\t";
+    /**
+     * The magic number at the start of each dataset: {@code LREF}, see {@link ReferenceDataset}.
+     */
+    private static final int MAGIC = 0x4C524546;
+    /**
+     * The version of the dataset format, see {@link ReferenceDataset}.
+     */
+    private static final int FORMAT_VERSION = 3;
+    /**
+     * The package of the generated lookup tables.
+     */
+    private static final String PACKAGE = ReferenceDatasetGenerator.class.getPackage().getName();
+    /**
+     * The number of table entries initialized per generated method, so each method stays far below the byte code limit of 64 KB.
+     */
+    private static final int ENTRIES_PER_METHOD = 2000;
+
+    /**
+     * private constructor to hide implicit public one.
+     */
+    private ReferenceDatasetGenerator() {
+        throw new IllegalStateException("ReferenceDatasetGenerator is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Compile the reference data.
+     *
+     * @param args the languages file, the countries file, the display names file, the source directory of the lookup tables and the dataset file.
+     * @throws IOException if a file cannot be read or written.
+     */
+    public static void main(final String[] args) throws IOException {
+        if(args.length != 5) {
+            throw new IllegalArgumentException("Usage: ReferenceDatasetGenerator <languages.tsv> <countries.tsv> <display-names.tsv> <source directory> <dataset>");
+        } // else: read the source files, countries refer to the languages by their index.
+        final Map<String, String> languages = readColumns(Paths.get(args[0]), true);
+        final Map<String, String> countries = readColumns(Paths.get(args[1]), false);
+        final List<String> languageShortNames = new ArrayList<>(languages.keySet());
+        final int[] countryLanguages = new int[countries.size()];
+        int index = 0;
+        for(final Map.Entry<String, String> country : countries.entrySet()) {
+            countryLanguages[index] = languageShortNames.indexOf(country.getValue());
+            if(countryLanguages[index++] < 0) {
+                throw new IllegalArgumentException("Country " + country.getKey() + " refers to unknown language " + country.getValue());
+            }
+        }
+        final Map<String, Map<String, String>> displayNames = readDisplayNames(Paths.get(args[2]), languages);
+        final byte[] dataset = encode(languages, displayNames);
+        final int datasetChecksum = ByteBuffer.wrap(dataset).getInt(dataset.length - Integer.BYTES);
+        final Path sourceFile = Paths.get(args[3]).resolve(PACKAGE.replace('.', '/')).resolve("ReferenceTables.java");
+        Files.createDirectories(sourceFile.getParent());
+        Files.write(sourceFile, generateTables(languageShortNames, new ArrayList<>(countries.keySet()), countryLanguages, datasetChecksum)
+                        .getBytes(StandardCharsets.UTF_8));
+        final Path datasetFile = Paths.get(args[4]);
+        Files.createDirectories(datasetFile.getParent());
+        Files.write(datasetFile, dataset);
+    }
+
+    /**
+     * Read the first two columns of the given source file, normalizing the short names.
+     *
+     * @param file the source file.
+     * @param languages {@code true} for the languages file (short names in lower case), {@code false} for the countries file (upper case).
+     * @return the second column by the first column, ordered by the short names and thus by their packed keys.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Map<String, String> readColumns(final Path file, final boolean languages) throws IOException {
+        final Map<String, String> columns = new TreeMap<>();
+        int lineNumber = 0;
+        for(final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            } // else: the line contains an entry.
+            final String[] column = line.split(SEPARATOR, -1);
+            if(column.length < 2 || column[1].isEmpty()) {
+                throw new IllegalArgumentException("Missing column in line " + lineNumber + " of " + file);
+            } // else: add the entry.
+            final String shortName = languages ? column[0].toLowerCase(Locale.ROOT) : column[0].toUpperCase(Locale.ROOT);
+            final String value = languages ? column[1] : column[1].toLowerCase(Locale.ROOT);
+            if(!shortName.matches(languages ? "[a-z]{3}" : "[A-Z]{3}") || (!languages && !value.matches("[a-z]{3}"))) {
+                throw new IllegalArgumentException("Invalid short name in line " + lineNumber + " of " + file);
+            } else if(columns.put(shortName, value) != null) {
+                throw new IllegalArgumentException("Duplicate short name " + shortName + " in line " + lineNumber + " of " + file);
+            }
+        }
+        return columns;
+    }
+
+    /**
+     * Read the display names file. Names equal to the name of the language are skipped, as the name is used if a language has no display name.
+     *
+     * @param file the display names file.
+     * @param languages the names of the languages by their short name.
+     * @return the display names by the short name of their language by the language tag of their display locale, both ordered.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Map<String, Map<String, String>> readDisplayNames(final Path file, final Map<String, String> languages) throws IOException {
+        final Map<String, Map<String, String>> displayNames = new TreeMap<>();
+        int lineNumber = 0;
+        for(final String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            lineNumber++;
+            if(line.isEmpty() || line.startsWith("#")) {
+                continue;
+            } // else: the line contains a display name.
+            final String[] column = line.split(SEPARATOR, -1);
+            if(column.length < 3 || column[2].isEmpty()) {
+                throw new IllegalArgumentException("Missing column in line " + lineNumber + " of " + file);
+            } // else: add the display name.
+            final String shortName = column[0].toLowerCase(Locale.ROOT);
+            final String tag = Locale.forLanguageTag(column[1]).toLanguageTag();
+            if(!languages.containsKey(shortName)) {
+                throw new IllegalArgumentException("Unknown language " + shortName + " in line " + lineNumber + " of " + file);
+            } else if(!tag.equals(column[1]) || "und".equals(tag) || "en".equals(tag)) {
+                throw new IllegalArgumentException("Invalid language tag " + column[1] + " in line " + lineNumber + " of " + file);
+            } else if(column[2].equals(languages.get(shortName))) {
+                continue;
+            } else if(displayNames.computeIfAbsent(tag, locale -> new TreeMap<>()).put(shortName, column[2]) != null) {
+                throw new IllegalArgumentException("Duplicate display name of " + shortName + " in line " + lineNumber + " of " + file);
+            }
+        }
+        return displayNames;
+    }
+
+    /**
+     * Encode the names of the languages and their display names in the format of {@link ReferenceDataset}.
+     *
+     * @param languages the names of the languages in the order of their short names.
+     * @param displayNames the display names by the short name of their language by the language tag of their display locale.
+     * @return the encoded dataset including its checksum.
+     */
+    private static byte[] encode(final Map<String, String> languages, final Map<String, Map<String, String>> displayNames) {
+        final ByteArrayOutputStream names = new ByteArrayOutputStream();
+        final ByteBuffer offsets = ByteBuffer.allocate((languages.size() + 1) * Integer.BYTES);
+        for(final String name : languages.values()) {
+            offsets.putInt(names.size());
+            final byte[] encodedName = name.getBytes(StandardCharsets.UTF_8);
+            names.write(encodedName, 0, encodedName.length);
+        }
+        offsets.putInt(names.size());
+        final byte[] localizedNames = encodeDisplayNames(new ArrayList<>(languages.keySet()), displayNames);
+        final ByteBuffer dataset = ByteBuffer.allocate(3 * Integer.BYTES + offsets.capacity() + names.size() + localizedNames.length + Integer.BYTES);
+        dataset.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(languages.size()).put(offsets.array()).put(names.toByteArray()).put(localizedNames);
+        final CRC32 checksum = new CRC32();
+        checksum.update(dataset.array(), 0, dataset.position());
+        dataset.putInt((int) checksum.getValue());
+        return dataset.array();
+    }
+
+    /**
+     * Encode the display names in the format of {@link ReferenceDataset}: the languages with a display name of each locale
+     * as compressed sparse rows referring to a string table, which contains each distinct name (and language tag) only once.
+     *
+     * @param languageShortNames the short names of the languages in ascending order.
+     * @param displayNames the display names by the short name of their language by the language tag of their display locale, both ordered.
+     * @return the encoded display names section.
+     */
+    private static byte[] encodeDisplayNames(final List<String> languageShortNames, final Map<String, Map<String, String>> displayNames) {
+        final Map<String, Integer> stringIds = new HashMap<>();
+        final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        final List<Integer> stringOffsets = new ArrayList<>();
+        final int entryCount = displayNames.values().stream().mapToInt(Map::size).sum();
+        final int[] tags = new int[displayNames.size()];
+        final int[] entryOffsets = new int[displayNames.size() + 1];
+        final int[] entryLanguages = new int[entryCount];
+        final int[] entryNames = new int[entryCount];
+        int locale = 0;
+        int entry = 0;
+        for(final Map.Entry<String, Map<String, String>> localeNames : displayNames.entrySet()) {
+            tags[locale] = stringId(localeNames.getKey(), stringIds, stringOffsets, pool);
+            entryOffsets[locale++] = entry;
+            for(final Map.Entry<String, String> displayName : localeNames.getValue().entrySet()) {
+                entryLanguages[entry] = Collections.binarySearch(languageShortNames, displayName.getKey());
+                entryNames[entry++] = stringId(displayName.getValue(), stringIds, stringOffsets, pool);
+            }
+        }
+        entryOffsets[locale] = entry;
+        stringOffsets.add(pool.size());
+        final ByteBuffer section = ByteBuffer.allocate((2 + tags.length + entryOffsets.length + 2 * entryCount + stringOffsets.size()) * Integer.BYTES + pool.size());
+        section.putInt(tags.length).putInt(stringOffsets.size() - 1);
+        Arrays.stream(tags).forEach(section::putInt);
+        Arrays.stream(entryOffsets).forEach(section::putInt);
+        Arrays.stream(entryLanguages).forEach(section::putInt);
+        Arrays.stream(entryNames).forEach(section::putInt);
+        stringOffsets.forEach(section::putInt);
+        return section.put(pool.toByteArray()).array();
+    }
+
+    /**
+     * Get the id of the given string in the string table, adding it if not contained yet.
+     *
+     * @param string the string.
+     * @param stringIds the ids of the strings added so far.
+     * @param stringOffsets the offsets of the strings added so far in the pool.
+     * @param pool the string pool (UTF-8).
+     * @return the id of the string.
+     */
+    private static int stringId(final String string, final Map<String, Integer> stringIds, final List<Integer> stringOffsets, final ByteArrayOutputStream pool) {
+        return stringIds.computeIfAbsent(string, added -> {
+            stringOffsets.add(pool.size());
+            final byte[] encodedString = added.getBytes(StandardCharsets.UTF_8);
+            pool.write(encodedString, 0, encodedString.length);
+            return stringOffsets.size() - 1;
+        });
+    }
+
+    /**
+     * Generate the source of the lookup tables.
+     *
+     * @param languageShortNames the short names of the languages in ascending order.
+     * @param countryShortNames the short names of the countries in ascending order.
+     * @param countryLanguages the index of the language of each country.
+     * @param datasetChecksum the checksum of the dataset generated with the tables.
+     * @return the Java source.
+     */
+    private static String generateTables(final List<String> languageShortNames, final List<String> countryShortNames, final int[] countryLanguages,
+                                         final int datasetChecksum) {
+        final int[] languagesOfCountries = Arrays.stream(countryLanguages).distinct().sorted().toArray();
+        final StringBuilder source = new StringBuilder();
+        source.append("package ").append(PACKAGE).append(";\n\n")
+              .append("import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;\n")
+              .append("import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;\n\n")
+              .append("/**\n")
+              .append(" * The lookup tables of the reference data as constants, generated by {@code ReferenceDatasetGenerator} from {@code src/main/reference}. Do not edit.\n")
+              .append(" * The keys are the packed short names (see {@link LanguageKeys}) in ascending order, the tables must not be changed.\n")
+              .append(" */\n")
+              .append("final class ReferenceTables {\n")
+              .append("    /**\n     * The checksum of the {@link ReferenceDataset} generated with these tables.\n     */\n")
+              .append(String.format("    static final int DATASET_CHECKSUM = 0x%08X;%n", datasetChecksum))
+              .append("    /**\n     * The keys of all languages in ascending order. The index of a language is its index in the {@link ReferenceDataset}.\n     */\n")
+              .append("    static final int[] LANGUAGE_KEYS = new int[").append(languageShortNames.size()).append("];\n")
+              .append("    /**\n     * The keys of all countries in ascending order.\n     */\n")
+              .append("    static final int[] COUNTRY_KEYS = new int[").append(countryShortNames.size()).append("];\n")
+              .append("    /**\n     * The index of the language of each country of {@link #COUNTRY_KEYS}.\n     */\n")
+              .append("    static final int[] COUNTRY_LANGUAGES = new int[").append(countryShortNames.size()).append("];\n")
+              .append("    /**\n     * The indexes of the languages of all countries in ascending order, the reverse index of {@link #COUNTRY_LANGUAGES}.\n     */\n")
+              .append("    static final int[] LANGUAGES_OF_COUNTRIES = new int[").append(languagesOfCountries.length).append("];\n")
+              .append("    /**\n     * The position of the first country of each language of {@link #LANGUAGES_OF_COUNTRIES} in {@link #COUNTRIES_BY_LANGUAGE},\n")
+              .append("     * followed by the number of countries.\n     */\n")
+              .append("    static final int[] COUNTRIES_BY_LANGUAGE_OFFSETS = new int[").append(languagesOfCountries.length + 1).append("];\n")
+              .append("    /**\n     * The indexes of the countries of {@link #COUNTRY_KEYS} grouped by their language, in ascending order within each language.\n     */\n")
+              .append("    static final int[] COUNTRIES_BY_LANGUAGE = new int[").append(countryShortNames.size()).append("];\n\n")
+              .append("    static {\n");
+        final int languageMethods = (languageShortNames.size() + ENTRIES_PER_METHOD - 1) / ENTRIES_PER_METHOD;
+        for(int method = 0; method < languageMethods; method++) {
+            source.append("        initLanguages").append(method).append("();\n");
+        }
+        source.append("        initCountries();\n")
+              .append("        initCountriesByLanguage();\n")
+              .append("    }\n\n")
+              .append("    /**\n     * private constructor to hide implicit public one.\n")
+              .append("     * @exception TechnicalException when class is tried to be instantiated.\n     */\n")
+              .append("    private ReferenceTables() {\n")
+              .append("        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, \"ReferenceTables is a class with constants and must not be instantiated\");\n")
+              .append("    }\n");
+        for(int method = 0; method < languageMethods; method++) {
+            source.append("\n    private static void initLanguages").append(method).append("() {\n");
+            for(int i = method * ENTRIES_PER_METHOD; i < Math.min(languageShortNames.size(), (method + 1) * ENTRIES_PER_METHOD); i++) {
+                source.append(String.format("        LANGUAGE_KEYS[%d] = 0x%06X; // %s%n", i, pack(languageShortNames.get(i)), languageShortNames.get(i)));
+            }
+            source.append("    }\n");
+        }
+        source.append("\n    private static void initCountries() {\n");
+        for(int i = 0; i < countryShortNames.size(); i++) {
+            source.append(String.format("        COUNTRY_KEYS[%d] = 0x%06X; // %s%n", i, pack(countryShortNames.get(i)), countryShortNames.get(i)))
+                  .append(String.format("        COUNTRY_LANGUAGES[%d] = %d; // %s%n", i, countryLanguages[i], languageShortNames.get(countryLanguages[i])));
+        }
+        source.append("    }\n\n    private static void initCountriesByLanguage() {\n");
+        for(int i = 0; i < languagesOfCountries.length; i++) {
+            source.append(String.format("        LANGUAGES_OF_COUNTRIES[%d] = %d; // %s%n", i, languagesOfCountries[i], languageShortNames.get(languagesOfCountries[i])));
+        }
+        int position = 0;
+        for(int i = 0; i < languagesOfCountries.length; i++) {
+            source.append(String.format("        COUNTRIES_BY_LANGUAGE_OFFSETS[%d] = %d;%n", i, position));
+            for(int country = 0; country < countryShortNames.size(); country++) {
+                if(countryLanguages[country] == languagesOfCountries[i]) {
+                    source.append(String.format("        COUNTRIES_BY_LANGUAGE[%d] = %d; // %s%n", position++, country, countryShortNames.get(country)));
+                }
+            }
+        }
+        source.append(String.format("        COUNTRIES_BY_LANGUAGE_OFFSETS[%d] = %d;%n", languagesOfCountries.length, position));
+        return source.append("    }\n}\n").toString();
+    }
+
+    /**
+     * Pack a normalized short name like {@link LanguageKeys}: each ASCII character in 8 bits.
+     *
+     * @param shortName the normalized short name (3 ASCII letters).
+     * @return the key.
+     */
+    private static int pack(final String shortName) {
+        int key = 0;
+        for(int i = 0; i < shortName.length(); i++) {
+            key = (key << Byte.SIZE) | shortName.charAt(i);
+        }
+        return key;
+    }
+}
@@ -0,0 +1,36 @@
+package de.exxcellent.microservices.showcase;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs each benchmark once for a short time with a small dataset, so benchmarks failing in their setup or their measured code
+ * are noticed with {@code mvn -Pbenchmark test} instead of only in a long benchmark run. The measured values are not checked.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class BenchmarkSmokeTest {
+
+    @Test
+    void allBenchmarksRun() throws Exception {
+        final Options options = new OptionsBuilder().include("de\\.exxcellent\\.microservices\\.showcase\\..*Benchmark")
+                                                    .forks(0)
+                                                    .warmupIterations(0)
+                                                    .measurementIterations(1)
+                                                    .measurementTime(TimeValue.milliseconds(20))
+                                                    .param("size", "100")
+                                                    .shouldFailOnError(true)
+                                                    .build();
+        final Collection<RunResult> results = new Runner(options).run();
+        assertFalse(results.isEmpty(), "no benchmarks found");
+    }
+}
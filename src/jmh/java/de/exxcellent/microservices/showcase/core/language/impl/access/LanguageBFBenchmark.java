@@ -0,0 +1,123 @@
+package de.exxcellent.microservices.showcase.core.language.impl.access;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
+import de.exxcellent.microservices.showcase.core.language.impl.business.LanguageICI;
+import de.exxcellent.microservices.showcase.core.language.impl.business.LanguageManagerFactory;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageDataset;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.StorageStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the mapping pipelines of the {@link LanguageBF} from the stored entities to the transfer objects for different dataset sizes.
+ * The {@code ...Mapped} benchmarks use a new {@link LanguageBF} per invocation, so the {@link VersionedView}s are built from the storage,
+ * while the {@code ...Cached} benchmarks get the views of the current data version (and the languages resolved by the {@link LanguageMatcher}).
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageBFBenchmark {
+    /**
+     * The number of short names of a lookup and the page size.
+     */
+    private static final int BATCH_SIZE = 50;
+    /**
+     * The language preferences to resolve, a typical {@code Accept-Language} header.
+     */
+    private static final String PREFERENCES = "de-CH, de;q=0.9, fr;q=0.8, en;q=0.7, *;q=0.5";
+
+    @Param({"3", "100", "1000", "10000"})
+    private int size;
+
+    private LanguageICI languageManager;
+    private LanguageBF languageBF;
+    private List<String> languageBatch;
+    private List<String> countryBatch;
+
+    @Setup
+    public void setUp() {
+        this.languageManager = LanguageManagerFactory.create(LanguageDataset.storage(StorageStrategy.SNAPSHOT, this.size));
+        this.languageBF = new LanguageBF(this.languageManager);
+        this.languageBatch = Arrays.asList(LanguageDataset.languageShortNames(this.size)).subList(0, Math.min(BATCH_SIZE, this.size));
+        this.countryBatch = Arrays.asList(LanguageDataset.countryShortNames(this.size)).subList(0, Math.min(BATCH_SIZE, this.size));
+    }
+
+    @Benchmark
+    public Set<LanguageTO> getLanguagesCached() {
+        return this.languageBF.getLanguages();
+    }
+
+    @Benchmark
+    public Set<LanguageTO> getLanguagesMapped() {
+        return new LanguageBF(this.languageManager).getLanguages();
+    }
+
+    @Benchmark
+    public Set<CountryWithLanguageCTO> getCountriesWithLanguageCached() {
+        return this.languageBF.getCountriesWithLanguage();
+    }
+
+    @Benchmark
+    public Set<CountryWithLanguageCTO> getCountriesWithLanguageMapped() {
+        return new LanguageBF(this.languageManager).getCountriesWithLanguage();
+    }
+
+    @Benchmark
+    public PageCTO<LanguageTO> getLanguagePage() {
+        return this.languageBF.getLanguagePage(null, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public PageCTO<CountryWithLanguageCTO> getCountriesWithLanguagePage() {
+        return this.languageBF.getCountriesWithLanguagePage(null, BATCH_SIZE);
+    }
+
+    @Benchmark
+    public LanguageTO getLanguage() {
+        return this.languageBF.getLanguage("deu");
+    }
+
+    @Benchmark
+    public LookupResultCTO<LanguageTO> lookupLanguages() {
+        return this.languageBF.getLanguages(this.languageBatch);
+    }
+
+    @Benchmark
+    public LookupResultCTO<CountryWithLanguageCTO> lookupCountriesWithLanguage() {
+        return this.languageBF.getCountriesWithLanguage(this.countryBatch);
+    }
+
+    @Benchmark
+    public LanguageMatchCTO resolveLanguageCached() {
+        return this.languageBF.resolveLanguage(PREFERENCES, "FRA");
+    }
+
+    @Benchmark
+    public LanguageMatchCTO resolveLanguageMapped() {
+        return new LanguageBF(this.languageManager).resolveLanguage(PREFERENCES, "FRA");
+    }
+}
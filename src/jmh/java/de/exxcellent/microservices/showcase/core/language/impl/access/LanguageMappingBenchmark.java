@@ -0,0 +1,70 @@
+package de.exxcellent.microservices.showcase.core.language.impl.access;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the overhead of the {@link LanguageMapper} and the {@link LanguageValidation} per object.
+ * The {@code ...Validated} benchmarks show the costs of mapping together with the validation done on the write path.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageMappingBenchmark {
+
+    private final LanguageET languageET = new LanguageET("deu", "German");
+    private final LanguageTO languageTO = new LanguageTO("deu", "German");
+
+    @Benchmark
+    public LanguageTO toTO() {
+        return LanguageMapper.toTO(this.languageET);
+    }
+
+    @Benchmark
+    public LanguageET fromTO() {
+        return LanguageMapper.fromTO(this.languageTO);
+    }
+
+    @Benchmark
+    public LanguageET fromTOValidated() {
+        LanguageValidation.validateLanguageTO(this.languageTO);
+        final LanguageET language = LanguageMapper.fromTO(this.languageTO);
+        LanguageValidation.validateLanguageET(language);
+        return language;
+    }
+
+    @Benchmark
+    public LanguageTO validateLanguageTO() {
+        LanguageValidation.validateLanguageTO(this.languageTO);
+        return this.languageTO;
+    }
+
+    @Benchmark
+    public LanguageET validateLanguageET() {
+        LanguageValidation.validateLanguageET(this.languageET);
+        return this.languageET;
+    }
+
+    @Benchmark
+    public String checkShortNameASCII() {
+        LanguageValidation.checkShortNameASCII(this.languageTO.getShortName());
+        return this.languageTO.getShortName();
+    }
+}
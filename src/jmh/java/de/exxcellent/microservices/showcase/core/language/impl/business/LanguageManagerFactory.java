@@ -0,0 +1,31 @@
+package de.exxcellent.microservices.showcase.core.language.impl.business;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageRepository;
+
+/**
+ * Creates {@link LanguageManager}s outside of the CDI container, so the benchmarks of other packages can wire the layers by hand.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class LanguageManagerFactory {
+
+    /**
+     * Private constructor. Must not be used.
+     */
+    private LanguageManagerFactory() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "LanguageManagerFactory is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Create a {@link LanguageManager} using the given {@link LanguageRepository}.
+     *
+     * @param languageRepository the {@link LanguageRepository}.
+     * @return the {@link LanguageManager} as {@link LanguageICI}.
+     */
+    public static LanguageICI create(final LanguageRepository languageRepository) {
+        return new LanguageManager(languageRepository);
+    }
+}
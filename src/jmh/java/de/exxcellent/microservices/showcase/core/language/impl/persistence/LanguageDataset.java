@@ -0,0 +1,190 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Generates deterministic datasets of languages and countries for the benchmarks and creates {@link LanguageRuntimeStorage}s holding them.
+ * A dataset of a given size contains that many languages and that many countries, including three initial ones ({@code deu}, {@code fra}, {@code eng}
+ * and {@code GER}, {@code FRA}, {@code SCO}). The storages are created without the reference data, so they only hold the generated dataset.
+ * The generated short names are three letters, so a dataset holds at most {@value #MAX_SIZE} languages or countries.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class LanguageDataset {
+    /**
+     * The number of different three letter short names.
+     */
+    public static final int MAX_SIZE = 26 * 26 * 26;
+    /**
+     * The short names of the initial languages.
+     */
+    private static final Set<String> INITIAL_LANGUAGES = new HashSet<>(Arrays.asList("deu", "fra", "eng"));
+    /**
+     * The short names of the initial countries, using the initial languages in turn.
+     */
+    private static final Set<String> INITIAL_COUNTRIES = new HashSet<>(Arrays.asList("GER", "FRA", "SCO"));
+
+    /**
+     * Private constructor. Must not be used.
+     */
+    private LanguageDataset() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "LanguageDataset is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Create a {@link LanguageRuntimeStorage} holding a dataset of the given size.
+     *
+     * @param strategy the {@link StorageStrategy} of the storage.
+     * @param size the number of languages and countries, at least 3.
+     * @return the storage as {@link LanguageRepository}.
+     */
+    public static LanguageRepository storage(final StorageStrategy strategy, final int size) {
+        final LanguageRepository storage = new LanguageRuntimeStorage(strategy, Optional.empty(), 1, false);
+        storage.addCountryWithLanguage("GER", new LanguageET("deu", "German"));
+        storage.addCountryWithLanguage("FRA", new LanguageET("fra", "French"));
+        storage.addCountryWithLanguage("SCO", new LanguageET("eng", "English"));
+        final List<LanguageET> languages = languages(size);
+        storage.addAll(languages, countriesWithLanguage(languages, size));
+        return storage;
+    }
+
+    /**
+     * Generate the languages of a dataset of the given size, without the initial ones.
+     *
+     * @param size the number of languages of the dataset, at least 3.
+     * @return the generated languages in ascending order of their short names.
+     */
+    public static List<LanguageET> languages(final int size) {
+        final List<LanguageET> languages = new ArrayList<>(size);
+        for(final String shortName : shortNames(size - INITIAL_LANGUAGES.size(), INITIAL_LANGUAGES, 0)) {
+            languages.add(new LanguageET(shortName, "Language " + shortName));
+        }
+        return languages;
+    }
+
+    /**
+     * Generate the countries of a dataset of the given size, without the initial ones.
+     * The countries use the given languages in turn.
+     *
+     * @param languages the languages of the countries, see {@link #languages(int)}.
+     * @param size the number of countries of the dataset, at least 3.
+     * @return the generated countries with their language in ascending order of their short names.
+     */
+    public static Map<String, LanguageET> countriesWithLanguage(final List<LanguageET> languages, final int size) {
+        final Map<String, LanguageET> countriesWithLanguage = new LinkedHashMap<>();
+        final List<String> countries = countryShortNames(size - INITIAL_COUNTRIES.size(), 0);
+        for(int i = 0; i < countries.size(); i++) {
+            countriesWithLanguage.put(countries.get(i), languages.get(i % languages.size()));
+        }
+        return countriesWithLanguage;
+    }
+
+    /**
+     * Get the short names of all languages of a dataset of the given size.
+     *
+     * @param size the number of languages of the dataset, at least 3.
+     * @return the short names, the initial ones first.
+     */
+    public static String[] languageShortNames(final int size) {
+        final List<String> shortNames = new ArrayList<>(INITIAL_LANGUAGES);
+        shortNames.addAll(shortNames(size - INITIAL_LANGUAGES.size(), INITIAL_LANGUAGES, 0));
+        return shortNames.toArray(new String[0]);
+    }
+
+    /**
+     * Get the short names of all countries of a dataset of the given size.
+     *
+     * @param size the number of countries of the dataset, at least 3.
+     * @return the short names, the initial ones first.
+     */
+    public static String[] countryShortNames(final int size) {
+        final List<String> shortNames = new ArrayList<>(INITIAL_COUNTRIES);
+        shortNames.addAll(countryShortNames(size - INITIAL_COUNTRIES.size(), 0));
+        return shortNames.toArray(new String[0]);
+    }
+
+    /**
+     * Get country short names which are not part of a dataset of the given size, e.g. to be inserted by a benchmark.
+     *
+     * @param size the number of countries of the dataset, at least 3.
+     * @return all remaining three letter country short names.
+     */
+    public static List<String> unusedCountryShortNames(final int size) {
+        return countryShortNames(MAX_SIZE - size, size - INITIAL_COUNTRIES.size());
+    }
+
+    /**
+     * Get language short names which are not part of a dataset of the given size, e.g. to be inserted by a benchmark.
+     *
+     * @param size the number of languages of the dataset, at least 3.
+     * @return all remaining three letter language short names.
+     */
+    public static List<String> unusedLanguageShortNames(final int size) {
+        return shortNames(MAX_SIZE - size, INITIAL_LANGUAGES, size - INITIAL_LANGUAGES.size());
+    }
+
+    /**
+     * Generate upper case country short names, skipping the initial countries.
+     *
+     * @param count the number of short names.
+     * @param skip the number of generated short names to skip first.
+     * @return the short names.
+     */
+    private static List<String> countryShortNames(final int count, final int skip) {
+        final List<String> shortNames = new ArrayList<>(Math.max(count, 0));
+        for(final String shortName : shortNames(count, toLowerCase(INITIAL_COUNTRIES), skip)) {
+            shortNames.add(shortName.toUpperCase(Locale.ROOT));
+        }
+        return shortNames;
+    }
+
+    /**
+     * Generate lower case three letter short names in ascending order.
+     *
+     * @param count the number of short names.
+     * @param excluded short names which must not be generated.
+     * @param skip the number of generated short names to skip first.
+     * @return the short names, fewer than requested if the three letter short names are exhausted.
+     */
+    private static List<String> shortNames(final int count, final Set<String> excluded, final int skip) {
+        final List<String> shortNames = new ArrayList<>(Math.max(count, 0));
+        int skipped = 0;
+        for(int index = 0; index < MAX_SIZE && shortNames.size() < count; index++) {
+            final String shortName = new String(new char[] {letter(index / (26 * 26)), letter(index / 26), letter(index)});
+            if(excluded.contains(shortName)) {
+                continue;
+            } // else: the short name is generated.
+            if(skipped < skip) {
+                skipped++;
+            } else {
+                shortNames.add(shortName);
+            }
+        }
+        return shortNames;
+    }
+
+    private static char letter(final int index) {
+        return (char) ('a' + index % 26);
+    }
+
+    private static Set<String> toLowerCase(final Set<String> shortNames) {
+        final Set<String> lowerCase = new HashSet<>();
+        for(final String shortName : shortNames) {
+            lowerCase.add(shortName.toLowerCase(Locale.ROOT));
+        }
+        return lowerCase;
+    }
+}
@@ -0,0 +1,66 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the display names of a page of reference languages read from the string table of the {@link ReferenceDataset},
+ * compared with reading the languages themselves.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageDisplayNameBenchmark {
+    /**
+     * The number of languages of a page.
+     */
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"de", "ja", "zh-Hant"})
+    private String locale;
+
+    private LanguageRepository storage;
+    private List<String> shortNames;
+
+    @Setup
+    public void setUp() {
+        this.storage = new LanguageRuntimeStorage(StorageStrategy.SNAPSHOT, Optional.empty(), 1, true);
+        this.shortNames = new ArrayList<>(PAGE_SIZE);
+        // a page in the middle of the reference data, with and without display names.
+        for(final LanguageET language : this.storage.findPage("dan", PAGE_SIZE)) {
+            this.shortNames.add(language.getShortName());
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> findDisplayNames() {
+        return this.storage.findDisplayNames(this.shortNames, this.locale);
+    }
+
+    @Benchmark
+    public Map<String, LanguageET> findByShortNames() {
+        return this.storage.findByShortNames(this.shortNames);
+    }
+}
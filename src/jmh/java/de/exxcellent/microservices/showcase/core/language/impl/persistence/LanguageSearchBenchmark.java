@@ -0,0 +1,65 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the search of languages by name with all ISO 639-3 languages of the {@link ReferenceDataset} and a runtime dataset of the given size,
+ * for short queries matching the start of many words, longer queries matching inside of names and queries without match.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageSearchBenchmark {
+    /**
+     * The maximum number of results of a search.
+     */
+    private static final int LIMIT = 10;
+
+    @Param({"SNAPSHOT", "CONCURRENT"})
+    private StorageStrategy strategy;
+
+    @Param({"0", "10000"})
+    private int size;
+
+    @Param({"a", "ger", "ndebele", "anguage 1", "xyzzy"})
+    private String query;
+
+    private LanguageRepository storage;
+
+    @Setup
+    public void setUp() {
+        this.storage = new LanguageRuntimeStorage(this.strategy, Optional.empty(), 1, true);
+        if(this.size > 0) {
+            final List<LanguageET> languages = LanguageDataset.languages(this.size);
+            this.storage.addAll(languages, LanguageDataset.countriesWithLanguage(languages, this.size));
+        }
+        // builds the index of the reference data.
+        this.storage.findByName(this.query, LIMIT);
+    }
+
+    @Benchmark
+    public List<LanguageET> findByName() {
+        return this.storage.findByName(this.query, LIMIT);
+    }
+}
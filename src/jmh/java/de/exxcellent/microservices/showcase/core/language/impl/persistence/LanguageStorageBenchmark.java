@@ -0,0 +1,123 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the lookups of the {@link LanguageRuntimeStorage} for both {@link StorageStrategy}s and different dataset sizes.
+ * Each invocation looks up the next short name of the dataset, so all entries are hit in turn.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageStorageBenchmark {
+    /**
+     * The number of short names of a batch lookup and the page size.
+     */
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"SNAPSHOT", "CONCURRENT"})
+    private StorageStrategy strategy;
+
+    @Param({"3", "100", "1000", "10000"})
+    private int size;
+
+    private LanguageRepository storage;
+    private String[] languages;
+    private String[] countries;
+    private List<String> languageBatch;
+    private List<String> countryBatch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        this.storage = LanguageDataset.storage(this.strategy, this.size);
+        this.languages = LanguageDataset.languageShortNames(this.size);
+        this.countries = LanguageDataset.countryShortNames(this.size);
+        this.languageBatch = Arrays.asList(this.languages).subList(0, Math.min(BATCH_SIZE, this.size));
+        this.countryBatch = Arrays.asList(this.countries).subList(0, Math.min(BATCH_SIZE, this.size));
+    }
+
+    @Benchmark
+    public Optional<LanguageET> findByShortName() {
+        return this.storage.findByShortName(this.languages[nextIndex()]);
+    }
+
+    @Benchmark
+    public Optional<LanguageET> findByShortNameMissing() {
+        return this.storage.findByShortName("zzz");
+    }
+
+    @Benchmark
+    public Map<String, LanguageET> findByShortNames() {
+        return this.storage.findByShortNames(this.languageBatch);
+    }
+
+    @Benchmark
+    public Optional<LanguageET> findLanguageByCountry() {
+        return this.storage.findLanguageByCountry(this.countries[nextIndex()]);
+    }
+
+    @Benchmark
+    public Map<String, LanguageET> findLanguagesByCountries() {
+        return this.storage.findLanguagesByCountries(this.countryBatch);
+    }
+
+    @Benchmark
+    public Set<String> findCountriesByLanguage() {
+        return this.storage.findCountriesByLanguage(this.languages[nextIndex()]);
+    }
+
+    @Benchmark
+    public List<LanguageET> findPage() {
+        return this.storage.findPage(this.languages[nextIndex()], BATCH_SIZE);
+    }
+
+    @Benchmark
+    public Map<String, LanguageET> findCountriesWithLanguagePage() {
+        return this.storage.findCountriesWithLanguagePage(this.countries[nextIndex()], BATCH_SIZE);
+    }
+
+    @Benchmark
+    public int iterateLanguages() {
+        int count = 0;
+        for(final LanguageET language : this.storage.findAll()) {
+            count += language.getShortName().length();
+        }
+        return count;
+    }
+
+    @Benchmark
+    public long getVersion() {
+        return this.storage.getVersion();
+    }
+
+    private int nextIndex() {
+        final int index = this.next;
+        this.next = index + 1 == this.size ? 0 : index + 1;
+        return index;
+    }
+}
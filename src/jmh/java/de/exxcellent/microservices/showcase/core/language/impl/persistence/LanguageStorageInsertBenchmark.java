@@ -0,0 +1,92 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the inserts into a {@link LanguageRuntimeStorage} for both {@link StorageStrategy}s and different dataset sizes.
+ * The three letter short names are limited, so each invocation inserts into a fresh storage holding the dataset.
+ * The storage is created outside of the measurement, but the created garbage still influences the results of the larger datasets.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageStorageInsertBenchmark {
+    /**
+     * The number of countries inserted by a batch.
+     */
+    private static final int BATCH_SIZE = 100;
+
+    @Param({"SNAPSHOT", "CONCURRENT"})
+    private StorageStrategy strategy;
+
+    @Param({"3", "100", "1000", "10000"})
+    private int size;
+
+    private LanguageRepository storage;
+    private LanguageET newLanguage;
+    private String newCountry;
+    private LanguageET existingLanguage;
+    private Map<String, LanguageET> batch;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        this.newLanguage = new LanguageET(LanguageDataset.unusedLanguageShortNames(this.size).get(0), "New language");
+        final List<String> unusedCountries = LanguageDataset.unusedCountryShortNames(this.size);
+        this.newCountry = unusedCountries.get(0);
+        this.existingLanguage = new LanguageET("deu", "German");
+        this.batch = new LinkedHashMap<>();
+        for(final String country : unusedCountries.subList(0, BATCH_SIZE)) {
+            this.batch.put(country, this.existingLanguage);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        this.storage = LanguageDataset.storage(this.strategy, this.size);
+    }
+
+    @Benchmark
+    public LanguageET createLanguage() {
+        return this.storage.createLanguage(this.newLanguage);
+    }
+
+    @Benchmark
+    public LanguageET createCountryWithLanguage() {
+        return this.storage.createCountryWithLanguage(this.newCountry, this.existingLanguage);
+    }
+
+    @Benchmark
+    public LanguageET createExistingCountryWithLanguage() {
+        return this.storage.createCountryWithLanguage("GER", this.existingLanguage);
+    }
+
+    @Benchmark
+    public long addAll() {
+        this.storage.addAll(Collections.singletonList(this.newLanguage), this.batch);
+        return this.storage.getVersion();
+    }
+}
@@ -0,0 +1,107 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Benchmarks concurrent reads and writes on a shared {@link LanguageRuntimeStorage} for both {@link StorageStrategy}s.
+ * The group {@code readMostly} runs three readers against one writer, the group {@code balanced} two readers against two writers.
+ * <p>
+ * The writers insert new countries and pause for {@link #pause} tokens of {@link Blackhole#consumeCPU(long)} after each insert,
+ * which models a steady write rate instead of a write storm. The storage is recreated for each iteration, as the three letter short names are limited.
+ * If they are exhausted anyway, the writers insert existing countries again, which does not change the data.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 10, time = 200, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(1)
+@State(Scope.Group)
+public class LanguageStorageMixBenchmark {
+
+    @Param({"SNAPSHOT", "CONCURRENT"})
+    private StorageStrategy strategy;
+
+    @Param({"100", "1000"})
+    private int size;
+
+    @Param({"5000"})
+    private long pause;
+
+    private LanguageRepository storage;
+    private String[] countries;
+    private List<String> unusedCountries;
+    private final AtomicInteger nextUnusedCountry = new AtomicInteger();
+    private final LanguageET language = new LanguageET("deu", "German");
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        this.storage = LanguageDataset.storage(this.strategy, this.size);
+        this.countries = LanguageDataset.countryShortNames(this.size);
+        this.unusedCountries = LanguageDataset.unusedCountryShortNames(this.size);
+        this.nextUnusedCountry.set(0);
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(3)
+    public Optional<LanguageET> readMostlyRead() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public LanguageET readMostlyWrite() {
+        return write();
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(2)
+    public Optional<LanguageET> balancedRead() {
+        return read();
+    }
+
+    @Benchmark
+    @Group("balanced")
+    @GroupThreads(2)
+    public LanguageET balancedWrite() {
+        return write();
+    }
+
+    private Optional<LanguageET> read() {
+        return this.storage.findLanguageByCountry(this.countries[ThreadLocalRandom.current().nextInt(this.countries.length)]);
+    }
+
+    private LanguageET write() {
+        final int index = this.nextUnusedCountry.getAndIncrement();
+        final String country = index < this.unusedCountries.size() ? this.unusedCountries.get(index) : this.countries[index % this.countries.length];
+        final LanguageET storedLanguage = this.storage.createCountryWithLanguage(country, this.language);
+        Blackhole.consumeCPU(this.pause);
+        return storedLanguage;
+    }
+}
@@ -0,0 +1,88 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageDataset;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageRepository;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.StorageStrategy;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the JSON-B serialization of the response bodies of the language resources for different dataset sizes,
+ * i.e. the work done by the {@link de.exxcellent.microservices.showcase.webservice.cache.ResponseCache} once per data version.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageJsonBenchmark {
+
+    @Param({"3", "100", "1000", "10000"})
+    private int size;
+
+    private Jsonb jsonb;
+    private Set<LanguageTO> languages;
+    private Set<CountryWithLanguageCTO> countriesWithLanguage;
+    private LanguageTO language;
+
+    @Setup
+    public void setUp() {
+        this.jsonb = JsonbBuilder.create();
+        final LanguageRepository storage = LanguageDataset.storage(StorageStrategy.SNAPSHOT, this.size);
+        this.languages = new LinkedHashSet<>();
+        for(final LanguageET languageET : storage.findAll()) {
+            this.languages.add(new LanguageTO(languageET.getShortName(), languageET.getName()));
+        }
+        this.countriesWithLanguage = new LinkedHashSet<>();
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : storage.findAllCountriesWithLanguage().entrySet()) {
+            final LanguageET languageET = countryWithLanguage.getValue();
+            this.countriesWithLanguage.add(new CountryWithLanguageCTO(countryWithLanguage.getKey(), new LanguageTO(languageET.getShortName(), languageET.getName())));
+        }
+        this.language = new LanguageTO("deu", "German");
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.jsonb.close();
+    }
+
+    @Benchmark
+    public byte[] serializeLanguages() {
+        return this.jsonb.toJson(this.languages).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeCountriesWithLanguage() {
+        return this.jsonb.toJson(this.countriesWithLanguage).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeLanguage() {
+        return this.jsonb.toJson(this.language).getBytes(StandardCharsets.UTF_8);
+    }
+}
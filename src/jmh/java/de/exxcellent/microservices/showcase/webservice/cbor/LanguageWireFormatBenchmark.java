@@ -0,0 +1,110 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageDataset;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageRepository;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.StorageStrategy;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the CBOR encoding of the {@link CborCodec} against the JSON-B serialization of the response bodies of the language resources
+ * for different dataset sizes, and the parsing of a request body in both formats.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageWireFormatBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private Jsonb jsonb;
+    private Set<LanguageTO> languages;
+    private Set<CountryWithLanguageCTO> countriesWithLanguage;
+    private String countryWithLanguageJson;
+    private byte[] countryWithLanguageCbor;
+
+    @Setup
+    public void setUp() {
+        this.jsonb = JsonbBuilder.create();
+        final LanguageRepository storage = LanguageDataset.storage(StorageStrategy.SNAPSHOT, this.size);
+        this.languages = new LinkedHashSet<>();
+        for(final LanguageET languageET : storage.findAll()) {
+            this.languages.add(new LanguageTO(languageET.getShortName(), languageET.getName()));
+        }
+        this.countriesWithLanguage = new LinkedHashSet<>();
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : storage.findAllCountriesWithLanguage().entrySet()) {
+            final LanguageET languageET = countryWithLanguage.getValue();
+            this.countriesWithLanguage.add(new CountryWithLanguageCTO(countryWithLanguage.getKey(), new LanguageTO(languageET.getShortName(), languageET.getName())));
+        }
+        final LanguageTO german = new LanguageTO("deu", "German");
+        final CountryWithLanguageCTO countryWithLanguage = new CountryWithLanguageCTO("CHE", german, Arrays.asList(
+                new LanguageOfCountryTO(german, true, 0.62), new LanguageOfCountryTO(new LanguageTO("fra", "French"), true, 0.23)));
+        this.countryWithLanguageJson = this.jsonb.toJson(countryWithLanguage);
+        this.countryWithLanguageCbor = CborCodec.encode(countryWithLanguage);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.jsonb.close();
+    }
+
+    @Benchmark
+    public byte[] serializeLanguagesJson() {
+        return this.jsonb.toJson(this.languages).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeLanguagesCbor() {
+        return CborCodec.encode(this.languages);
+    }
+
+    @Benchmark
+    public byte[] serializeCountriesWithLanguageJson() {
+        return this.jsonb.toJson(this.countriesWithLanguage).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeCountriesWithLanguageCbor() {
+        return CborCodec.encode(this.countriesWithLanguage);
+    }
+
+    @Benchmark
+    public Object parseCountryWithLanguageJson() {
+        return this.jsonb.fromJson(this.countryWithLanguageJson, CountryWithLanguageCTO.class);
+    }
+
+    @Benchmark
+    public Object parseCountryWithLanguageCbor() {
+        return CborCodec.decode(this.countryWithLanguageCbor, CountryWithLanguageCTO.class);
+    }
+}
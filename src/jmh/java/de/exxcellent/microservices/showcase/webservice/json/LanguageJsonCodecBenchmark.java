@@ -0,0 +1,119 @@
+package de.exxcellent.microservices.showcase.webservice.json;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageDataset;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageRepository;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.StorageStrategy;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the generated JSON codec of the {@link JsonCodec} against the reflective binding of JSON-B,
+ * serializing the response bodies of the language resources for different dataset sizes and parsing a request body.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class LanguageJsonCodecBenchmark {
+
+    @Param({"100", "10000"})
+    private int size;
+
+    private Jsonb jsonb;
+    private Set<LanguageTO> languages;
+    private Set<CountryWithLanguageCTO> countriesWithLanguage;
+    private byte[] countryWithLanguageJson;
+
+    @Setup
+    public void setUp() {
+        this.jsonb = JsonbBuilder.create();
+        final LanguageRepository storage = LanguageDataset.storage(StorageStrategy.SNAPSHOT, this.size);
+        this.languages = new LinkedHashSet<>();
+        for(final LanguageET languageET : storage.findAll()) {
+            this.languages.add(new LanguageTO(languageET.getShortName(), languageET.getName()));
+        }
+        this.countriesWithLanguage = new LinkedHashSet<>();
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : storage.findAllCountriesWithLanguage().entrySet()) {
+            final LanguageET languageET = countryWithLanguage.getValue();
+            this.countriesWithLanguage.add(new CountryWithLanguageCTO(countryWithLanguage.getKey(), new LanguageTO(languageET.getShortName(), languageET.getName())));
+        }
+        final LanguageTO german = new LanguageTO("deu", "German");
+        final CountryWithLanguageCTO countryWithLanguage = new CountryWithLanguageCTO("CHE", german, Arrays.asList(
+                new LanguageOfCountryTO(german, true, 62.0), new LanguageOfCountryTO(new LanguageTO("fra", "French"), true, 23.0)));
+        this.countryWithLanguageJson = JsonCodec.encode(countryWithLanguage);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        this.jsonb.close();
+    }
+
+    @Benchmark
+    public byte[] serializeLanguagesJsonb() {
+        return this.jsonb.toJson(this.languages).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeLanguagesGenerated() {
+        return JsonCodec.encode(this.languages);
+    }
+
+    @Benchmark
+    public byte[] serializeCountriesWithLanguageJsonb() {
+        return this.jsonb.toJson(this.countriesWithLanguage).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] serializeCountriesWithLanguageGenerated() {
+        return JsonCodec.encode(this.countriesWithLanguage);
+    }
+
+    /**
+     * Parse the request body like the JSON-B provider of the runtime, which validates each value with the setters.
+     *
+     * @return the parsed body.
+     */
+    @Benchmark
+    public Object parseCountryWithLanguageJsonb() {
+        return this.jsonb.fromJson(new ByteArrayInputStream(this.countryWithLanguageJson), CountryWithLanguageCTO.class);
+    }
+
+    /**
+     * Parse the request body with the generated codec, without validation, which is done once by the resource.
+     *
+     * @return the parsed body.
+     */
+    @Benchmark
+    public Object parseCountryWithLanguageGenerated() {
+        return JsonCodec.decode(this.countryWithLanguageJson, CountryWithLanguageCTO.class);
+    }
+}
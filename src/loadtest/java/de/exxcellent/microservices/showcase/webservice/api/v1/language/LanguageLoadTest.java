@@ -0,0 +1,94 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * Load test of the language resources, only run with the profile {@code loadtest}. Starts the application in test mode,
+ * imports a dataset and measures each concurrency level of the {@link Workload} after a warmup.
+ * The profile runs the test once for each {@link ExecutionMode} of the read resources, so their throughput and latencies can be compared.
+ * <p>
+ * The latency percentiles and the throughput are written to {@code loadtest.results} and compared with the baseline {@code loadtest.baseline}
+ * (a file or the classpath resource {@code /load-baseline.properties}). The test fails on unexpected responses and on regressions
+ * beyond {@code loadtest.tolerance}. To accept new results, copy the results file over the baseline.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+public class LanguageLoadTest {
+    /**
+     * The {@link Logger} of this {@link LanguageLoadTest}, reporting the workload and the results of each concurrency level.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(LanguageLoadTest.class);
+    /**
+     * The classpath resource of the stored baseline.
+     */
+    private static final String BASELINE_RESOURCE = "/load-baseline.properties";
+
+    @ConfigProperty(name = "language.api.execution")
+    ExecutionMode executionMode;
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    @Test
+    public void loadWithinBaseline() throws Exception {
+        final Workload workload = Workload.fromSystemProperties();
+        LOG.info("Load test of {} with {}", this.executionMode, workload);
+        final LoadGenerator generator = new LoadGenerator(this.baseUrl, workload);
+        generator.importDataset();
+        final Properties results = new Properties();
+        final List<String> failures = new ArrayList<>();
+        for(final int concurrency : workload.getConcurrency()) {
+            generator.run(concurrency, workload.getWarmupSeconds());
+            final LoadResult result = generator.run(concurrency, workload.getDurationSeconds());
+            LOG.info("Load test result of {}:{}{}", this.executionMode, System.lineSeparator(), result);
+            results.putAll(result.toProperties(this.executionMode));
+            if(result.getErrors() > 0) {
+                failures.add(concurrency + " clients: " + result.getErrors() + " unexpected responses");
+            }
+        }
+        writeResults(results);
+        failures.addAll(new LoadBaseline(readBaseline(), Double.parseDouble(System.getProperty("loadtest.tolerance", "0.3"))).findRegressions(results));
+        Assertions.assertTrue(failures.isEmpty(), () -> "Load test failed:\n" + String.join("\n", failures));
+    }
+
+    private static Properties readBaseline() throws IOException {
+        final Properties baseline = new Properties();
+        final String file = System.getProperty("loadtest.baseline", "");
+        try(InputStream input = file.isEmpty() ? LanguageLoadTest.class.getResourceAsStream(BASELINE_RESOURCE) : Files.newInputStream(Paths.get(file))) {
+            if(input != null) {
+                baseline.load(input);
+            } // else: no baseline, only the errors are checked.
+        }
+        return baseline;
+    }
+
+    private static void writeResults(final Properties results) throws IOException {
+        final Path file = Paths.get(System.getProperty("loadtest.results", "target/loadtest/results.properties"));
+        if(file.getParent() != null) {
+            Files.createDirectories(file.getParent());
+        }
+        try(OutputStream output = Files.newOutputStream(file)) {
+            results.store(output, "Load test results, latencies in microseconds and throughput in requests per second");
+        }
+        LOG.info("Load test results written to {}", file.toAbsolutePath());
+    }
+}
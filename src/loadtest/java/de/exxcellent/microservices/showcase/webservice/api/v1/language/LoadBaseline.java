@@ -0,0 +1,65 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.TreeSet;
+
+/**
+ * The stored baseline of the load test, in the format of {@link LoadResult#toProperties(ExecutionMode)}.
+ * A result regresses if its throughput is lower or a latency percentile is higher than the baseline by more than the tolerance.
+ * Properties missing in the baseline are not checked, so a baseline may only contain the values which are stable on the build machine.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class LoadBaseline {
+    /**
+     * The suffix of the throughput properties, all other properties are latencies.
+     */
+    private static final String THROUGHPUT = ".throughput";
+
+    private final Properties baseline;
+    private final double tolerance;
+
+    /**
+     * Constructor.
+     *
+     * @param baseline the baseline properties.
+     * @param tolerance the allowed relative deviation, e.g. {@code 0.3} for 30 %.
+     */
+    LoadBaseline(final Properties baseline, final double tolerance) {
+        this.baseline = baseline;
+        this.tolerance = tolerance;
+    }
+
+    /**
+     * Compare the given result with the baseline.
+     *
+     * @param result the {@link LoadResult#toProperties(ExecutionMode)} of a load level.
+     * @return a description of each regression, empty if the result is within the baseline.
+     */
+    List<String> findRegressions(final Properties result) {
+        final List<String> regressions = new ArrayList<>();
+        for(final String name : new TreeSet<>(result.stringPropertyNames())) {
+            final String expected = this.baseline.getProperty(name);
+            if(expected == null) {
+                continue;
+            } // else: compare with the baseline.
+            final double measured = Double.parseDouble(result.getProperty(name));
+            final double limit;
+            final boolean regressed;
+            if(name.endsWith(THROUGHPUT)) {
+                limit = Double.parseDouble(expected) * (1 - this.tolerance);
+                regressed = measured < limit;
+            } else {
+                limit = Double.parseDouble(expected) * (1 + this.tolerance);
+                regressed = measured > limit;
+            }
+            if(regressed) {
+                regressions.add(String.format("%s: %.0f (baseline %s, limit %.0f)", name, measured, expected, limit));
+            }
+        }
+        return regressions;
+    }
+}
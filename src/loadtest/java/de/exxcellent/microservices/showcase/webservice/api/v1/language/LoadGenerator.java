@@ -0,0 +1,250 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A closed-loop HTTP load generator for the resources {@code /api/v1/languages} and {@code /api/v1/countries-with-language}.
+ * Each client sends its next request as soon as the previous one is answered, half of the requests go to each resource.
+ * <p>
+ * The application runs without reference data, so the storage only holds the dataset of the load test.
+ * The dataset uses the three letter codes in ascending order. The writes create countries with the
+ * following codes, so each write changes the data until the codes are exhausted. The code {@code zzz} is never used and serves the misses.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class LoadGenerator {
+    /**
+     * The number of different three letter codes.
+     */
+    private static final int CODES = 26 * 26 * 26;
+    /**
+     * The code of the misses, the last three letter code.
+     */
+    private static final String MISSING_CODE = "zzz";
+    /**
+     * Timeout in milliseconds to connect and to read a response.
+     */
+    private static final int TIMEOUT = 10_000;
+
+    private final URL baseUrl;
+    private final Workload workload;
+    /**
+     * The codes of the imported dataset.
+     */
+    private final List<String> codes = new ArrayList<>();
+    /**
+     * The index of the next code to be created by a write.
+     */
+    private final AtomicInteger nextWriteCode = new AtomicInteger();
+
+    /**
+     * Constructor.
+     *
+     * @param baseUrl the base {@link URL} of the application.
+     * @param workload the {@link Workload}.
+     */
+    LoadGenerator(final URL baseUrl, final Workload workload) {
+        this.baseUrl = baseUrl;
+        this.workload = workload;
+    }
+
+    /**
+     * Import the dataset of the {@link Workload} with the import resource.
+     *
+     * @throws IOException if the import failed.
+     */
+    void importDataset() throws IOException {
+        final StringBuilder records = new StringBuilder();
+        int index = 0;
+        while(this.codes.size() < this.workload.getDatasetSize()) {
+            final String code = code(index++);
+            this.codes.add(code);
+            records.append("{\"countryShortName\":\"").append(code.toUpperCase(Locale.ROOT))
+                   .append("\",\"language\":{\"shortName\":\"").append(code).append("\",\"name\":\"Language ").append(code).append("\"}}\n");
+        }
+        this.nextWriteCode.set(index);
+        final int status = send("POST", "/api/v1/import", "application/x-ndjson", records.toString());
+        if(status != HttpURLConnection.HTTP_OK) {
+            throw new IOException("Import of the dataset failed with HTTP " + status);
+        } // else: the dataset is available.
+    }
+
+    /**
+     * Run the workload with the given number of concurrent clients.
+     *
+     * @param concurrency the number of concurrent clients.
+     * @param seconds the duration in seconds.
+     * @return the {@link LoadResult}.
+     * @throws Exception if a client failed.
+     */
+    LoadResult run(final int concurrency, final int seconds) throws Exception {
+        final LoadResult result = new LoadResult(concurrency);
+        final ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            final long start = System.nanoTime();
+            final long end = start + TimeUnit.SECONDS.toNanos(seconds);
+            final List<Future<?>> runs = new ArrayList<>();
+            for(int i = 0; i < concurrency; i++) {
+                runs.add(clients.submit(() -> {
+                    runClient(end, result);
+                    return null;
+                }));
+            }
+            for(final Future<?> run : runs) {
+                run.get();
+            }
+            result.setDurationNanos(System.nanoTime() - start);
+        } finally {
+            clients.shutdownNow();
+        }
+        return result;
+    }
+
+    /**
+     * Send requests until the given time and add the recorded latencies to the given {@link LoadResult}.
+     *
+     * @param end the {@link System#nanoTime()} to stop at.
+     * @param result the {@link LoadResult}.
+     */
+    private void runClient(final long end, final LoadResult result) {
+        final Map<Workload.Operation, Histogram> latencies = new EnumMap<>(Workload.Operation.class);
+        for(final Workload.Operation operation : Workload.Operation.values()) {
+            latencies.put(operation, LoadResult.newHistogram());
+        }
+        long errors = 0;
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        long start = System.nanoTime();
+        while(start < end) {
+            final Workload.Operation operation = this.workload.choose(random.nextDouble());
+            final boolean countries = random.nextBoolean();
+            int status;
+            try {
+                status = execute(operation, countries, random);
+            } catch(final IOException e) {
+                status = -1;
+            }
+            final long stop = System.nanoTime();
+            latencies.get(operation).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(stop - start), LoadResult.MAX_LATENCY_MICROS));
+            if(status != expectedStatus(operation)) {
+                errors++;
+            }
+            start = stop;
+        }
+        result.add(latencies, errors);
+    }
+
+    /**
+     * Send the request of the given operation.
+     *
+     * @param operation the {@link Workload.Operation}.
+     * @param countries {@code true} to use the countries with their language, {@code false} to use the languages.
+     * @param random the random number generator of the client.
+     * @return the HTTP status of the response.
+     * @throws IOException if the request failed.
+     */
+    private int execute(final Workload.Operation operation, final boolean countries, final ThreadLocalRandom random) throws IOException {
+        final String resource = countries ? "/api/v1/countries-with-language" : "/api/v1/languages";
+        switch(operation) {
+            case GET:
+                return send("GET", resource + "/" + code(this.codes.get(random.nextInt(this.codes.size())), countries), null, null);
+            case MISS:
+                return send("GET", resource + "/" + code(MISSING_CODE, countries), null, null);
+            case LIST:
+                return send("GET", resource, null, null);
+            case WRITE:
+            default:
+                final String country = nextWriteCode().toUpperCase(Locale.ROOT);
+                return send("POST", "/api/v1/countries-with-language", "application/json",
+                            "{\"countryShortName\":\"" + country + "\",\"language\":{\"shortName\":\"deu\",\"name\":\"German\"}}");
+        }
+    }
+
+    private static int expectedStatus(final Workload.Operation operation) {
+        switch(operation) {
+            case MISS:
+                return HttpURLConnection.HTTP_NOT_FOUND;
+            case WRITE:
+                return HttpURLConnection.HTTP_CREATED;
+            default:
+                return HttpURLConnection.HTTP_OK;
+        }
+    }
+
+    /**
+     * Get the code of the next country to be created. Once all codes are used, existing countries are created again, which does not change the data.
+     *
+     * @return the lower case code.
+     */
+    private String nextWriteCode() {
+        final int index = this.nextWriteCode.getAndIncrement();
+        return index < CODES - 1 ? code(index) : this.codes.get(index % this.codes.size());
+    }
+
+    /**
+     * Send a request and read the whole response, so the connection can be reused by the next request.
+     *
+     * @param method the HTTP method.
+     * @param path the path of the resource.
+     * @param contentType the content type of the body or {@code null} if there is no body.
+     * @param body the body or {@code null} if there is no body.
+     * @return the HTTP status of the response.
+     * @throws IOException if the request failed.
+     */
+    private int send(final String method, final String path, final String contentType, final String body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl, path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(TIMEOUT);
+        connection.setReadTimeout(TIMEOUT);
+        if(body != null) {
+            connection.setDoOutput(true);
+            connection.setRequestProperty("Content-Type", contentType);
+            try(OutputStream output = connection.getOutputStream()) {
+                output.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        } // else: no body to be sent.
+        final int status = connection.getResponseCode();
+        final InputStream response = status < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream() : connection.getErrorStream();
+        if(response != null) {
+            try(InputStream input = response) {
+                final byte[] buffer = new byte[8192];
+                while(input.read(buffer) >= 0) {
+                    // discard the response, only the latency is of interest.
+                }
+            }
+        } // else: no response body.
+        return status;
+    }
+
+    /**
+     * Get the three letter code with the given index in ascending order.
+     *
+     * @param index the index between 0 and {@value #CODES} (exclusive).
+     * @return the lower case code.
+     */
+    private static String code(final int index) {
+        return new String(new char[] {(char) ('a' + index / (26 * 26) % 26), (char) ('a' + index / 26 % 26), (char) ('a' + index % 26)});
+    }
+
+    private static String code(final String code, final boolean country) {
+        return country ? code.toUpperCase(Locale.ROOT) : code;
+    }
+}
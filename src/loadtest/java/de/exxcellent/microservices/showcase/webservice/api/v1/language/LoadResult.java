@@ -0,0 +1,128 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * The result of one load level: the latency {@link Histogram} per {@link Workload.Operation} and the throughput of all requests.
+ * The result is flattened to properties like {@code event_loop.c16.throughput} and {@code worker.c16.get.p99}, prefixed with the {@link ExecutionMode}
+ * of the application, which is also the format of the baseline (see {@link LoadBaseline}).
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class LoadResult {
+    /**
+     * The highest recordable latency in microseconds, higher latencies are recorded with this value.
+     */
+    static final long MAX_LATENCY_MICROS = 60_000_000L;
+    /**
+     * The recorded percentiles by their property name.
+     */
+    private static final Map<String, Double> PERCENTILES = new LinkedHashMap<>();
+
+    static {
+        PERCENTILES.put("p50", 50.0);
+        PERCENTILES.put("p99", 99.0);
+        PERCENTILES.put("p999", 99.9);
+    }
+
+    private final int concurrency;
+    private final Map<Workload.Operation, Histogram> latencies = new EnumMap<>(Workload.Operation.class);
+    private long errors;
+    private long durationNanos;
+
+    /**
+     * Constructor.
+     *
+     * @param concurrency the number of concurrent clients.
+     */
+    LoadResult(final int concurrency) {
+        this.concurrency = concurrency;
+        for(final Workload.Operation operation : Workload.Operation.values()) {
+            this.latencies.put(operation, newHistogram());
+        }
+    }
+
+    /**
+     * Create a {@link Histogram} for latencies in microseconds.
+     *
+     * @return the {@link Histogram}.
+     */
+    static Histogram newHistogram() {
+        return new Histogram(MAX_LATENCY_MICROS, 3);
+    }
+
+    /**
+     * Add the latencies and errors recorded by one client.
+     *
+     * @param clientLatencies the latencies of the client by operation.
+     * @param clientErrors the number of unexpected responses of the client.
+     */
+    synchronized void add(final Map<Workload.Operation, Histogram> clientLatencies, final long clientErrors) {
+        for(final Map.Entry<Workload.Operation, Histogram> latency : clientLatencies.entrySet()) {
+            this.latencies.get(latency.getKey()).add(latency.getValue());
+        }
+        this.errors += clientErrors;
+    }
+
+    void setDurationNanos(final long durationNanos) {
+        this.durationNanos = durationNanos;
+    }
+
+    long getErrors() {
+        return this.errors;
+    }
+
+    /**
+     * Get the throughput of all requests.
+     *
+     * @return the requests per second.
+     */
+    double getThroughput() {
+        long requests = 0;
+        for(final Histogram latency : this.latencies.values()) {
+            requests += latency.getTotalCount();
+        }
+        return this.durationNanos == 0 ? 0 : requests * 1_000_000_000.0 / this.durationNanos;
+    }
+
+    /**
+     * Flatten the result to properties, the latencies in microseconds.
+     *
+     * @param executionMode the {@link ExecutionMode} of the application.
+     * @return the properties.
+     */
+    Properties toProperties(final ExecutionMode executionMode) {
+        final Properties properties = new Properties();
+        final String prefix = executionMode.name().toLowerCase(Locale.ROOT) + ".c" + this.concurrency + ".";
+        properties.setProperty(prefix + "throughput", String.valueOf(Math.round(getThroughput())));
+        for(final Map.Entry<Workload.Operation, Histogram> latency : this.latencies.entrySet()) {
+            if(latency.getValue().getTotalCount() > 0) {
+                final String operationPrefix = prefix + latency.getKey().name().toLowerCase(Locale.ROOT) + ".";
+                for(final Map.Entry<String, Double> percentile : PERCENTILES.entrySet()) {
+                    properties.setProperty(operationPrefix + percentile.getKey(), String.valueOf(latency.getValue().getValueAtPercentile(percentile.getValue())));
+                }
+            }
+        }
+        return properties;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+        result.append(String.format("%d clients: %.0f requests/s, %d errors%n", this.concurrency, getThroughput(), this.errors));
+        for(final Map.Entry<Workload.Operation, Histogram> latency : this.latencies.entrySet()) {
+            final Histogram histogram = latency.getValue();
+            result.append(String.format("  %-5s %8d requests, p50 %6d us, p99 %6d us, p99.9 %6d us, max %6d us%n", latency.getKey(), histogram.getTotalCount(),
+                                        histogram.getValueAtPercentile(50.0), histogram.getValueAtPercentile(99.0),
+                                        histogram.getValueAtPercentile(99.9), histogram.getMaxValue()));
+        }
+        return result.toString();
+    }
+}
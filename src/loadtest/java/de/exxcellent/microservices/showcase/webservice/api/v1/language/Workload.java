@@ -0,0 +1,130 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The workload of the load test, read from system properties (see the profile {@code loadtest} of the pom for the defaults):
+ * <ul>
+ * <li>{@code loadtest.concurrency}: comma separated numbers of concurrent clients, each level is measured separately.</li>
+ * <li>{@code loadtest.warmup} and {@code loadtest.duration}: seconds of warmup and measurement per level.</li>
+ * <li>{@code loadtest.dataset-size}: number of countries with their language imported before the test.</li>
+ * <li>{@code loadtest.write-ratio}, {@code loadtest.miss-ratio} and {@code loadtest.list-ratio}: shares of the requests creating
+ * a country, getting an unknown resource and getting a whole collection. All other requests get a known resource.</li>
+ * </ul>
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class Workload {
+    private final List<Integer> concurrency;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int datasetSize;
+    private final double writeRatio;
+    private final double missRatio;
+    private final double listRatio;
+
+    private Workload(final List<Integer> concurrency, final int warmupSeconds, final int durationSeconds, final int datasetSize,
+                     final double writeRatio, final double missRatio, final double listRatio) {
+        if(writeRatio + missRatio + listRatio > 1.0) {
+            throw new IllegalArgumentException("The write, miss and list ratios must not exceed 1 in sum");
+        } // else: the remaining requests get known resources.
+        this.concurrency = concurrency;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.datasetSize = datasetSize;
+        this.writeRatio = writeRatio;
+        this.missRatio = missRatio;
+        this.listRatio = listRatio;
+    }
+
+    /**
+     * Read the workload from the system properties.
+     *
+     * @return the {@link Workload}.
+     */
+    static Workload fromSystemProperties() {
+        final List<Integer> concurrency = new ArrayList<>();
+        for(final String level : System.getProperty("loadtest.concurrency", "1,16").split(",")) {
+            concurrency.add(Integer.valueOf(level.trim()));
+        }
+        return new Workload(Collections.unmodifiableList(concurrency),
+                            Integer.getInteger("loadtest.warmup", 5),
+                            Integer.getInteger("loadtest.duration", 10),
+                            Integer.getInteger("loadtest.dataset-size", 1000),
+                            Double.parseDouble(System.getProperty("loadtest.write-ratio", "0.01")),
+                            Double.parseDouble(System.getProperty("loadtest.miss-ratio", "0.1")),
+                            Double.parseDouble(System.getProperty("loadtest.list-ratio", "0.05")));
+    }
+
+    List<Integer> getConcurrency() {
+        return this.concurrency;
+    }
+
+    int getWarmupSeconds() {
+        return this.warmupSeconds;
+    }
+
+    int getDurationSeconds() {
+        return this.durationSeconds;
+    }
+
+    int getDatasetSize() {
+        return this.datasetSize;
+    }
+
+    /**
+     * Choose the operation of the next request.
+     *
+     * @param random a random number between 0 (inclusive) and 1 (exclusive).
+     * @return the {@link Operation}.
+     */
+    Operation choose(final double random) {
+        if(random < this.writeRatio) {
+            return Operation.WRITE;
+        } else if(random < this.writeRatio + this.missRatio) {
+            return Operation.MISS;
+        } else if(random < this.writeRatio + this.missRatio + this.listRatio) {
+            return Operation.LIST;
+        } else {
+            return Operation.GET;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "Workload{" +
+               "concurrency=" + this.concurrency +
+               ", warmupSeconds=" + this.warmupSeconds +
+               ", durationSeconds=" + this.durationSeconds +
+               ", datasetSize=" + this.datasetSize +
+               ", writeRatio=" + this.writeRatio +
+               ", missRatio=" + this.missRatio +
+               ", listRatio=" + this.listRatio +
+               '}';
+    }
+
+    /**
+     * The operations of the load test, their latencies are recorded separately.
+     */
+    enum Operation {
+        /**
+         * Get a known language or country with its language.
+         */
+        GET,
+        /**
+         * Get an unknown language or country, answered with HTTP 404.
+         */
+        MISS,
+        /**
+         * Get all languages or all countries with their language.
+         */
+        LIST,
+        /**
+         * Create a country with its language.
+         */
+        WRITE
+    }
+}
@@ -1,5 +1,6 @@
 package de.exxcellent.microservices.showcase.common.errorhandling.exception;
 
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCategory;
 import de.exxcellent.microservices.showcase.common.errorhandling.IErrorCode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,8 @@ import java.io.Serializable;
 
 /**
  * Base exception to be extended by each exception.
+ * Exceptions of the {@link ErrorCategory#BUSINESS} category are expected outcomes of client requests (e.g. unknown codes),
+ * so they are only logged at debug level, while all other exceptions are logged at error level.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -39,9 +42,24 @@ abstract class BaseException extends RuntimeException implements Serializable {
      * @param message the error message as {@link String}.
      */
     BaseException(final IErrorCode errorCode, final String message) {
-        super(getFormattedErrorCode(errorCode) + ": " + message);
+        this(errorCode, message, true);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param errorCode the {@link IErrorCode} of this exception.
+     * @param message the error message as {@link String}.
+     * @param writableStackTrace {@code false} to skip capturing the stack trace, which is the most expensive part of creating an exception.
+     */
+    BaseException(final IErrorCode errorCode, final String message, final boolean writableStackTrace) {
+        super(getFormattedErrorCode(errorCode) + ": " + message, null, true, writableStackTrace);
         this.errorCode = errorCode;
-        LOG.error("{}: {}", getFormattedErrorCode(errorCode), message);
+        if(errorCode.getErrorCategory() == ErrorCategory.BUSINESS) {
+            LOG.debug("{}", getMessage());
+        } else {
+            LOG.error("{}", getMessage());
+        }
     }
 
     /**
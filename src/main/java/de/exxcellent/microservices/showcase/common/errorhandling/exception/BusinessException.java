@@ -4,6 +4,8 @@ import de.exxcellent.microservices.showcase.common.errorhandling.IErrorCode;
 
 /**
  * Exception to use for all business errors.
+ * Business errors without cause are stackless: they are expected outcomes of client requests and mapped to HTTP responses,
+ * so their stack trace is never used and not captured to keep the error path cheap.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -21,7 +23,7 @@ public class BusinessException extends BaseException {
      * @param message the error message.
      */
     public BusinessException(final IErrorCode errorCode, final String message) {
-        super(errorCode, message);
+        super(errorCode, message, false);
     }
 
     /**
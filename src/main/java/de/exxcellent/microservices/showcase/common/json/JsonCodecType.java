@@ -0,0 +1,27 @@
+package de.exxcellent.microservices.showcase.common.json;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a type which is serialized to JSON by the codec generated while compiling (by the annotation processor {@code JsonCodecProcessor} of {@code src/build/java}).
+ * The properties of the type are its instance fields, each with a public getter. The types of one codec must be in the same package.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@Documented
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface JsonCodecType {
+    /**
+     * Check if the type is also parsed from JSON, e.g. as request body.
+     * A readable type needs a public constructor without parameters and a public setter for each property, it must not be generic.
+     *
+     * @return {@code true} if the codec reads the type, {@code false} if it is only written.
+     */
+    boolean readable() default false;
+}
@@ -0,0 +1,359 @@
+package de.exxcellent.microservices.showcase.common.json;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads a JSON document from UTF-8 bytes token by token, without building a tree of the document.
+ * Used by the generated JSON codecs of the API types, which read the values of the known properties and skip all others.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class JsonReader {
+    /**
+     * The maximum nesting of skipped objects and arrays.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] bytes;
+    private int position;
+    /**
+     * {@code true} if the current object or array was just opened, so the first name or value is not preceded by a comma.
+     */
+    private boolean first;
+
+    /**
+     * Constructor.
+     *
+     * @param bytes the UTF-8 encoded JSON document.
+     */
+    public JsonReader(final byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Read the start of an object.
+     *
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is not an object.
+     */
+    public void beginObject() {
+        expect('{', "an object");
+        this.first = true;
+    }
+
+    /**
+     * Read the name of the next property of the current object, or the end of the object.
+     *
+     * @return the name of the property, {@code null} if the object ended.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the object is malformed.
+     */
+    public String nextName() {
+        if(skipWhitespace() == '}') {
+            this.position++;
+            this.first = false;
+            return null;
+        } else if(!this.first) {
+            expect(',', "',' or '}'");
+        }
+        this.first = false;
+        final String name = readString();
+        expect(':', "':'");
+        return name;
+    }
+
+    /**
+     * Read the start of an array.
+     *
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is not an array.
+     */
+    public void beginArray() {
+        expect('[', "an array");
+        this.first = true;
+    }
+
+    /**
+     * Check if the current array has a further value, or read the end of the array.
+     *
+     * @return {@code true} if a further value follows, {@code false} if the array ended.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the array is malformed.
+     */
+    public boolean hasNext() {
+        if(skipWhitespace() == ']') {
+            this.position++;
+            this.first = false;
+            return false;
+        } else if(!this.first) {
+            expect(',', "',' or ']'");
+        }
+        this.first = false;
+        return true;
+    }
+
+    /**
+     * Read a string value.
+     *
+     * @return the value.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is not a string.
+     */
+    public String readString() {
+        expect('"', "a string");
+        final int start = this.position;
+        int end = start;
+        // strings without escape sequences are decoded at once.
+        while(end < this.bytes.length && this.bytes[end] != '"' && this.bytes[end] != '\\' && (this.bytes[end] & 0xFF) >= 0x20) {
+            end++;
+        }
+        if(end < this.bytes.length && this.bytes[end] == '"') {
+            this.position = end + 1;
+            return new String(this.bytes, start, end - start, StandardCharsets.UTF_8);
+        } // else: decode the escape sequences.
+        this.position = end;
+        final StringBuilder value = new StringBuilder(new String(this.bytes, start, end - start, StandardCharsets.UTF_8));
+        while(true) {
+            final int character = read();
+            if(character == '"') {
+                return value.toString();
+            } else if(character == '\\') {
+                value.append(readEscaped());
+            } else if(character < 0x20) {
+                throw malformed("Control character in string");
+            } else {
+                // the unescaped part up to the next escape sequence or the end of the string.
+                final int segment = this.position - 1;
+                while(this.position < this.bytes.length && this.bytes[this.position] != '"' && this.bytes[this.position] != '\\'
+                      && (this.bytes[this.position] & 0xFF) >= 0x20) {
+                    this.position++;
+                }
+                value.append(new String(this.bytes, segment, this.position - segment, StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * Read a boolean value.
+     *
+     * @return the value.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is not a boolean.
+     */
+    public boolean readBoolean() {
+        if(readLiteral("true")) {
+            return true;
+        } else if(readLiteral("false")) {
+            return false;
+        } else {
+            throw malformed("Expected a boolean");
+        }
+    }
+
+    /**
+     * Read a number value.
+     *
+     * @return the value.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next value is not a number.
+     */
+    public double readDouble() {
+        skipWhitespace();
+        final int start = this.position;
+        // Double#parseDouble also accepts numbers JSON does not (e.g. "+1", ".5", "01" or "1."), so the grammar of JSON is checked first.
+        if(this.position < this.bytes.length && this.bytes[this.position] == '-') {
+            this.position++;
+        }
+        if(this.position < this.bytes.length && this.bytes[this.position] == '0') {
+            this.position++;
+        } else if(skipDigits() == 0) {
+            throw malformed("Expected a number");
+        }
+        if(this.position < this.bytes.length && this.bytes[this.position] == '.') {
+            this.position++;
+            if(skipDigits() == 0) {
+                throw malformed("Expected a digit after the decimal point");
+            }
+        }
+        if(this.position < this.bytes.length && (this.bytes[this.position] == 'e' || this.bytes[this.position] == 'E')) {
+            this.position++;
+            if(this.position < this.bytes.length && (this.bytes[this.position] == '+' || this.bytes[this.position] == '-')) {
+                this.position++;
+            }
+            if(skipDigits() == 0) {
+                throw malformed("Expected a digit in the exponent");
+            }
+        }
+        if(this.position < this.bytes.length && isNumberCharacter(this.bytes[this.position])) {
+            throw malformed("Invalid number");
+        } // else: the number is complete.
+        return Double.parseDouble(new String(this.bytes, start, this.position - start, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Read a null value if it is the next value.
+     *
+     * @return {@code true} if a null value was read, {@code false} if the next value is not null and was not read.
+     */
+    public boolean readNull() {
+        return readLiteral("null");
+    }
+
+    /**
+     * Skip the next value including all nested values.
+     *
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the value is malformed.
+     */
+    public void skipValue() {
+        skipValue(0);
+    }
+
+    /**
+     * Check that the document ends after the read value.
+     *
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if anything but whitespace follows.
+     */
+    public void checkEnd() {
+        if(skipWhitespace() != -1) {
+            throw malformed("Unexpected data after the value");
+        }
+    }
+
+    /**
+     * Skip the next value including all nested values.
+     *
+     * @param depth the nesting of the value.
+     */
+    private void skipValue(final int depth) {
+        if(depth > MAX_DEPTH) {
+            throw malformed("Values are nested too deep");
+        } // else: skip the value.
+        final int character = skipWhitespace();
+        if(character == '"') {
+            readString();
+        } else if(character == '{') {
+            beginObject();
+            while(nextName() != null) {
+                skipValue(depth + 1);
+            }
+        } else if(character == '[') {
+            beginArray();
+            while(hasNext()) {
+                skipValue(depth + 1);
+            }
+        } else if(!readNull() && !readLiteral("true") && !readLiteral("false")) {
+            readDouble();
+        }
+    }
+
+    /**
+     * Skip the decimal digits at the current position.
+     *
+     * @return the number of skipped digits.
+     */
+    private int skipDigits() {
+        final int start = this.position;
+        while(this.position < this.bytes.length && this.bytes[this.position] >= '0' && this.bytes[this.position] <= '9') {
+            this.position++;
+        }
+        return this.position - start;
+    }
+
+    /**
+     * Read the escape sequence after a backslash.
+     *
+     * @return the escaped character.
+     */
+    private char readEscaped() {
+        final int character = read();
+        switch(character) {
+            case '"':
+            case '\\':
+            case '/':
+                return (char) character;
+            case 'b':
+                return '\b';
+            case 'f':
+                return '\f';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 't':
+                return '\t';
+            case 'u':
+                int value = 0;
+                for(int i = 0; i < 4; i++) {
+                    final int digit = Character.digit(read(), 16);
+                    if(digit < 0) {
+                        throw malformed("Invalid unicode escape sequence");
+                    }
+                    value = value << 4 | digit;
+                }
+                return (char) value;
+            default:
+                throw malformed("Invalid escape sequence");
+        }
+    }
+
+    /**
+     * Read the given literal if it is the next value.
+     *
+     * @param literal the literal.
+     * @return {@code true} if the literal was read.
+     */
+    private boolean readLiteral(final String literal) {
+        skipWhitespace();
+        if(this.bytes.length - this.position < literal.length()) {
+            return false;
+        } // else: compare the characters.
+        for(int i = 0; i < literal.length(); i++) {
+            if(this.bytes[this.position + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        this.position += literal.length();
+        return true;
+    }
+
+    /**
+     * Read the given structural character.
+     *
+     * @param character the expected character.
+     * @param expected the description of the expected token for the error message.
+     */
+    private void expect(final char character, final String expected) {
+        if(skipWhitespace() != character) {
+            throw malformed("Expected " + expected);
+        }
+        this.position++;
+    }
+
+    /**
+     * Skip the whitespace before the next token.
+     *
+     * @return the first byte of the next token, -1 at the end of the document.
+     */
+    private int skipWhitespace() {
+        while(this.position < this.bytes.length) {
+            final byte character = this.bytes[this.position];
+            if(character != ' ' && character != '\n' && character != '\r' && character != '\t') {
+                return character;
+            }
+            this.position++;
+        }
+        return -1;
+    }
+
+    private int read() {
+        if(this.position >= this.bytes.length) {
+            throw malformed("Unexpected end of data");
+        }
+        return this.bytes[this.position++] & 0xFF;
+    }
+
+    private static boolean isNumberCharacter(final byte character) {
+        return (character >= '0' && character <= '9') || character == '-' || character == '+' || character == '.' || character == 'e' || character == 'E';
+    }
+
+    private BusinessException malformed(final String message) {
+        return new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Malformed JSON at byte " + this.position + ": " + message);
+    }
+}
@@ -0,0 +1,238 @@
+package de.exxcellent.microservices.showcase.common.json;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes JSON as UTF-8 bytes into a growing byte array, without building a tree of the document.
+ * Used by the generated JSON codecs of the API types, which write the properties in the order of JSON-B, so the output equals the one of JSON-B.
+ * Like JSON-B, only quotes, backslashes and control characters are escaped and numbers are written like {@link Double#toString(double)}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class JsonWriter {
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+
+    private byte[] buffer;
+    private int size;
+    /**
+     * {@code true} if the next name or value follows a value and must be separated by a comma.
+     */
+    private boolean separate;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the initial capacity of the buffer in bytes.
+     */
+    public JsonWriter(final int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Encode the given property name once, to be written with {@link #name(byte[])}.
+     *
+     * @param name the name of the property (only ASCII characters which need no escaping).
+     * @return the quoted name followed by the colon.
+     */
+    public static byte[] encodeName(final String name) {
+        return ('"' + name + "\":").getBytes(StandardCharsets.US_ASCII);
+    }
+
+    public void beginObject() {
+        separate();
+        write((byte) '{');
+        this.separate = false;
+    }
+
+    public void endObject() {
+        write((byte) '}');
+        this.separate = true;
+    }
+
+    public void beginArray() {
+        separate();
+        write((byte) '[');
+        this.separate = false;
+    }
+
+    public void endArray() {
+        write((byte) ']');
+        this.separate = true;
+    }
+
+    /**
+     * Write the name of a property of an object.
+     *
+     * @param encodedName the name encoded with {@link #encodeName(String)}.
+     */
+    public void name(final byte[] encodedName) {
+        separate();
+        ensureCapacity(encodedName.length);
+        System.arraycopy(encodedName, 0, this.buffer, this.size, encodedName.length);
+        this.size += encodedName.length;
+        this.separate = false;
+    }
+
+    /**
+     * Write a string value.
+     *
+     * @param value the value (not {@code null}).
+     */
+    public void value(final String value) {
+        separate();
+        final int length = value.length();
+        // each character needs at most 6 bytes (escaped control character), the quotes 2.
+        ensureCapacity(length * 6 + 2);
+        final byte[] bytes = this.buffer;
+        int position = this.size;
+        bytes[position++] = '"';
+        for(int i = 0; i < length; i++) {
+            final char character = value.charAt(i);
+            if(character >= 0x20 && character < 0x80 && character != '"' && character != '\\') {
+                bytes[position++] = (byte) character;
+            } else if(character == '"' || character == '\\') {
+                bytes[position++] = '\\';
+                bytes[position++] = (byte) character;
+            } else if(character < 0x20) {
+                position = writeControl(bytes, position, character);
+            } else if(character < 0x800) {
+                bytes[position++] = (byte) (0xC0 | character >> 6);
+                bytes[position++] = (byte) (0x80 | character & 0x3F);
+            } else if(Character.isHighSurrogate(character) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                final int codePoint = Character.toCodePoint(character, value.charAt(++i));
+                bytes[position++] = (byte) (0xF0 | codePoint >> 18);
+                bytes[position++] = (byte) (0x80 | codePoint >> 12 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | codePoint & 0x3F);
+            } else if(Character.isSurrogate(character)) {
+                // an unpaired surrogate cannot be encoded, like with String#getBytes.
+                bytes[position++] = '?';
+            } else {
+                bytes[position++] = (byte) (0xE0 | character >> 12);
+                bytes[position++] = (byte) (0x80 | character >> 6 & 0x3F);
+                bytes[position++] = (byte) (0x80 | character & 0x3F);
+            }
+        }
+        bytes[position++] = '"';
+        this.size = position;
+        this.separate = true;
+    }
+
+    public void value(final boolean value) {
+        writeLiteral(value ? TRUE : FALSE);
+    }
+
+    public void value(final long value) {
+        writeLiteral(Long.toString(value).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Write a number value.
+     *
+     * @param value the value.
+     * @exception TechnicalException with {@link ErrorCode#INTERNAL_ERROR} if the value is not finite, as JSON has no representation for it.
+     */
+    public void value(final double value) {
+        if(Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Cannot write " + value + " as JSON number");
+        } // else: write the number like JSON-B.
+        final String number = Double.toString(value);
+        separate();
+        ensureCapacity(number.length());
+        for(int i = 0; i < number.length(); i++) {
+            this.buffer[this.size++] = (byte) number.charAt(i);
+        }
+        this.separate = true;
+    }
+
+    public void nullValue() {
+        writeLiteral(NULL);
+    }
+
+    /**
+     * Get the written bytes.
+     *
+     * @return a copy of the written bytes.
+     */
+    public byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    private void writeLiteral(final byte[] literal) {
+        separate();
+        ensureCapacity(literal.length);
+        System.arraycopy(literal, 0, this.buffer, this.size, literal.length);
+        this.size += literal.length;
+        this.separate = true;
+    }
+
+    /**
+     * Write an escaped control character.
+     *
+     * @param bytes the buffer with enough capacity.
+     * @param start the position to write to.
+     * @param character the control character.
+     * @return the position after the escaped character.
+     */
+    private static int writeControl(final byte[] bytes, final int start, final char character) {
+        int position = start;
+        bytes[position++] = '\\';
+        switch(character) {
+            case '\b':
+                bytes[position++] = 'b';
+                break;
+            case '\f':
+                bytes[position++] = 'f';
+                break;
+            case '\n':
+                bytes[position++] = 'n';
+                break;
+            case '\r':
+                bytes[position++] = 'r';
+                break;
+            case '\t':
+                bytes[position++] = 't';
+                break;
+            default:
+                bytes[position++] = 'u';
+                bytes[position++] = '0';
+                bytes[position++] = '0';
+                bytes[position++] = HEX[character >> 4];
+                bytes[position++] = HEX[character & 0xF];
+        }
+        return position;
+    }
+
+    /**
+     * Write the comma separating the next name or value from the previous value, if any.
+     */
+    private void separate() {
+        if(this.separate) {
+            write((byte) ',');
+        }
+    }
+
+    private void write(final byte value) {
+        ensureCapacity(1);
+        this.buffer[this.size++] = value;
+    }
+
+    /**
+     * Grow the buffer if it has not space for the given number of bytes.
+     *
+     * @param bytes the number of bytes to be written.
+     */
+    private void ensureCapacity(final int bytes) {
+        if(this.size + bytes > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + bytes));
+        }
+    }
+}
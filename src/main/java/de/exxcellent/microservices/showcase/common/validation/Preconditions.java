@@ -47,6 +47,18 @@ public final class Preconditions {
         }
     }
 
+    /**
+     * Check if given condition is fulfilled. Call {@link #fail(String)} with the provided message if condition is {@code false}.
+     *
+     * @param condition the condition to be {@code true}.
+     * @param errorMessage the error message to use if condition is {@code false}.
+     */
+    public static void checkArgument(final boolean condition, final String errorMessage) {
+        if(!condition) {
+            fail(errorMessage);
+        }
+    }
+
     /**
      * Fail with the provided message.
      *
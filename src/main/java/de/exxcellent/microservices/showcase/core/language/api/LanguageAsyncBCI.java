@@ -0,0 +1,165 @@
+package de.exxcellent.microservices.showcase.core.language.api;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * The non-blocking variant of the read operations of the {@link LanguageBCI}, e.g. to be called from an event loop thread.
+ * The operations never block the calling thread. Errors are not thrown, but complete the returned {@link CompletionStage} exceptionally
+ * with the {@link de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException} documented at the {@link LanguageBCI}.
+ *
+ * @author Felix Riess
+ * @since 11.02.20
+ */
+public interface LanguageAsyncBCI {
+    /**
+     * Get all available languages, see {@link LanguageBCI#getLanguages()}.
+     *
+     * @return the {@link CompletionStage} of an unmodifiable {@link Set} with all languages as {@link LanguageTO}s, ordered by their short name.
+     */
+    CompletionStage<Set<LanguageTO>> getLanguages();
+
+    /**
+     * Get all available languages with their name in the given display locale, see {@link LanguageBCI#getLanguages(String)}.
+     *
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the {@link CompletionStage} of an unmodifiable {@link Set} with all languages as {@link LanguageTO}s, ordered by their short name.
+     */
+    CompletionStage<Set<LanguageTO>> getLanguages(final String locale);
+
+    /**
+     * Get a page of the available languages ordered by their short name, see {@link LanguageBCI#getLanguagePage(String, int)}.
+     *
+     * @param cursor the cursor of the page as returned with the previous page, {@code null} for the first page.
+     * @param limit the maximum number of languages of the page (1 to {@link LanguageBCI#MAX_PAGE_SIZE}).
+     * @return the {@link CompletionStage} of the page as {@link PageCTO} of {@link LanguageTO}s.
+     */
+    CompletionStage<PageCTO<LanguageTO>> getLanguagePage(final String cursor, final int limit);
+
+    /**
+     * Get a page of the available languages with their name in the given display locale, see {@link LanguageBCI#getLanguagePage(String, int, String)}.
+     *
+     * @param cursor the cursor of the page as returned with the previous page, {@code null} for the first page.
+     * @param limit the maximum number of languages of the page (1 to {@link LanguageBCI#MAX_PAGE_SIZE}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the {@link CompletionStage} of the page as {@link PageCTO} of {@link LanguageTO}s.
+     */
+    CompletionStage<PageCTO<LanguageTO>> getLanguagePage(final String cursor, final int limit, final String locale);
+
+    /**
+     * Get a language by its short name (ISO code), see {@link LanguageBCI#getLanguage(String)}.
+     *
+     * @param shortName the short name of the language to be returned (3 characters, not {@code null}).
+     * @return the {@link CompletionStage} of the language with the provided short name as {@link LanguageTO}.
+     */
+    CompletionStage<LanguageTO> getLanguage(final String shortName);
+
+    /**
+     * Get a language by its short name (ISO code) with its name in the given display locale, see {@link LanguageBCI#getLanguage(String, String)}.
+     *
+     * @param shortName the short name of the language to be returned (3 characters, not {@code null}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the {@link CompletionStage} of the language with the provided short name as {@link LanguageTO}.
+     */
+    CompletionStage<LanguageTO> getLanguage(final String shortName, final String locale);
+
+    /**
+     * Get many languages by their short names (ISO codes) at once, see {@link LanguageBCI#getLanguages(Collection)}.
+     *
+     * @param shortNames the short names of the languages to be returned (not {@code null}, at most {@link LanguageBCI#MAX_LOOKUP_CODES}).
+     * @return the {@link CompletionStage} of the found languages and the missing short names as {@link LookupResultCTO}.
+     */
+    CompletionStage<LookupResultCTO<LanguageTO>> getLanguages(final Collection<String> shortNames);
+
+    /**
+     * Search languages by (a part of) their name, see {@link LanguageBCI#searchLanguages(String, int)}.
+     *
+     * @param query the (part of the) name to search (not blank, at most {@link LanguageBCI#MAX_SEARCH_QUERY_LENGTH} characters).
+     * @param limit the maximum number of languages to return (1 to {@link LanguageBCI#MAX_SEARCH_RESULTS}).
+     * @return the {@link CompletionStage} of the best matching languages as {@link List} of {@link LanguageTO}s.
+     */
+    CompletionStage<List<LanguageTO>> searchLanguages(final String query, final int limit);
+
+    /**
+     * Search languages by (a part of) their name with their name in the given display locale, see {@link LanguageBCI#searchLanguages(String, int, String)}.
+     *
+     * @param query the (part of the) name to search (not blank, at most {@link LanguageBCI#MAX_SEARCH_QUERY_LENGTH} characters).
+     * @param limit the maximum number of languages to return (1 to {@link LanguageBCI#MAX_SEARCH_RESULTS}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the {@link CompletionStage} of the best matching languages as {@link List} of {@link LanguageTO}s, empty if no language matches.
+     */
+    CompletionStage<List<LanguageTO>> searchLanguages(final String query, final int limit, final String locale);
+
+    /**
+     * Get all available countries with their language, see {@link LanguageBCI#getCountriesWithLanguage()}.
+     *
+     * @return the {@link CompletionStage} of an unmodifiable {@link Set} containing all countries with their language as {@link CountryWithLanguageCTO}, ordered by the country short name.
+     */
+    CompletionStage<Set<CountryWithLanguageCTO>> getCountriesWithLanguage();
+
+    /**
+     * Get a page of the available countries with their language ordered by the country short name, see {@link LanguageBCI#getCountriesWithLanguagePage(String, int)}.
+     *
+     * @param cursor the cursor of the page as returned with the previous page, {@code null} for the first page.
+     * @param limit the maximum number of countries of the page (1 to {@link LanguageBCI#MAX_PAGE_SIZE}).
+     * @return the {@link CompletionStage} of the page as {@link PageCTO} of {@link CountryWithLanguageCTO}s.
+     */
+    CompletionStage<PageCTO<CountryWithLanguageCTO>> getCountriesWithLanguagePage(final String cursor, final int limit);
+
+    /**
+     * Get a country with its language by its short name, see {@link LanguageBCI#getCountryWithLanguage(String)}.
+     *
+     * @param countryShortName the short name of the country to be returned (3 characters, not {@code null}).
+     * @return the {@link CompletionStage} of the country with the provided short name and its language as {@link CountryWithLanguageCTO}.
+     */
+    CompletionStage<CountryWithLanguageCTO> getCountryWithLanguage(final String countryShortName);
+
+    /**
+     * Get many countries with their language by their short names at once, see {@link LanguageBCI#getCountriesWithLanguage(Collection)}.
+     *
+     * @param countryShortNames the short names of the countries to be returned (not {@code null}, at most {@link LanguageBCI#MAX_LOOKUP_CODES}).
+     * @return the {@link CompletionStage} of the found countries and the missing short names as {@link LookupResultCTO}.
+     */
+    CompletionStage<LookupResultCTO<CountryWithLanguageCTO>> getCountriesWithLanguage(final Collection<String> countryShortNames);
+
+    /**
+     * Get all countries using a language, see {@link LanguageBCI#getCountriesOfLanguage(String)}.
+     *
+     * @param shortName the short name of the language (3 characters, not {@code null}).
+     * @return the {@link CompletionStage} of the language with the countries using it as {@link CountriesOfLanguageCTO}.
+     */
+    CompletionStage<CountriesOfLanguageCTO> getCountriesOfLanguage(final String shortName);
+
+    /**
+     * Get the version of the languages and countries, see {@link LanguageBCI#getDataVersion()}. Reading the version never blocks.
+     *
+     * @return the current data version.
+     */
+    long getDataVersion();
+
+    /**
+     * Get the display locales in which the names of the languages are available, see {@link LanguageBCI#getDisplayLocales()}. Never blocks.
+     *
+     * @return the language tags (BCP 47) of the display locales as unmodifiable {@link List}, starting with {@link LanguageBCI#NAME_LOCALE}.
+     */
+    List<String> getDisplayLocales();
+
+    /**
+     * Resolve the best available language for a user with the given language preferences and country, see {@link LanguageBCI#resolveLanguage(String, String)}.
+     *
+     * @param preferences the language preference list in the format of the {@code Accept-Language} header
+     * (not blank, at most {@link LanguageBCI#MAX_LANGUAGE_PREFERENCES_LENGTH} characters).
+     * @param countryShortName the short name of the country of the user (3 characters, {@code null} if unknown).
+     * @return the {@link CompletionStage} of the resolved language with the matching language range as {@link LanguageMatchCTO}.
+     */
+    CompletionStage<LanguageMatchCTO> resolveLanguage(final String preferences, final String countryShortName);
+}
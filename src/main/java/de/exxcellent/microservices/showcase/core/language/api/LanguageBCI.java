@@ -1,8 +1,16 @@
 package de.exxcellent.microservices.showcase.core.language.api;
 
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
 import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
 import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -12,13 +20,70 @@ import java.util.Set;
  * @since 21.01.20
  */
 public interface LanguageBCI {
+    /**
+     * The maximum number of codes of one lookup.
+     */
+    int MAX_LOOKUP_CODES = 1000;
+    /**
+     * The maximum number of items of one page.
+     */
+    int MAX_PAGE_SIZE = 1000;
+    /**
+     * The maximum number of results of one search.
+     */
+    int MAX_SEARCH_RESULTS = 100;
+    /**
+     * The maximum length of a search query.
+     */
+    int MAX_SEARCH_QUERY_LENGTH = 100;
+    /**
+     * The language tag of the display locale of the names of the languages ({@link LanguageTO#getName()}).
+     */
+    String NAME_LOCALE = "en";
+    /**
+     * The maximum length of a language preference list.
+     */
+    int MAX_LANGUAGE_PREFERENCES_LENGTH = 500;
+
     /**
      * Get all available languages.
      *
-     * @return a {@link Set} with all languages as {@link LanguageTO}s.
+     * @return an unmodifiable {@link Set} with all languages as {@link LanguageTO}s, ordered by their short name. The {@link LanguageTO}s must not be modified.
      */
     Set<LanguageTO> getLanguages();
 
+    /**
+     * Get all available languages with their name in the given display locale (see {@link LanguageTO#getDisplayName()}).
+     * Languages without a name in the display locale (e.g. languages added at runtime) have their name as display name.
+     *
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return an unmodifiable {@link Set} with all languages as {@link LanguageTO}s, ordered by their short name.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the display locale is not supported.
+     */
+    Set<LanguageTO> getLanguages(final String locale);
+
+    /**
+     * Get a page of the available languages ordered by their short name. A page costs O(page size).
+     * Paging with the returned cursors visits every language existing during the whole paging exactly once, even if languages are added meanwhile.
+     *
+     * @param cursor the cursor of the page as returned with the previous page, {@code null} for the first page.
+     * @param limit the maximum number of languages of the page (1 to {@link #MAX_PAGE_SIZE}).
+     * @return the page as {@link PageCTO} of {@link LanguageTO}s.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the cursor or the limit is invalid.
+     */
+    PageCTO<LanguageTO> getLanguagePage(final String cursor, final int limit);
+
+    /**
+     * Get a page of the available languages like {@link #getLanguagePage(String, int)}, with their name in the given display locale (see {@link #getLanguages(String)}).
+     *
+     * @param cursor the cursor of the page as returned with the previous page, {@code null} for the first page.
+     * @param limit the maximum number of languages of the page (1 to {@link #MAX_PAGE_SIZE}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the page as {@link PageCTO} of {@link LanguageTO}s.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the cursor, the limit or the display locale is invalid.
+     */
+    PageCTO<LanguageTO> getLanguagePage(final String cursor, final int limit, final String locale);
+
     /**
      * Get a language by its short name (ISO code).
      *
@@ -28,6 +93,75 @@ public interface LanguageBCI {
      */
     LanguageTO getLanguage(final String shortName);
 
+    /**
+     * Get a language by its short name (ISO code) like {@link #getLanguage(String)}, with its name in the given display locale (see {@link #getLanguages(String)}).
+     *
+     * @param shortName the short name of the language to be returned (3 characters, not {@code null}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the language with the provided short name as {@link LanguageTO}.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#NOT_FOUND_ERROR} if no language with the provided short name is existing,
+     * with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the display locale is not supported.
+     */
+    LanguageTO getLanguage(final String shortName, final String locale);
+
+    /**
+     * Get many languages by their short names (ISO codes) at once.
+     * Duplicate short names are looked up once, unknown or invalid short names are reported as missing instead of failing the lookup.
+     *
+     * @param shortNames the short names of the languages to be returned (not {@code null}, at most {@link #MAX_LOOKUP_CODES}).
+     * @return the found languages as {@link LanguageTO}s and the missing short names as {@link LookupResultCTO}, both in the order of the given short names.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if too many short names are given.
+     */
+    LookupResultCTO<LanguageTO> getLanguages(final Collection<String> shortNames);
+
+    /**
+     * Search languages by (a part of) their name, e.g. for an autocompletion. The letter case and accents are ignored.
+     * Languages whose name starts with the query come first, then languages with a word of the name starting with the query and,
+     * for queries of at least three letters, languages containing the query anywhere in the name. Within each group shorter names come first.
+     * The search uses an index of the names, so its cost does not depend on the number of languages but on the number of matching names.
+     *
+     * @param query the (part of the) name to search (not blank, at most {@link #MAX_SEARCH_QUERY_LENGTH} characters).
+     * @param limit the maximum number of languages to return (1 to {@link #MAX_SEARCH_RESULTS}).
+     * @return the best matching languages as {@link List} of {@link LanguageTO}s, empty if no language matches.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the query or the limit is invalid.
+     */
+    List<LanguageTO> searchLanguages(final String query, final int limit);
+
+    /**
+     * Search languages by (a part of) their name like {@link #searchLanguages(String, int)}, with their name in the given display locale (see {@link #getLanguages(String)}).
+     * Only the names are searched, not the display names.
+     *
+     * @param query the (part of the) name to search (not blank, at most {@link #MAX_SEARCH_QUERY_LENGTH} characters).
+     * @param limit the maximum number of languages to return (1 to {@link #MAX_SEARCH_RESULTS}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the best matching languages as {@link List} of {@link LanguageTO}s, empty if no language matches.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the query, the limit or the display locale is invalid.
+     */
+    List<LanguageTO> searchLanguages(final String query, final int limit, final String locale);
+
+    /**
+     * Get the display locales in which the names of the languages are available: {@link #NAME_LOCALE} and the locales with display names of the reference data.
+     *
+     * @return the language tags (BCP 47) of the display locales as unmodifiable {@link List}, starting with {@link #NAME_LOCALE}.
+     */
+    List<String> getDisplayLocales();
+
+    /**
+     * Resolve the best available language for a user with the given language preferences and country, following the lookup of BCP 47 (RFC 4647):
+     * the language ranges are tried in the order of their quality, each range matches the language of its language subtag (ISO 639-1 or ISO 639-3 code,
+     * or the extended language subtag), further subtags like the region are ignored. The wildcard {@code *} matches the language of the country,
+     * which is also resolved if no range matches. Languages with a quality of zero are not resolved.
+     * The parsed preferences and the result are cached, so repeated preferences are resolved without reading the languages.
+     *
+     * @param preferences the language preference list in the format of the {@code Accept-Language} header, e.g. {@code de-CH, fr;q=0.8, *;q=0.1}
+     * (not blank, at most {@link #MAX_LANGUAGE_PREFERENCES_LENGTH} characters).
+     * @param countryShortName the short name of the country of the user (3 characters, {@code null} if unknown). An unknown country has no language.
+     * @return the resolved language with the matching language range as {@link LanguageMatchCTO}. The {@link LanguageMatchCTO} must not be modified.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR}
+     * if the preferences or the country short name are invalid, with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#NOT_FOUND_ERROR} if no available language is acceptable.
+     */
+    LanguageMatchCTO resolveLanguage(final String preferences, final String countryShortName);
+
     /**
      * Add a language.
      * Does not generate duplicates.
@@ -37,15 +171,35 @@ public interface LanguageBCI {
      */
     Set<LanguageTO> addLanguage(final LanguageTO language);
 
+    /**
+     * Add a language like {@link #addLanguage(LanguageTO)}, but only return the stored language instead of all languages.
+     *
+     * @param language the language to be added as {@link LanguageTO} (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageTO(LanguageTO)}).
+     * @return the stored language with the short name of the provided language as {@link LanguageTO}.
+     */
+    LanguageTO createLanguage(final LanguageTO language);
+
     /**
      * Get all available countries with their language.
      *
-     * @return a {@link Set} containing all countries with their language as {@link CountryWithLanguageCTO}.
+     * @return an unmodifiable {@link Set} containing all countries with their language as {@link CountryWithLanguageCTO}, ordered by the country short name.
+     * The {@link CountryWithLanguageCTO}s must not be modified.
      */
     Set<CountryWithLanguageCTO> getCountriesWithLanguage();
 
     /**
-     * Get a country with its language by its short name.
+     * Get a page of the available countries with their language ordered by the country short name. A page costs O(page size).
+     * Paging with the returned cursors visits every country existing during the whole paging exactly once, even if countries are added meanwhile.
+     *
+     * @param cursor the cursor of the page as returned with the previous page, {@code null} for the first page.
+     * @param limit the maximum number of countries of the page (1 to {@link #MAX_PAGE_SIZE}).
+     * @return the page as {@link PageCTO} of {@link CountryWithLanguageCTO}s.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the cursor or the limit is invalid.
+     */
+    PageCTO<CountryWithLanguageCTO> getCountriesWithLanguagePage(final String cursor, final int limit);
+
+    /**
+     * Get a country with its languages by its short name.
      *
      * @param countryShortName the short name of the country to be returned (3 characters, not {@code null}).
      * @return the country with the provided short name and its language as {@link CountryWithLanguageCTO}.
@@ -53,12 +207,75 @@ public interface LanguageBCI {
      */
     CountryWithLanguageCTO getCountryWithLanguage(final String countryShortName);
 
+    /**
+     * Get many countries with their language by their short names at once.
+     * Duplicate short names are looked up once, unknown or invalid short names are reported as missing instead of failing the lookup.
+     *
+     * @param countryShortNames the short names of the countries to be returned (not {@code null}, at most {@link #MAX_LOOKUP_CODES}).
+     * @return the found countries as {@link CountryWithLanguageCTO}s and the missing short names as {@link LookupResultCTO}, both in the order of the given short names.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if too many short names are given.
+     */
+    LookupResultCTO<CountryWithLanguageCTO> getCountriesWithLanguage(final Collection<String> countryShortNames);
+
+    /**
+     * Get all countries using a language: the countries with the language as their language and the countries with the language as further language.
+     * Served from the reverse indexes of the storage, so the costs only depend on the number of countries using the language.
+     *
+     * @param shortName the short name (ISO code) of the language (3 characters, not {@code null}).
+     * @return the language with the countries using it, ordered by the country short name, as {@link CountriesOfLanguageCTO}.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#NOT_FOUND_ERROR} if no language with the provided short name is existing.
+     */
+    CountriesOfLanguageCTO getCountriesOfLanguage(final String shortName);
+
     /**
      * Add a country and its language.
-     * Does not generate duplicates.
+     * Does not generate duplicates. The further {@link CountryWithLanguageCTO#getLanguages()} are added like with {@link #addLanguageOfCountry(String, LanguageOfCountryTO)}.
      *
      * @param countryWithLanguage the country and its language to be added as {@link CountryWithLanguageCTO}.
      * @return all countries with their language as {@link Set} of {@link CountryWithLanguageCTO}s.
      */
     Set<CountryWithLanguageCTO> addCountryWithLanguage(final CountryWithLanguageCTO countryWithLanguage);
+
+    /**
+     * Add a country and its language like {@link #addCountryWithLanguage(CountryWithLanguageCTO)}, but only return the stored country instead of all countries.
+     * If the country is already existing, it keeps its language. The further {@link CountryWithLanguageCTO#getLanguages()} are added to the country
+     * like with {@link #addLanguageOfCountry(String, LanguageOfCountryTO)}.
+     *
+     * @param countryWithLanguage the country and its language to be added as {@link CountryWithLanguageCTO}.
+     * @return the stored country with its language as {@link CountryWithLanguageCTO}.
+     */
+    CountryWithLanguageCTO createCountryWithLanguage(final CountryWithLanguageCTO countryWithLanguage);
+
+    /**
+     * Add a language to the languages of a country (see {@link CountryWithLanguageCTO#getLanguages()}).
+     * The country is added with the given language as its language if not existing, and the language is added if not existing.
+     * Does not generate duplicates: if the country already has the language, the existing attributes are kept.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param languageOfCountry the language with the attributes of its use in the country as {@link LanguageOfCountryTO} (not {@code null}, the language must be valid).
+     * @return the stored country with all its languages as {@link CountryWithLanguageCTO}.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR}
+     * if the input is invalid or another language with the short name of the given language is existing.
+     */
+    CountryWithLanguageCTO addLanguageOfCountry(final String countryShortName, final LanguageOfCountryTO languageOfCountry);
+
+    /**
+     * Import languages and countries with their language in one write instead of adding them one by one.
+     * Each record is validated on its own: invalid records and records conflicting with existing languages or with the language of existing countries
+     * (or of earlier records) are rejected, all other records are imported.
+     * Does not generate duplicates and keeps the language of existing countries.
+     *
+     * @param records the records to be imported as {@link List} of {@link CountryWithLanguageCTO}s. Records without country short name only add their language.
+     * Only the language of each record is imported, its further {@link CountryWithLanguageCTO#getLanguages()} are ignored.
+     * @return the result of the import as {@link ImportResultCTO}, the errors refer to the position of the record in the given {@link List} (starting with 1).
+     */
+    ImportResultCTO importAll(final List<CountryWithLanguageCTO> records);
+
+    /**
+     * Get the version of the languages and countries. Changes with every write which changes the data,
+     * so all results of this interface can be cached as long as the version is unchanged.
+     *
+     * @return the current data version.
+     */
+    long getDataVersion();
 }
@@ -0,0 +1,77 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combined transport object (CTO) representing a language with all countries using it.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@JsonCodecType
+public class CountriesOfLanguageCTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = 7795214133036612480L;
+    /**
+     * the language as {@link LanguageTO}.
+     */
+    private LanguageTO language;
+    /**
+     * the countries using the language as {@link CountryOfLanguageTO}s, ordered by the country short name.
+     */
+    private List<CountryOfLanguageTO> countries = new ArrayList<>();
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public CountriesOfLanguageCTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param language the language as {@link LanguageTO} (must be valid, see {@link LanguageValidation#validateLanguageTO(LanguageTO)}).
+     * @param countries the countries using the language as {@link CountryOfLanguageTO}s, ordered by the country short name (not {@code null}).
+     */
+    public CountriesOfLanguageCTO(final LanguageTO language, final List<CountryOfLanguageTO> countries) {
+        LanguageValidation.validateLanguageTO(language);
+        Preconditions.checkNotNull(countries, "Countries must not be null");
+        this.language = language;
+        this.countries = countries;
+    }
+
+    public LanguageTO getLanguage() {
+        return this.language;
+    }
+
+    public void setLanguage(final LanguageTO language) {
+        LanguageValidation.validateLanguageTO(language);
+        this.language = language;
+    }
+
+    public List<CountryOfLanguageTO> getCountries() {
+        return this.countries;
+    }
+
+    public void setCountries(final List<CountryOfLanguageTO> countries) {
+        Preconditions.checkNotNull(countries, "Countries must not be null");
+        this.countries = countries;
+    }
+
+    @Override
+    public String toString() {
+        return "CountriesOfLanguageCTO{" +
+                "language=" + this.language +
+                ", countries=" + this.countries +
+                '}';
+    }
+}
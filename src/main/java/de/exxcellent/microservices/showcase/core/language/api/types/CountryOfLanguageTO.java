@@ -0,0 +1,148 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+
+import java.io.Serializable;
+
+/**
+ * The transport object (TO) holding a country using a language with the attributes of the relation.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@JsonCodecType
+public class CountryOfLanguageTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = -6270919846725127207L;
+    /**
+     * The country short name (3 characters).
+     */
+    private String countryShortName;
+    /**
+     * {@code true} if the language is the language of the country (see {@link CountryWithLanguageCTO#getLanguage()}),
+     * {@code false} if it is one of its further languages.
+     */
+    private boolean primary;
+    /**
+     * {@code true} if the language is an official language of the country, {@code null} if unknown.
+     */
+    private Boolean official;
+    /**
+     * the share of the population of the country speaking the language in percent, {@code null} if unknown.
+     */
+    private Double populationShare;
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public CountryOfLanguageTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param primary {@code true} if the language is the language of the country, {@code false} if it is one of its further languages.
+     * @param official {@code true} if the language is an official language of the country, {@code null} if unknown.
+     * @param populationShare the share of the population speaking the language in percent (0 to 100), {@code null} if unknown.
+     */
+    public CountryOfLanguageTO(final String countryShortName, final boolean primary, final Boolean official, final Double populationShare) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        LanguageValidation.checkPopulationShare(populationShare);
+        this.countryShortName = countryShortName;
+        this.primary = primary;
+        this.official = official;
+        this.populationShare = populationShare;
+    }
+
+    /**
+     * Get countryShortName
+     *
+     * @return value of countryShortName
+     */
+    public String getCountryShortName() {
+        return this.countryShortName;
+    }
+
+    /**
+     * Set the countryShortName
+     *
+     * @param countryShortName the countryShortName to set
+     */
+    public void setCountryShortName(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        this.countryShortName = countryShortName;
+    }
+
+    /**
+     * Get primary
+     *
+     * @return value of primary
+     */
+    public boolean isPrimary() {
+        return this.primary;
+    }
+
+    /**
+     * Set the primary
+     *
+     * @param primary the primary to set
+     */
+    public void setPrimary(final boolean primary) {
+        this.primary = primary;
+    }
+
+    /**
+     * Get official
+     *
+     * @return value of official, {@code null} if unknown
+     */
+    public Boolean getOfficial() {
+        return this.official;
+    }
+
+    /**
+     * Set the official
+     *
+     * @param official the official to set, {@code null} if unknown
+     */
+    public void setOfficial(final Boolean official) {
+        this.official = official;
+    }
+
+    /**
+     * Get populationShare
+     *
+     * @return value of populationShare in percent, {@code null} if unknown
+     */
+    public Double getPopulationShare() {
+        return this.populationShare;
+    }
+
+    /**
+     * Set the populationShare
+     *
+     * @param populationShare the populationShare to set in percent (0 to 100), {@code null} if unknown
+     */
+    public void setPopulationShare(final Double populationShare) {
+        LanguageValidation.checkPopulationShare(populationShare);
+        this.populationShare = populationShare;
+    }
+
+    @Override
+    public String toString() {
+        return "CountryOfLanguageTO{" +
+                "countryShortName='" + this.countryShortName + '\'' +
+                ", primary=" + this.primary +
+                ", official=" + this.official +
+                ", populationShare=" + this.populationShare +
+                '}';
+    }
+}
@@ -1,16 +1,21 @@
 package de.exxcellent.microservices.showcase.core.language.api.types;
 
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
 import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
 
 import java.io.Serializable;
+import java.util.List;
 
 /**
  * Combined transport object (CTO) representing a country with its language.
+ * Besides its (primary) language, a country can have any number of further languages, see {@link #getLanguages()}.
+ * The setters do not validate, the values are validated once by the service receiving them, see {@link LanguageValidation#validateCountryWithLanguageCTO(CountryWithLanguageCTO)}.
  *
  * @author Felix Riess, eXXcellent solutions consulting & software gmbh
  * @since 22.01.2020
  */
+@JsonCodecType(readable = true)
 public class CountryWithLanguageCTO implements Serializable {
     /**
      * generated serialVersionUID
@@ -24,6 +29,10 @@ public class CountryWithLanguageCTO implements Serializable {
      * the language of the country as {@link LanguageTO}.
      */
     private LanguageTO language;
+    /**
+     * all languages of the country as {@link LanguageOfCountryTO}s, starting with {@link #language}.
+     */
+    private List<LanguageOfCountryTO> languages;
 
     /**
      * empty constructor for JSON mapping.
@@ -46,13 +55,23 @@ public class CountryWithLanguageCTO implements Serializable {
         this.language =  language;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param language the language of the country as {@link LanguageTO} (must be valid, see {@link LanguageValidation#validateLanguageTO(LanguageTO)}).
+     * @param languages all languages of the country as {@link List} of {@link LanguageOfCountryTO}s, starting with the given language (not {@code null}).
+     */
+    public CountryWithLanguageCTO(final String countryShortName, final LanguageTO language, final List<LanguageOfCountryTO> languages) {
+        this(countryShortName, language);
+        setLanguages(languages);
+    }
+
     public String getCountryShortName() {
         return this.countryShortName;
     }
 
     public void setCountryShortName(final String countryShortName) {
-        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
-        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
         this.countryShortName = countryShortName;
     }
 
@@ -61,15 +80,28 @@ public class CountryWithLanguageCTO implements Serializable {
     }
 
     public void setLanguage(final LanguageTO language) {
-        LanguageValidation.validateLanguageTO(language);
         this.language = language;
     }
 
+    /**
+     * Get all languages of the country, starting with {@link #getLanguage()}.
+     *
+     * @return all languages of the country as {@link List} of {@link LanguageOfCountryTO}s, {@code null} if not set.
+     */
+    public List<LanguageOfCountryTO> getLanguages() {
+        return this.languages;
+    }
+
+    public void setLanguages(final List<LanguageOfCountryTO> languages) {
+        this.languages = languages;
+    }
+
     @Override
     public String toString() {
         return "CountryWithLanguageCTO{" +
                         "countryShortName='" + this.countryShortName + '\'' +
                         ", language=" + this.language +
+                        ", languages=" + this.languages +
                         '}';
     }
 }
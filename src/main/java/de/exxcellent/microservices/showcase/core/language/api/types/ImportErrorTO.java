@@ -0,0 +1,69 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+
+import java.io.Serializable;
+
+/**
+ * The transport object (TO) describing why a record of an import was rejected.
+ *
+ * @author Felix Riess
+ * @since 06.02.20
+ */
+@JsonCodecType
+public class ImportErrorTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = 4829374650283746511L;
+    /**
+     * the number of the rejected record, starting with 1.
+     */
+    private long record;
+    /**
+     * the reason why the record was rejected.
+     */
+    private String message;
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public ImportErrorTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param record the number of the rejected record, starting with 1.
+     * @param message the reason why the record was rejected.
+     */
+    public ImportErrorTO(final long record, final String message) {
+        this.record = record;
+        this.message = message;
+    }
+
+    public long getRecord() {
+        return this.record;
+    }
+
+    public void setRecord(final long record) {
+        this.record = record;
+    }
+
+    public String getMessage() {
+        return this.message;
+    }
+
+    public void setMessage(final String message) {
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportErrorTO{" +
+                        "record=" + this.record +
+                        ", message='" + this.message + '\'' +
+                        '}';
+    }
+}
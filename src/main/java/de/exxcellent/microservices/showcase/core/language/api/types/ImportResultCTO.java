@@ -0,0 +1,85 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combined transport object (CTO) representing the result of an import of languages and countries with their language.
+ *
+ * @author Felix Riess
+ * @since 06.02.20
+ */
+@JsonCodecType
+public class ImportResultCTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = -2301857745190268342L;
+    /**
+     * the number of imported records.
+     */
+    private long imported;
+    /**
+     * the number of rejected records.
+     */
+    private long rejected;
+    /**
+     * the errors of all rejected records as {@link ImportErrorTO}s, ordered by record.
+     */
+    private List<ImportErrorTO> errors = new ArrayList<>();
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public ImportResultCTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param imported the number of imported records.
+     * @param errors the errors of all rejected records as {@link ImportErrorTO}s, ordered by record (not {@code null}).
+     */
+    public ImportResultCTO(final long imported, final List<ImportErrorTO> errors) {
+        this.imported = imported;
+        this.rejected = errors.size();
+        this.errors = errors;
+    }
+
+    public long getImported() {
+        return this.imported;
+    }
+
+    public void setImported(final long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return this.rejected;
+    }
+
+    public void setRejected(final long rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<ImportErrorTO> getErrors() {
+        return this.errors;
+    }
+
+    public void setErrors(final List<ImportErrorTO> errors) {
+        this.errors = errors;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportResultCTO{" +
+                        "imported=" + this.imported +
+                        ", rejected=" + this.rejected +
+                        ", errors=" + this.errors +
+                        '}';
+    }
+}
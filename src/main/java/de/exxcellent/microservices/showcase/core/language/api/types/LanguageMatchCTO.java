@@ -0,0 +1,87 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+
+import java.io.Serializable;
+
+/**
+ * Combined transport object (CTO) representing the language resolved from a language preference list, with the language range it was matched by.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@JsonCodecType
+public class LanguageMatchCTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = -2915880321958764317L;
+    /**
+     * the resolved language as {@link LanguageTO}.
+     */
+    private LanguageTO language;
+    /**
+     * the language range of the preference list matching the language, {@code null} if the language of the country was taken because no range matched.
+     */
+    private String range;
+    /**
+     * the quality (weight) of the matching language range, {@code null} if no range matched.
+     */
+    private Double quality;
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public LanguageMatchCTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param language the resolved language as {@link LanguageTO} (must be valid, see {@link LanguageValidation#validateLanguageTO(LanguageTO)}).
+     * @param range the language range matching the language ({@code null} if the language of the country was taken).
+     * @param quality the quality of the matching language range ({@code null} if the language of the country was taken).
+     */
+    public LanguageMatchCTO(final LanguageTO language, final String range, final Double quality) {
+        LanguageValidation.validateLanguageTO(language);
+        this.language = language;
+        this.range = range;
+        this.quality = quality;
+    }
+
+    public LanguageTO getLanguage() {
+        return this.language;
+    }
+
+    public void setLanguage(final LanguageTO language) {
+        LanguageValidation.validateLanguageTO(language);
+        this.language = language;
+    }
+
+    public String getRange() {
+        return this.range;
+    }
+
+    public void setRange(final String range) {
+        this.range = range;
+    }
+
+    public Double getQuality() {
+        return this.quality;
+    }
+
+    public void setQuality(final Double quality) {
+        this.quality = quality;
+    }
+
+    @Override
+    public String toString() {
+        return "LanguageMatchCTO{" +
+                "language=" + this.language +
+                ", range='" + this.range + '\'' +
+                ", quality=" + this.quality +
+                '}';
+    }
+}
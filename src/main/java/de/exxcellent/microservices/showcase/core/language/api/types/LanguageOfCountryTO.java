@@ -0,0 +1,118 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+
+import java.io.Serializable;
+
+/**
+ * The transport object (TO) holding a language used in a country with the attributes of the relation.
+ * The setters do not validate, the values are validated once by the service receiving them, see {@link LanguageValidation#validateLanguageOfCountryTO(LanguageOfCountryTO)}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@JsonCodecType(readable = true)
+public class LanguageOfCountryTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = 4583161190726538312L;
+    /**
+     * the language as {@link LanguageTO}.
+     */
+    private LanguageTO language;
+    /**
+     * {@code true} if the language is an official language of the country, {@code null} if unknown.
+     */
+    private Boolean official;
+    /**
+     * the share of the population of the country speaking the language in percent, {@code null} if unknown.
+     */
+    private Double populationShare;
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public LanguageOfCountryTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param language the language as {@link LanguageTO} (must be valid, see {@link LanguageValidation#validateLanguageTO(LanguageTO)}).
+     * @param official {@code true} if the language is an official language of the country, {@code null} if unknown.
+     * @param populationShare the share of the population speaking the language in percent (0 to 100), {@code null} if unknown.
+     */
+    public LanguageOfCountryTO(final LanguageTO language, final Boolean official, final Double populationShare) {
+        LanguageValidation.validateLanguageTO(language);
+        LanguageValidation.checkPopulationShare(populationShare);
+        this.language = language;
+        this.official = official;
+        this.populationShare = populationShare;
+    }
+
+    /**
+     * Get language
+     *
+     * @return value of language
+     */
+    public LanguageTO getLanguage() {
+        return this.language;
+    }
+
+    /**
+     * Set the language
+     *
+     * @param language the language to set
+     */
+    public void setLanguage(final LanguageTO language) {
+        this.language = language;
+    }
+
+    /**
+     * Get official
+     *
+     * @return value of official, {@code null} if unknown
+     */
+    public Boolean getOfficial() {
+        return this.official;
+    }
+
+    /**
+     * Set the official
+     *
+     * @param official the official to set, {@code null} if unknown
+     */
+    public void setOfficial(final Boolean official) {
+        this.official = official;
+    }
+
+    /**
+     * Get populationShare
+     *
+     * @return value of populationShare in percent, {@code null} if unknown
+     */
+    public Double getPopulationShare() {
+        return this.populationShare;
+    }
+
+    /**
+     * Set the populationShare
+     *
+     * @param populationShare the populationShare to set in percent (0 to 100), {@code null} if unknown
+     */
+    public void setPopulationShare(final Double populationShare) {
+        this.populationShare = populationShare;
+    }
+
+    @Override
+    public String toString() {
+        return "LanguageOfCountryTO{" +
+                "language=" + this.language +
+                ", official=" + this.official +
+                ", populationShare=" + this.populationShare +
+                '}';
+    }
+}
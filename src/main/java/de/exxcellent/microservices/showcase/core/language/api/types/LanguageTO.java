@@ -1,5 +1,6 @@
 package de.exxcellent.microservices.showcase.core.language.api.types;
 
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
 import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
 
@@ -7,10 +8,13 @@ import java.io.Serializable;
 
 /**
  * The transport object (TO) holding the information of a language.
+ * The setters do not validate, so a request body can be read completely (see {@link LanguageJsonCodec}): it is validated once by the service receiving it,
+ * see {@link LanguageValidation#validateLanguageTO(LanguageTO)}.
  *
  * @author Felix Riess
  * @since 21.01.20
  */
+@JsonCodecType(readable = true)
 public class LanguageTO implements Serializable {
     /**
      * generated serialVersionUID
@@ -24,6 +28,10 @@ public class LanguageTO implements Serializable {
      * the name of this {@link LanguageTO}.
      */
     private String name;
+    /**
+     * the name of this {@link LanguageTO} in the requested display locale, {@code null} if no display locale was requested.
+     */
+    private String displayName;
 
     /**
      * empty constructor for JSON mapping.
@@ -46,6 +54,18 @@ public class LanguageTO implements Serializable {
         this.name = name;
     }
 
+    /**
+     * Constructor.
+     *
+     * @param shortName the short name (ID) of the language (3 characters, not {@code null}).
+     * @param name the name of the language (not {@code null}).
+     * @param displayName the name of the language in the requested display locale ({@code null} if no display locale was requested).
+     */
+    public LanguageTO(final String shortName, final String name, final String displayName) {
+        this(shortName, name);
+        this.displayName = displayName;
+    }
+
     /**
      * Get shortName
      *
@@ -61,8 +81,6 @@ public class LanguageTO implements Serializable {
      * @param shortName the shortName to set
      */
     public void setShortName(final String shortName) {
-        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
-        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
         this.shortName = shortName;
     }
 
@@ -81,15 +99,33 @@ public class LanguageTO implements Serializable {
      * @param name the name to set
      */
     public void setName(final String name) {
-        Preconditions.checkNotNull(name, LanguageValidation.LANGUAGE_NAME_NOT_NULL);
         this.name = name;
     }
 
+    /**
+     * Get displayName
+     *
+     * @return value of displayName
+     */
+    public String getDisplayName() {
+        return this.displayName;
+    }
+
+    /**
+     * Set the displayName
+     *
+     * @param displayName the displayName to set
+     */
+    public void setDisplayName(final String displayName) {
+        this.displayName = displayName;
+    }
+
     @Override
     public String toString() {
         return "LanguageTO{" +
                 "shortName='" + this.shortName + '\'' +
                 ", name='" + this.name + '\'' +
+                ", displayName='" + this.displayName + '\'' +
                 '}';
     }
 }
@@ -0,0 +1,73 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combined transport object (CTO) representing the result of looking up many codes at once:
+ * the found objects and the codes which were not found.
+ *
+ * @param <T> the type of the found objects.
+ * @author Felix Riess
+ * @since 07.02.20
+ */
+@JsonCodecType
+public class LookupResultCTO<T extends Serializable> implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = 3360297854419730167L;
+    /**
+     * the found objects in the order of the requested codes.
+     */
+    private List<T> found = new ArrayList<>();
+    /**
+     * the requested codes which were not found, in the order of the request.
+     */
+    private List<String> missing = new ArrayList<>();
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public LookupResultCTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param found the found objects in the order of the requested codes (not {@code null}).
+     * @param missing the requested codes which were not found, in the order of the request (not {@code null}).
+     */
+    public LookupResultCTO(final List<T> found, final List<String> missing) {
+        this.found = found;
+        this.missing = missing;
+    }
+
+    public List<T> getFound() {
+        return this.found;
+    }
+
+    public void setFound(final List<T> found) {
+        this.found = found;
+    }
+
+    public List<String> getMissing() {
+        return this.missing;
+    }
+
+    public void setMissing(final List<String> missing) {
+        this.missing = missing;
+    }
+
+    @Override
+    public String toString() {
+        return "LookupResultCTO{" +
+                        "found=" + this.found +
+                        ", missing=" + this.missing +
+                        '}';
+    }
+}
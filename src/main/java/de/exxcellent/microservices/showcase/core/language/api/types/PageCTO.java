@@ -0,0 +1,72 @@
+package de.exxcellent.microservices.showcase.core.language.api.types;
+
+import de.exxcellent.microservices.showcase.common.json.JsonCodecType;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Combined transport object (CTO) representing one page of an ordered list together with the cursor of the next page.
+ *
+ * @param <T> the type of the items.
+ * @author Felix Riess
+ * @since 10.02.20
+ */
+@JsonCodecType
+public class PageCTO<T extends Serializable> implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = -5147726893154402296L;
+    /**
+     * the items of this page in ascending order of their short name.
+     */
+    private List<T> items = new ArrayList<>();
+    /**
+     * the opaque cursor of the next page, {@code null} if this is the last page.
+     */
+    private String nextCursor;
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public PageCTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param items the items of this page in ascending order of their short name (not {@code null}).
+     * @param nextCursor the opaque cursor of the next page, {@code null} if this is the last page.
+     */
+    public PageCTO(final List<T> items, final String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return this.items;
+    }
+
+    public void setItems(final List<T> items) {
+        this.items = items;
+    }
+
+    public String getNextCursor() {
+        return this.nextCursor;
+    }
+
+    public void setNextCursor(final String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    @Override
+    public String toString() {
+        return "PageCTO{" +
+                        "items=" + this.items +
+                        ", nextCursor='" + this.nextCursor + '\'' +
+                        '}';
+    }
+}
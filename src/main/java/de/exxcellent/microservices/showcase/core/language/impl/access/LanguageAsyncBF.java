@@ -0,0 +1,140 @@
+package de.exxcellent.microservices.showcase.core.language.impl.access;
+
+import de.exxcellent.microservices.showcase.core.language.api.LanguageAsyncBCI;
+import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * The non-blocking business facade of the language component. Implements the {@link LanguageAsyncBCI}.
+ * All data is kept in memory by lock-free storages, so the reads are executed on the calling thread
+ * and return already completed {@link CompletionStage}s instead of dispatching to another thread.
+ *
+ * @author Felix Riess
+ * @since 11.02.20
+ */
+@ApplicationScoped
+public class LanguageAsyncBF implements LanguageAsyncBCI {
+
+    private final LanguageBCI languageService;
+
+    @Inject
+    LanguageAsyncBF(final LanguageBCI languageService) {
+        this.languageService = languageService;
+    }
+
+    @Override
+    public CompletionStage<Set<LanguageTO>> getLanguages() {
+        return complete(this.languageService::getLanguages);
+    }
+
+    @Override
+    public CompletionStage<Set<LanguageTO>> getLanguages(final String locale) {
+        return complete(() -> this.languageService.getLanguages(locale));
+    }
+
+    @Override
+    public CompletionStage<PageCTO<LanguageTO>> getLanguagePage(final String cursor, final int limit) {
+        return complete(() -> this.languageService.getLanguagePage(cursor, limit));
+    }
+
+    @Override
+    public CompletionStage<PageCTO<LanguageTO>> getLanguagePage(final String cursor, final int limit, final String locale) {
+        return complete(() -> this.languageService.getLanguagePage(cursor, limit, locale));
+    }
+
+    @Override
+    public CompletionStage<LanguageTO> getLanguage(final String shortName) {
+        return complete(() -> this.languageService.getLanguage(shortName));
+    }
+
+    @Override
+    public CompletionStage<LanguageTO> getLanguage(final String shortName, final String locale) {
+        return complete(() -> this.languageService.getLanguage(shortName, locale));
+    }
+
+    @Override
+    public CompletionStage<LookupResultCTO<LanguageTO>> getLanguages(final Collection<String> shortNames) {
+        return complete(() -> this.languageService.getLanguages(shortNames));
+    }
+
+    @Override
+    public CompletionStage<List<LanguageTO>> searchLanguages(final String query, final int limit) {
+        return complete(() -> this.languageService.searchLanguages(query, limit));
+    }
+
+    @Override
+    public CompletionStage<List<LanguageTO>> searchLanguages(final String query, final int limit, final String locale) {
+        return complete(() -> this.languageService.searchLanguages(query, limit, locale));
+    }
+
+    @Override
+    public CompletionStage<Set<CountryWithLanguageCTO>> getCountriesWithLanguage() {
+        return complete(this.languageService::getCountriesWithLanguage);
+    }
+
+    @Override
+    public CompletionStage<PageCTO<CountryWithLanguageCTO>> getCountriesWithLanguagePage(final String cursor, final int limit) {
+        return complete(() -> this.languageService.getCountriesWithLanguagePage(cursor, limit));
+    }
+
+    @Override
+    public CompletionStage<CountryWithLanguageCTO> getCountryWithLanguage(final String countryShortName) {
+        return complete(() -> this.languageService.getCountryWithLanguage(countryShortName));
+    }
+
+    @Override
+    public CompletionStage<LookupResultCTO<CountryWithLanguageCTO>> getCountriesWithLanguage(final Collection<String> countryShortNames) {
+        return complete(() -> this.languageService.getCountriesWithLanguage(countryShortNames));
+    }
+
+    @Override
+    public CompletionStage<CountriesOfLanguageCTO> getCountriesOfLanguage(final String shortName) {
+        return complete(() -> this.languageService.getCountriesOfLanguage(shortName));
+    }
+
+    @Override
+    public long getDataVersion() {
+        return this.languageService.getDataVersion();
+    }
+
+    @Override
+    public List<String> getDisplayLocales() {
+        return this.languageService.getDisplayLocales();
+    }
+
+    @Override
+    public CompletionStage<LanguageMatchCTO> resolveLanguage(final String preferences, final String countryShortName) {
+        return complete(() -> this.languageService.resolveLanguage(preferences, countryShortName));
+    }
+
+    /**
+     * Execute the given read on the calling thread.
+     *
+     * @param read the read to be executed.
+     * @param <T> the type of the result.
+     * @return the {@link CompletionStage} completed with the result or exceptionally with the thrown exception.
+     */
+    private static <T> CompletionStage<T> complete(final Supplier<T> read) {
+        final CompletableFuture<T> result = new CompletableFuture<>();
+        try {
+            result.complete(read.get());
+        } catch(final RuntimeException e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+}
@@ -1,19 +1,44 @@
 package de.exxcellent.microservices.showcase.core.language.impl.access;
 
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
 import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryOfLanguageTO;
 import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportErrorTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
 import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
 import de.exxcellent.microservices.showcase.core.language.impl.business.LanguageICI;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
  * The business facade (BF) of the language component. Implements the {@link LanguageBCI}.
+ * The collections of all languages and of all countries with their language are kept as immutable {@link VersionedView}s,
+ * which are only rebuilt after a write changed the data version. The returned objects are shared and must not be modified.
+ * The languages resolved for language preferences are cached by the {@link LanguageMatcher}.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -22,18 +47,56 @@ import java.util.stream.Collectors;
 public class LanguageBF implements LanguageBCI {
 
     private final LanguageICI languageManager;
+    /**
+     * All languages as {@link LanguageTO}s of the current data version.
+     */
+    private final VersionedView<Set<LanguageTO>> languages;
+    /**
+     * All countries with their language as {@link CountryWithLanguageCTO}s of the current data version.
+     */
+    private final VersionedView<Set<CountryWithLanguageCTO>> countriesWithLanguage;
+    /**
+     * The {@link LanguageMatcher} resolving the languages for language preferences.
+     */
+    private final LanguageMatcher languageMatcher;
 
     @Inject
     LanguageBF(final LanguageICI languageManager) {
         this.languageManager = languageManager;
+        this.languages = new VersionedView<>(this::mapLanguages);
+        this.countriesWithLanguage = new VersionedView<>(this::mapCountriesWithLanguage);
+        this.languageMatcher = new LanguageMatcher(languageManager);
     }
 
     @Override
     public Set<LanguageTO> getLanguages() {
-        return this.languageManager.getLanguages()
-                                   .stream()
-                                   .map(LanguageMapper::toTO)
-                                   .collect(Collectors.toSet());
+        return this.languages.get(this.languageManager.getDataVersion());
+    }
+
+    @Override
+    public Set<LanguageTO> getLanguages(final String locale) {
+        checkDisplayLocale(locale);
+        return Collections.unmodifiableSet(new LinkedHashSet<>(localize(getLanguages(), locale)));
+    }
+
+    @Override
+    public PageCTO<LanguageTO> getLanguagePage(final String cursor, final int limit) {
+        checkPageLimit(limit);
+        // one more language is read to know if a next page is existing.
+        final List<LanguageET> languages = this.languageManager.getLanguagePage(decodeCursor(cursor), limit + 1);
+        final List<LanguageTO> items = new ArrayList<>(Math.min(languages.size(), limit));
+        for(int i = 0; i < languages.size() && i < limit; i++) {
+            items.add(LanguageMapper.toTO(languages.get(i)));
+        }
+        final String nextCursor = languages.size() > limit ? encodeCursor(items.get(limit - 1).getShortName()) : null;
+        return new PageCTO<>(items, nextCursor);
+    }
+
+    @Override
+    public PageCTO<LanguageTO> getLanguagePage(final String cursor, final int limit, final String locale) {
+        checkDisplayLocale(locale);
+        final PageCTO<LanguageTO> page = getLanguagePage(cursor, limit);
+        return new PageCTO<>(localize(page.getItems(), locale), page.getNextCursor());
     }
 
     @Override
@@ -43,44 +106,357 @@ public class LanguageBF implements LanguageBCI {
         return LanguageMapper.toTO(this.languageManager.getLanguage(shortName));
     }
 
+    @Override
+    public LanguageTO getLanguage(final String shortName, final String locale) {
+        checkDisplayLocale(locale);
+        return localize(Collections.singletonList(getLanguage(shortName)), locale).get(0);
+    }
+
+    @Override
+    public List<LanguageTO> searchLanguages(final String query, final int limit) {
+        Preconditions.checkNotNull(query, "Query must not be null");
+        Preconditions.checkArgument(!query.trim().isEmpty() && query.length() <= MAX_SEARCH_QUERY_LENGTH,
+                                    "Query must not be blank and have at most " + MAX_SEARCH_QUERY_LENGTH + " characters");
+        Preconditions.checkArgument(limit > 0 && limit <= MAX_SEARCH_RESULTS, "Limit must be between 1 and " + MAX_SEARCH_RESULTS);
+        final List<LanguageET> languages = this.languageManager.searchLanguages(query, limit);
+        final List<LanguageTO> found = new ArrayList<>(languages.size());
+        for(final LanguageET language : languages) {
+            found.add(LanguageMapper.toTO(language));
+        }
+        return found;
+    }
+
+    @Override
+    public List<LanguageTO> searchLanguages(final String query, final int limit, final String locale) {
+        checkDisplayLocale(locale);
+        return localize(searchLanguages(query, limit), locale);
+    }
+
+    @Override
+    public List<String> getDisplayLocales() {
+        final List<String> displayLocales = this.languageManager.getDisplayLocales();
+        final List<String> locales = new ArrayList<>(displayLocales.size() + 1);
+        locales.add(NAME_LOCALE);
+        locales.addAll(displayLocales);
+        return Collections.unmodifiableList(locales);
+    }
+
+    @Override
+    public LanguageMatchCTO resolveLanguage(final String preferences, final String countryShortName) {
+        Preconditions.checkNotNull(preferences, "Language preferences must not be null");
+        Preconditions.checkArgument(!preferences.trim().isEmpty() && preferences.length() <= MAX_LANGUAGE_PREFERENCES_LENGTH,
+                                    "Language preferences must not be blank and have at most " + MAX_LANGUAGE_PREFERENCES_LENGTH + " characters");
+        if(countryShortName != null) {
+            Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        }
+        final LanguageMatchCTO match = this.languageMatcher.match(preferences, countryShortName);
+        if(match == null) {
+            throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "No available language matches the language preferences " + preferences);
+        } // else: a language is acceptable.
+        return match;
+    }
+
+    @Override
+    public LookupResultCTO<LanguageTO> getLanguages(final Collection<String> shortNames) {
+        final Set<String> codes = lookupCodes(shortNames);
+        final Map<String, LanguageET> languages = this.languageManager.getLanguages(codes);
+        final List<LanguageTO> found = new ArrayList<>(languages.size());
+        final List<String> missing = new ArrayList<>(codes.size() - languages.size());
+        for(final String shortName : codes) {
+            final LanguageET language = languages.get(shortName);
+            if(language != null) {
+                found.add(LanguageMapper.toTO(language));
+            } else {
+                missing.add(shortName);
+            }
+        }
+        return new LookupResultCTO<>(found, missing);
+    }
+
     @Override
     public Set<LanguageTO> addLanguage(final LanguageTO language) {
         LanguageValidation.validateLanguageTO(language);
         final LanguageET languageET = LanguageMapper.fromTO(language);
-        return this.languageManager.addLanguage(languageET)
-                                   .stream()
-                                   .map(LanguageMapper::toTO)
-                                   .collect(Collectors.toSet());
+        this.languageManager.addLanguage(languageET);
+        return getLanguages();
+    }
+
+    @Override
+    public LanguageTO createLanguage(final LanguageTO language) {
+        LanguageValidation.validateLanguageTO(language);
+        return LanguageMapper.toTO(this.languageManager.createLanguage(LanguageMapper.fromTO(language)));
     }
 
     @Override
     public Set<CountryWithLanguageCTO> getCountriesWithLanguage() {
-        return this.languageManager.getCountriesWithLanguage()
-                                   .entrySet()
-                                   .stream()
-                                   .map(c -> new CountryWithLanguageCTO(c.getKey(), LanguageMapper.toTO(c.getValue())))
-                                   .collect(Collectors.toSet());
+        return this.countriesWithLanguage.get(this.languageManager.getDataVersion());
+    }
+
+    @Override
+    public PageCTO<CountryWithLanguageCTO> getCountriesWithLanguagePage(final String cursor, final int limit) {
+        checkPageLimit(limit);
+        // one more country is read to know if a next page is existing.
+        final Map<String, LanguageET> countriesWithLanguage = this.languageManager.getCountriesWithLanguagePage(decodeCursor(cursor), limit + 1);
+        final List<CountryWithLanguageCTO> items = new ArrayList<>(Math.min(countriesWithLanguage.size(), limit));
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : countriesWithLanguage.entrySet()) {
+            if(items.size() == limit) {
+                break;
+            }
+            items.add(toCTO(countryWithLanguage.getKey(), countryWithLanguage.getValue()));
+        }
+        final String nextCursor = countriesWithLanguage.size() > limit ? encodeCursor(items.get(limit - 1).getCountryShortName()) : null;
+        return new PageCTO<>(items, nextCursor);
     }
 
     @Override
     public CountryWithLanguageCTO getCountryWithLanguage(final String countryShortName) {
         Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
         Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
-        final LanguageTO language = LanguageMapper.toTO(this.languageManager.getLanguageOfCountry(countryShortName));
-        return new CountryWithLanguageCTO(countryShortName, language);
+        return toCTO(countryShortName, this.languageManager.getLanguageOfCountry(countryShortName));
+    }
+
+    @Override
+    public LookupResultCTO<CountryWithLanguageCTO> getCountriesWithLanguage(final Collection<String> countryShortNames) {
+        final Set<String> codes = lookupCodes(countryShortNames);
+        final Map<String, LanguageET> languages = this.languageManager.getLanguagesOfCountries(codes);
+        final List<CountryWithLanguageCTO> found = new ArrayList<>(languages.size());
+        final List<String> missing = new ArrayList<>(codes.size() - languages.size());
+        for(final String countryShortName : codes) {
+            final LanguageET language = languages.get(countryShortName);
+            if(language != null) {
+                found.add(toCTO(countryShortName, language));
+            } else {
+                missing.add(countryShortName);
+            }
+        }
+        return new LookupResultCTO<>(found, missing);
+    }
+
+    @Override
+    public CountriesOfLanguageCTO getCountriesOfLanguage(final String shortName) {
+        final LanguageTO language = getLanguage(shortName);
+        // merge the sorted countries with the language as their language and with the language as further language.
+        final List<String> primaryCountries = new ArrayList<>(this.languageManager.getCountriesByLanguage(shortName));
+        final List<CountryLanguageET> countryLanguages = this.languageManager.getCountriesOfLanguage(shortName);
+        final List<CountryOfLanguageTO> countries = new ArrayList<>(primaryCountries.size() + countryLanguages.size());
+        int primaryIndex = 0;
+        int relationIndex = 0;
+        while(primaryIndex < primaryCountries.size() || relationIndex < countryLanguages.size()) {
+            final String primaryCountry = primaryIndex < primaryCountries.size() ? primaryCountries.get(primaryIndex) : null;
+            final CountryLanguageET relation = relationIndex < countryLanguages.size() ? countryLanguages.get(relationIndex) : null;
+            final int order = primaryCountry == null ? 1 : relation == null ? -1 : primaryCountry.compareTo(relation.getCountryShortName());
+            if(order < 0) {
+                countries.add(new CountryOfLanguageTO(primaryCountry, true, null, null));
+                primaryIndex++;
+            } else {
+                countries.add(new CountryOfLanguageTO(relation.getCountryShortName(), order == 0, relation.getOfficial(), relation.getPopulationShare()));
+                relationIndex++;
+                if(order == 0) {
+                    primaryIndex++;
+                }
+            }
+        }
+        return new CountriesOfLanguageCTO(language, countries);
     }
 
     @Override
     public Set<CountryWithLanguageCTO> addCountryWithLanguage(final CountryWithLanguageCTO countryWithLanguage) {
-        Preconditions.checkNotNull(countryWithLanguage, "Country with language must not be null");
-        Preconditions.checkNotNull(countryWithLanguage.getCountryShortName(), "Country short name must not be null");
-        Preconditions.checkStringLength(countryWithLanguage.getCountryShortName(), 3, "Country short name must have 3 characters");
-        LanguageValidation.validateLanguageTO(countryWithLanguage.getLanguage());
+        LanguageValidation.validateCountryWithLanguageCTO(countryWithLanguage);
         final LanguageET language = LanguageMapper.fromTO(countryWithLanguage.getLanguage());
-        return this.languageManager.addCountryWithLanguage(countryWithLanguage.getCountryShortName(), language)
-                                   .entrySet()
-                                   .stream()
-                                   .map(c -> new CountryWithLanguageCTO(c.getKey(), LanguageMapper.toTO(c.getValue())))
-                                   .collect(Collectors.toSet());
+        final List<CountryLanguageET> countryLanguages = countryLanguagesOf(countryWithLanguage);
+        this.languageManager.addCountryWithLanguage(countryWithLanguage.getCountryShortName(), language);
+        countryLanguages.forEach(this.languageManager::addLanguageOfCountry);
+        return getCountriesWithLanguage();
+    }
+
+    @Override
+    public CountryWithLanguageCTO createCountryWithLanguage(final CountryWithLanguageCTO countryWithLanguage) {
+        LanguageValidation.validateCountryWithLanguageCTO(countryWithLanguage);
+        final LanguageET language = LanguageMapper.fromTO(countryWithLanguage.getLanguage());
+        final List<CountryLanguageET> countryLanguages = countryLanguagesOf(countryWithLanguage);
+        final LanguageET storedLanguage = this.languageManager.createCountryWithLanguage(countryWithLanguage.getCountryShortName(), language);
+        countryLanguages.forEach(this.languageManager::addLanguageOfCountry);
+        return toCTO(countryWithLanguage.getCountryShortName(), storedLanguage);
+    }
+
+    @Override
+    public CountryWithLanguageCTO addLanguageOfCountry(final String countryShortName, final LanguageOfCountryTO languageOfCountry) {
+        LanguageValidation.validateCountryShortName(countryShortName);
+        LanguageValidation.validateLanguageOfCountryTO(languageOfCountry);
+        this.languageManager.addLanguageOfCountry(LanguageMapper.fromTO(countryShortName, languageOfCountry));
+        return getCountryWithLanguage(countryShortName);
+    }
+
+    @Override
+    public ImportResultCTO importAll(final List<CountryWithLanguageCTO> records) {
+        Preconditions.checkNotNull(records, "Records must not be null");
+        final List<ImportErrorTO> errors = new ArrayList<>();
+        final List<Map.Entry<String, LanguageET>> validRecords = new ArrayList<>(records.size());
+        // position of each valid record in the given records.
+        final int[] positions = new int[records.size()];
+        for(int i = 0; i < records.size(); i++) {
+            final CountryWithLanguageCTO record = records.get(i);
+            try {
+                Preconditions.checkNotNull(record, "Record must not be null");
+                LanguageValidation.validateLanguageTO(record.getLanguage());
+                final LanguageET language = LanguageMapper.fromTO(record.getLanguage());
+                positions[validRecords.size()] = i;
+                validRecords.add(new AbstractMap.SimpleImmutableEntry<>(record.getCountryShortName(), language));
+            } catch(final BusinessException e) {
+                errors.add(new ImportErrorTO(i + 1L, e.getMessage()));
+            }
+        }
+        for(final Map.Entry<Integer, String> error : this.languageManager.importAll(validRecords).entrySet()) {
+            errors.add(new ImportErrorTO(positions[error.getKey()] + 1L, error.getValue()));
+        }
+        errors.sort(Comparator.comparingLong(ImportErrorTO::getRecord));
+        return new ImportResultCTO(records.size() - errors.size(), errors);
+    }
+
+    @Override
+    public long getDataVersion() {
+        return this.languageManager.getDataVersion();
+    }
+
+    /**
+     * Map all stored languages to {@link LanguageTO}s.
+     *
+     * @return an unmodifiable {@link Set} of all languages as {@link LanguageTO}s, ordered by their short name.
+     */
+    private Set<LanguageTO> mapLanguages() {
+        final Set<LanguageTO> languages = this.languageManager.getLanguages()
+                                                              .stream()
+                                                              .sorted(Comparator.comparing((LanguageET l) -> l.getShortName().toLowerCase(Locale.ROOT)))
+                                                              .map(LanguageMapper::toTO)
+                                                              .collect(Collectors.toCollection(LinkedHashSet::new));
+        return Collections.unmodifiableSet(languages);
+    }
+
+    /**
+     * Map all stored countries with their language to {@link CountryWithLanguageCTO}s.
+     *
+     * @return an unmodifiable {@link Set} of all countries with their language as {@link CountryWithLanguageCTO}s, ordered by the country short name.
+     */
+    private Set<CountryWithLanguageCTO> mapCountriesWithLanguage() {
+        final Map<String, List<CountryLanguageET>> countryLanguages = this.languageManager.getCountryLanguages();
+        final Set<CountryWithLanguageCTO> countriesWithLanguage = this.languageManager.getCountriesWithLanguage()
+                                                                                      .entrySet()
+                                                                                      .stream()
+                                                                                      .sorted(Map.Entry.comparingByKey())
+                                                                                      .map(c -> LanguageMapper.toCTO(c.getKey(), c.getValue(),
+                                                                                                                     countryLanguages.getOrDefault(c.getKey(), Collections.emptyList())))
+                                                                                      .collect(Collectors.toCollection(LinkedHashSet::new));
+        return Collections.unmodifiableSet(countriesWithLanguage);
+    }
+
+    /**
+     * Map a country with its language to a {@link CountryWithLanguageCTO} including all languages of the country.
+     *
+     * @param countryShortName the short name of the country.
+     * @param language the language of the country.
+     * @return the country with all its languages as {@link CountryWithLanguageCTO}.
+     */
+    private CountryWithLanguageCTO toCTO(final String countryShortName, final LanguageET language) {
+        return LanguageMapper.toCTO(countryShortName, language, this.languageManager.getLanguagesOfCountry(countryShortName));
+    }
+
+    /**
+     * Validate and map the further languages of the given country, so nothing is written if any of them is invalid.
+     *
+     * @param countryWithLanguage the country with its languages.
+     * @return the languages of the country as {@link List} of {@link CountryLanguageET}s, empty if none are given.
+     */
+    private static List<CountryLanguageET> countryLanguagesOf(final CountryWithLanguageCTO countryWithLanguage) {
+        if(countryWithLanguage.getLanguages() == null) {
+            return Collections.emptyList();
+        } // else: map all languages of the country.
+        final List<CountryLanguageET> countryLanguages = new ArrayList<>(countryWithLanguage.getLanguages().size());
+        for(final LanguageOfCountryTO languageOfCountry : countryWithLanguage.getLanguages()) {
+            countryLanguages.add(LanguageMapper.fromTO(countryWithLanguage.getCountryShortName(), languageOfCountry));
+        }
+        return countryLanguages;
+    }
+
+    /**
+     * Check the given limit of a page.
+     *
+     * @param limit the maximum number of items of the page (1 to {@link #MAX_PAGE_SIZE}).
+     */
+    private static void checkPageLimit(final int limit) {
+        Preconditions.checkArgument(limit > 0 && limit <= MAX_PAGE_SIZE, "Limit must be between 1 and " + MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Check that the given display locale is supported.
+     *
+     * @param locale the language tag of the display locale.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the display locale is not one of {@link #getDisplayLocales()}.
+     */
+    private void checkDisplayLocale(final String locale) {
+        Preconditions.checkNotNull(locale, "Display locale must not be null");
+        Preconditions.checkArgument(NAME_LOCALE.equals(locale) || this.languageManager.getDisplayLocales().contains(locale),
+                                    "Display locale " + locale + " is not supported");
+    }
+
+    /**
+     * Copy the given languages with their name in the given display locale as display name.
+     * The display names are read at once, languages without display name in the display locale get their name.
+     *
+     * @param languages the languages as {@link Collection} of {@link LanguageTO}s, which are not modified.
+     * @param locale the language tag of the display locale (supported).
+     * @return the copies as {@link List} of {@link LanguageTO}s in the order of the given languages.
+     */
+    private List<LanguageTO> localize(final Collection<LanguageTO> languages, final String locale) {
+        final List<String> shortNames = new ArrayList<>(languages.size());
+        for(final LanguageTO language : languages) {
+            shortNames.add(language.getShortName());
+        }
+        final Map<String, String> displayNames = NAME_LOCALE.equals(locale) ? Collections.emptyMap() : this.languageManager.getDisplayNames(shortNames, locale);
+        final List<LanguageTO> localized = new ArrayList<>(languages.size());
+        for(final LanguageTO language : languages) {
+            localized.add(new LanguageTO(language.getShortName(), language.getName(), displayNames.getOrDefault(language.getShortName(), language.getName())));
+        }
+        return localized;
+    }
+
+    /**
+     * Create the opaque cursor of the page starting after the given short name.
+     *
+     * @param shortName the short name of the last item of the previous page.
+     * @return the cursor.
+     */
+    private static String encodeCursor(final String shortName) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(shortName.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Get the short name after which the page of the given cursor starts.
+     *
+     * @param cursor the cursor created by {@link #encodeCursor(String)}, {@code null} for the first page.
+     * @return the short name after which the page starts, {@code null} for the first page.
+     */
+    private static String decodeCursor(final String cursor) {
+        if(cursor == null) {
+            return null;
+        } // else: decode the short name.
+        try {
+            return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch(final IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Check the given codes of a lookup and remove duplicates.
+     *
+     * @param codes the requested codes (not {@code null}, at most {@link #MAX_LOOKUP_CODES}).
+     * @return the distinct codes in the requested order.
+     */
+    private static Set<String> lookupCodes(final Collection<String> codes) {
+        Preconditions.checkNotNull(codes, "Codes must not be null");
+        Preconditions.checkArgument(codes.size() <= MAX_LOOKUP_CODES, "At most " + MAX_LOOKUP_CODES + " codes can be looked up at once");
+        final Set<String> distinctCodes = new LinkedHashSet<>(codes);
+        distinctCodes.remove(null);
+        return distinctCodes;
     }
 }
@@ -2,11 +2,17 @@ package de.exxcellent.microservices.showcase.core.language.impl.access;
 
 import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
 import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
 import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
- * Maps a {@link LanguageET} to a {@link LanguageTO} and vice versa.
+ * Maps a {@link LanguageET} to a {@link LanguageTO} and vice versa, as well as the languages of countries.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -28,7 +34,6 @@ public final class LanguageMapper {
      * @return a {@link LanguageET} holding the information from the {@link LanguageTO}.
      */
     public static LanguageET fromTO(final LanguageTO language) {
-        LanguageValidation.validateLanguageTO(language);
         return new LanguageET(language.getShortName(), language.getName());
     }
 
@@ -42,4 +47,50 @@ public final class LanguageMapper {
         LanguageValidation.validateLanguageET(language);
         return new LanguageTO(language.getShortName(), language.getName());
     }
+
+    /**
+     * Maps the given {@link LanguageOfCountryTO} of the given country to a {@link CountryLanguageET}.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param languageOfCountry the {@link LanguageOfCountryTO} to be mapped (must be valid, see {@link LanguageValidation#validateLanguageOfCountryTO(LanguageOfCountryTO)}).
+     * @return a {@link CountryLanguageET} holding the information from the {@link LanguageOfCountryTO}.
+     */
+    public static CountryLanguageET fromTO(final String countryShortName, final LanguageOfCountryTO languageOfCountry) {
+        return new CountryLanguageET(countryShortName, fromTO(languageOfCountry.getLanguage()), languageOfCountry.getOfficial(),
+                                     languageOfCountry.getPopulationShare());
+    }
+
+    /**
+     * Maps the given {@link CountryLanguageET} to a {@link LanguageOfCountryTO}.
+     *
+     * @param countryLanguage the {@link CountryLanguageET} to be mapped (not {@code null}).
+     * @return a {@link LanguageOfCountryTO} holding the language and the attributes of the {@link CountryLanguageET}.
+     */
+    public static LanguageOfCountryTO toTO(final CountryLanguageET countryLanguage) {
+        return new LanguageOfCountryTO(toTO(countryLanguage.getLanguage()), countryLanguage.getOfficial(), countryLanguage.getPopulationShare());
+    }
+
+    /**
+     * Maps the given country with its language and all its languages to a {@link CountryWithLanguageCTO}.
+     * The languages of the {@link CountryWithLanguageCTO} start with the language of the country, with unknown attributes if it is not contained
+     * in the given languages of the country, followed by the other languages of the country.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param language the language of the country as {@link LanguageET} (must be valid).
+     * @param countryLanguages all languages of the country as {@link List} of {@link CountryLanguageET}s (not {@code null}).
+     * @return a {@link CountryWithLanguageCTO} holding the country with its languages.
+     */
+    public static CountryWithLanguageCTO toCTO(final String countryShortName, final LanguageET language, final List<CountryLanguageET> countryLanguages) {
+        final LanguageTO languageTO = toTO(language);
+        final List<LanguageOfCountryTO> languages = new ArrayList<>(countryLanguages.size() + 1);
+        languages.add(new LanguageOfCountryTO(languageTO, null, null));
+        for(final CountryLanguageET countryLanguage : countryLanguages) {
+            if(countryLanguage.getLanguage().getShortName().equalsIgnoreCase(language.getShortName())) {
+                languages.set(0, new LanguageOfCountryTO(languageTO, countryLanguage.getOfficial(), countryLanguage.getPopulationShare()));
+            } else {
+                languages.add(toTO(countryLanguage));
+            }
+        }
+        return new CountryWithLanguageCTO(countryShortName, languageTO, languages);
+    }
 }
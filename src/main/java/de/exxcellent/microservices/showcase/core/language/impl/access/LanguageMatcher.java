@@ -0,0 +1,263 @@
+package de.exxcellent.microservices.showcase.core.language.impl.access;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.impl.business.LanguageICI;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.MissingResourceException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the best available language for a language preference list, e.g. the value of an {@code Accept-Language} header, and an optional country.
+ * <p>
+ * The ranges of the preference list are matched in the order of their quality like the lookup of BCP 47 (RFC 4647): the language subtag of each range
+ * (ISO 639-1 codes are mapped to ISO 639-3, an extended language subtag like {@code zh-yue} takes precedence) is looked up in the available languages,
+ * the further subtags (script, region, ...) are truncated. The wildcard {@code *} matches the language of the country, which is also taken if no range matches.
+ * Languages with a quality of zero are never matched.
+ * <p>
+ * The parsed preference lists and the match results are kept in bounded caches, as few different preference lists make up almost all requests.
+ * A match result is only reused for the data version it was resolved with.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class LanguageMatcher {
+    /**
+     * The maximum number of entries of each cache. A cache is cleared if it grows larger, e.g. by many different preference lists.
+     */
+    private static final int MAX_ENTRIES = 1000;
+    /**
+     * The language range matching any language.
+     */
+    private static final String WILDCARD = "*";
+    /**
+     * The ISO 639-3 codes of the ISO 639-1 codes.
+     */
+    private static final Map<String, String> ISO3_LANGUAGES = iso3Languages();
+
+    private final LanguageICI languageManager;
+    /**
+     * The parsed preference lists by the preference list.
+     */
+    private final Map<String, List<Preference>> preferenceLists = new ConcurrentHashMap<>();
+    /**
+     * The match results by the preference list and the country short name.
+     */
+    private final Map<String, Match> matches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructor.
+     *
+     * @param languageManager the {@link LanguageICI} providing the available languages.
+     */
+    LanguageMatcher(final LanguageICI languageManager) {
+        this.languageManager = languageManager;
+    }
+
+    /**
+     * Resolve the best available language for the given preference list and country.
+     *
+     * @param preferenceList the language preference list in the format of the {@code Accept-Language} header (not {@code null}).
+     * @param countryShortName the short name of the country of the user ({@code null} if unknown). Unknown countries do not have a language.
+     * @return the resolved language as {@link LanguageMatchCTO} (shared, must not be modified), {@code null} if no available language is acceptable.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the preference list is malformed.
+     */
+    LanguageMatchCTO match(final String preferenceList, final String countryShortName) {
+        final String country = countryShortName != null ? countryShortName.toUpperCase(Locale.ROOT) : null;
+        final String key = country != null ? preferenceList + '|' + country : preferenceList;
+        // the version is read first, so a cached match is never older than its version.
+        final long version = this.languageManager.getDataVersion();
+        final Match cached = this.matches.get(key);
+        if(cached != null && cached.version == version) {
+            return cached.result;
+        } // else: resolve the language of the current data version.
+        final LanguageMatchCTO result = resolve(preferences(preferenceList), country);
+        put(this.matches, key, new Match(version, result));
+        return result;
+    }
+
+    /**
+     * Get the parsed preference list.
+     *
+     * @param preferenceList the language preference list.
+     * @return the {@link Preference}s ordered by descending quality.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the preference list is malformed.
+     */
+    private List<Preference> preferences(final String preferenceList) {
+        List<Preference> preferences = this.preferenceLists.get(preferenceList);
+        if(preferences == null) {
+            preferences = parse(preferenceList);
+            put(this.preferenceLists, preferenceList, preferences);
+        }
+        return preferences;
+    }
+
+    /**
+     * Resolve the best available language for the given preferences and country.
+     *
+     * @param preferences the {@link Preference}s ordered by descending quality.
+     * @param countryShortName the short name of the country in upper case ({@code null} if unknown).
+     * @return the resolved language as {@link LanguageMatchCTO}, {@code null} if no available language is acceptable.
+     */
+    private LanguageMatchCTO resolve(final List<Preference> preferences, final String countryShortName) {
+        final Set<String> acceptable = new LinkedHashSet<>();
+        final Set<String> rejected = new HashSet<>();
+        for(final Preference preference : preferences) {
+            if(preference.shortName != null) {
+                (preference.quality > 0 ? acceptable : rejected).add(preference.shortName);
+            }
+        }
+        // all languages of the preference list are read at once.
+        final Map<String, LanguageET> languages = acceptable.isEmpty() ? Collections.emptyMap() : this.languageManager.getLanguages(acceptable);
+        final LanguageET countryLanguage = countryShortName != null
+                                           ? this.languageManager.getLanguagesOfCountries(Collections.singletonList(countryShortName)).get(countryShortName) : null;
+        final boolean countryLanguageAcceptable = countryLanguage != null && !rejected.contains(countryLanguage.getShortName().toLowerCase(Locale.ROOT));
+        for(final Preference preference : preferences) {
+            if(preference.quality <= 0) {
+                break;
+            } else if(preference.shortName == null && countryLanguageAcceptable) {
+                return new LanguageMatchCTO(LanguageMapper.toTO(countryLanguage), preference.range, preference.quality);
+            } else if(preference.shortName != null && languages.containsKey(preference.shortName)) {
+                return new LanguageMatchCTO(LanguageMapper.toTO(languages.get(preference.shortName)), preference.range, preference.quality);
+            }
+        }
+        return countryLanguageAcceptable ? new LanguageMatchCTO(LanguageMapper.toTO(countryLanguage), null, null) : null;
+    }
+
+    /**
+     * Parse the given preference list.
+     *
+     * @param preferenceList the language preference list in the format of the {@code Accept-Language} header.
+     * @return the {@link Preference}s ordered by descending quality, without ranges not referring to a language (e.g. private use).
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the preference list is malformed.
+     */
+    private static List<Preference> parse(final String preferenceList) {
+        final List<Locale.LanguageRange> ranges;
+        try {
+            ranges = Locale.LanguageRange.parse(preferenceList);
+        } catch(final IllegalArgumentException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Invalid language preference list: " + preferenceList);
+        }
+        final List<Preference> preferences = new ArrayList<>(ranges.size());
+        for(final Locale.LanguageRange range : ranges) {
+            final String[] subtags = range.getRange().split("-");
+            final String shortName;
+            if(WILDCARD.equals(subtags[0])) {
+                shortName = null;
+            } else if(subtags.length > 1 && isLetters(subtags[1], 3)) {
+                // extended language subtag, e.g. zh-yue for Cantonese.
+                shortName = subtags[1];
+            } else if(isLetters(subtags[0], 2) && ISO3_LANGUAGES.containsKey(subtags[0])) {
+                shortName = ISO3_LANGUAGES.get(subtags[0]);
+            } else if(isLetters(subtags[0], 3)) {
+                shortName = subtags[0];
+            } else {
+                continue;
+            }
+            preferences.add(new Preference(range.getRange(), shortName, range.getWeight()));
+        }
+        return Collections.unmodifiableList(preferences);
+    }
+
+    /**
+     * Check if the given subtag consists of the given number of letters.
+     *
+     * @param subtag the subtag in lower case.
+     * @param length the expected number of letters.
+     * @return {@code true} if the subtag has the length and only contains the letters a to z.
+     */
+    private static boolean isLetters(final String subtag, final int length) {
+        if(subtag.length() != length) {
+            return false;
+        } // else: check the characters.
+        for(int i = 0; i < length; i++) {
+            if(subtag.charAt(i) < 'a' || subtag.charAt(i) > 'z') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Put the given entry into the given bounded cache.
+     *
+     * @param cache the cache.
+     * @param key the key of the entry.
+     * @param value the value of the entry.
+     * @param <V> the type of the values.
+     */
+    private static <V> void put(final Map<String, V> cache, final String key, final V value) {
+        if(cache.size() >= MAX_ENTRIES) {
+            cache.clear();
+        }
+        cache.put(key, value);
+    }
+
+    /**
+     * Map the ISO 639-1 codes known by the JDK to ISO 639-3 codes.
+     *
+     * @return the ISO 639-3 codes by the ISO 639-1 codes.
+     */
+    private static Map<String, String> iso3Languages() {
+        final Map<String, String> iso3Languages = new HashMap<>();
+        for(final String language : Locale.getISOLanguages()) {
+            try {
+                iso3Languages.put(language, new Locale(language).getISO3Language());
+            } catch(final MissingResourceException e) {
+                // the language has no three letter code.
+            }
+        }
+        return Collections.unmodifiableMap(iso3Languages);
+    }
+
+    /**
+     * A language range of a preference list.
+     */
+    private static final class Preference {
+        /**
+         * The language range in lower case.
+         */
+        private final String range;
+        /**
+         * The short name (ISO 639-3) of the language of the range, {@code null} for the wildcard.
+         */
+        private final String shortName;
+        /**
+         * The quality of the range.
+         */
+        private final double quality;
+
+        private Preference(final String range, final String shortName, final double quality) {
+            this.range = range;
+            this.shortName = shortName;
+            this.quality = quality;
+        }
+    }
+
+    /**
+     * A match result together with the data version it was resolved with.
+     */
+    private static final class Match {
+        private final long version;
+        /**
+         * The resolved language, {@code null} if no available language is acceptable.
+         */
+        private final LanguageMatchCTO result;
+
+        private Match(final long version, final LanguageMatchCTO result) {
+            this.version = version;
+            this.result = result;
+        }
+    }
+}
@@ -3,11 +3,14 @@ package de.exxcellent.microservices.showcase.core.language.impl.access;
 import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
 import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
 import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
 
 /**
  * A simple helper class to validate {@link LanguageET}s and {@link LanguageTO}s.
+ * The transport objects are validated once by the {@link LanguageBF} receiving them, their setters do not validate.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -17,6 +20,11 @@ public final class LanguageValidation {
     public static final String LANGUAGE_SHORT_NAME_NOT_NULL = "Language short name must not be null";
     public static final String LANGUAGE_SHORT_NAME_LENGTH = "Language short name must have 3 charaters";
     public static final String LANGUAGE_NAME_NOT_NULL = "Language name must not be null";
+    public static final String SHORT_NAME_ASCII = "Short name must consist of ASCII characters";
+    public static final String POPULATION_SHARE_RANGE = "Population share must be between 0 and 100 percent";
+    public static final String COUNTRY_SHORT_NAME_NOT_NULL = "Country short name must not be null";
+    public static final String COUNTRY_SHORT_NAME_LENGTH = "Country short name must have 3 characters";
+    public static final String LANGUAGE_OF_COUNTRY_NOT_NULL = "Language of country must not be null";
 
     /**
      * private constructor to hide implicit public one.
@@ -45,6 +53,78 @@ public final class LanguageValidation {
         Preconditions.checkStringLength(language.getShortName(), 3, LANGUAGE_SHORT_NAME_LENGTH);
     }
 
+    /**
+     * Validate the provided {@link CountryWithLanguageCTO}.
+     * The following is checked:
+     * <ol>
+     *     <li>{@link CountryWithLanguageCTO} must not be {@code null}</li>
+     *     <li>{@link CountryWithLanguageCTO#getCountryShortName()} must not be {@code null}</li>
+     *     <li>{@link CountryWithLanguageCTO#getCountryShortName()} must have length 3</li>
+     *     <li>{@link CountryWithLanguageCTO#getLanguage()} must be valid (see {@link #validateLanguageTO(LanguageTO)})</li>
+     *     <li>each of {@link CountryWithLanguageCTO#getLanguages()} must be valid (see {@link #validateLanguageOfCountryTO(LanguageOfCountryTO)}), if present</li>
+     * </ol>
+     *
+     * @param countryWithLanguage the {@link CountryWithLanguageCTO} to be validated.
+     */
+    public static void validateCountryWithLanguageCTO(final CountryWithLanguageCTO countryWithLanguage) {
+        Preconditions.checkNotNull(countryWithLanguage, "Country with language must not be null");
+        validateCountryShortName(countryWithLanguage.getCountryShortName());
+        validateLanguageTO(countryWithLanguage.getLanguage());
+        if(countryWithLanguage.getLanguages() != null) {
+            for(final LanguageOfCountryTO languageOfCountry : countryWithLanguage.getLanguages()) {
+                validateLanguageOfCountryTO(languageOfCountry);
+            }
+        } // else: only the language of the country is known.
+    }
+
+    /**
+     * Validate the provided {@link LanguageOfCountryTO}.
+     * The following is checked:
+     * <ol>
+     *     <li>{@link LanguageOfCountryTO} must not be {@code null}</li>
+     *     <li>{@link LanguageOfCountryTO#getLanguage()} must be valid (see {@link #validateLanguageTO(LanguageTO)})</li>
+     *     <li>{@link LanguageOfCountryTO#getPopulationShare()} must be a percentage (see {@link #checkPopulationShare(Double)})</li>
+     * </ol>
+     *
+     * @param languageOfCountry the {@link LanguageOfCountryTO} to be validated.
+     */
+    public static void validateLanguageOfCountryTO(final LanguageOfCountryTO languageOfCountry) {
+        Preconditions.checkNotNull(languageOfCountry, LANGUAGE_OF_COUNTRY_NOT_NULL);
+        validateLanguageTO(languageOfCountry.getLanguage());
+        checkPopulationShare(languageOfCountry.getPopulationShare());
+    }
+
+    /**
+     * Validate the provided short name of a country: it must not be {@code null} and must have length 3.
+     *
+     * @param countryShortName the short name of the country to be validated.
+     */
+    public static void validateCountryShortName(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, COUNTRY_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(countryShortName, 3, COUNTRY_SHORT_NAME_LENGTH);
+    }
+
+    /**
+     * Check that the provided short name of a language or country only consists of ASCII characters, as required by the storage.
+     *
+     * @param shortName the short name to be checked (not {@code null}).
+     */
+    public static void checkShortNameASCII(final String shortName) {
+        for(int i = 0; i < shortName.length(); i++) {
+            final char character = shortName.charAt(i);
+            Preconditions.checkArgument(character != 0 && character <= 0x7F, SHORT_NAME_ASCII);
+        }
+    }
+
+    /**
+     * Check that the provided share of the population speaking a language is a percentage.
+     *
+     * @param populationShare the share in percent to be checked, {@code null} if unknown.
+     */
+    public static void checkPopulationShare(final Double populationShare) {
+        Preconditions.checkArgument(populationShare == null || (populationShare >= 0 && populationShare <= 100), POPULATION_SHARE_RANGE);
+    }
+
     /**
      * Validate the provided {@link LanguageET}.
      * The following is checked:
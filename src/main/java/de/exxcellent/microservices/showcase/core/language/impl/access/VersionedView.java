@@ -0,0 +1,64 @@
+package de.exxcellent.microservices.showcase.core.language.impl.access;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * A materialized view derived from the stored data, tagged with the data version it was built from.
+ * The view is only rebuilt if the data version changed since the last build.
+ *
+ * @param <T> the type of the view (should be immutable, as it is shared by all callers).
+ * @author Felix Riess
+ * @since 03.02.20
+ */
+final class VersionedView<T> {
+    /**
+     * The currently materialized view, {@code null} if not built yet.
+     */
+    private final AtomicReference<Materialized<T>> materialized = new AtomicReference<>();
+    /**
+     * Builds the view from the stored data.
+     */
+    private final Supplier<T> builder;
+
+    /**
+     * Constructor.
+     *
+     * @param builder builds the view from the stored data.
+     */
+    VersionedView(final Supplier<T> builder) {
+        this.builder = builder;
+    }
+
+    /**
+     * Get the view for the given data version. Builds the view if it was built for another version.
+     * The version must be read before the data, so the view is never older than its version.
+     *
+     * @param version the current data version.
+     * @return the view.
+     */
+    T get(final long version) {
+        final Materialized<T> current = this.materialized.get();
+        if(current != null && current.version == version) {
+            return current.view;
+        } // else: build the view. Concurrent builds of the same version are harmless, the last one wins.
+        final Materialized<T> updated = new Materialized<>(version, this.builder.get());
+        this.materialized.set(updated);
+        return updated.view;
+    }
+
+    /**
+     * A view together with the data version it was built from.
+     *
+     * @param <T> the type of the view.
+     */
+    private static final class Materialized<T> {
+        private final long version;
+        private final T view;
+
+        private Materialized(final long version, final T view) {
+            this.version = version;
+            this.view = view;
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package de.exxcellent.microservices.showcase.core.language.impl.business;
 
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -28,6 +31,49 @@ public interface LanguageICI {
      */
     LanguageET getLanguage(final String shortName);
 
+    /**
+     * Get many languages by their short names (ISO codes) at once.
+     *
+     * @param shortNames the short names of the languages to be returned (not {@code null}).
+     * @return the found languages as {@link Map} with the requested short name as key, in the order of the given short names.
+     * Short names without language are not contained, no exception is thrown for them.
+     */
+    Map<String, LanguageET> getLanguages(final Collection<String> shortNames);
+
+    /**
+     * Search languages by (a part of) their name, ignoring the letter case and accents.
+     *
+     * @param query the (part of the) name to search (not {@code null}).
+     * @param limit the maximum number of languages to return (positive).
+     * @return the best matching languages as {@link List} of {@link LanguageET}s, empty if no language matches.
+     */
+    List<LanguageET> searchLanguages(final String query, final int limit);
+
+    /**
+     * Get the display locales in which languages have display names besides their name.
+     *
+     * @return the language tags (BCP 47) of the display locales as {@link List} of {@link String}s, empty if no language has display names.
+     */
+    List<String> getDisplayLocales();
+
+    /**
+     * Get the display names of many languages in a display locale at once.
+     *
+     * @param shortNames the short names of the languages (not {@code null}).
+     * @param locale the language tag of the display locale, one of {@link #getDisplayLocales()} (not {@code null}).
+     * @return the display names as {@link Map} with the given short name as key. Languages without display name in the display locale are not contained.
+     */
+    Map<String, String> getDisplayNames(final Collection<String> shortNames, final String locale);
+
+    /**
+     * Get a page of languages ordered by their short name.
+     *
+     * @param after the short name of the language after which the page starts, {@code null} for the first page.
+     * @param limit the maximum number of languages of the page (positive).
+     * @return the languages of the page in ascending order of their short name as {@link List} of {@link LanguageET}s.
+     */
+    List<LanguageET> getLanguagePage(final String after, final int limit);
+
     /**
      * Add a language.
      * No duplicates will be created.
@@ -37,6 +83,14 @@ public interface LanguageICI {
      */
     Set<LanguageET> addLanguage(final LanguageET language);
 
+    /**
+     * Add a language like {@link #addLanguage(LanguageET)}, but only return the stored language.
+     *
+     * @param language the language to be added as {@link LanguageET}. (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
+     * @return the stored language with the short name of the given language as {@link LanguageET}.
+     */
+    LanguageET createLanguage(final LanguageET language);
+
     /**
      * Get all countries with their language.
      *
@@ -53,6 +107,24 @@ public interface LanguageICI {
      */
     LanguageET getLanguageOfCountry(final String countryShortName);
 
+    /**
+     * Get the languages of many countries at once.
+     *
+     * @param countryShortNames the short names of the countries (not {@code null}).
+     * @return the found languages as {@link Map} with the requested country short name as key, in the order of the given short names.
+     * Short names without country are not contained, no exception is thrown for them.
+     */
+    Map<String, LanguageET> getLanguagesOfCountries(final Collection<String> countryShortNames);
+
+    /**
+     * Get a page of countries with their language ordered by the country short name.
+     *
+     * @param after the short name of the country after which the page starts, {@code null} for the first page.
+     * @param limit the maximum number of countries of the page (positive).
+     * @return the countries of the page as {@link Map} with the country short name as key and its language as value, in ascending order of the short name.
+     */
+    Map<String, LanguageET> getCountriesWithLanguagePage(final String after, final int limit);
+
     /**
      * Add a country with its language.
      *
@@ -61,4 +133,73 @@ public interface LanguageICI {
      * @return all available countries with their language including the newly added as {@link Map} with the country short name as key and its language as value.
      */
     Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language);
+
+    /**
+     * Add a country with its language like {@link #addCountryWithLanguage(String, LanguageET)}, but only return the stored language of the country.
+     *
+     * @param countryShortName the short name of the country to be added (3 characters, not {@code null}).
+     * @param language the language of the country to be added as {@link LanguageET} (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
+     * @return the stored language of the country as {@link LanguageET}.
+     */
+    LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language);
+
+    /**
+     * Get the languages of all countries which have relations to their languages, see {@link #addLanguageOfCountry(CountryLanguageET)}.
+     *
+     * @return a {@link Map} with the country short name as key and its relations to its languages as value, both ordered by the short names.
+     */
+    Map<String, List<CountryLanguageET>> getCountryLanguages();
+
+    /**
+     * Get the relations of a country to its languages, see {@link #addLanguageOfCountry(CountryLanguageET)}.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @return the relations as {@link List} of {@link CountryLanguageET}s ordered by the language short name, empty if the country has none.
+     */
+    List<CountryLanguageET> getLanguagesOfCountry(final String countryShortName);
+
+    /**
+     * Get the countries with the given language as their language (see {@link #getLanguageOfCountry(String)}) from the reverse index of the storage.
+     *
+     * @param shortName the short name of the language (3 characters, not {@code null}).
+     * @return the short names of the countries ordered by the short name, empty if no country has the language.
+     */
+    Set<String> getCountriesByLanguage(final String shortName);
+
+    /**
+     * Get the relations of a language to the countries using it, see {@link #addLanguageOfCountry(CountryLanguageET)}.
+     *
+     * @param shortName the short name of the language (3 characters, not {@code null}).
+     * @return the relations as {@link List} of {@link CountryLanguageET}s ordered by the country short name, empty if the language has none.
+     */
+    List<CountryLanguageET> getCountriesOfLanguage(final String shortName);
+
+    /**
+     * Add a language to a country. The language and the country are added as well if not existing yet,
+     * a new country gets the given language as its language (see {@link #getLanguageOfCountry(String)}).
+     * If the country is already related to the language, the existing relation and its attributes are kept.
+     *
+     * @param countryLanguage the relation between the country and the language as {@link CountryLanguageET} (not {@code null}).
+     * @return the stored relation as {@link CountryLanguageET}.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR}
+     * if another language with the short name of the given language is existing.
+     */
+    CountryLanguageET addLanguageOfCountry(final CountryLanguageET countryLanguage);
+
+    /**
+     * Import languages and countries with their language in one write.
+     * Each record is validated once. Invalid records and records conflicting with existing languages or with the language of existing countries
+     * (or of earlier records) are rejected, all other records are added together.
+     *
+     * @param records the records to be imported as {@link List} of country short names (key, {@code null} to only add the language) with their language (value).
+     * @return the error messages of all rejected records by their index in the given {@link List}, empty if all records were imported.
+     */
+    Map<Integer, String> importAll(final List<Map.Entry<String, LanguageET>> records);
+
+    /**
+     * Get the version of the stored languages and countries. Changes with every write which changes the data.
+     *
+     * @return the current data version.
+     */
+    long getDataVersion();
 }
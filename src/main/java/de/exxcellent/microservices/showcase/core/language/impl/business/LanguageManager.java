@@ -5,15 +5,21 @@ import de.exxcellent.microservices.showcase.common.errorhandling.exception.Busin
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
 import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.LanguageRepository;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Inject;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.TreeMap;
 
 /**
  * Manages the languages. Implements {@link LanguageICI}.
@@ -39,7 +45,7 @@ public class LanguageManager implements LanguageICI {
 
     @Override
     public Set<LanguageET> getLanguages() {
-        LOG.info("Query storage to get all languages");
+        LOG.debug("Query storage to get all languages");
         return this.languageRepository.findAll();
     }
 
@@ -47,26 +53,64 @@ public class LanguageManager implements LanguageICI {
     public LanguageET getLanguage(final String shortName) {
         Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
         Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
-        LOG.info("Query storage for language with short name {}", shortName);
+        LOG.debug("Query storage for language with short name {}", shortName);
         final Optional<LanguageET> optionalLanguage = this.languageRepository.findByShortName(shortName);
         if(optionalLanguage.isPresent()) {
             final LanguageET language = optionalLanguage.get();
-            LOG.info("Returning language {} for short name {} from storage", language.getName(), language.getShortName());
+            LOG.debug("Returning language {} for short name {} from storage", language.getName(), language.getShortName());
             return language;
         } else {
             throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "Language with short name " + shortName + " is not existing");
         }
     }
 
+    @Override
+    public Map<String, LanguageET> getLanguages(final Collection<String> shortNames) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        LOG.debug("Query storage for {} languages by short name", shortNames.size());
+        return this.languageRepository.findByShortNames(shortNames);
+    }
+
+    @Override
+    public List<LanguageET> searchLanguages(final String query, final int limit) {
+        Preconditions.checkNotNull(query, "Query must not be null");
+        LOG.debug("Query storage for {} languages with name matching {}", limit, query);
+        return this.languageRepository.findByName(query, limit);
+    }
+
+    @Override
+    public List<String> getDisplayLocales() {
+        return this.languageRepository.findDisplayLocales();
+    }
+
+    @Override
+    public Map<String, String> getDisplayNames(final Collection<String> shortNames, final String locale) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        Preconditions.checkNotNull(locale, "Display locale must not be null");
+        LOG.debug("Query storage for display names of {} languages in {}", shortNames.size(), locale);
+        return this.languageRepository.findDisplayNames(shortNames, locale);
+    }
+
+    @Override
+    public List<LanguageET> getLanguagePage(final String after, final int limit) {
+        LOG.debug("Query storage for {} languages after {}", limit, after);
+        return this.languageRepository.findPage(after, limit);
+    }
+
     @Override
     public Set<LanguageET> addLanguage(final LanguageET language) {
         addLanguageIfNotExisting(language);
         return this.languageRepository.findAll();
     }
 
+    @Override
+    public LanguageET createLanguage(final LanguageET language) {
+        return addLanguageIfNotExisting(language);
+    }
+
     @Override
     public Map<String, LanguageET> getCountriesWithLanguage() {
-        LOG.info("Query storage to get all countries with their language");
+        LOG.debug("Query storage to get all countries with their language");
         return this.languageRepository.findAllCountriesWithLanguage();
     }
 
@@ -74,17 +118,30 @@ public class LanguageManager implements LanguageICI {
     public LanguageET getLanguageOfCountry(final String countryShortName) {
         Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
         Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
-        LOG.info("Query storage for language of country with short name {}", countryShortName);
+        LOG.debug("Query storage for language of country with short name {}", countryShortName);
         final Optional<LanguageET> optionalExistingLanguage = this.languageRepository.findLanguageByCountry(countryShortName);
         if(optionalExistingLanguage.isPresent()) {
             final LanguageET existingLanguage = optionalExistingLanguage.get();
-            LOG.info("Returning language {} for country with short name {}", existingLanguage.getName(), countryShortName);
+            LOG.debug("Returning language {} for country with short name {}", existingLanguage.getName(), countryShortName);
             return existingLanguage;
         } else {
             throw new BusinessException(ErrorCode.NOT_FOUND_ERROR, "No language is existing for country with short name " + countryShortName);
         }
     }
 
+    @Override
+    public Map<String, LanguageET> getLanguagesOfCountries(final Collection<String> countryShortNames) {
+        Preconditions.checkNotNull(countryShortNames, "Country short names must not be null");
+        LOG.debug("Query storage for languages of {} countries", countryShortNames.size());
+        return this.languageRepository.findLanguagesByCountries(countryShortNames);
+    }
+
+    @Override
+    public Map<String, LanguageET> getCountriesWithLanguagePage(final String after, final int limit) {
+        LOG.debug("Query storage for {} countries with their language after {}", limit, after);
+        return this.languageRepository.findCountriesWithLanguagePage(after, limit);
+    }
+
     @Override
     public Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language) {
         Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
@@ -94,22 +151,193 @@ public class LanguageManager implements LanguageICI {
         return this.languageRepository.addCountryWithLanguage(countryShortName, language);
     }
 
-    private void addLanguageIfNotExisting(final LanguageET language) {
+    @Override
+    public LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        final LanguageET storedLanguage = addLanguageIfNotExisting(language);
+        LOG.info("Adding language {} to country with short name {}", storedLanguage.getName(), countryShortName);
+        return this.languageRepository.createCountryWithLanguage(countryShortName, storedLanguage);
+    }
+
+    @Override
+    public Map<String, List<CountryLanguageET>> getCountryLanguages() {
+        LOG.debug("Query storage to get the languages of all countries");
+        return this.languageRepository.findAllCountryLanguages();
+    }
+
+    @Override
+    public List<CountryLanguageET> getLanguagesOfCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        LOG.debug("Query storage for languages of country with short name {}", countryShortName);
+        return this.languageRepository.findLanguagesOfCountry(countryShortName);
+    }
+
+    @Override
+    public Set<String> getCountriesByLanguage(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        LOG.debug("Query storage for countries with language with short name {}", shortName);
+        return this.languageRepository.findCountriesByLanguage(shortName);
+    }
+
+    @Override
+    public List<CountryLanguageET> getCountriesOfLanguage(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        LOG.debug("Query storage for countries using language with short name {}", shortName);
+        return this.languageRepository.findCountriesOfLanguage(shortName);
+    }
+
+    @Override
+    public CountryLanguageET addLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        Preconditions.checkNotNull(countryLanguage, "Country language must not be null");
+        final LanguageET language = existingLanguageOrGiven(countryLanguage.getLanguage());
+        LOG.info("Adding language {} to the languages of country with short name {}", language.getName(), countryLanguage.getCountryShortName());
+        // one write adds the language if not existing, the relation and a new country with the language as its language. An existing country keeps its language.
+        return this.languageRepository.createLanguageOfCountry(new CountryLanguageET(countryLanguage.getCountryShortName(), language,
+                                                                                     countryLanguage.getOfficial(), countryLanguage.getPopulationShare()));
+    }
+
+    @Override
+    public Map<Integer, String> importAll(final List<Map.Entry<String, LanguageET>> records) {
+        Preconditions.checkNotNull(records, "Records must not be null");
+        LOG.info("Importing {} records", records.size());
+        final Map<Integer, String> errors = new TreeMap<>();
+        // languages by their lower case and countries by their upper case short name. The first record of each short name wins like with single writes.
+        final Map<String, LanguageET> languages = new LinkedHashMap<>();
+        final Map<String, LanguageET> countriesWithLanguage = new LinkedHashMap<>();
+        for(int i = 0; i < records.size(); i++) {
+            try {
+                collectRecord(records.get(i), languages, countriesWithLanguage);
+            } catch(final BusinessException e) {
+                errors.put(i, e.getMessage());
+            }
+        }
+        if(!languages.isEmpty()) {
+            this.languageRepository.addAll(languages.values(), countriesWithLanguage);
+        } // else: no valid records to be added.
+        LOG.info("Imported {} of {} records", records.size() - errors.size(), records.size());
+        return errors;
+    }
+
+    @Override
+    public long getDataVersion() {
+        return this.languageRepository.getVersion();
+    }
+
+    /**
+     * Add the given language if no language with its short name is existing.
+     *
+     * @param language the language to be added as {@link LanguageET} (must be valid).
+     * @return the stored language with the short name of the given language as {@link LanguageET}.
+     */
+    private LanguageET addLanguageIfNotExisting(final LanguageET language) {
         LanguageValidation.validateLanguageET(language);
-        LOG.info("Query storage for language with short name {} to avoid generating duplicates", language.getShortName());
+        LOG.debug("Query storage for language with short name {} to avoid generating duplicates", language.getShortName());
         final Optional<LanguageET> optionalExistingLanguage = this.languageRepository.findByShortName(language.getShortName());
         if(optionalExistingLanguage.isPresent()) {
             final LanguageET existingLanguage = optionalExistingLanguage.get();
-            LOG.info("Language with short name {} is already existing in storage: {}", existingLanguage.getShortName(), existingLanguage.getName());
-            if(!existingLanguage.getName().equalsIgnoreCase(language.getName())) {
-                // another language with this short name is already existing. No other language can be created with the same short name!
-                throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "A language with the short name " + existingLanguage.getShortName()
-                                + " is already existing: " + existingLanguage.getName() + ". Cannot create two languages with the same short name");
-            } // else: language with this name is already existing and must not be added again.
+            LOG.debug("Language with short name {} is already existing in storage: {}", existingLanguage.getShortName(), existingLanguage.getName());
+            checkSameLanguage(existingLanguage, language);
+            return existingLanguage;
         } else {
             // no language with the provided short name is present. Create a new one.
             LOG.info("Adding new language {} with short name {} to storage", language.getName(), language.getShortName());
-            this.languageRepository.addLanguage(language);
+            return this.languageRepository.createLanguage(language);
         }
     }
+
+    /**
+     * Get the existing language with the short name of the given language without adding it.
+     *
+     * @param language the language as {@link LanguageET} (must be valid).
+     * @return the stored language with the short name of the given language, the given language if it is not existing yet.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the existing language has another name.
+     */
+    private LanguageET existingLanguageOrGiven(final LanguageET language) {
+        LanguageValidation.validateLanguageET(language);
+        final Optional<LanguageET> optionalExistingLanguage = this.languageRepository.findByShortName(language.getShortName());
+        if(optionalExistingLanguage.isPresent()) {
+            checkSameLanguage(optionalExistingLanguage.get(), language);
+            return optionalExistingLanguage.get();
+        } // else: the language is added with the write.
+        return language;
+    }
+
+    /**
+     * Validate the given import record and collect its language and country, unless they are already part of the import or the storage.
+     * A record is only collected as a whole: if it conflicts with an existing language or country, neither its language nor its country is imported.
+     *
+     * @param record the country short name (key, {@code null} if only the language is imported) with its language (value).
+     * @param languages the languages of the import by their lower case short name.
+     * @param countriesWithLanguage the countries of the import by their upper case short name.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the record is invalid or conflicts with an existing language
+     * or with the language of an existing country.
+     */
+    private void collectRecord(final Map.Entry<String, LanguageET> record, final Map<String, LanguageET> languages,
+                               final Map<String, LanguageET> countriesWithLanguage) {
+        Preconditions.checkNotNull(record, "Record must not be null");
+        final LanguageET language = record.getValue();
+        LanguageValidation.validateLanguageET(language);
+        LanguageValidation.checkShortNameASCII(language.getShortName());
+        final String countryShortName = record.getKey();
+        if(countryShortName != null) {
+            Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+            LanguageValidation.checkShortNameASCII(countryShortName);
+        } // else: record only contains a language.
+        final String languageKey = language.getShortName().toLowerCase(Locale.ROOT);
+        LanguageET existingLanguage = languages.get(languageKey);
+        if(existingLanguage == null) {
+            existingLanguage = this.languageRepository.findByShortName(language.getShortName()).orElse(null);
+        }
+        if(existingLanguage != null) {
+            checkSameLanguage(existingLanguage, language);
+        } // else: language is new.
+        final String countryKey = countryShortName != null ? countryShortName.toUpperCase(Locale.ROOT) : null;
+        if(countryKey != null) {
+            LanguageET existingCountryLanguage = countriesWithLanguage.get(countryKey);
+            if(existingCountryLanguage == null) {
+                existingCountryLanguage = this.languageRepository.findLanguageByCountry(countryKey).orElse(null);
+            }
+            if(existingCountryLanguage != null) {
+                checkSameCountryLanguage(countryKey, existingCountryLanguage, language);
+            } // else: country is new.
+        } // else: record only contains a language.
+        languages.putIfAbsent(languageKey, existingLanguage != null ? existingLanguage : language);
+        if(countryKey != null) {
+            countriesWithLanguage.putIfAbsent(countryKey, language);
+        }
+    }
+
+    /**
+     * Check that the given language is the language of the existing country, as an import keeps the language of existing countries.
+     *
+     * @param countryShortName the short name of the country.
+     * @param existingLanguage the language of the existing country (or of the country in an earlier record of the import) as {@link LanguageET}.
+     * @param language the language of the country to be imported as {@link LanguageET}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the existing country has another language.
+     */
+    private static void checkSameCountryLanguage(final String countryShortName, final LanguageET existingLanguage, final LanguageET language) {
+        if(!existingLanguage.getShortName().equalsIgnoreCase(language.getShortName())) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "The country with the short name " + countryShortName
+                            + " is already existing with the language " + existingLanguage.getShortName() + ". Cannot change the language of a country");
+        } // else: the country already has this language and is imported again without changes.
+    }
+
+    /**
+     * Check that the given language does not conflict with the existing language with the same short name.
+     *
+     * @param existingLanguage the existing language as {@link LanguageET}.
+     * @param language the language to be added as {@link LanguageET}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the existing language has another name.
+     */
+    private static void checkSameLanguage(final LanguageET existingLanguage, final LanguageET language) {
+        if(!existingLanguage.getName().equalsIgnoreCase(language.getName())) {
+            // another language with this short name is already existing. No other language can be created with the same short name!
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "A language with the short name " + existingLanguage.getShortName()
+                            + " is already existing: " + existingLanguage.getName() + ". Cannot create two languages with the same short name");
+        } // else: language with this name is already existing and must not be added again.
+    }
 }
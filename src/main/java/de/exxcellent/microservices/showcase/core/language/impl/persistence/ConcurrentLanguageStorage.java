@@ -0,0 +1,416 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link LanguageRepository} keeping the languages and countries in {@link StripedLanguageCodeMap}s and the relations in skip lists.
+ * All collections are changed in place: a write locks at most one stripe at a time, copies nothing but a stripe which has to grow and never blocks readers,
+ * so this strategy suits write-heavy usage. The {@link LanguageNameIndex} is only brought up to date by the next search.
+ * Iterations over the returned collections are weakly consistent and never fail with a {@link java.util.ConcurrentModificationException}.
+ * Batches are published entry by entry, so readers may see a part of a batch.
+ * <p>
+ * The language index holds exactly one {@link LanguageET} per short name, which is shared by all countries using the language.
+ *
+ * @author Felix Riess
+ * @since 27.01.20
+ */
+class ConcurrentLanguageStorage implements LanguageRepository {
+    /**
+     * Index of all known languages by their packed short name (see {@link LanguageKeys#languageKey(String)}).
+     */
+    private final StripedLanguageCodeMap<LanguageET> languages = new StripedLanguageCodeMap<>();
+    /**
+     * The packed short names of all languages in ascending order. A key is only added after its language was published.
+     */
+    private final NavigableSet<Integer> languageOrder = new ConcurrentSkipListSet<>();
+    /**
+     * All relations between packed country short names (key, see {@link LanguageKeys#countryKey(String)}) and languages (value).
+     */
+    private final StripedLanguageCodeMap<LanguageET> countriesWithLanguage = new StripedLanguageCodeMap<>();
+    /**
+     * The packed short names of all countries in ascending order. A key is only added after its country was published.
+     */
+    private final NavigableSet<Integer> countryOrder = new ConcurrentSkipListSet<>();
+    /**
+     * Reverse index of {@link #countriesWithLanguage}: the relations packed with {@link LanguageKeys#relation(int, int)} (language key, country key),
+     * so the countries of a language are a range of the set.
+     */
+    private final NavigableSet<Long> countriesByLanguage = new ConcurrentSkipListSet<>();
+    /**
+     * All relations between countries and their languages by the packed relation (country key, language key) in the order of country and language.
+     * The languages of the relations are published in {@link #languages} before the relations.
+     */
+    private final NavigableMap<Long, CountryLanguageET> relationsByCountry = new ConcurrentSkipListMap<>();
+    /**
+     * The relations of {@link #relationsByCountry} by the packed relation (language key, country key), added after a relation was added there.
+     */
+    private final NavigableMap<Long, CountryLanguageET> relationsByLanguage = new ConcurrentSkipListMap<>();
+    /**
+     * The {@link LanguageNameIndex} of all languages except the {@link #unindexedLanguages}, replaced while holding the monitor of the queue.
+     */
+    private volatile LanguageNameIndex names = LanguageNameIndex.EMPTY;
+    /**
+     * The languages published in {@link #languages} but not yet added to the {@link #names}. Each writer adds the languages it has published,
+     * so no language is added twice.
+     */
+    private final Queue<LanguageET> unindexedLanguages = new ConcurrentLinkedQueue<>();
+    /**
+     * The data version, increased after each write which changed the data.
+     */
+    private final AtomicLong version = new AtomicLong();
+    /**
+     * Unmodifiable {@link Set} view of {@link #languages} to be handed out.
+     */
+    private final Set<LanguageET> languagesView = LanguageCodeViews.valueSet(this.languages, LanguageKeys::languageKeyOf);
+    /**
+     * Unmodifiable {@link Map} view of {@link #countriesWithLanguage} to be handed out.
+     */
+    private final Map<String, LanguageET> countriesWithLanguageView = LanguageCodeViews.map(this.countriesWithLanguage, LanguageKeys::countryKeyOf);
+
+    @Override
+    public Set<LanguageET> findAll() {
+        return this.languagesView;
+    }
+
+    @Override
+    public Optional<LanguageET> findByShortName(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        return Optional.ofNullable(this.languages.get(LanguageKeys.languageKey(shortName)));
+    }
+
+    @Override
+    public Map<String, LanguageET> findByShortNames(final Collection<String> shortNames) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        return this.languages.getAll(shortNames, LanguageKeys::languageKey);
+    }
+
+    @Override
+    public List<LanguageET> findByName(final String query, final int limit) {
+        Preconditions.checkNotNull(query, LanguageNameIndex.QUERY_NOT_NULL);
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        return indexedNames().search(query, limit, this.languages::get);
+    }
+
+    @Override
+    public List<String> findDisplayLocales() {
+        // languages added at runtime only have their name.
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Map<String, String> findDisplayNames(final Collection<String> shortNames, final String locale) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        Preconditions.checkNotNull(locale, LanguageKeys.LOCALE_NOT_NULL);
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Set<LanguageET> addLanguage(final LanguageET language) {
+        createLanguage(language);
+        return findAll();
+    }
+
+    @Override
+    public LanguageET createLanguage(final LanguageET language) {
+        LanguageValidation.validateLanguageET(language);
+        final int languageKey = LanguageKeys.languageKey(language.getShortName());
+        Preconditions.checkArgument(languageKey != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+        final LanguageET existingLanguage = this.languages.putIfAbsent(languageKey, language);
+        if(existingLanguage == null) {
+            this.languageOrder.add(languageKey);
+            this.unindexedLanguages.add(language);
+            this.version.incrementAndGet();
+            return language;
+        } else {
+            return existingLanguage;
+        }
+    }
+
+    @Override
+    public Map<String, LanguageET> findAllCountriesWithLanguage() {
+        return this.countriesWithLanguageView;
+    }
+
+    @Override
+    public Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        createCountryWithLanguage(countryShortName, language);
+        return findAllCountriesWithLanguage();
+    }
+
+    @Override
+    public LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        LanguageValidation.validateLanguageET(language);
+        final int countryKey = LanguageKeys.countryKey(countryShortName);
+        final int languageKey = LanguageKeys.languageKey(language.getShortName());
+        Preconditions.checkArgument(countryKey != LanguageKeys.NO_KEY && languageKey != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+        // the language is published before the country, so a reader never sees a country with an unknown language.
+        final LanguageET existingLanguage = this.languages.putIfAbsent(languageKey, language);
+        if(existingLanguage == null) {
+            this.languageOrder.add(languageKey);
+            this.unindexedLanguages.add(language);
+        }
+        final LanguageET storedLanguage = existingLanguage != null ? existingLanguage : language;
+        final LanguageET existingLanguageOfCountry = this.countriesWithLanguage.putIfAbsent(countryKey, storedLanguage);
+        if(existingLanguageOfCountry == null) {
+            this.countryOrder.add(countryKey);
+            this.countriesByLanguage.add(LanguageKeys.relation(languageKey, countryKey));
+            this.version.incrementAndGet();
+            return storedLanguage;
+        } else {
+            if(existingLanguage == null) {
+                // country is already existing and keeps its language, but the language is new.
+                this.version.incrementAndGet();
+            }
+            return existingLanguageOfCountry;
+        }
+    }
+
+    @Override
+    public void addAll(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        final LanguageBatch batch = new LanguageBatch(languages, countriesWithLanguage);
+        // the languages are published before the countries, so a reader never sees a country with an unknown language.
+        final LanguageCodeMap<LanguageET> addedLanguages = this.languages.putAllIfAbsent(batch.getLanguages());
+        addKeys(this.languageOrder, addedLanguages);
+        for(int slot = 0; slot < addedLanguages.capacity(); slot++) {
+            if(addedLanguages.keyAt(slot) != LanguageKeys.NO_KEY) {
+                this.unindexedLanguages.add(addedLanguages.valueAt(slot));
+            }
+        }
+        final LanguageCodeMap<LanguageET> countries = batch.getCountriesWithLanguage();
+        final LanguageCodeMap<LanguageET> countriesWithStoredLanguage = new LanguageCodeMap<>(countries.size());
+        for(int slot = 0; slot < countries.capacity(); slot++) {
+            if(countries.keyAt(slot) != LanguageKeys.NO_KEY) {
+                countriesWithStoredLanguage.put(countries.keyAt(slot), this.languages.get(LanguageKeys.languageKey(countries.valueAt(slot).getShortName())));
+            }
+        }
+        final LanguageCodeMap<LanguageET> addedCountries = this.countriesWithLanguage.putAllIfAbsent(countriesWithStoredLanguage);
+        addKeys(this.countryOrder, addedCountries);
+        for(int slot = 0; slot < addedCountries.capacity(); slot++) {
+            if(addedCountries.keyAt(slot) != LanguageKeys.NO_KEY) {
+                this.countriesByLanguage.add(LanguageKeys.relation(LanguageKeys.languageKey(addedCountries.valueAt(slot).getShortName()), addedCountries.keyAt(slot)));
+            }
+        }
+        if(addedLanguages.size() > 0 || addedCountries.size() > 0) {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public Optional<LanguageET> findLanguageByCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        return Optional.ofNullable(this.countriesWithLanguage.get(LanguageKeys.countryKey(countryShortName)));
+    }
+
+    @Override
+    public Map<String, LanguageET> findLanguagesByCountries(final Collection<String> countryShortNames) {
+        Preconditions.checkNotNull(countryShortNames, "Country short names must not be null");
+        return this.countriesWithLanguage.getAll(countryShortNames, LanguageKeys::countryKey);
+    }
+
+    @Override
+    public Set<String> findCountriesByLanguage(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        final int languageKey = LanguageKeys.languageKey(shortName);
+        if(languageKey == LanguageKeys.NO_KEY) {
+            return Collections.emptySet();
+        } // else: unpack the country keys of the range of the language.
+        final Set<String> countries = new LinkedHashSet<>();
+        for(final Long relation : this.countriesByLanguage.subSet(LanguageKeys.relation(languageKey, 0), LanguageKeys.relation(languageKey + 1, 0))) {
+            countries.add(LanguageKeys.shortName(relation.intValue()));
+        }
+        return countries.isEmpty() ? Collections.emptySet() : Collections.unmodifiableSet(countries);
+    }
+
+    @Override
+    public Map<String, List<CountryLanguageET>> findAllCountryLanguages() {
+        return CountryLanguageGraph.byCountry(new ArrayList<>(this.relationsByCountry.values()));
+    }
+
+    @Override
+    public List<CountryLanguageET> findLanguagesOfCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        return range(this.relationsByCountry, LanguageKeys.countryKey(countryShortName));
+    }
+
+    @Override
+    public List<CountryLanguageET> findCountriesOfLanguage(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        return range(this.relationsByLanguage, LanguageKeys.languageKey(shortName));
+    }
+
+    @Override
+    public CountryLanguageET createCountryLanguage(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        addAllCountryLanguages(Collections.singletonList(countryLanguage));
+        return this.relationsByCountry.get(LanguageKeys.relation(LanguageKeys.countryKey(countryLanguage.getCountryShortName()),
+                                                                 LanguageKeys.languageKey(countryLanguage.getLanguage().getShortName())));
+    }
+
+    @Override
+    public CountryLanguageET createLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        // the relation is published before the country, so a reader never sees the new country without its relation.
+        final CountryLanguageET storedRelation = createCountryLanguage(countryLanguage);
+        createCountryWithLanguage(countryLanguage.getCountryShortName(), storedRelation.getLanguage());
+        return storedRelation;
+    }
+
+    @Override
+    public void addAllCountryLanguages(final Collection<CountryLanguageET> countryLanguages) {
+        Preconditions.checkNotNull(countryLanguages, "Country languages must not be null");
+        countryLanguages.forEach(CountryLanguageGraph::checkRelation);
+        // the languages are published before the relations, so a reader never sees a relation with an unknown language.
+        boolean changed = false;
+        for(final CountryLanguageET countryLanguage : countryLanguages) {
+            final int countryKey = LanguageKeys.countryKey(countryLanguage.getCountryShortName());
+            final int languageKey = LanguageKeys.languageKey(countryLanguage.getLanguage().getShortName());
+            final LanguageET existingLanguage = this.languages.putIfAbsent(languageKey, countryLanguage.getLanguage());
+            if(existingLanguage == null) {
+                this.languageOrder.add(languageKey);
+                this.unindexedLanguages.add(countryLanguage.getLanguage());
+                changed = true;
+            }
+            final LanguageET storedLanguage = existingLanguage != null ? existingLanguage : countryLanguage.getLanguage();
+            // the relation keeps the attributes it would get in a CountryLanguageGraph, so all strategies return the same relations.
+            final CountryLanguageET storedRelation = CountryLanguageGraph.mapStored(countryLanguage, CountryLanguageGraph.toET(key -> storedLanguage));
+            if(this.relationsByCountry.putIfAbsent(LanguageKeys.relation(countryKey, languageKey), storedRelation) == null) {
+                this.relationsByLanguage.put(LanguageKeys.relation(languageKey, countryKey), storedRelation);
+                changed = true;
+            }
+        }
+        if(changed) {
+            this.version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<LanguageET> findPage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final List<LanguageET> page = new ArrayList<>();
+        for(final Integer languageKey : this.languageOrder.tailSet(LanguageKeys.pageKey(after, LanguageKeys::languageKey), false)) {
+            if(page.size() == limit) {
+                break;
+            }
+            page.add(this.languages.get(languageKey));
+        }
+        return page;
+    }
+
+    @Override
+    public Map<String, LanguageET> findCountriesWithLanguagePage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final Map<String, LanguageET> page = new LinkedHashMap<>();
+        for(final Integer countryKey : this.countryOrder.tailSet(LanguageKeys.pageKey(after, LanguageKeys::countryKey), false)) {
+            if(page.size() == limit) {
+                break;
+            }
+            page.put(LanguageKeys.shortName(countryKey), this.countriesWithLanguage.get(countryKey));
+        }
+        return page;
+    }
+
+    @Override
+    public long getVersion() {
+        // the version is increased after the data is written, so data read after the version is never older than the version.
+        return this.version.get();
+    }
+
+    @Override
+    public long estimateMemory() {
+        return StorageFootprint.slots(this.languages) + StorageFootprint.languages(this.languages)
+               + this.languageOrder.size() * StorageFootprint.SKIP_LIST_ENTRY_BYTES
+               + StorageFootprint.slots(this.countriesWithLanguage) + this.countryOrder.size() * StorageFootprint.SKIP_LIST_ENTRY_BYTES
+               + this.countriesByLanguage.size() * StorageFootprint.SKIP_LIST_ENTRY_BYTES + relationsMemory() + indexedNames().estimateMemory();
+    }
+
+    /**
+     * Get the {@link LanguageNameIndex} of all published languages, adding the {@link #unindexedLanguages} first.
+     * Batching the languages added since the last search keeps the copying of the index out of the writes.
+     *
+     * @return the up to date index.
+     */
+    private LanguageNameIndex indexedNames() {
+        if(this.unindexedLanguages.isEmpty()) {
+            return this.names;
+        } // else: add the pending languages while holding the lock, so no language is lost between two searches.
+        synchronized(this.unindexedLanguages) {
+            final List<LanguageET> pendingLanguages = new ArrayList<>();
+            LanguageET language;
+            while((language = this.unindexedLanguages.poll()) != null) {
+                pendingLanguages.add(language);
+            }
+            if(!pendingLanguages.isEmpty()) {
+                this.names = this.names.withAll(pendingLanguages);
+            }
+            return this.names;
+        }
+    }
+
+    /**
+     * Get the relations of a country or language.
+     *
+     * @param relations the relations by their packed keys with the key of the country or language in the upper half.
+     * @param key the key of the country or language.
+     * @return the relations in the order of the other key, empty if there are none.
+     */
+    private static List<CountryLanguageET> range(final NavigableMap<Long, CountryLanguageET> relations, final int key) {
+        if(key == LanguageKeys.NO_KEY) {
+            return Collections.emptyList();
+        } // else: copy the range of the key.
+        return new ArrayList<>(relations.subMap(LanguageKeys.relation(key, 0), LanguageKeys.relation(key + 1, 0)).values());
+    }
+
+    /**
+     * Estimate the memory of the relations, i.e. the entries of both skip lists and the shared {@link CountryLanguageET}s.
+     *
+     * @return the estimated bytes.
+     */
+    private long relationsMemory() {
+        long bytes = 0;
+        for(final CountryLanguageET relation : this.relationsByCountry.values()) {
+            bytes += 2 * StorageFootprint.SKIP_LIST_ENTRY_BYTES + StorageFootprint.countryLanguage(relation);
+        }
+        return bytes;
+    }
+
+    /**
+     * Add the keys of the given entries to the given order.
+     *
+     * @param order the order of keys.
+     * @param entries the entries whose keys should be added.
+     */
+    private static void addKeys(final NavigableSet<Integer> order, final LanguageCodeMap<?> entries) {
+        for(int slot = 0; slot < entries.capacity(); slot++) {
+            if(entries.keyAt(slot) != LanguageKeys.NO_KEY) {
+                order.add(entries.keyAt(slot));
+            }
+        }
+    }
+}
@@ -0,0 +1,485 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable many-to-many relation between countries and languages, stored as compressed sparse rows (CSR) in both directions.
+ * <p>
+ * The countries with relations are kept as sorted keys (see {@link LanguageKeys}). The relations of the country at index {@code i}
+ * are the positions {@code countryOffsets[i]} to {@code countryOffsets[i + 1] - 1} of the relation arrays, sorted by language key.
+ * The attributes of the relations are stored in parallel primitive arrays: the official status as {@code byte} and the share of the population
+ * in hundredths of a percent as {@code short}. The reverse direction holds the sorted language keys with the offsets into the positions of their
+ * relations, sorted by country key. So the graph has no object per relation, and finding the neighbors of a country or language costs
+ * one binary search and O(degree).
+ * <p>
+ * Adding relations creates a new graph (copy-on-write) and never changes a published one, so a graph can be read by any number of threads.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class CountryLanguageGraph {
+    /**
+     * The graph without any relation.
+     */
+    static final CountryLanguageGraph EMPTY = new CountryLanguageGraph(new int[0], new int[0], new byte[0], new short[0], 0);
+    /**
+     * Message if a relation is {@code null}.
+     */
+    static final String COUNTRY_LANGUAGE_NOT_NULL = "Country language must not be null";
+    /**
+     * Official status: unknown.
+     */
+    private static final byte OFFICIAL_UNKNOWN = 0;
+    /**
+     * Official status: not an official language of the country.
+     */
+    private static final byte OFFICIAL_NO = 1;
+    /**
+     * Official status: an official language of the country.
+     */
+    private static final byte OFFICIAL_YES = 2;
+    /**
+     * Share of the population: unknown.
+     */
+    private static final short SHARE_UNKNOWN = -1;
+    /**
+     * The share of the population is stored in hundredths of a percent.
+     */
+    private static final double SHARE_SCALE = 100.0;
+
+    /**
+     * The keys of all countries with relations in ascending order.
+     */
+    private final int[] countryKeys;
+    /**
+     * The position of the first relation of each country of {@link #countryKeys}, followed by the number of relations.
+     */
+    private final int[] countryOffsets;
+    /**
+     * The language key of each relation.
+     */
+    private final int[] relationLanguages;
+    /**
+     * The encoded official status of each relation.
+     */
+    private final byte[] officials;
+    /**
+     * The encoded share of the population of each relation.
+     */
+    private final short[] shares;
+    /**
+     * The keys of all languages with relations in ascending order.
+     */
+    private final int[] languageKeys;
+    /**
+     * The index of the first entry of each language of {@link #languageKeys} in {@link #languageRelations}, followed by the number of relations.
+     */
+    private final int[] languageOffsets;
+    /**
+     * The positions of the relations of each language in the relation arrays, sorted by country key.
+     */
+    private final int[] languageRelations;
+    /**
+     * The country key of each relation of {@link #languageRelations}, so the reverse direction needs no search.
+     */
+    private final int[] languageCountries;
+
+    /**
+     * Constructor. Builds both directions from the given relations.
+     *
+     * @param relationCountries the country key of each relation.
+     * @param relationLanguages the language key of each relation.
+     * @param officials the official status of each relation.
+     * @param shares the share of the population of each relation.
+     * @param count the number of relations, sorted by country and language key without duplicates.
+     */
+    private CountryLanguageGraph(final int[] relationCountries, final int[] relationLanguages, final byte[] officials, final short[] shares, final int count) {
+        this.relationLanguages = relationLanguages;
+        this.officials = officials;
+        this.shares = shares;
+        // forward direction: the distinct countries and the offset of their first relation.
+        int countryCount = 0;
+        for(int i = 0; i < count; i++) {
+            if(i == 0 || relationCountries[i] != relationCountries[i - 1]) {
+                countryCount++;
+            }
+        }
+        this.countryKeys = new int[countryCount];
+        this.countryOffsets = new int[countryCount + 1];
+        int country = -1;
+        for(int i = 0; i < count; i++) {
+            if(i == 0 || relationCountries[i] != relationCountries[i - 1]) {
+                this.countryKeys[++country] = relationCountries[i];
+                this.countryOffsets[country] = i;
+            }
+        }
+        this.countryOffsets[countryCount] = count;
+        // reverse direction: count the relations per language, then place them in the order of the countries.
+        final int[] sortedLanguages = Arrays.copyOf(relationLanguages, count);
+        Arrays.sort(sortedLanguages);
+        int languageCount = 0;
+        for(int i = 0; i < count; i++) {
+            if(i == 0 || sortedLanguages[i] != sortedLanguages[i - 1]) {
+                sortedLanguages[languageCount++] = sortedLanguages[i];
+            }
+        }
+        this.languageKeys = Arrays.copyOf(sortedLanguages, languageCount);
+        this.languageOffsets = new int[languageCount + 1];
+        final int[] languageIndexes = new int[count];
+        for(int i = 0; i < count; i++) {
+            languageIndexes[i] = Arrays.binarySearch(this.languageKeys, relationLanguages[i]);
+            this.languageOffsets[languageIndexes[i] + 1]++;
+        }
+        for(int i = 0; i < languageCount; i++) {
+            this.languageOffsets[i + 1] += this.languageOffsets[i];
+        }
+        this.languageRelations = new int[count];
+        this.languageCountries = new int[count];
+        final int[] next = Arrays.copyOf(this.languageOffsets, languageCount);
+        for(int i = 0; i < count; i++) {
+            final int position = next[languageIndexes[i]]++;
+            this.languageRelations[position] = i;
+            this.languageCountries[position] = relationCountries[i];
+        }
+    }
+
+    /**
+     * Get the number of relations.
+     *
+     * @return the number of relations.
+     */
+    int size() {
+        return this.relationLanguages.length;
+    }
+
+    /**
+     * Check if the given relation is contained.
+     *
+     * @param countryKey the key of the country (see {@link LanguageKeys#countryKey(String)}).
+     * @param languageKey the key of the language (see {@link LanguageKeys#languageKey(String)}).
+     * @return {@code true} if the country is related to the language.
+     */
+    boolean contains(final int countryKey, final int languageKey) {
+        return position(countryKey, languageKey) >= 0;
+    }
+
+    /**
+     * Get the given relation.
+     *
+     * @param countryKey the key of the country (see {@link LanguageKeys#countryKey(String)}).
+     * @param languageKey the key of the language (see {@link LanguageKeys#languageKey(String)}).
+     * @param mapper maps the relation.
+     * @param <T> the type of the mapped relation.
+     * @return the mapped relation, {@code null} if the country is not related to the language.
+     */
+    <T> T get(final int countryKey, final int languageKey, final RelationMapper<T> mapper) {
+        final int relation = position(countryKey, languageKey);
+        return relation >= 0 ? map(countryKey, relation, mapper) : null;
+    }
+
+    /**
+     * Get the relations of a country in the order of the language keys.
+     *
+     * @param countryKey the key of the country (see {@link LanguageKeys#countryKey(String)}).
+     * @param mapper maps each relation.
+     * @param <T> the type of the mapped relations.
+     * @return the mapped relations, empty if the country has no relation.
+     */
+    <T> List<T> ofCountry(final int countryKey, final RelationMapper<T> mapper) {
+        final int country = Arrays.binarySearch(this.countryKeys, countryKey);
+        if(country < 0) {
+            return Collections.emptyList();
+        } // else: map the row of the country.
+        final List<T> relations = new ArrayList<>(this.countryOffsets[country + 1] - this.countryOffsets[country]);
+        for(int relation = this.countryOffsets[country]; relation < this.countryOffsets[country + 1]; relation++) {
+            relations.add(map(countryKey, relation, mapper));
+        }
+        return relations;
+    }
+
+    /**
+     * Get the relations of a language in the order of the country keys.
+     *
+     * @param languageKey the key of the language (see {@link LanguageKeys#languageKey(String)}).
+     * @param mapper maps each relation.
+     * @param <T> the type of the mapped relations.
+     * @return the mapped relations, empty if the language has no relation.
+     */
+    <T> List<T> ofLanguage(final int languageKey, final RelationMapper<T> mapper) {
+        final int language = Arrays.binarySearch(this.languageKeys, languageKey);
+        if(language < 0) {
+            return Collections.emptyList();
+        } // else: map the row of the language.
+        final List<T> relations = new ArrayList<>(this.languageOffsets[language + 1] - this.languageOffsets[language]);
+        for(int position = this.languageOffsets[language]; position < this.languageOffsets[language + 1]; position++) {
+            relations.add(map(this.languageCountries[position], this.languageRelations[position], mapper));
+        }
+        return relations;
+    }
+
+    /**
+     * Get all relations in the order of the country and language keys.
+     *
+     * @param mapper maps each relation.
+     * @param <T> the type of the mapped relations.
+     * @return the mapped relations.
+     */
+    <T> List<T> all(final RelationMapper<T> mapper) {
+        final List<T> relations = new ArrayList<>(size());
+        for(int country = 0; country < this.countryKeys.length; country++) {
+            for(int relation = this.countryOffsets[country]; relation < this.countryOffsets[country + 1]; relation++) {
+                relations.add(map(this.countryKeys[country], relation, mapper));
+            }
+        }
+        return relations;
+    }
+
+    /**
+     * Add the given relations. Relations which are already contained keep their attributes,
+     * and of the relations with the same country and language only the first is added.
+     *
+     * @param relations the relations to be added (short names must be packable, see {@link LanguageKeys}).
+     * @return a new graph containing the relations or this graph if all relations are already contained.
+     */
+    CountryLanguageGraph withAll(final Collection<CountryLanguageET> relations) {
+        // the new relations sorted by country and language key, see relation(int, int).
+        long[] added = new long[relations.size()];
+        int addedCount = 0;
+        for(final CountryLanguageET relation : relations) {
+            final int countryKey = LanguageKeys.countryKey(relation.getCountryShortName());
+            final int languageKey = LanguageKeys.languageKey(relation.getLanguage().getShortName());
+            if(!contains(countryKey, languageKey)) {
+                added[addedCount++] = relation(countryKey, languageKey);
+            }
+        }
+        if(addedCount == 0) {
+            return this;
+        } // else: sort and remove duplicates, then take the attributes of the first relation of each pair.
+        Arrays.sort(added, 0, addedCount);
+        int distinctCount = 0;
+        for(int i = 0; i < addedCount; i++) {
+            if(i == 0 || added[i] != added[i - 1]) {
+                added[distinctCount++] = added[i];
+            }
+        }
+        added = Arrays.copyOf(added, distinctCount);
+        final byte[] addedOfficials = new byte[distinctCount];
+        final short[] addedShares = new short[distinctCount];
+        final List<CountryLanguageET> relationList = relations instanceof List ? (List<CountryLanguageET>) relations : new ArrayList<>(relations);
+        for(int i = relationList.size() - 1; i >= 0; i--) {
+            final CountryLanguageET relation = relationList.get(i);
+            final int position = Arrays.binarySearch(added, relation(LanguageKeys.countryKey(relation.getCountryShortName()),
+                                                                     LanguageKeys.languageKey(relation.getLanguage().getShortName())));
+            if(position >= 0) {
+                addedOfficials[position] = encodeOfficial(relation.getOfficial());
+                addedShares[position] = encodeShare(relation.getPopulationShare());
+            }
+        }
+        return merge(added, addedOfficials, addedShares);
+    }
+
+    /**
+     * Estimate the heap memory retained by this graph.
+     *
+     * @return the estimated number of bytes.
+     */
+    long estimateMemory() {
+        return StorageFootprint.keyArray(this.countryKeys.length) + StorageFootprint.keyArray(this.countryOffsets.length)
+               + StorageFootprint.keyArray(this.languageKeys.length) + StorageFootprint.keyArray(this.languageOffsets.length)
+               + 3 * StorageFootprint.keyArray(size()) + StorageFootprint.primitiveArray(size(), Byte.BYTES) + StorageFootprint.primitiveArray(size(), Short.BYTES);
+    }
+
+    /**
+     * Merge the relations of this graph with the given new relations into a new graph.
+     *
+     * @param added the new relations packed with {@link #relation(int, int)}, sorted and not contained in this graph.
+     * @param addedOfficials the official status of each new relation.
+     * @param addedShares the share of the population of each new relation.
+     * @return the new graph.
+     */
+    private CountryLanguageGraph merge(final long[] added, final byte[] addedOfficials, final short[] addedShares) {
+        final int count = size() + added.length;
+        final int[] mergedCountries = new int[count];
+        final int[] mergedLanguages = new int[count];
+        final byte[] mergedOfficials = new byte[count];
+        final short[] mergedShares = new short[count];
+        int country = 0;
+        int relation = 0;
+        int addedIndex = 0;
+        for(int i = 0; i < count; i++) {
+            while(relation < size() && relation == this.countryOffsets[country + 1]) {
+                country++;
+            }
+            final long existing = relation < size() ? relation(this.countryKeys[country], this.relationLanguages[relation]) : Long.MAX_VALUE;
+            if(addedIndex == added.length || existing < added[addedIndex]) {
+                mergedCountries[i] = this.countryKeys[country];
+                mergedLanguages[i] = this.relationLanguages[relation];
+                mergedOfficials[i] = this.officials[relation];
+                mergedShares[i] = this.shares[relation++];
+            } else {
+                mergedCountries[i] = (int) (added[addedIndex] >>> Integer.SIZE);
+                mergedLanguages[i] = (int) added[addedIndex];
+                mergedOfficials[i] = addedOfficials[addedIndex];
+                mergedShares[i] = addedShares[addedIndex++];
+            }
+        }
+        return new CountryLanguageGraph(mergedCountries, mergedLanguages, mergedOfficials, mergedShares, count);
+    }
+
+    /**
+     * Find the position of the given relation.
+     *
+     * @param countryKey the key of the country.
+     * @param languageKey the key of the language.
+     * @return the position of the relation in the relation arrays, negative if the country is not related to the language.
+     */
+    private int position(final int countryKey, final int languageKey) {
+        final int country = Arrays.binarySearch(this.countryKeys, countryKey);
+        return country < 0 ? -1 : Arrays.binarySearch(this.relationLanguages, this.countryOffsets[country], this.countryOffsets[country + 1], languageKey);
+    }
+
+    /**
+     * Pack a relation into a {@code long}, so relations can be sorted by country and language.
+     *
+     * @param countryKey the key of the country.
+     * @param languageKey the key of the language.
+     * @return the packed relation.
+     */
+    private static long relation(final int countryKey, final int languageKey) {
+        return ((long) countryKey << Integer.SIZE) | languageKey;
+    }
+
+    /**
+     * Map the given relation.
+     *
+     * @param countryKey the key of the country of the relation.
+     * @param relation the position of the relation.
+     * @param mapper maps the relation.
+     * @param <T> the type of the mapped relation.
+     * @return the mapped relation.
+     */
+    private <T> T map(final int countryKey, final int relation, final RelationMapper<T> mapper) {
+        return decode(countryKey, this.relationLanguages[relation], this.officials[relation], this.shares[relation], mapper);
+    }
+
+    /**
+     * Map the given relation with the attributes it gets when stored in a graph, i.e. with the share of the population rounded to hundredths of a percent.
+     * Lets other stores of relations return the same attributes as the graph.
+     *
+     * @param relation the relation (short names must be packable, see {@link LanguageKeys}).
+     * @param mapper maps the relation.
+     * @param <T> the type of the mapped relation.
+     * @return the mapped relation.
+     */
+    static <T> T mapStored(final CountryLanguageET relation, final RelationMapper<T> mapper) {
+        return decode(LanguageKeys.countryKey(relation.getCountryShortName()), LanguageKeys.languageKey(relation.getLanguage().getShortName()),
+                      encodeOfficial(relation.getOfficial()), encodeShare(relation.getPopulationShare()), mapper);
+    }
+
+    /**
+     * Map a relation with encoded attributes.
+     *
+     * @param countryKey the key of the country.
+     * @param languageKey the key of the language.
+     * @param official the encoded official status.
+     * @param share the encoded share of the population.
+     * @param mapper maps the relation.
+     * @param <T> the type of the mapped relation.
+     * @return the mapped relation.
+     */
+    private static <T> T decode(final int countryKey, final int languageKey, final byte official, final short share, final RelationMapper<T> mapper) {
+        return mapper.map(countryKey, languageKey, official == OFFICIAL_UNKNOWN ? null : official == OFFICIAL_YES, share == SHARE_UNKNOWN ? null : share / SHARE_SCALE);
+    }
+
+    /**
+     * Encode the official status of a relation.
+     *
+     * @param official the official status, {@code null} if unknown.
+     * @return the encoded status.
+     */
+    private static byte encodeOfficial(final Boolean official) {
+        if(official == null) {
+            return OFFICIAL_UNKNOWN;
+        } // else: status is known.
+        return official ? OFFICIAL_YES : OFFICIAL_NO;
+    }
+
+    /**
+     * Encode the share of the population of a relation in hundredths of a percent.
+     *
+     * @param populationShare the share in percent (0 to 100), {@code null} if unknown.
+     * @return the encoded share.
+     */
+    private static short encodeShare(final Double populationShare) {
+        return populationShare == null ? SHARE_UNKNOWN : (short) Math.round(populationShare * SHARE_SCALE);
+    }
+
+    /**
+     * Check that the given relation can be added to a graph.
+     *
+     * @param relation the relation to be checked.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with
+     * {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the relation is {@code null}
+     * or a short name does not consist of ASCII characters.
+     */
+    static void checkRelation(final CountryLanguageET relation) {
+        Preconditions.checkNotNull(relation, COUNTRY_LANGUAGE_NOT_NULL);
+        Preconditions.checkArgument(LanguageKeys.countryKey(relation.getCountryShortName()) != LanguageKeys.NO_KEY
+                                    && LanguageKeys.languageKey(relation.getLanguage().getShortName()) != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+    }
+
+    /**
+     * Get a {@link RelationMapper} creating {@link CountryLanguageET}s.
+     *
+     * @param languages the stored language by its key (see {@link LanguageKeys#languageKey(String)}).
+     * @return the mapper.
+     */
+    static RelationMapper<CountryLanguageET> toET(final IntFunction<LanguageET> languages) {
+        return (countryKey, languageKey, official, populationShare) -> new CountryLanguageET(LanguageKeys.shortName(countryKey), languages.apply(languageKey),
+                                                                                            official, populationShare);
+    }
+
+    /**
+     * Group the given relations by their country.
+     *
+     * @param relations the relations ordered by country.
+     * @return an unmodifiable {@link Map} with the country short name as key and its relations as value, in the order of the given relations.
+     */
+    static Map<String, List<CountryLanguageET>> byCountry(final List<CountryLanguageET> relations) {
+        final Map<String, List<CountryLanguageET>> countries = new LinkedHashMap<>();
+        for(final CountryLanguageET relation : relations) {
+            countries.computeIfAbsent(relation.getCountryShortName(), country -> new ArrayList<>()).add(relation);
+        }
+        return Collections.unmodifiableMap(countries);
+    }
+
+    /**
+     * Maps a relation of the graph, e.g. to a {@link CountryLanguageET}.
+     *
+     * @param <T> the type of the mapped relation.
+     */
+    @FunctionalInterface
+    interface RelationMapper<T> {
+        /**
+         * Map a relation.
+         *
+         * @param countryKey the key of the country.
+         * @param languageKey the key of the language.
+         * @param official the official status, {@code null} if unknown.
+         * @param populationShare the share of the population in percent, {@code null} if unknown.
+         * @return the mapped relation.
+         */
+        T map(final int countryKey, final int languageKey, final Boolean official, final Double populationShare);
+    }
+}
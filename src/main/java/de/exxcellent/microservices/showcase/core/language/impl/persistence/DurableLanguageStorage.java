@@ -0,0 +1,464 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * A {@link LanguageRepository} persisting the writes of a storage engine in a directory, so the data survives restarts.
+ * Each write is validated, appended to a {@link WriteAheadLog} and synced before it is applied to the storage engine, so readers never see
+ * data which would be lost by a crash and a write only returns successfully once it is durable. Writes which would not change the data are not logged.
+ * Concurrent writers share the {@code fsync}s and apply their writes in the order of the log, reads are served by the storage engine without any persistence overhead.
+ * If appending or syncing fails, the state of the log is unknown: the failed write is not applied and all further writes are rejected until a restart recovers the log.
+ * <p>
+ * After {@code snapshotInterval} logged writes, a {@link SnapshotFile} of all data is written in the background and the older log segments are deleted.
+ * On startup, the snapshot and the following records of the log are loaded into the storage engine, so a restart only replays the writes since the last snapshot.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class DurableLanguageStorage implements LanguageRepository {
+    /**
+     * The {@link Logger} of this {@link DurableLanguageStorage}.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(DurableLanguageStorage.class);
+    /**
+     * The storage engine holding the data.
+     */
+    private final LanguageRepository storage;
+    /**
+     * The directory of the snapshot and the log.
+     */
+    private final Path directory;
+    /**
+     * The number of logged writes after which a snapshot is written.
+     */
+    private final int snapshotInterval;
+    /**
+     * The log of all writes since the last snapshot.
+     */
+    private final WriteAheadLog log;
+    /**
+     * Serializes the appends to the log. Lock order: {@link #writeLock} before {@link #applyLock}.
+     */
+    private final Object writeLock = new Object();
+    /**
+     * Serializes the writes to the storage engine, so they are applied in the order of their records in the log.
+     */
+    private final Object applyLock = new Object();
+    /**
+     * Writes the snapshots in the background.
+     */
+    private final ExecutorService snapshotWriter;
+    /**
+     * {@code true} while a snapshot is written.
+     */
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+    /**
+     * The number of logged writes since the last snapshot, guarded by {@link #writeLock}.
+     */
+    private int writesSinceSnapshot;
+    /**
+     * The sequence number of the next record appended to the log, guarded by {@link #writeLock}.
+     */
+    private long appendedSequence;
+    /**
+     * The sequence number of the next record to be applied to the storage engine, guarded by {@link #applyLock}.
+     */
+    private long appliedSequence;
+    /**
+     * The failure of the log after which all writes are rejected, {@code null} while the log works.
+     */
+    private volatile TechnicalException failure;
+
+    /**
+     * Constructor. Recovers the persisted data into the given storage engine.
+     *
+     * @param storage the storage engine holding the data.
+     * @param directory the directory of the snapshot and the log, created if not existing.
+     * @param snapshotInterval the number of logged writes after which a snapshot is written (positive).
+     * @exception TechnicalException if the persisted data cannot be recovered.
+     */
+    DurableLanguageStorage(final LanguageRepository storage, final Path directory, final int snapshotInterval) {
+        if(snapshotInterval <= 0) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Invalid storage configuration: snapshot interval must be positive");
+        } // else: configuration is valid.
+        this.storage = storage;
+        this.directory = directory;
+        this.snapshotInterval = snapshotInterval;
+        this.log = new WriteAheadLog(directory);
+        final long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not create storage directory " + directory, e);
+        }
+        final long snapshotSequence = SnapshotFile.read(directory, storage);
+        final long nextSequence = this.log.recover(snapshotSequence, record -> LanguageRecordCodec.apply(record, storage));
+        this.log.open(nextSequence);
+        this.writesSinceSnapshot = (int) Math.min(nextSequence - snapshotSequence, Integer.MAX_VALUE);
+        this.appendedSequence = nextSequence;
+        this.appliedSequence = nextSequence;
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "language-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        LOG.info("Recovered {} languages and {} countries from {} ({} records after the snapshot) in {} ms", storage.findAll().size(),
+                 storage.findAllCountriesWithLanguage().size(), directory, nextSequence - snapshotSequence, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    @Override
+    public Set<LanguageET> findAll() {
+        return this.storage.findAll();
+    }
+
+    @Override
+    public Optional<LanguageET> findByShortName(final String shortName) {
+        return this.storage.findByShortName(shortName);
+    }
+
+    @Override
+    public Map<String, LanguageET> findByShortNames(final Collection<String> shortNames) {
+        return this.storage.findByShortNames(shortNames);
+    }
+
+    @Override
+    public List<LanguageET> findByName(final String query, final int limit) {
+        return this.storage.findByName(query, limit);
+    }
+
+    @Override
+    public List<String> findDisplayLocales() {
+        return this.storage.findDisplayLocales();
+    }
+
+    @Override
+    public Map<String, String> findDisplayNames(final Collection<String> shortNames, final String locale) {
+        return this.storage.findDisplayNames(shortNames, locale);
+    }
+
+    @Override
+    public Set<LanguageET> addLanguage(final LanguageET language) {
+        createLanguage(language);
+        return findAll();
+    }
+
+    @Override
+    public LanguageET createLanguage(final LanguageET language) {
+        LanguageBatch.validateLanguage(language);
+        final Optional<LanguageET> existingLanguage = this.storage.findByShortName(language.getShortName());
+        if(existingLanguage.isPresent()) {
+            return existingLanguage.get();
+        } // else: the write changes the data and is logged.
+        final long sequence = append(LanguageRecordCodec.encodeLanguage(language));
+        return applyDurable(sequence, () -> this.storage.createLanguage(language));
+    }
+
+    @Override
+    public Map<String, LanguageET> findAllCountriesWithLanguage() {
+        return this.storage.findAllCountriesWithLanguage();
+    }
+
+    @Override
+    public Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        createCountryWithLanguage(countryShortName, language);
+        return findAllCountriesWithLanguage();
+    }
+
+    @Override
+    public LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        LanguageBatch.validateCountryWithLanguage(countryShortName, language);
+        final Optional<LanguageET> existingLanguageOfCountry = this.storage.findLanguageByCountry(countryShortName);
+        if(existingLanguageOfCountry.isPresent() && this.storage.findByShortName(language.getShortName()).isPresent()) {
+            return existingLanguageOfCountry.get();
+        } // else: the write changes the data and is logged.
+        final long sequence = append(LanguageRecordCodec.encodeCountryWithLanguage(countryShortName, language));
+        return applyDurable(sequence, () -> this.storage.createCountryWithLanguage(countryShortName, language));
+    }
+
+    @Override
+    public void addAll(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        if(new LanguageBatch(languages, countriesWithLanguage).isEmpty()) {
+            return;
+        } // else: the batch is logged.
+        final long sequence = append(LanguageRecordCodec.encodeBatch(languages, countriesWithLanguage));
+        applyDurable(sequence, () -> {
+            this.storage.addAll(languages, countriesWithLanguage);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<LanguageET> findLanguageByCountry(final String countryShortName) {
+        return this.storage.findLanguageByCountry(countryShortName);
+    }
+
+    @Override
+    public Map<String, LanguageET> findLanguagesByCountries(final Collection<String> countryShortNames) {
+        return this.storage.findLanguagesByCountries(countryShortNames);
+    }
+
+    @Override
+    public Set<String> findCountriesByLanguage(final String shortName) {
+        return this.storage.findCountriesByLanguage(shortName);
+    }
+
+    @Override
+    public Map<String, List<CountryLanguageET>> findAllCountryLanguages() {
+        return this.storage.findAllCountryLanguages();
+    }
+
+    @Override
+    public List<CountryLanguageET> findLanguagesOfCountry(final String countryShortName) {
+        return this.storage.findLanguagesOfCountry(countryShortName);
+    }
+
+    @Override
+    public List<CountryLanguageET> findCountriesOfLanguage(final String shortName) {
+        return this.storage.findCountriesOfLanguage(shortName);
+    }
+
+    @Override
+    public CountryLanguageET createCountryLanguage(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        final String shortName = countryLanguage.getLanguage().getShortName();
+        if(this.storage.findByShortName(shortName).isPresent()) {
+            for(final CountryLanguageET existingCountryLanguage : this.storage.findLanguagesOfCountry(countryLanguage.getCountryShortName())) {
+                if(existingCountryLanguage.getLanguage().getShortName().equals(shortName)) {
+                    return existingCountryLanguage;
+                }
+            }
+        } // else: the write changes the data and is logged.
+        final long sequence = append(LanguageRecordCodec.encodeCountryLanguage(countryLanguage));
+        return applyDurable(sequence, () -> this.storage.createCountryLanguage(countryLanguage));
+    }
+
+    @Override
+    public CountryLanguageET createLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        LanguageBatch.validateCountryWithLanguage(countryLanguage.getCountryShortName(), countryLanguage.getLanguage());
+        if(this.storage.findLanguageByCountry(countryLanguage.getCountryShortName()).isPresent()) {
+            // the country is existing, so only the relation can be missing.
+            return createCountryLanguage(countryLanguage);
+        } // else: the country and its relation are logged as one record, so a crash never keeps the country without its relation.
+        final long sequence = append(LanguageRecordCodec.encodeLanguageOfCountry(countryLanguage));
+        return applyDurable(sequence, () -> this.storage.createLanguageOfCountry(countryLanguage));
+    }
+
+    @Override
+    public void addAllCountryLanguages(final Collection<CountryLanguageET> countryLanguages) {
+        Preconditions.checkNotNull(countryLanguages, "Country languages must not be null");
+        countryLanguages.forEach(CountryLanguageGraph::checkRelation);
+        if(countryLanguages.isEmpty()) {
+            return;
+        } // else: the relations are logged.
+        final long sequence = append(LanguageRecordCodec.encodeCountryLanguages(countryLanguages));
+        applyDurable(sequence, () -> {
+            this.storage.addAllCountryLanguages(countryLanguages);
+            return null;
+        });
+    }
+
+    @Override
+    public List<LanguageET> findPage(final String after, final int limit) {
+        return this.storage.findPage(after, limit);
+    }
+
+    @Override
+    public Map<String, LanguageET> findCountriesWithLanguagePage(final String after, final int limit) {
+        return this.storage.findCountriesWithLanguagePage(after, limit);
+    }
+
+    @Override
+    public long getVersion() {
+        return this.storage.getVersion();
+    }
+
+    @Override
+    public long estimateMemory() {
+        return this.storage.estimateMemory();
+    }
+
+    /**
+     * Write a final snapshot if the log contains writes since the last one and close the log.
+     */
+    void close() {
+        this.snapshotWriter.shutdown();
+        try {
+            if(!this.snapshotWriter.awaitTermination(10, TimeUnit.SECONDS)) {
+                LOG.warn("Snapshot of {} did not finish in time", this.directory);
+            }
+        } catch(final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if(this.writesSinceSnapshot > 0) {
+            writeSnapshot();
+        }
+        this.log.close();
+    }
+
+    /**
+     * Append a validated write to the log and start a snapshot in the background if the snapshot interval is reached.
+     *
+     * @param record the record of the write.
+     * @return the sequence number of the record.
+     * @exception TechnicalException if the log failed before or cannot be appended to.
+     */
+    private long append(final byte[] record) {
+        synchronized(this.writeLock) {
+            checkLogWorking();
+            final long sequence;
+            try {
+                sequence = this.log.append(record);
+            } catch(final TechnicalException e) {
+                fail(e);
+                throw e;
+            }
+            this.appendedSequence = sequence + 1;
+            this.writesSinceSnapshot++;
+            scheduleSnapshot();
+            return sequence;
+        }
+    }
+
+    /**
+     * Start a snapshot in the background if the snapshot interval is reached and no snapshot is running. Must hold {@link #writeLock}.
+     */
+    private void scheduleSnapshot() {
+        if(this.writesSinceSnapshot >= this.snapshotInterval && this.snapshotRunning.compareAndSet(false, true)) {
+            this.snapshotWriter.execute(() -> {
+                try {
+                    writeSnapshot();
+                } catch(final TechnicalException e) {
+                    // already logged by the exception, the log keeps all records until the next snapshot succeeds.
+                } finally {
+                    this.snapshotRunning.set(false);
+                }
+            });
+        }
+    }
+
+    /**
+     * Wait until the logged write is durable and apply it to the storage engine after all writes logged before it.
+     * If syncing fails, the write is not applied, but the following writes are not blocked.
+     *
+     * @param sequence the sequence number of the record of the write.
+     * @param write applies the write to the storage engine.
+     * @param <T> the type of the result of the write.
+     * @return the result of the write.
+     * @exception TechnicalException if the log cannot be synced.
+     */
+    private <T> T applyDurable(final long sequence, final Supplier<T> write) {
+        RuntimeException syncFailure = null;
+        try {
+            this.log.sync(sequence);
+        } catch(final TechnicalException e) {
+            fail(e);
+            syncFailure = e;
+        } catch(final IllegalStateException e) {
+            // the log was closed concurrently, the write is rejected like the following ones.
+            syncFailure = e;
+        }
+        synchronized(this.applyLock) {
+            awaitApplied(sequence);
+            try {
+                if(syncFailure != null) {
+                    throw syncFailure;
+                } // else: the write is durable.
+                return write.get();
+            } finally {
+                this.appliedSequence = sequence + 1;
+                this.applyLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wait until all writes before the given sequence number are applied to the storage engine. Must hold {@link #applyLock}.
+     * The wait is not interruptible, as each logged write must be applied or skipped to let the following writes continue.
+     *
+     * @param sequence the sequence number.
+     */
+    private void awaitApplied(final long sequence) {
+        boolean interrupted = false;
+        while(this.appliedSequence < sequence) {
+            try {
+                this.applyLock.wait();
+            } catch(final InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if(interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Reject all further writes, as the state of the log is unknown after it failed.
+     *
+     * @param cause the failure of the log.
+     */
+    private void fail(final TechnicalException cause) {
+        LOG.error("Write-ahead log of {} failed, rejecting all writes until restart", this.directory);
+        this.failure = cause;
+    }
+
+    /**
+     * Check that the log did not fail before.
+     *
+     * @exception TechnicalException if the log failed.
+     */
+    private void checkLogWorking() {
+        final TechnicalException currentFailure = this.failure;
+        if(currentFailure != null) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Write-ahead log of " + this.directory + " failed, writes are rejected until restart", currentFailure);
+        } // else: the log works.
+    }
+
+    /**
+     * Write a snapshot of the current data and delete the log segments contained in it.
+     * The data is copied while no write is appended and after all appended writes were applied, the snapshot itself is written without blocking the writers.
+     */
+    private void writeSnapshot() {
+        final List<LanguageET> languages;
+        final Map<String, LanguageET> countriesWithLanguage;
+        final List<CountryLanguageET> countryLanguages = new ArrayList<>();
+        final long sequence;
+        synchronized(this.writeLock) {
+            synchronized(this.applyLock) {
+                awaitApplied(this.appendedSequence);
+            }
+            languages = new ArrayList<>(this.storage.findAll());
+            countriesWithLanguage = new LinkedHashMap<>(this.storage.findAllCountriesWithLanguage());
+            this.storage.findAllCountryLanguages().values().forEach(countryLanguages::addAll);
+            sequence = this.log.rollover();
+            this.writesSinceSnapshot = 0;
+        }
+        final long start = System.nanoTime();
+        SnapshotFile.write(this.directory, sequence, languages, countriesWithLanguage, countryLanguages);
+        this.log.deleteSegmentsBefore(sequence);
+        LOG.info("Wrote snapshot of {} languages and {} countries to {} in {} ms", languages.size(), countriesWithLanguage.size(), this.directory,
+                 TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
@@ -0,0 +1,129 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * A validated batch of languages and countries with their language to be added by the storage engines in one write.
+ * All short names are validated and packed once (see {@link LanguageKeys}) before the storage engines publish the batch.
+ * Within the batch, the first language with a short name wins and all countries refer to that language.
+ *
+ * @author Felix Riess
+ * @since 06.02.20
+ */
+final class LanguageBatch {
+    /**
+     * All languages of the batch by their packed short name, including the languages of the countries.
+     */
+    private final LanguageCodeMap<LanguageET> languages;
+    /**
+     * All countries of the batch by their packed short name with their language of {@link #languages}.
+     */
+    private final LanguageCodeMap<LanguageET> countriesWithLanguage;
+
+    /**
+     * Constructor.
+     *
+     * @param languages the languages to be added (each must be valid, see {@link LanguageValidation#validateLanguageET(LanguageET)}).
+     * @param countriesWithLanguage the countries (key, 3 characters) with their language (value, must be valid) to be added.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with
+     * {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if any language or country is invalid.
+     */
+    LanguageBatch(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        Preconditions.checkNotNull(languages, "Languages must not be null");
+        Preconditions.checkNotNull(countriesWithLanguage, "Countries with language must not be null");
+        this.languages = new LanguageCodeMap<>(languages.size() + countriesWithLanguage.size());
+        this.countriesWithLanguage = new LanguageCodeMap<>(countriesWithLanguage.size());
+        for(final LanguageET language : languages) {
+            addLanguage(language);
+        }
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : countriesWithLanguage.entrySet()) {
+            final int countryKey = validateCountry(countryWithLanguage.getKey());
+            this.countriesWithLanguage.putIfAbsent(countryKey, addLanguage(countryWithLanguage.getValue()));
+        }
+    }
+
+    /**
+     * Validate a single language the way a batch validates each of its languages, without building a batch.
+     *
+     * @param language the language (must be valid, see {@link LanguageValidation#validateLanguageET(LanguageET)}).
+     * @return the packed short name of the language.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with
+     * {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the language is invalid.
+     */
+    static int validateLanguage(final LanguageET language) {
+        LanguageValidation.validateLanguageET(language);
+        final int languageKey = LanguageKeys.languageKey(language.getShortName());
+        Preconditions.checkArgument(languageKey != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+        return languageKey;
+    }
+
+    /**
+     * Validate a single country with its language the way a batch validates each of its countries, without building a batch.
+     *
+     * @param countryShortName the short name of the country (3 characters).
+     * @param language the language of the country (must be valid, see {@link #validateLanguage(LanguageET)}).
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with
+     * {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if the country or its language is invalid.
+     */
+    static void validateCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        validateCountry(countryShortName);
+        validateLanguage(language);
+    }
+
+    /**
+     * Validate the short name of a country.
+     *
+     * @param countryShortName the short name of the country (3 characters).
+     * @return the packed short name of the country.
+     */
+    private static int validateCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        final int countryKey = LanguageKeys.countryKey(countryShortName);
+        Preconditions.checkArgument(countryKey != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+        return countryKey;
+    }
+
+    /**
+     * Add the given language to the batch if no language with the same short name is contained yet.
+     *
+     * @param language the language to be added.
+     * @return the language of the batch with the short name of the given language.
+     */
+    private LanguageET addLanguage(final LanguageET language) {
+        final LanguageET existingLanguage = this.languages.putIfAbsent(validateLanguage(language), language);
+        return existingLanguage != null ? existingLanguage : language;
+    }
+
+    /**
+     * Get the languages of the batch.
+     *
+     * @return all languages of the batch by their packed short name (must not be changed).
+     */
+    LanguageCodeMap<LanguageET> getLanguages() {
+        return this.languages;
+    }
+
+    /**
+     * Get the countries of the batch.
+     *
+     * @return all countries of the batch by their packed short name with their language (must not be changed).
+     */
+    LanguageCodeMap<LanguageET> getCountriesWithLanguage() {
+        return this.countriesWithLanguage;
+    }
+
+    /**
+     * Check if the batch is empty.
+     *
+     * @return {@code true} if the batch contains neither languages nor countries.
+     */
+    boolean isEmpty() {
+        return this.languages.size() == 0;
+    }
+}
@@ -0,0 +1,199 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A map from packed short names (see {@link LanguageKeys}) to values using open addressing with linear probing.
+ * Keys are stored in a plain {@code int[]}, so neither lookups nor inserts allocate key objects or entries.
+ * Slots holding {@link LanguageKeys#NO_KEY} are empty. Removing keys is not supported.
+ * <p>
+ * This map is not thread-safe. The storage engines only publish instances which are not changed anymore afterwards.
+ *
+ * @param <V> the type of the values.
+ * @author Felix Riess
+ * @since 29.01.20
+ */
+final class LanguageCodeMap<V> implements LanguageCodeTable<V>, LanguageCodeSegment<V> {
+    /**
+     * The initial capacity of an empty map (must be a power of two).
+     */
+    private static final int INITIAL_CAPACITY = 8;
+    /**
+     * The keys of all slots.
+     */
+    private int[] keys;
+    /**
+     * The values of all slots.
+     */
+    private Object[] values;
+    /**
+     * The number of used slots.
+     */
+    private int size;
+
+    /**
+     * Constructor for an empty map.
+     */
+    LanguageCodeMap() {
+        this(new int[INITIAL_CAPACITY], new Object[INITIAL_CAPACITY], 0);
+    }
+
+    /**
+     * Constructor for an empty map, which can hold the given number of keys without resizing.
+     *
+     * @param expectedSize the expected number of keys.
+     */
+    LanguageCodeMap(final int expectedSize) {
+        this(new int[capacityFor(expectedSize)], new Object[capacityFor(expectedSize)], 0);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param keys the keys of all slots.
+     * @param values the values of all slots.
+     * @param size the number of used slots.
+     */
+    private LanguageCodeMap(final int[] keys, final Object[] values, final int size) {
+        this.keys = keys;
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(final int key) {
+        if(key == LanguageKeys.NO_KEY) {
+            return null;
+        } // else: probe the slots until the key or an empty slot is found.
+        final int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while(true) {
+            final int existingKey = this.keys[slot];
+            if(existingKey == key) {
+                return (V) this.values[slot];
+            } else if(existingKey == LanguageKeys.NO_KEY) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * Associate the given value with the given key if the key is not existing yet.
+     *
+     * @param key the key (not {@link LanguageKeys#NO_KEY}).
+     * @param value the value (not {@code null}).
+     * @return the existing value of the key or {@code null} if the value was added.
+     */
+    V putIfAbsent(final int key, final V value) {
+        final V existingValue = get(key);
+        if(existingValue == null) {
+            put(key, value);
+        }
+        return existingValue;
+    }
+
+    /**
+     * Associate the given value with the given key, replacing any existing value.
+     *
+     * @param key the key (not {@link LanguageKeys#NO_KEY}).
+     * @param value the value (not {@code null}).
+     */
+    void put(final int key, final V value) {
+        if((this.size + 1) * 2 > this.keys.length) {
+            resize(this.keys.length * 2);
+        }
+        final int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while(this.keys[slot] != LanguageKeys.NO_KEY && this.keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if(this.keys[slot] == LanguageKeys.NO_KEY) {
+            this.keys[slot] = key;
+            this.size++;
+        }
+        this.values[slot] = value;
+    }
+
+    @Override
+    public int size() {
+        return this.size;
+    }
+
+    @Override
+    public List<LanguageCodeMap<V>> segments() {
+        return Collections.singletonList(this);
+    }
+
+    /**
+     * Create an independent copy of this map.
+     *
+     * @return the copy as {@link LanguageCodeMap}.
+     */
+    LanguageCodeMap<V> copy() {
+        return new LanguageCodeMap<>(Arrays.copyOf(this.keys, this.keys.length), Arrays.copyOf(this.values, this.values.length), this.size);
+    }
+
+    @Override
+    public int capacity() {
+        return this.keys.length;
+    }
+
+    @Override
+    public int keyAt(final int slot) {
+        return this.keys[slot];
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V valueAt(final int slot) {
+        return (V) this.values[slot];
+    }
+
+    /**
+     * Rehash all keys into the given number of slots.
+     *
+     * @param capacity the new number of slots (must be a power of two).
+     */
+    private void resize(final int capacity) {
+        final int[] oldKeys = this.keys;
+        final Object[] oldValues = this.values;
+        this.keys = new int[capacity];
+        this.values = new Object[capacity];
+        final int mask = capacity - 1;
+        for(int i = 0; i < oldKeys.length; i++) {
+            if(oldKeys[i] != LanguageKeys.NO_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while(this.keys[slot] != LanguageKeys.NO_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Get the number of slots needed for the given number of keys, keeping the load factor at most one half.
+     *
+     * @param expectedSize the expected number of keys.
+     * @return the number of slots (a power of two).
+     */
+    private static int capacityFor(final int expectedSize) {
+        return Math.max(INITIAL_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize * 2 - 1)) << 1);
+    }
+
+    /**
+     * Spread the bits of the given key, as consecutive short names only differ in their lowest bits.
+     *
+     * @param key the key.
+     * @return the hash of the key.
+     */
+    static int hash(final int key) {
+        final int hash = key * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,33 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+/**
+ * A segment of a {@link LanguageCodeTable}: slots addressed from {@code 0} to {@code capacity() - 1}, each holding a key and its value or being empty.
+ *
+ * @param <V> the type of the values.
+ * @author Felix Riess
+ * @since 29.01.20
+ */
+interface LanguageCodeSegment<V> {
+    /**
+     * Get the number of slots. Slots are addressed from {@code 0} to {@code capacity() - 1}.
+     *
+     * @return the number of slots.
+     */
+    int capacity();
+
+    /**
+     * Get the key of the given slot.
+     *
+     * @param slot the slot.
+     * @return the key or {@link LanguageKeys#NO_KEY} if the slot is empty.
+     */
+    int keyAt(final int slot);
+
+    /**
+     * Get the value of the given slot. The value of a slot is set before its key.
+     *
+     * @param slot the slot.
+     * @return the value or {@code null} if the slot is empty.
+     */
+    V valueAt(final int slot);
+}
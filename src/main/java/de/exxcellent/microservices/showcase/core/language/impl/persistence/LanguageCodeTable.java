@@ -0,0 +1,58 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * A read-only table from packed short names (see {@link LanguageKeys}) to values, consisting of one or more {@link LanguageCodeSegment}s.
+ *
+ * @param <V> the type of the values.
+ * @author Felix Riess
+ * @since 29.01.20
+ */
+interface LanguageCodeTable<V> {
+    /**
+     * Get the value of the given key.
+     *
+     * @param key the key.
+     * @return the value or {@code null} if the key is not existing.
+     */
+    V get(final int key);
+
+    /**
+     * Get the values of many short names at once.
+     *
+     * @param shortNames the short names to be looked up. {@code null} and short names which cannot be packed are never found.
+     * @param keyOfShortName packs a short name into its key (see {@link LanguageKeys}).
+     * @return the found values by the given short name, in the order of the given short names.
+     */
+    default Map<String, V> getAll(final Collection<String> shortNames, final ToIntFunction<String> keyOfShortName) {
+        final Map<String, V> found = new LinkedHashMap<>();
+        for(final String shortName : shortNames) {
+            if(shortName != null) {
+                final V value = get(keyOfShortName.applyAsInt(shortName));
+                if(value != null) {
+                    found.put(shortName, value);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the number of keys.
+     *
+     * @return the number of keys.
+     */
+    int size();
+
+    /**
+     * Get the segments holding the keys and values. The segments must not be changed by the caller.
+     *
+     * @return the segments as {@link List} of {@link LanguageCodeSegment}s.
+     */
+    List<? extends LanguageCodeSegment<V>> segments();
+}
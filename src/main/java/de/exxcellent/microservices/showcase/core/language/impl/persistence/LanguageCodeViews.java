@@ -0,0 +1,198 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.IntFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * Unmodifiable {@link Set} and {@link Map} views of {@link LanguageCodeTable}s to be returned by the storage engines.
+ * The views do not copy any data: lookups are delegated to the table and the iteration walks the slots of its segments.
+ *
+ * @author Felix Riess
+ * @since 29.01.20
+ */
+final class LanguageCodeViews {
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private LanguageCodeViews() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "LanguageCodeViews is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Create an unmodifiable {@link Set} view of the values of the given table.
+     *
+     * @param table the {@link LanguageCodeTable}.
+     * @param keyOfValue computes the key of a possible value, {@link LanguageKeys#NO_KEY} if the object cannot be a value.
+     * @param <V> the type of the values.
+     * @return the values as {@link Set}.
+     */
+    static <V> Set<V> valueSet(final LanguageCodeTable<V> table, final ToIntFunction<Object> keyOfValue) {
+        return new ValueSet<>(table, keyOfValue);
+    }
+
+    /**
+     * Create an unmodifiable {@link Map} view of the given table with the unpacked short names as keys.
+     *
+     * @param table the {@link LanguageCodeTable}.
+     * @param keyOfShortName packs a possible short name, {@link LanguageKeys#NO_KEY} if the object cannot be a short name.
+     * @param <V> the type of the values.
+     * @return the table as {@link Map}.
+     */
+    static <V> Map<String, V> map(final LanguageCodeTable<V> table, final ToIntFunction<Object> keyOfShortName) {
+        return new ShortNameMap<>(table, keyOfShortName);
+    }
+
+    /**
+     * {@link Set} view of the values of a {@link LanguageCodeTable}.
+     *
+     * @param <V> the type of the values.
+     */
+    private static final class ValueSet<V> extends AbstractSet<V> {
+        private final LanguageCodeTable<V> table;
+        private final ToIntFunction<Object> keyOfValue;
+
+        private ValueSet(final LanguageCodeTable<V> table, final ToIntFunction<Object> keyOfValue) {
+            this.table = table;
+            this.keyOfValue = keyOfValue;
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            final V value = o != null ? this.table.get(this.keyOfValue.applyAsInt(o)) : null;
+            return value != null && value.equals(o);
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new SlotIterator<>(this.table.segments(), LanguageCodeSegment::valueAt);
+        }
+
+        @Override
+        public int size() {
+            return this.table.size();
+        }
+    }
+
+    /**
+     * {@link Map} view of a {@link LanguageCodeTable} with unpacked short names as keys.
+     *
+     * @param <V> the type of the values.
+     */
+    private static final class ShortNameMap<V> extends AbstractMap<String, V> {
+        private final LanguageCodeTable<V> table;
+        private final ToIntFunction<Object> keyOfShortName;
+        private final Set<Entry<String, V>> entries;
+
+        private ShortNameMap(final LanguageCodeTable<V> table, final ToIntFunction<Object> keyOfShortName) {
+            this.table = table;
+            this.keyOfShortName = keyOfShortName;
+            this.entries = new AbstractSet<Entry<String, V>>() {
+                @Override
+                public Iterator<Entry<String, V>> iterator() {
+                    return new SlotIterator<>(table.segments(),
+                                    (segment, slot) -> new SimpleImmutableEntry<>(LanguageKeys.shortName(segment.keyAt(slot)), segment.valueAt(slot)));
+                }
+
+                @Override
+                public int size() {
+                    return table.size();
+                }
+            };
+        }
+
+        @Override
+        public V get(final Object key) {
+            return key != null ? this.table.get(this.keyOfShortName.applyAsInt(key)) : null;
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            return this.table.size();
+        }
+
+        @Override
+        public Set<Entry<String, V>> entrySet() {
+            return this.entries;
+        }
+    }
+
+    /**
+     * Reads an element from a slot of a {@link LanguageCodeSegment}.
+     *
+     * @param <V> the type of the values of the map.
+     * @param <E> the type of the elements.
+     */
+    @FunctionalInterface
+    private interface SlotReader<V, E> {
+        E read(final LanguageCodeSegment<V> segment, final int slot);
+    }
+
+    /**
+     * Iterates over all used slots of the given segments.
+     *
+     * @param <V> the type of the values of the segments.
+     * @param <E> the type of the elements.
+     */
+    private static final class SlotIterator<V, E> implements Iterator<E> {
+        private final List<? extends LanguageCodeSegment<V>> segments;
+        private final SlotReader<V, E> reader;
+        private int segment;
+        private int slot = -1;
+
+        private SlotIterator(final List<? extends LanguageCodeSegment<V>> segments, final SlotReader<V, E> reader) {
+            this.segments = segments;
+            this.reader = reader;
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.segment < this.segments.size();
+        }
+
+        @Override
+        public E next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final E element = this.reader.read(this.segments.get(this.segment), this.slot);
+            advance();
+            return element;
+        }
+
+        /**
+         * Move to the next used slot or behind the last segment.
+         */
+        private void advance() {
+            while(this.segment < this.segments.size()) {
+                final LanguageCodeSegment<V> current = this.segments.get(this.segment);
+                this.slot++;
+                while(this.slot < current.capacity()) {
+                    if(current.keyAt(this.slot) != LanguageKeys.NO_KEY) {
+                        return;
+                    }
+                    this.slot++;
+                }
+                this.segment++;
+                this.slot = -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.ToIntFunction;
+
+/**
+ * A simple helper class to pack the short names of languages and countries into {@code int} keys for the storage indexes.
+ * Each short name has exactly 3 ASCII characters which are stored in the lower 24 bits of the key, so all lookups ignore the letter case.
+ * Language short names are normalized to lower case (e.g. {@code deu}), country short names to upper case (e.g. {@code GER}).
+ *
+ * @author Felix Riess
+ * @since 28.01.20
+ */
+final class LanguageKeys {
+    /**
+     * The key of all short names which cannot be packed (wrong length or non ASCII characters). Is never stored in an index.
+     */
+    static final int NO_KEY = 0;
+    /**
+     * Error message if a short name cannot be packed.
+     */
+    static final String SHORT_NAME_ASCII = LanguageValidation.SHORT_NAME_ASCII;
+    /**
+     * Error message if the limit of a page is not positive.
+     */
+    static final String LIMIT_POSITIVE = "Limit must be positive";
+    /**
+     * Error message if the display locale of display names is {@code null}.
+     */
+    static final String LOCALE_NOT_NULL = "Display locale must not be null";
+    /**
+     * Number of characters of each short name.
+     */
+    private static final int LENGTH = 3;
+    /**
+     * Bits used for each character.
+     */
+    private static final int BITS_PER_CHARACTER = 8;
+    /**
+     * Difference between upper and lower case ASCII letters.
+     */
+    private static final int CASE_OFFSET = 'a' - 'A';
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private LanguageKeys() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "LanguageKeys is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Pack the given language short name into an index key.
+     *
+     * @param shortName the short name of the language (not {@code null}).
+     * @return the key of the short name in lower case or {@link #NO_KEY} if the short name cannot be packed.
+     */
+    static int languageKey(final String shortName) {
+        return pack(shortName, 'A', 'Z', CASE_OFFSET);
+    }
+
+    /**
+     * Pack the given country short name into an index key.
+     *
+     * @param countryShortName the short name of the country (not {@code null}).
+     * @return the key of the short name in upper case or {@link #NO_KEY} if the short name cannot be packed.
+     */
+    static int countryKey(final String countryShortName) {
+        return pack(countryShortName, 'a', 'z', -CASE_OFFSET);
+    }
+
+    /**
+     * Get the index key of a possible language, used by the views of the storage engines.
+     *
+     * @param language the possible language.
+     * @return the key of the language or {@link #NO_KEY} if the object is no {@link LanguageET}.
+     */
+    static int languageKeyOf(final Object language) {
+        return language instanceof LanguageET ? languageKey(((LanguageET) language).getShortName()) : NO_KEY;
+    }
+
+    /**
+     * Get the index key of a possible country short name, used by the views of the storage engines.
+     *
+     * @param countryShortName the possible country short name.
+     * @return the key of the country short name or {@link #NO_KEY} if the object is no {@link String}.
+     */
+    static int countryKeyOf(final Object countryShortName) {
+        return countryShortName instanceof String ? countryKey((String) countryShortName) : NO_KEY;
+    }
+
+    /**
+     * Unpack the given key to the normalized short name.
+     *
+     * @param key the key (not {@link #NO_KEY}).
+     * @return the normalized short name as {@link String}.
+     */
+    static String shortName(final int key) {
+        final char[] characters = new char[LENGTH];
+        for(int i = 0; i < LENGTH; i++) {
+            characters[i] = (char) ((key >>> ((LENGTH - 1 - i) * BITS_PER_CHARACTER)) & 0xFF);
+        }
+        return new String(characters);
+    }
+
+    /**
+     * Add a key to a sorted array of keys.
+     *
+     * @param keys the sorted keys (not changed, {@code null} if there are none).
+     * @param key the key to be added.
+     * @return a new sorted array containing the key or the given array if the key is already contained.
+     */
+    static int[] addKey(final int[] keys, final int key) {
+        if(keys == null) {
+            return new int[] {key};
+        } // else: search the position of the key.
+        final int index = Arrays.binarySearch(keys, key);
+        if(index >= 0) {
+            return keys;
+        } // else: insert the key at the insertion point.
+        final int insertionPoint = -index - 1;
+        final int[] updatedKeys = new int[keys.length + 1];
+        System.arraycopy(keys, 0, updatedKeys, 0, insertionPoint);
+        updatedKeys[insertionPoint] = key;
+        System.arraycopy(keys, insertionPoint, updatedKeys, insertionPoint + 1, keys.length - insertionPoint);
+        return updatedKeys;
+    }
+
+    /**
+     * Get the position of the first key greater than the given key in sorted keys.
+     *
+     * @param keys the sorted keys.
+     * @param key the key, {@link #NO_KEY} to get the position of the first key.
+     * @return the position of the first key greater than the given key, {@code keys.length} if there is none.
+     */
+    static int indexAfter(final int[] keys, final int key) {
+        final int index = Arrays.binarySearch(keys, key);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Pack the short name after which a page starts.
+     *
+     * @param after the short name after which the page starts, {@code null} for the first page.
+     * @param keyOfShortName packs the short name (see {@link #languageKey(String)} and {@link #countryKey(String)}).
+     * @return the key of the short name, {@link #NO_KEY} for the first page.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the short name cannot be packed.
+     */
+    static int pageKey(final String after, final ToIntFunction<String> keyOfShortName) {
+        if(after == null) {
+            return NO_KEY;
+        } // else: page starts after the given short name.
+        final int key = keyOfShortName.applyAsInt(after);
+        Preconditions.checkArgument(key != NO_KEY, "Invalid start of page: " + after);
+        return key;
+    }
+
+    /**
+     * Add sorted keys to a sorted array of keys.
+     *
+     * @param keys the sorted keys (not changed, {@code null} if there are none).
+     * @param addedKeys the sorted keys to be added (not changed, not {@code null}).
+     * @return a new sorted array containing all keys once or the given array if all added keys are already contained.
+     */
+    static int[] addKeys(final int[] keys, final int[] addedKeys) {
+        if(keys == null) {
+            return addedKeys;
+        } // else: merge both sorted arrays.
+        final int[] mergedKeys = new int[keys.length + addedKeys.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while(i < keys.length || j < addedKeys.length) {
+            final int key;
+            if(j == addedKeys.length || (i < keys.length && keys[i] <= addedKeys[j])) {
+                key = keys[i++];
+            } else {
+                key = addedKeys[j++];
+            }
+            if(size == 0 || mergedKeys[size - 1] != key) {
+                mergedKeys[size++] = key;
+            }
+        }
+        return size == keys.length ? keys : Arrays.copyOf(mergedKeys, size);
+    }
+
+    /**
+     * Pack the relation between a language and a country into a {@code long}, so relations can be sorted by language and country.
+     *
+     * @param languageKey the key of the language.
+     * @param countryKey the key of the country.
+     * @return the packed relation.
+     */
+    static long relation(final int languageKey, final int countryKey) {
+        return ((long) languageKey << Integer.SIZE) | countryKey;
+    }
+
+    /**
+     * Group the given relations between languages and countries by language.
+     *
+     * @param relations the relations packed with {@link #relation(int, int)} (sorted in place).
+     * @param count the number of relations in the array.
+     * @return the sorted keys of the countries (value) by the key of their language (key).
+     */
+    static LanguageCodeMap<int[]> countriesByLanguage(final long[] relations, final int count) {
+        Arrays.sort(relations, 0, count);
+        final LanguageCodeMap<int[]> countriesByLanguage = new LanguageCodeMap<>();
+        int start = 0;
+        while(start < count) {
+            final int languageKey = (int) (relations[start] >>> Integer.SIZE);
+            int end = start + 1;
+            while(end < count && (int) (relations[end] >>> Integer.SIZE) == languageKey) {
+                end++;
+            }
+            final int[] countryKeys = new int[end - start];
+            for(int i = start; i < end; i++) {
+                countryKeys[i - start] = (int) relations[i];
+            }
+            countriesByLanguage.put(languageKey, countryKeys);
+            start = end;
+        }
+        return countriesByLanguage;
+    }
+
+    /**
+     * Unpack the given keys to their normalized short names.
+     *
+     * @param keys the keys ({@code null} if there are none).
+     * @return the unmodifiable {@link Set} of short names in the order of the keys.
+     */
+    static Set<String> shortNames(final int[] keys) {
+        if(keys == null || keys.length == 0) {
+            return Collections.emptySet();
+        } // else: unpack each key.
+        final Set<String> shortNames = new LinkedHashSet<>();
+        for(final int key : keys) {
+            shortNames.add(shortName(key));
+        }
+        return Collections.unmodifiableSet(shortNames);
+    }
+
+    /**
+     * Pack the given short name and fold the letters in the range {@code from} to {@code to} by the given offset.
+     *
+     * @param shortName the short name to be packed (not {@code null}).
+     * @param from the first letter to be folded.
+     * @param to the last letter to be folded.
+     * @param offset the offset to be added to folded letters.
+     * @return the packed key or {@link #NO_KEY} if the short name has not 3 characters or contains a character outside the ASCII range.
+     */
+    private static int pack(final String shortName, final char from, final char to, final int offset) {
+        if(shortName.length() != LENGTH) {
+            return NO_KEY;
+        } // else: pack each character into 8 bits.
+        int key = 0;
+        for(int i = 0; i < LENGTH; i++) {
+            int character = shortName.charAt(i);
+            if(character == 0 || character > 0x7F) {
+                return NO_KEY;
+            } else if(character >= from && character <= to) {
+                character += offset;
+            }
+            key = (key << BITS_PER_CHARACTER) | character;
+        }
+        return key;
+    }
+}
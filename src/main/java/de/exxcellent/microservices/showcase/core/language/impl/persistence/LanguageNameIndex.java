@@ -0,0 +1,662 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * An immutable n-gram index over the names of languages to search them by a part of the name.
+ * <p>
+ * The names are folded (see {@link #fold(String)}), so the search ignores the letter case and accents. Each entry is an id of the language
+ * (the language key of the storage engines, see {@link LanguageKeys}, or the index of the reference data, both ordered like the short names)
+ * with its folded name. The entries are sorted by folded name and id. The postings are stored as compressed sparse rows (CSR): the sorted
+ * distinct grams of all names with the offsets of their entries, sorted by entry. Grams are the trigrams of the name preceded by a space,
+ * so a trigram starting with a space marks the start of a word, and the bigrams of a space with the first letter of each word.
+ * A query of at least {@value #MIN_SUBSTRING_LENGTH} characters only verifies the entries of its rarest trigram,
+ * a shorter query the entries of the gram of a word starting with the query.
+ * <p>
+ * Adding languages creates a new index (copy-on-write) and never changes a published one, so an index can be read by any number of threads.
+ * Added languages are kept in a small sorted pending part which is scanned on each search, and merged into the postings
+ * once it exceeds {@value #MAX_PENDING} entries, so adding a language does not rebuild the whole index.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class LanguageNameIndex {
+    /**
+     * The index without any language.
+     */
+    static final LanguageNameIndex EMPTY = new LanguageNameIndex(new int[0], new String[0], new long[0], new int[1], new int[0], new int[0], new String[0]);
+    /**
+     * Message if the query is {@code null}.
+     */
+    static final String QUERY_NOT_NULL = "Query must not be null";
+    /**
+     * The minimum length of a folded query to match anywhere in a name, shorter queries only match the start of a word.
+     */
+    private static final int MIN_SUBSTRING_LENGTH = 3;
+    /**
+     * The maximum number of pending entries before they are merged into the postings.
+     */
+    private static final int MAX_PENDING = 256;
+    /**
+     * Rank of a name starting with the query.
+     */
+    private static final int RANK_PREFIX = 0;
+    /**
+     * Rank of a name with a word starting with the query.
+     */
+    private static final int RANK_WORD = 1;
+    /**
+     * Rank of a name containing the query inside a word.
+     */
+    private static final int RANK_SUBSTRING = 2;
+    /**
+     * Rank of a name not matching the query.
+     */
+    private static final int NO_MATCH = -1;
+
+    /**
+     * The ids of the indexed entries, sorted by folded name and id.
+     */
+    private final int[] ids;
+    /**
+     * The folded name of each entry of {@link #ids}.
+     */
+    private final String[] names;
+    /**
+     * The distinct grams of all names in ascending order (see {@link #gram(CharSequence, int, int)}).
+     */
+    private final long[] grams;
+    /**
+     * The position of the first posting of each gram of {@link #grams}, followed by the number of postings.
+     */
+    private final int[] gramOffsets;
+    /**
+     * The entries containing each gram in ascending order.
+     */
+    private final int[] postings;
+    /**
+     * The ids of the pending entries, sorted by folded name and id.
+     */
+    private final int[] pendingIds;
+    /**
+     * The folded name of each entry of {@link #pendingIds}.
+     */
+    private final String[] pendingNames;
+
+    /**
+     * Constructor.
+     *
+     * @param ids the ids of the indexed entries.
+     * @param names the folded names of the indexed entries.
+     * @param grams the distinct grams.
+     * @param gramOffsets the offsets of the postings of the grams.
+     * @param postings the postings.
+     * @param pendingIds the ids of the pending entries.
+     * @param pendingNames the folded names of the pending entries.
+     */
+    private LanguageNameIndex(final int[] ids, final String[] names, final long[] grams, final int[] gramOffsets, final int[] postings,
+                              final int[] pendingIds, final String[] pendingNames) {
+        this.ids = ids;
+        this.names = names;
+        this.grams = grams;
+        this.gramOffsets = gramOffsets;
+        this.postings = postings;
+        this.pendingIds = pendingIds;
+        this.pendingNames = pendingNames;
+    }
+
+    /**
+     * Build an index of the given number of entries.
+     *
+     * @param count the number of entries.
+     * @param id the id of each entry by its position.
+     * @param name the (not folded) name of each entry by its position.
+     * @return the {@link LanguageNameIndex}.
+     */
+    static LanguageNameIndex of(final int count, final IntUnaryOperator id, final IntFunction<String> name) {
+        final int[] ids = new int[count];
+        final String[] names = new String[count];
+        for(int i = 0; i < count; i++) {
+            ids[i] = id.applyAsInt(i);
+            names[i] = fold(name.apply(i));
+        }
+        return build(ids, names, count);
+    }
+
+    /**
+     * Create a new index with the given languages added. The languages must not be contained yet.
+     *
+     * @param languages the languages to add as {@link Collection} of {@link LanguageET}s, their id is the key of the short name.
+     * @return the new index or this index if no languages are given.
+     */
+    LanguageNameIndex withAll(final Collection<LanguageET> languages) {
+        if(languages.isEmpty()) {
+            return this;
+        } // else: add the languages to the pending entries or merge all entries.
+        final int count = this.pendingIds.length + languages.size();
+        final boolean merge = count > MAX_PENDING;
+        final int[] addedIds = Arrays.copyOf(this.pendingIds, merge ? this.ids.length + count : count);
+        final String[] addedNames = Arrays.copyOf(this.pendingNames, addedIds.length);
+        int position = this.pendingIds.length;
+        for(final LanguageET language : languages) {
+            addedIds[position] = LanguageKeys.languageKey(language.getShortName());
+            addedNames[position++] = fold(language.getName());
+        }
+        if(merge) {
+            System.arraycopy(this.ids, 0, addedIds, position, this.ids.length);
+            System.arraycopy(this.names, 0, addedNames, position, this.names.length);
+            return build(addedIds, addedNames, addedIds.length);
+        } // else: only sort the pending entries.
+        final Integer[] order = sortedOrder(addedIds, addedNames, count);
+        final int[] pendingIds = new int[count];
+        final String[] pendingNames = new String[count];
+        for(int i = 0; i < count; i++) {
+            pendingIds[i] = addedIds[order[i]];
+            pendingNames[i] = addedNames[order[i]];
+        }
+        return new LanguageNameIndex(this.ids, this.names, this.grams, this.gramOffsets, this.postings, pendingIds, pendingNames);
+    }
+
+    /**
+     * Search the languages matching the given query, ordered by {@link #matchOrder(String)}.
+     *
+     * @param query the (part of the) name to search (not {@code null}), folded before the search.
+     * @param limit the maximum number of languages to return (positive).
+     * @param language the function returning the {@link LanguageET} of an id.
+     * @return the best matching languages as {@link List} of {@link LanguageET}s, empty if none matches.
+     */
+    List<LanguageET> search(final String query, final int limit, final IntFunction<LanguageET> language) {
+        final String folded = fold(query);
+        if(folded.isEmpty()) {
+            return Collections.emptyList();
+        } // else: collect the matches of both parts and merge them.
+        final long[] matches = indexedMatches(folded);
+        final long[] pendingMatches = pendingMatches(folded);
+        final List<LanguageET> found = new ArrayList<>(Math.min(limit, matches.length + pendingMatches.length));
+        int index = 0;
+        int pendingIndex = 0;
+        while(found.size() < limit && (index < matches.length || pendingIndex < pendingMatches.length)) {
+            if(pendingIndex == pendingMatches.length
+               || index < matches.length && compare(matches[index], this.names, this.ids, pendingMatches[pendingIndex], this.pendingNames, this.pendingIds) < 0) {
+                found.add(language.apply(this.ids[entry(matches[index++])]));
+            } else {
+                found.add(language.apply(this.pendingIds[entry(pendingMatches[pendingIndex++])]));
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Search the given entries by checking each name, without building an index. Finds the same languages in the same order as
+     * {@link #search(String, int, IntFunction)} of the index built by {@link #of(int, IntUnaryOperator, IntFunction)}, but costs O(number of entries).
+     *
+     * @param count the number of entries.
+     * @param id the id of each entry by its position, ascending.
+     * @param name the (not folded) name of each entry by its position.
+     * @param query the (part of the) name to search (not {@code null}), folded before the search.
+     * @param limit the maximum number of languages to return (positive).
+     * @param language the function returning the {@link LanguageET} of an id.
+     * @return the best matching languages as {@link List} of {@link LanguageET}s, empty if none matches.
+     */
+    static List<LanguageET> scan(final int count, final IntUnaryOperator id, final IntFunction<String> name, final String query, final int limit,
+                                 final IntFunction<LanguageET> language) {
+        final String folded = fold(query);
+        if(folded.isEmpty()) {
+            return Collections.emptyList();
+        } // else: rank each name.
+        final String[] names = new String[count];
+        final int[] ranks = new int[count];
+        final List<Integer> matches = new ArrayList<>();
+        for(int entry = 0; entry < count; entry++) {
+            names[entry] = fold(name.apply(entry));
+            ranks[entry] = rank(names[entry], folded);
+            if(ranks[entry] != NO_MATCH) {
+                matches.add(entry);
+            }
+        }
+        // the entries are ordered by id, so the stable sort keeps equal names in the order of their ids.
+        matches.sort(Comparator.<Integer>comparingInt(entry -> ranks[entry])
+                               .thenComparingInt(entry -> Math.min(names[entry].length(), Short.MAX_VALUE))
+                               .thenComparing(entry -> names[entry]));
+        final List<LanguageET> found = new ArrayList<>(Math.min(limit, matches.size()));
+        for(int i = 0; i < matches.size() && found.size() < limit; i++) {
+            found.add(language.apply(id.applyAsInt(matches.get(i))));
+        }
+        return found;
+    }
+
+    /**
+     * Get the number of indexed languages.
+     *
+     * @return the number of languages.
+     */
+    int size() {
+        return this.ids.length + this.pendingIds.length;
+    }
+
+    /**
+     * Estimate the heap memory retained by this index.
+     *
+     * @return the estimated number of bytes.
+     */
+    long estimateMemory() {
+        long bytes = StorageFootprint.primitiveArray(this.ids.length, Integer.BYTES) + StorageFootprint.referenceArray(this.names.length)
+                     + StorageFootprint.primitiveArray(this.grams.length, Long.BYTES) + StorageFootprint.primitiveArray(this.gramOffsets.length, Integer.BYTES)
+                     + StorageFootprint.primitiveArray(this.postings.length, Integer.BYTES) + StorageFootprint.primitiveArray(this.pendingIds.length, Integer.BYTES)
+                     + StorageFootprint.referenceArray(this.pendingNames.length);
+        for(final String name : this.names) {
+            bytes += StorageFootprint.string(name);
+        }
+        for(final String name : this.pendingNames) {
+            bytes += StorageFootprint.string(name);
+        }
+        return bytes;
+    }
+
+    /**
+     * Fold the given text for the search: accents and other combining marks are removed (after a compatibility decomposition),
+     * letters are lower-cased and each sequence of other characters than letters and digits becomes a single space, without leading and trailing spaces.
+     *
+     * @param text the text to fold.
+     * @return the folded text, empty if the text contains no letters and digits.
+     */
+    static String fold(final String text) {
+        // most names are ASCII, which needs no decomposition.
+        final String decomposed = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFKD);
+        final StringBuilder folded = new StringBuilder(decomposed.length());
+        boolean separated = true;
+        for(int i = 0; i < decomposed.length(); i++) {
+            final char c = decomposed.charAt(i);
+            final int type = Character.getType(c);
+            if(type == Character.NON_SPACING_MARK || type == Character.COMBINING_SPACING_MARK || type == Character.ENCLOSING_MARK) {
+                continue;
+            } else if(Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+                separated = false;
+            } else if(!separated) {
+                folded.append(' ');
+                separated = true;
+            }
+        }
+        final int length = folded.length();
+        return length > 0 && folded.charAt(length - 1) == ' ' ? folded.substring(0, length - 1) : folded.toString();
+    }
+
+    /**
+     * Check if the given text only consists of ASCII characters.
+     *
+     * @param text the text.
+     * @return {@code true} if all characters are ASCII characters.
+     */
+    private static boolean isAscii(final String text) {
+        for(int i = 0; i < text.length(); i++) {
+            if(text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get the order of the search results for the given query: names starting with the query first, then names with a word starting with the query,
+     * then names containing the query. Within each group shorter names come first, then the names and short names in ascending order.
+     * Merges the results of several indexes, as the results of each index are in this order.
+     *
+     * @param query the query (not {@code null}), folded before.
+     * @return the {@link Comparator} of the matching languages.
+     */
+    static Comparator<LanguageET> matchOrder(final String query) {
+        final String folded = fold(query);
+        return (first, second) -> {
+            final String firstName = fold(first.getName());
+            final String secondName = fold(second.getName());
+            int result = Integer.compare(rank(firstName, folded), rank(secondName, folded));
+            if(result == 0) {
+                result = Integer.compare(firstName.length(), secondName.length());
+            }
+            if(result == 0) {
+                result = firstName.compareTo(secondName);
+            }
+            return result != 0 ? result
+                    : Integer.compare(LanguageKeys.languageKey(first.getShortName()), LanguageKeys.languageKey(second.getShortName()));
+        };
+    }
+
+    /**
+     * Get the matches of the indexed entries.
+     *
+     * @param query the folded query.
+     * @return the sorted matches (see {@link #match(int, int, int)}).
+     */
+    private long[] indexedMatches(final String query) {
+        int first = 0;
+        int end = -1;
+        if(query.length() < MIN_SUBSTRING_LENGTH) {
+            final int gramIndex = Arrays.binarySearch(this.grams, gram(" " + query, 0, query.length() + 1));
+            if(gramIndex >= 0) {
+                first = this.gramOffsets[gramIndex];
+                end = this.gramOffsets[gramIndex + 1];
+            }
+        } else {
+            // the entries of the rarest trigram of the query, each match must contain all of its trigrams.
+            for(int i = 0; i + MIN_SUBSTRING_LENGTH <= query.length(); i++) {
+                final int gramIndex = Arrays.binarySearch(this.grams, gram(query, i, MIN_SUBSTRING_LENGTH));
+                if(gramIndex < 0) {
+                    return new long[0];
+                } else if(end < 0 || this.gramOffsets[gramIndex + 1] - this.gramOffsets[gramIndex] < end - first) {
+                    first = this.gramOffsets[gramIndex];
+                    end = this.gramOffsets[gramIndex + 1];
+                }
+            }
+        }
+        if(end <= first) {
+            return new long[0];
+        } // else: verify the candidates.
+        final long[] matches = new long[end - first];
+        int count = 0;
+        for(int i = first; i < end; i++) {
+            final int entry = this.postings[i];
+            final int rank = rank(this.names[entry], query);
+            if(rank != NO_MATCH) {
+                matches[count++] = match(rank, this.names[entry].length(), entry);
+            }
+        }
+        // the entries are sorted by name and id, so sorting by rank, length and entry sorts the matches completely.
+        final long[] sorted = Arrays.copyOf(matches, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Get the matches of the pending entries by scanning all of them.
+     *
+     * @param query the folded query.
+     * @return the sorted matches (see {@link #match(int, int, int)}).
+     */
+    private long[] pendingMatches(final String query) {
+        long[] matches = null;
+        int count = 0;
+        for(int entry = 0; entry < this.pendingNames.length; entry++) {
+            final int rank = rank(this.pendingNames[entry], query);
+            if(rank != NO_MATCH) {
+                if(matches == null) {
+                    matches = new long[this.pendingNames.length];
+                }
+                matches[count++] = match(rank, this.pendingNames[entry].length(), entry);
+            }
+        }
+        if(matches == null) {
+            return new long[0];
+        } // else: sort like the indexed matches.
+        final long[] sorted = Arrays.copyOf(matches, count);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * Compare two matches of different entry arrays by rank, length, name and id.
+     *
+     * @param match the first match.
+     * @param names the folded names of the entries of the first match.
+     * @param ids the ids of the entries of the first match.
+     * @param otherMatch the second match.
+     * @param otherNames the folded names of the entries of the second match.
+     * @param otherIds the ids of the entries of the second match.
+     * @return a negative value, zero or a positive value if the first match is ordered before, like or after the second match.
+     */
+    private static int compare(final long match, final String[] names, final int[] ids, final long otherMatch, final String[] otherNames, final int[] otherIds) {
+        final int result = Long.compare(match >>> Integer.SIZE, otherMatch >>> Integer.SIZE);
+        if(result != 0) {
+            return result;
+        } // else: same rank and length.
+        final int nameResult = names[entry(match)].compareTo(otherNames[entry(otherMatch)]);
+        return nameResult != 0 ? nameResult : Integer.compare(ids[entry(match)], otherIds[entry(otherMatch)]);
+    }
+
+    /**
+     * Pack a match into a {@code long} which sorts by rank, length of the name and entry.
+     *
+     * @param rank the rank of the match.
+     * @param length the length of the folded name.
+     * @param entry the entry of the match.
+     * @return the packed match.
+     */
+    private static long match(final int rank, final int length, final int entry) {
+        return (long) rank << (Integer.SIZE + Short.SIZE) | (long) Math.min(length, Short.MAX_VALUE) << Integer.SIZE | entry;
+    }
+
+    /**
+     * Get the entry of a packed match.
+     *
+     * @param match the packed match (see {@link #match(int, int, int)}).
+     * @return the entry.
+     */
+    private static int entry(final long match) {
+        return (int) match;
+    }
+
+    /**
+     * Get the rank of a folded name for a folded query.
+     *
+     * @param name the folded name.
+     * @param query the folded query.
+     * @return the rank or {@link #NO_MATCH} if the name does not match the query.
+     */
+    private static int rank(final String name, final String query) {
+        if(name.startsWith(query)) {
+            return RANK_PREFIX;
+        } // else: search a word starting with the query.
+        boolean contained = false;
+        for(int position = name.indexOf(query, 1); position > 0; position = name.indexOf(query, position + 1)) {
+            if(name.charAt(position - 1) == ' ') {
+                return RANK_WORD;
+            }
+            contained = true;
+        }
+        return contained && query.length() >= MIN_SUBSTRING_LENGTH ? RANK_SUBSTRING : NO_MATCH;
+    }
+
+    /**
+     * Build the postings of the given entries.
+     *
+     * @param ids the ids of the entries.
+     * @param names the folded names of the entries.
+     * @param count the number of entries.
+     * @return the {@link LanguageNameIndex} without pending entries.
+     */
+    private static LanguageNameIndex build(final int[] ids, final String[] names, final int count) {
+        final Integer[] order = sortedOrder(ids, names, count);
+        final int[] sortedIds = new int[count];
+        final String[] sortedNames = new String[count];
+        for(int i = 0; i < count; i++) {
+            sortedIds[i] = ids[order[i]];
+            sortedNames[i] = names[order[i]];
+        }
+        // first pass: a dense id for each distinct gram and the number of postings of each gram.
+        final GramIds gramIds = new GramIds();
+        final int[][] entryGramIds = new int[count][];
+        int postingCount = 0;
+        for(int entry = 0; entry < count; entry++) {
+            final long[] grams = grams(sortedNames[entry]);
+            entryGramIds[entry] = new int[grams.length];
+            for(int i = 0; i < grams.length; i++) {
+                entryGramIds[entry][i] = gramIds.count(grams[i]);
+            }
+            postingCount += grams.length;
+        }
+        // the grams are sorted once, then the postings are placed at the offsets of the sorted grams.
+        final int distinctCount = gramIds.size;
+        final long[] grams = Arrays.copyOf(gramIds.grams, distinctCount);
+        Arrays.sort(grams);
+        final int[] gramIndexes = new int[distinctCount];
+        final int[] gramOffsets = new int[distinctCount + 1];
+        for(int id = 0; id < distinctCount; id++) {
+            gramIndexes[id] = Arrays.binarySearch(grams, gramIds.grams[id]);
+            gramOffsets[gramIndexes[id] + 1] = gramIds.counts[id];
+        }
+        for(int i = 0; i < distinctCount; i++) {
+            gramOffsets[i + 1] += gramOffsets[i];
+        }
+        // second pass: the entries are visited in ascending order, so the postings of each gram are sorted.
+        final int[] postings = new int[postingCount];
+        final int[] next = Arrays.copyOf(gramOffsets, distinctCount);
+        for(int entry = 0; entry < count; entry++) {
+            for(final int id : entryGramIds[entry]) {
+                postings[next[gramIndexes[id]]++] = entry;
+            }
+        }
+        return new LanguageNameIndex(sortedIds, sortedNames, grams, gramOffsets, postings, new int[0], new String[0]);
+    }
+
+    /**
+     * Get the order of the given entries by folded name and id.
+     *
+     * @param ids the ids of the entries.
+     * @param names the folded names of the entries.
+     * @param count the number of entries.
+     * @return the positions of the entries in ascending order.
+     */
+    private static Integer[] sortedOrder(final int[] ids, final String[] names, final int count) {
+        final Integer[] order = new Integer[count];
+        for(int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (first, second) -> {
+            final int result = names[first].compareTo(names[second]);
+            return result != 0 ? result : Integer.compare(ids[first], ids[second]);
+        });
+        return order;
+    }
+
+    /**
+     * Get the distinct grams of a folded name: the trigrams of the name preceded by a space and the bigrams of the start of each word.
+     *
+     * @param name the folded name.
+     * @return the distinct grams in ascending order.
+     */
+    private static long[] grams(final String name) {
+        final String padded = " " + name;
+        final long[] grams = new long[2 * padded.length()];
+        int count = 0;
+        for(int i = 0; i < padded.length() - 1; i++) {
+            if(padded.charAt(i) == ' ') {
+                grams[count++] = gram(padded, i, 2);
+            }
+            if(i + MIN_SUBSTRING_LENGTH <= padded.length()) {
+                grams[count++] = gram(padded, i, MIN_SUBSTRING_LENGTH);
+            }
+        }
+        Arrays.sort(grams, 0, count);
+        int distinctCount = 0;
+        for(int i = 0; i < count; i++) {
+            if(i == 0 || grams[i] != grams[i - 1]) {
+                grams[distinctCount++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, distinctCount);
+    }
+
+    /**
+     * Pack the characters of a gram into a {@code long}, starting with its length so grams of different length never collide.
+     *
+     * @param text the text containing the gram.
+     * @param start the position of the first character.
+     * @param length the length of the gram (2 or 3).
+     * @return the packed gram.
+     */
+    private static long gram(final CharSequence text, final int start, final int length) {
+        long gram = length;
+        for(int i = start; i < start + length; i++) {
+            gram = gram << Character.SIZE | text.charAt(i);
+        }
+        return gram;
+    }
+
+    /**
+     * Assigns dense ids to the distinct grams while building the postings and counts the occurrences of each gram.
+     * The ids are found with an open addressing hash table, which grows when it is half full. A packed gram is never 0, which marks a free slot.
+     */
+    private static final class GramIds {
+        /**
+         * The gram of each id.
+         */
+        private long[] grams = new long[64];
+        /**
+         * The number of occurrences of each id.
+         */
+        private int[] counts = new int[64];
+        /**
+         * The number of distinct grams.
+         */
+        private int size;
+        /**
+         * The grams of the hash table, 0 for a free slot.
+         */
+        private long[] slotGrams = new long[128];
+        /**
+         * The id of the gram of each slot.
+         */
+        private int[] slotIds = new int[128];
+
+        /**
+         * Count an occurrence of the given gram.
+         *
+         * @param gram the packed gram (not 0).
+         * @return the id of the gram.
+         */
+        private int count(final long gram) {
+            int slot = slot(gram);
+            if(this.slotGrams[slot] == 0) {
+                if(this.size == this.grams.length) {
+                    this.grams = Arrays.copyOf(this.grams, this.size * 2);
+                    this.counts = Arrays.copyOf(this.counts, this.size * 2);
+                    rehash();
+                    slot = slot(gram);
+                }
+                this.slotGrams[slot] = gram;
+                this.slotIds[slot] = this.size;
+                this.grams[this.size++] = gram;
+            }
+            this.counts[this.slotIds[slot]]++;
+            return this.slotIds[slot];
+        }
+
+        /**
+         * Find the slot of the given gram or the free slot where it belongs.
+         *
+         * @param gram the packed gram.
+         * @return the slot.
+         */
+        private int slot(final long gram) {
+            final int mask = this.slotGrams.length - 1;
+            int slot = (int) (gram * 0x9E3779B97F4A7C15L >>> Integer.SIZE) & mask;
+            while(this.slotGrams[slot] != 0 && this.slotGrams[slot] != gram) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        /**
+         * Double the hash table, keeping it at most half full, and insert all grams again.
+         */
+        private void rehash() {
+            this.slotGrams = new long[this.grams.length * 2];
+            this.slotIds = new int[this.grams.length * 2];
+            for(int id = 0; id < this.size; id++) {
+                final int slot = slot(this.grams[id]);
+                this.slotGrams[slot] = this.grams[id];
+                this.slotIds[slot] = id;
+            }
+        }
+    }
+}
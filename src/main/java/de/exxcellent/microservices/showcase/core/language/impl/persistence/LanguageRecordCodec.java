@@ -0,0 +1,365 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A simple helper class to encode the writes of a {@link LanguageRepository} into compact binary records for the {@link WriteAheadLog}
+ * and to apply decoded records to a {@link LanguageRepository} again. Also provides the primitives of the {@link SnapshotFile}.
+ * <p>
+ * A record starts with its type, followed by the arguments of the write: short names as their 3 ASCII bytes
+ * (only written after the storage accepted them, see {@link LanguageKeys}), names as varint length and UTF-8 bytes
+ * and counts as varints. Replaying the records in their order leads to the same data, as all writes of the storage engines are deterministic.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class LanguageRecordCodec {
+    /**
+     * Record type of {@link LanguageRepository#createLanguage(LanguageET)}.
+     */
+    private static final byte LANGUAGE = 1;
+    /**
+     * Record type of {@link LanguageRepository#createCountryWithLanguage(String, LanguageET)}.
+     */
+    private static final byte COUNTRY_WITH_LANGUAGE = 2;
+    /**
+     * Record type of {@link LanguageRepository#addAll(Collection, Map)}.
+     */
+    private static final byte BATCH = 3;
+    /**
+     * Record type of {@link LanguageRepository#createCountryLanguage(CountryLanguageET)}.
+     */
+    private static final byte COUNTRY_LANGUAGE = 4;
+    /**
+     * Record type of {@link LanguageRepository#addAllCountryLanguages(Collection)}.
+     */
+    private static final byte COUNTRY_LANGUAGE_BATCH = 5;
+    /**
+     * Record type of {@link LanguageRepository#createLanguageOfCountry(CountryLanguageET)}.
+     */
+    private static final byte LANGUAGE_OF_COUNTRY = 6;
+    /**
+     * Number of bytes of each short name.
+     */
+    private static final int SHORT_NAME_LENGTH = 3;
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private LanguageRecordCodec() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "LanguageRecordCodec is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Encode a created language.
+     *
+     * @param language the created language.
+     * @return the record.
+     */
+    static byte[] encodeLanguage(final LanguageET language) {
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(32);
+        record.write(LANGUAGE);
+        writeLanguage(record, language);
+        return record.toByteArray();
+    }
+
+    /**
+     * Encode a created country with its language.
+     *
+     * @param countryShortName the short name of the country.
+     * @param language the language of the country.
+     * @return the record.
+     */
+    static byte[] encodeCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(32);
+        record.write(COUNTRY_WITH_LANGUAGE);
+        writeShortName(record, countryShortName);
+        writeLanguage(record, language);
+        return record.toByteArray();
+    }
+
+    /**
+     * Encode a batch of added languages and countries with their language.
+     *
+     * @param languages the added languages.
+     * @param countriesWithLanguage the added countries with their language.
+     * @return the record.
+     */
+    static byte[] encodeBatch(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(16 + 24 * (languages.size() + countriesWithLanguage.size()));
+        record.write(BATCH);
+        writeEntries(record, languages, countriesWithLanguage);
+        return record.toByteArray();
+    }
+
+    /**
+     * Encode a created relation between a country and a language.
+     *
+     * @param countryLanguage the created relation.
+     * @return the record.
+     */
+    static byte[] encodeCountryLanguage(final CountryLanguageET countryLanguage) {
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(32);
+        record.write(COUNTRY_LANGUAGE);
+        writeCountryLanguage(record, countryLanguage);
+        return record.toByteArray();
+    }
+
+    /**
+     * Encode a language added to a country, which may add the country as well.
+     *
+     * @param countryLanguage the created relation.
+     * @return the record.
+     */
+    static byte[] encodeLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(32);
+        record.write(LANGUAGE_OF_COUNTRY);
+        writeCountryLanguage(record, countryLanguage);
+        return record.toByteArray();
+    }
+
+    /**
+     * Encode a batch of added relations between countries and languages.
+     *
+     * @param countryLanguages the added relations.
+     * @return the record.
+     */
+    static byte[] encodeCountryLanguages(final Collection<CountryLanguageET> countryLanguages) {
+        final ByteArrayOutputStream record = new ByteArrayOutputStream(16 + 28 * countryLanguages.size());
+        record.write(COUNTRY_LANGUAGE_BATCH);
+        writeVarInt(record, countryLanguages.size());
+        for(final CountryLanguageET countryLanguage : countryLanguages) {
+            writeCountryLanguage(record, countryLanguage);
+        }
+        return record.toByteArray();
+    }
+
+    /**
+     * Decode the given record and apply it to the given {@link LanguageRepository}.
+     *
+     * @param record the record, read from its position to its limit.
+     * @param target the {@link LanguageRepository} to apply the record to.
+     * @exception TechnicalException if the record cannot be decoded.
+     */
+    static void apply(final ByteBuffer record, final LanguageRepository target) {
+        final byte type = record.get();
+        switch(type) {
+            case LANGUAGE:
+                target.createLanguage(readLanguage(record));
+                break;
+            case COUNTRY_WITH_LANGUAGE:
+                target.createCountryWithLanguage(readShortName(record), readLanguage(record));
+                break;
+            case BATCH:
+                final List<LanguageET> languages = new ArrayList<>();
+                final Map<String, LanguageET> countriesWithLanguage = new LinkedHashMap<>();
+                readEntries(record, languages, countriesWithLanguage);
+                target.addAll(languages, countriesWithLanguage);
+                break;
+            case COUNTRY_LANGUAGE:
+                target.createCountryLanguage(readCountryLanguage(record));
+                break;
+            case COUNTRY_LANGUAGE_BATCH:
+                final int relationCount = readVarInt(record);
+                final List<CountryLanguageET> countryLanguages = new ArrayList<>(relationCount);
+                for(int i = 0; i < relationCount; i++) {
+                    countryLanguages.add(readCountryLanguage(record));
+                }
+                target.addAllCountryLanguages(countryLanguages);
+                break;
+            case LANGUAGE_OF_COUNTRY:
+                target.createLanguageOfCountry(readCountryLanguage(record));
+                break;
+            default:
+                throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Unknown record type " + type);
+        }
+    }
+
+    /**
+     * Write languages and countries with their language.
+     *
+     * @param output the output.
+     * @param languages the languages.
+     * @param countriesWithLanguage the countries with their language.
+     */
+    private static void writeEntries(final ByteArrayOutputStream output, final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        writeVarInt(output, languages.size());
+        for(final LanguageET language : languages) {
+            writeLanguage(output, language);
+        }
+        writeVarInt(output, countriesWithLanguage.size());
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : countriesWithLanguage.entrySet()) {
+            writeShortName(output, countryWithLanguage.getKey());
+            writeLanguage(output, countryWithLanguage.getValue());
+        }
+    }
+
+    /**
+     * Read languages and countries with their language written by {@link #writeEntries(ByteArrayOutputStream, Collection, Map)}.
+     *
+     * @param input the input.
+     * @param languages receives the languages.
+     * @param countriesWithLanguage receives the countries with their language.
+     */
+    private static void readEntries(final ByteBuffer input, final List<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        final int languageCount = readVarInt(input);
+        for(int i = 0; i < languageCount; i++) {
+            languages.add(readLanguage(input));
+        }
+        final int countryCount = readVarInt(input);
+        for(int i = 0; i < countryCount; i++) {
+            countriesWithLanguage.put(readShortName(input), readLanguage(input));
+        }
+    }
+
+    /**
+     * Write a language: its short name and its name.
+     *
+     * @param output the output.
+     * @param language the language.
+     */
+    static void writeLanguage(final ByteArrayOutputStream output, final LanguageET language) {
+        writeShortName(output, language.getShortName());
+        final byte[] name = language.getName().getBytes(StandardCharsets.UTF_8);
+        writeVarInt(output, name.length);
+        output.write(name, 0, name.length);
+    }
+
+    /**
+     * Read a language written by {@link #writeLanguage(ByteArrayOutputStream, LanguageET)}.
+     *
+     * @param input the input.
+     * @return the language.
+     */
+    static LanguageET readLanguage(final ByteBuffer input) {
+        final String shortName = readShortName(input);
+        final byte[] name = new byte[readVarInt(input)];
+        input.get(name);
+        return new LanguageET(shortName, new String(name, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a relation between a country and a language: the short name of the country, the language and the attributes.
+     *
+     * @param output the output.
+     * @param countryLanguage the relation.
+     */
+    private static void writeCountryLanguage(final ByteArrayOutputStream output, final CountryLanguageET countryLanguage) {
+        writeShortName(output, countryLanguage.getCountryShortName());
+        writeLanguage(output, countryLanguage.getLanguage());
+        writeRelationAttributes(output, countryLanguage);
+    }
+
+    /**
+     * Read a relation written by {@link #writeCountryLanguage(ByteArrayOutputStream, CountryLanguageET)}.
+     *
+     * @param input the input.
+     * @return the relation.
+     */
+    private static CountryLanguageET readCountryLanguage(final ByteBuffer input) {
+        final String countryShortName = readShortName(input);
+        final LanguageET language = readLanguage(input);
+        return readRelationAttributes(input, countryShortName, language);
+    }
+
+    /**
+     * Write the attributes of a relation between a country and a language: the official status as one byte
+     * (0 if unknown, 1 if not official, 2 if official) and the share of the population in hundredths of a percent as varint, increased by one (0 if unknown).
+     *
+     * @param output the output.
+     * @param countryLanguage the relation.
+     */
+    static void writeRelationAttributes(final ByteArrayOutputStream output, final CountryLanguageET countryLanguage) {
+        final Boolean official = countryLanguage.getOfficial();
+        output.write(official == null ? 0 : (official ? 2 : 1));
+        final Double populationShare = countryLanguage.getPopulationShare();
+        writeVarInt(output, populationShare == null ? 0 : (int) Math.round(populationShare * 100) + 1);
+    }
+
+    /**
+     * Read the attributes written by {@link #writeRelationAttributes(ByteArrayOutputStream, CountryLanguageET)} and create the relation.
+     *
+     * @param input the input.
+     * @param countryShortName the short name of the country of the relation.
+     * @param language the language of the relation.
+     * @return the relation.
+     */
+    static CountryLanguageET readRelationAttributes(final ByteBuffer input, final String countryShortName, final LanguageET language) {
+        final byte official = input.get();
+        final int populationShare = readVarInt(input);
+        return new CountryLanguageET(countryShortName, language, official == 0 ? null : official == 2,
+                                     populationShare == 0 ? null : (populationShare - 1) / 100.0);
+    }
+
+    /**
+     * Write a short name as its 3 ASCII bytes.
+     *
+     * @param output the output.
+     * @param shortName the short name, accepted by the storage (see {@link LanguageKeys}).
+     */
+    static void writeShortName(final ByteArrayOutputStream output, final String shortName) {
+        for(int i = 0; i < SHORT_NAME_LENGTH; i++) {
+            output.write(shortName.charAt(i));
+        }
+    }
+
+    /**
+     * Read a short name written by {@link #writeShortName(ByteArrayOutputStream, String)}.
+     *
+     * @param input the input.
+     * @return the short name.
+     */
+    static String readShortName(final ByteBuffer input) {
+        final char[] characters = new char[SHORT_NAME_LENGTH];
+        for(int i = 0; i < SHORT_NAME_LENGTH; i++) {
+            characters[i] = (char) input.get();
+        }
+        return new String(characters);
+    }
+
+    /**
+     * Write a non-negative number with 7 bits per byte, the highest bit marks following bytes.
+     *
+     * @param output the output.
+     * @param value the number.
+     */
+    static void writeVarInt(final ByteArrayOutputStream output, final int value) {
+        int remaining = value;
+        while((remaining & ~0x7F) != 0) {
+            output.write((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        output.write(remaining);
+    }
+
+    /**
+     * Read a number written by {@link #writeVarInt(ByteArrayOutputStream, int)}.
+     *
+     * @param input the input.
+     * @return the number.
+     */
+    static int readVarInt(final ByteBuffer input) {
+        int value = 0;
+        for(int shift = 0; shift < Integer.SIZE; shift += 7) {
+            final byte next = input.get();
+            value |= (next & 0x7F) << shift;
+            if(next >= 0) {
+                return value;
+            }
+        }
+        throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Malformed varint in record");
+    }
+}
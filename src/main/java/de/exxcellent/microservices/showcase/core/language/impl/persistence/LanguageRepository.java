@@ -1,13 +1,17 @@
 package de.exxcellent.microservices.showcase.core.language.impl.persistence;
 
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 /**
  * A repository interface for storage operations.
+ * All lookups by short name ignore the letter case of the short name.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -28,24 +32,70 @@ public interface LanguageRepository {
      */
     Optional<LanguageET> findByShortName(final String shortName);
 
+    /**
+     * Get many languages by their short names (ISO codes) at once.
+     *
+     * @param shortNames the short names of the languages to be returned as {@link Collection} of {@link String}s (not {@code null}).
+     * @return a {@link Map} with the requested short name as key and its language as value, in the order of the given short names.
+     * Short names without language (including invalid ones) are not contained.
+     */
+    Map<String, LanguageET> findByShortNames(final Collection<String> shortNames);
+
+    /**
+     * Search languages by (a part of) their name, ignoring the letter case and accents, from an index of the names updated with each added language.
+     * Languages whose name starts with the query come first, then languages with a word of the name starting with the query and, for queries of at least
+     * three letters, languages containing the query anywhere in the name (see {@link LanguageNameIndex#matchOrder(String)}).
+     *
+     * @param query the (part of the) name to search (not {@code null}).
+     * @param limit the maximum number of languages to return (positive).
+     * @return the best matching languages as {@link List} of {@link LanguageET}s, empty if no language matches.
+     */
+    List<LanguageET> findByName(final String query, final int limit);
+
+    /**
+     * Get the display locales in which languages have display names besides their name.
+     *
+     * @return the language tags (BCP 47) of the display locales as {@link List} of {@link String}s, empty if no language has display names.
+     */
+    List<String> findDisplayLocales();
+
+    /**
+     * Get the display names of many languages in a display locale at once. Only the languages of the reference data have display names.
+     *
+     * @param shortNames the short names of the languages as {@link Collection} of {@link String}s (not {@code null}).
+     * @param locale the language tag of the display locale, as returned by {@link #findDisplayLocales()} (not {@code null}).
+     * @return a {@link Map} with the given short name as key and the display name of its language as value.
+     * Languages without display name in the display locale (including unknown languages and display locales) are not contained.
+     */
+    Map<String, String> findDisplayNames(final Collection<String> shortNames, final String locale);
+
     /**
      * Adds the given language to the known languages.
-     * Does not add duplicates.
+     * Does not add duplicates: if a language with the same short name (ignoring the letter case) is already existing, it is kept.
      *
      * @param language the language to add as {@link LanguageET}. (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
      * @return all available languages including the new one as {@link Set} of {@link LanguageET}.
      */
     Set<LanguageET> addLanguage(final LanguageET language);
 
+    /**
+     * Adds the given language to the known languages like {@link #addLanguage(LanguageET)}, but only returns the stored language.
+     *
+     * @param language the language to add as {@link LanguageET}. (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
+     * @return the stored language with the short name of the given language: the given one if it was added, the existing one otherwise.
+     */
+    LanguageET createLanguage(final LanguageET language);
+
     /**
      * Get all available countries with their language.
      *
-     * @return a {@link Map} containing the country short name as {@link String} and its language as {@link LanguageET}.
+     * @return a {@link Map} containing the country short name as {@link String} (upper case) and its language as {@link LanguageET}.
      */
     Map<String, LanguageET> findAllCountriesWithLanguage();
 
     /**
      * Adds a country with its language to the known countries with languages.
+     * The language is added as well if it is not existing yet, otherwise the country refers to the existing language.
      *
      * @param countryShortName the short name of the country as {@link String} (3 characters, not {@code null}).
      * @param language the language of the country as {@link LanguageET} (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
@@ -53,6 +103,28 @@ public interface LanguageRepository {
      */
     Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language);
 
+    /**
+     * Adds a country with its language like {@link #addCountryWithLanguage(String, LanguageET)}, but only returns the stored language of the country.
+     *
+     * @param countryShortName the short name of the country as {@link String} (3 characters, not {@code null}).
+     * @param language the language of the country as {@link LanguageET} (must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
+     * @return the stored language of the country: the language with the short name of the given language if the country was added, the existing one otherwise.
+     */
+    LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language);
+
+    /**
+     * Adds all given languages and countries with their language in one write.
+     * Existing languages and countries are kept like with {@link #createLanguage(LanguageET)} and {@link #createCountryWithLanguage(String, LanguageET)}.
+     * Depending on the storage, the whole batch becomes visible to readers at once or step by step, but a country never refers to a missing language.
+     *
+     * @param languages the languages to add as {@link Collection} of {@link LanguageET}s (each must be valid, see {@link de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation#validateLanguageET(LanguageET)}).
+     * @param countriesWithLanguage the countries to add as {@link Map} with the country short name (3 characters) as key and its language (must be valid) as value.
+     *                              Languages of the countries are added as well if they are not existing yet.
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with
+     * {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if any language or country is invalid. Nothing is added then.
+     */
+    void addAll(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage);
+
     /**
      * Get the language of a country.
      *
@@ -60,4 +132,112 @@ public interface LanguageRepository {
      * @return an {@link Optional} containing the language of the given country as {@link LanguageET}
      */
     Optional<LanguageET> findLanguageByCountry(final String countryShortName);
+
+    /**
+     * Get the languages of many countries at once.
+     *
+     * @param countryShortNames the short names of the countries of which the languages should be returned as {@link Collection} of {@link String}s (not {@code null}).
+     * @return a {@link Map} with the requested country short name as key and its language as value, in the order of the given short names.
+     * Short names without country (including invalid ones) are not contained.
+     */
+    Map<String, LanguageET> findLanguagesByCountries(final Collection<String> countryShortNames);
+
+    /**
+     * Get all countries using a language.
+     *
+     * @param shortName the short name (ISO code) of the language (3 characters, not {@code null}).
+     * @return the short names of all countries using the language as {@link Set} of {@link String}s, empty if no country uses the language.
+     */
+    Set<String> findCountriesByLanguage(final String shortName);
+
+    /**
+     * Get all relations between countries and their languages added with {@link #createCountryLanguage(CountryLanguageET)}.
+     * Unlike {@link #findAllCountriesWithLanguage()}, a country can have many languages here.
+     *
+     * @return a {@link Map} with the country short name (upper case) as key and its relations as value, both ordered by the short names.
+     */
+    Map<String, List<CountryLanguageET>> findAllCountryLanguages();
+
+    /**
+     * Get the relations of a country to its languages.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @return the relations of the country as {@link List} of {@link CountryLanguageET}s ordered by the language short name, empty if the country has none.
+     */
+    List<CountryLanguageET> findLanguagesOfCountry(final String countryShortName);
+
+    /**
+     * Get the relations of a language to the countries using it.
+     *
+     * @param shortName the short name (ISO code) of the language (3 characters, not {@code null}).
+     * @return the relations of the language as {@link List} of {@link CountryLanguageET}s ordered by the country short name, empty if the language has none.
+     */
+    List<CountryLanguageET> findCountriesOfLanguage(final String shortName);
+
+    /**
+     * Adds a relation between a country and a language with its attributes.
+     * The language is added as well if it is not existing yet, otherwise the relation refers to the existing language.
+     * Does not add duplicates: if the country is already related to the language, the existing relation and its attributes are kept.
+     * The language of the country returned by {@link #findLanguageByCountry(String)} is not changed.
+     *
+     * @param countryLanguage the relation as {@link CountryLanguageET} (short names must consist of ASCII characters).
+     * @return the stored relation: the given one (referring to the stored language) if it was added, the existing one otherwise.
+     */
+    CountryLanguageET createCountryLanguage(final CountryLanguageET countryLanguage);
+
+    /**
+     * Adds a language to a country in one write: the relation like {@link #createCountryLanguage(CountryLanguageET)} and, if the country is not existing yet,
+     * the country with the language as its language like {@link #createCountryWithLanguage(String, LanguageET)}.
+     * Depending on the storage, the country and its relation become visible to readers at once or one after the other, but a durable storage never keeps
+     * the country without its relation.
+     *
+     * @param countryLanguage the relation as {@link CountryLanguageET} (short names must consist of ASCII characters, the language must be valid).
+     * @return the stored relation: the given one (referring to the stored language) if it was added, the existing one otherwise.
+     */
+    CountryLanguageET createLanguageOfCountry(final CountryLanguageET countryLanguage);
+
+    /**
+     * Adds all given relations between countries and languages in one write like {@link #createCountryLanguage(CountryLanguageET)}.
+     * Of relations with the same country and language, only the first one is added.
+     *
+     * @param countryLanguages the relations to add as {@link Collection} of {@link CountryLanguageET}s (not {@code null}).
+     * @exception de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException with
+     * {@link de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode#INVALID_ARGUMENT_ERROR} if any relation is invalid. Nothing is added then.
+     */
+    void addAllCountryLanguages(final Collection<CountryLanguageET> countryLanguages);
+
+    /**
+     * Get a page of languages ordered by their short name (ignoring the letter case).
+     * Costs O(page size) and pages stay stable while languages are added, as each page starts after the last short name of the previous page.
+     *
+     * @param after the short name of the language after which the page starts (3 characters), {@code null} for the first page.
+     * @param limit the maximum number of languages of the page (positive).
+     * @return the languages of the page in ascending order of their short name as {@link List} of {@link LanguageET}s, empty after the last page.
+     */
+    List<LanguageET> findPage(final String after, final int limit);
+
+    /**
+     * Get a page of countries with their language ordered by the country short name (ignoring the letter case).
+     * Costs O(page size) and pages stay stable while countries are added, as each page starts after the last short name of the previous page.
+     *
+     * @param after the short name of the country after which the page starts (3 characters), {@code null} for the first page.
+     * @param limit the maximum number of countries of the page (positive).
+     * @return a {@link Map} with the country short name (upper case) as key and its language as value in ascending order of the short name, empty after the last page.
+     */
+    Map<String, LanguageET> findCountriesWithLanguagePage(final String after, final int limit);
+
+    /**
+     * Get the version of the stored data. The version changes with every write which changes the data,
+     * so callers can cache data derived from this repository as long as the version is unchanged.
+     *
+     * @return the current data version.
+     */
+    long getVersion();
+
+    /**
+     * Estimate the heap memory retained by the stored data including the indexes.
+     *
+     * @return the estimated number of bytes.
+     */
+    long estimateMemory();
 }
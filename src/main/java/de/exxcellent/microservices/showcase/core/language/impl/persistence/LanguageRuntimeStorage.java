@@ -1,18 +1,36 @@
 package de.exxcellent.microservices.showcase.core.language.impl.persistence;
 
-import de.exxcellent.microservices.showcase.common.validation.Preconditions;
-import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
 import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import io.quarkus.runtime.StartupEvent;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.annotation.Gauge;
+import org.eclipse.microprofile.metrics.annotation.Timed;
 
+import javax.annotation.PreDestroy;
 import javax.enterprise.context.ApplicationScoped;
-import java.util.HashMap;
-import java.util.HashSet;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.nio.file.Paths;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 /**
- * The implementation of {@link LanguageRepository} for a runtime storage for languages.
+ * The implementation of {@link LanguageRepository} for a thread-safe runtime storage for languages.
+ * Delegates to the storage engine selected with the property {@code language.storage.strategy} (see {@link StorageStrategy}).
+ * If the property {@code language.storage.data-dir} is set, the writes are persisted in that directory and recovered on startup (see {@link DurableLanguageStorage}),
+ * otherwise the data is only kept in memory.
+ * Unless the property {@code language.storage.reference-data} is {@code false}, the ISO languages and countries of the packaged {@link ReferenceDataset}
+ * are available as read-only base layer below the data added at runtime (see {@link LayeredLanguageStorage}).
+ * The country codes of the former initial data which are no ISO codes ({@link #LEGACY_COUNTRIES}) are kept as runtime countries referring to the ISO languages,
+ * so clients using them are still served.
+ * The repository methods are timed (except {@link #getVersion()}) and the size of the stored data is published as gauges.
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -20,70 +38,269 @@ import java.util.Set;
 @ApplicationScoped
 public class LanguageRuntimeStorage implements LanguageRepository {
     /**
-     * A {@link Set} containing all known languages as {@link LanguageET}s.
+     * The country codes of the former initial data without an ISO 3166 code (key) with the short name of their language (value).
+     * Deprecated: clients should use the ISO codes {@code DEU} and {@code GBR}.
      */
-    Set<LanguageET> languages;
+    static final Map<String, String> LEGACY_COUNTRIES;
+
+    static {
+        final Map<String, String> legacyCountries = new LinkedHashMap<>();
+        legacyCountries.put("GER", "deu");
+        legacyCountries.put("SCO", "eng");
+        LEGACY_COUNTRIES = Collections.unmodifiableMap(legacyCountries);
+    }
+
     /**
-     * A {@link Map} containing all relations between country short names (key) and languages (value).
+     * The storage holding the data: the storage engine selected by the configured {@link StorageStrategy}, persisted and layered on the reference data as configured.
      */
-    Map<String, LanguageET> countriesWithLanguage;
+    private final LanguageRepository storage;
+    /**
+     * The {@link DurableLanguageStorage} persisting the data, {@code null} if the data is only kept in memory.
+     */
+    private final DurableLanguageStorage durableStorage;
 
-    public LanguageRuntimeStorage() {
-        this.languages = new HashSet<>();
-        this.countriesWithLanguage = new HashMap<>();
-        initData();
+    @Inject
+    LanguageRuntimeStorage(@ConfigProperty(name = "language.storage.strategy", defaultValue = "SNAPSHOT") final StorageStrategy strategy,
+                           @ConfigProperty(name = "language.storage.data-dir") final Optional<String> dataDirectory,
+                           @ConfigProperty(name = "language.storage.snapshot-interval", defaultValue = "10000") final int snapshotInterval,
+                           @ConfigProperty(name = "language.storage.reference-data", defaultValue = "true") final boolean referenceData) {
+        final LanguageRepository engine = createStorage(strategy);
+        final LanguageRepository runtimeStorage;
+        if(dataDirectory.isPresent()) {
+            this.durableStorage = new DurableLanguageStorage(engine, Paths.get(dataDirectory.get()), snapshotInterval);
+            runtimeStorage = this.durableStorage;
+        } else {
+            this.durableStorage = null;
+            runtimeStorage = engine;
+        }
+        this.storage = referenceData ? new LayeredLanguageStorage(ReferenceDataset.load(), runtimeStorage) : runtimeStorage;
+        if(referenceData) {
+            addLegacyCountries(this.storage);
+        }
     }
 
-    private void initData() {
-        final LanguageET german = new LanguageET("deu", "German");
-        final LanguageET french = new LanguageET("fra", "French");
-        final LanguageET scottish = new LanguageET("eng", "English");
-        this.languages.add(german);
-        this.languages.add(french);
-        this.languages.add(scottish);
-        this.countriesWithLanguage.putIfAbsent("GER", german);
-        this.countriesWithLanguage.putIfAbsent("FRA", french);
-        this.countriesWithLanguage.putIfAbsent("SCO", scottish);
+    /**
+     * Add the {@link #LEGACY_COUNTRIES} with their language of the reference data. Existing countries are not changed, so nothing is persisted again after a restart.
+     *
+     * @param storage the storage layered on the reference data.
+     */
+    private static void addLegacyCountries(final LanguageRepository storage) {
+        for(final Map.Entry<String, String> legacyCountry : LEGACY_COUNTRIES.entrySet()) {
+            storage.findByShortName(legacyCountry.getValue())
+                   .ifPresent(language -> storage.createCountryWithLanguage(legacyCountry.getKey(), language));
+        }
+    }
+
+    /**
+     * Create the storage engine for the given {@link StorageStrategy}.
+     *
+     * @param strategy the {@link StorageStrategy} to use.
+     * @return the storage engine as {@link LanguageRepository}.
+     */
+    private static LanguageRepository createStorage(final StorageStrategy strategy) {
+        switch(strategy) {
+            case CONCURRENT:
+                return new ConcurrentLanguageStorage();
+            case SNAPSHOT:
+            default:
+                return new SnapshotLanguageStorage();
+        }
     }
 
     @Override
+    @Timed(name = "language.repository.findAll", absolute = true)
     public Set<LanguageET> findAll() {
-        return this.languages;
+        return this.storage.findAll();
     }
 
     @Override
+    @Timed(name = "language.repository.findByShortName", absolute = true)
     public Optional<LanguageET> findByShortName(final String shortName) {
-        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
-        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
-        return this.languages.stream().filter(l -> shortName.equalsIgnoreCase(l.getShortName())).findFirst();
+        return this.storage.findByShortName(shortName);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findByShortNames", absolute = true)
+    public Map<String, LanguageET> findByShortNames(final Collection<String> shortNames) {
+        return this.storage.findByShortNames(shortNames);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findByName", absolute = true)
+    public List<LanguageET> findByName(final String query, final int limit) {
+        return this.storage.findByName(query, limit);
+    }
+
+    @Override
+    public List<String> findDisplayLocales() {
+        return this.storage.findDisplayLocales();
+    }
+
+    @Override
+    @Timed(name = "language.repository.findDisplayNames", absolute = true)
+    public Map<String, String> findDisplayNames(final Collection<String> shortNames, final String locale) {
+        return this.storage.findDisplayNames(shortNames, locale);
     }
 
     @Override
+    @Timed(name = "language.repository.addLanguage", absolute = true)
     public Set<LanguageET> addLanguage(final LanguageET language) {
-        LanguageValidation.validateLanguageET(language);
-        this.languages.add(language);
-        return this.languages;
+        return this.storage.addLanguage(language);
+    }
+
+    @Override
+    @Timed(name = "language.repository.createLanguage", absolute = true)
+    public LanguageET createLanguage(final LanguageET language) {
+        return this.storage.createLanguage(language);
     }
 
     @Override
+    @Timed(name = "language.repository.findAllCountriesWithLanguage", absolute = true)
     public Map<String, LanguageET> findAllCountriesWithLanguage() {
-        return this.countriesWithLanguage;
+        return this.storage.findAllCountriesWithLanguage();
     }
 
     @Override
+    @Timed(name = "language.repository.addCountryWithLanguage", absolute = true)
     public Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language) {
-        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
-        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
-        LanguageValidation.validateLanguageET(language);
-        this.languages.add(language);
-        this.countriesWithLanguage.putIfAbsent(countryShortName, language);
-        return this.countriesWithLanguage;
+        return this.storage.addCountryWithLanguage(countryShortName, language);
     }
 
     @Override
+    @Timed(name = "language.repository.createCountryWithLanguage", absolute = true)
+    public LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        return this.storage.createCountryWithLanguage(countryShortName, language);
+    }
+
+    @Override
+    @Timed(name = "language.repository.addAll", absolute = true)
+    public void addAll(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        this.storage.addAll(languages, countriesWithLanguage);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findLanguageByCountry", absolute = true)
     public Optional<LanguageET> findLanguageByCountry(final String countryShortName) {
-        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
-        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
-        return Optional.ofNullable(this.countriesWithLanguage.get(countryShortName));
+        return this.storage.findLanguageByCountry(countryShortName);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findLanguagesByCountries", absolute = true)
+    public Map<String, LanguageET> findLanguagesByCountries(final Collection<String> countryShortNames) {
+        return this.storage.findLanguagesByCountries(countryShortNames);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findCountriesByLanguage", absolute = true)
+    public Set<String> findCountriesByLanguage(final String shortName) {
+        return this.storage.findCountriesByLanguage(shortName);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findAllCountryLanguages", absolute = true)
+    public Map<String, List<CountryLanguageET>> findAllCountryLanguages() {
+        return this.storage.findAllCountryLanguages();
+    }
+
+    @Override
+    @Timed(name = "language.repository.findLanguagesOfCountry", absolute = true)
+    public List<CountryLanguageET> findLanguagesOfCountry(final String countryShortName) {
+        return this.storage.findLanguagesOfCountry(countryShortName);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findCountriesOfLanguage", absolute = true)
+    public List<CountryLanguageET> findCountriesOfLanguage(final String shortName) {
+        return this.storage.findCountriesOfLanguage(shortName);
+    }
+
+    @Override
+    @Timed(name = "language.repository.createCountryLanguage", absolute = true)
+    public CountryLanguageET createCountryLanguage(final CountryLanguageET countryLanguage) {
+        return this.storage.createCountryLanguage(countryLanguage);
+    }
+
+    @Override
+    @Timed(name = "language.repository.createLanguageOfCountry", absolute = true)
+    public CountryLanguageET createLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        return this.storage.createLanguageOfCountry(countryLanguage);
+    }
+
+    @Override
+    @Timed(name = "language.repository.addAllCountryLanguages", absolute = true)
+    public void addAllCountryLanguages(final Collection<CountryLanguageET> countryLanguages) {
+        this.storage.addAllCountryLanguages(countryLanguages);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findPage", absolute = true)
+    public List<LanguageET> findPage(final String after, final int limit) {
+        return this.storage.findPage(after, limit);
+    }
+
+    @Override
+    @Timed(name = "language.repository.findCountriesWithLanguagePage", absolute = true)
+    public Map<String, LanguageET> findCountriesWithLanguagePage(final String after, final int limit) {
+        return this.storage.findCountriesWithLanguagePage(after, limit);
+    }
+
+    @Override
+    public long getVersion() {
+        // not timed: the version is read by every request to validate the caches, and a timer costs far more than the read.
+        return this.storage.getVersion();
+    }
+
+    @Override
+    public long estimateMemory() {
+        return this.storage.estimateMemory();
+    }
+
+    /**
+     * Get the number of stored languages, published as metric.
+     *
+     * @return the number of languages.
+     */
+    @Gauge(name = "language.storage.languages", unit = MetricUnits.NONE, absolute = true, description = "Number of stored languages")
+    public long countLanguages() {
+        return this.storage.findAll().size();
+    }
+
+    /**
+     * Get the number of stored countries with their language, published as metric.
+     *
+     * @return the number of countries.
+     */
+    @Gauge(name = "language.storage.countries", unit = MetricUnits.NONE, absolute = true, description = "Number of stored countries with their language")
+    public long countCountries() {
+        return this.storage.findAllCountriesWithLanguage().size();
+    }
+
+    /**
+     * Get the estimated heap memory of the stored data, published as metric.
+     *
+     * @return the estimated number of bytes, see {@link #estimateMemory()}.
+     */
+    @Gauge(name = "language.storage.memory", unit = MetricUnits.BYTES, absolute = true, description = "Estimated heap memory of the stored data including the indexes")
+    public long getMemoryEstimate() {
+        return estimateMemory();
+    }
+
+    /**
+     * Create the storage on startup, so the data is initialized and the storage metrics are published before the first request.
+     *
+     * @param event the {@link StartupEvent}.
+     */
+    void onStart(@Observes final StartupEvent event) {
+        // nothing to do, the storage is initialized by the constructor.
+    }
+
+    /**
+     * Write a final snapshot and close the log on shutdown, if the data is persisted.
+     */
+    @PreDestroy
+    void close() {
+        if(this.durableStorage != null) {
+            this.durableStorage.close();
+        }
     }
 }
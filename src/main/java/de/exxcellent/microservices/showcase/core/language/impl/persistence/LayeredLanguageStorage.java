@@ -0,0 +1,577 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+
+/**
+ * A {@link LanguageRepository} layering the runtime additions of a storage engine on top of the read-only {@link ReferenceDataset}.
+ * The languages and countries of the reference dataset can neither be changed nor be added again, so each lookup first searches the
+ * reference dataset and then the storage engine, and all writes of the reference data are answered without touching the storage engine.
+ * Runtime countries and relations between countries and languages using a language of the reference dataset refer to its {@link LanguageET}.
+ * <p>
+ * The returned collections are views merging both layers without copying the reference data,
+ * and the pages merge both layers in the order of the short names.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class LayeredLanguageStorage implements LanguageRepository {
+    /**
+     * The read-only reference data.
+     */
+    private final ReferenceDataset referenceData;
+    /**
+     * The storage engine holding the runtime additions.
+     */
+    private final LanguageRepository storage;
+    /**
+     * Unmodifiable {@link Set} view of all languages of both layers.
+     */
+    private final Set<LanguageET> languagesView = new LanguagesView();
+    /**
+     * Unmodifiable {@link Map} view of all countries with their language of both layers.
+     */
+    private final Map<String, LanguageET> countriesWithLanguageView = new CountriesWithLanguageView();
+    /**
+     * The number of runtime languages hidden by the reference data, counted once per data version of the storage engine.
+     */
+    private final AtomicReference<HiddenCount> hiddenLanguages = new AtomicReference<>(HiddenCount.NOT_COUNTED);
+    /**
+     * The number of runtime countries hidden by the reference data, counted once per data version of the storage engine.
+     */
+    private final AtomicReference<HiddenCount> hiddenCountries = new AtomicReference<>(HiddenCount.NOT_COUNTED);
+
+    /**
+     * Constructor.
+     *
+     * @param referenceData the read-only reference data.
+     * @param storage the storage engine holding the runtime additions.
+     */
+    LayeredLanguageStorage(final ReferenceDataset referenceData, final LanguageRepository storage) {
+        this.referenceData = referenceData;
+        this.storage = storage;
+    }
+
+    @Override
+    public Set<LanguageET> findAll() {
+        return this.languagesView;
+    }
+
+    @Override
+    public Optional<LanguageET> findByShortName(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        final LanguageET referenceLanguage = this.referenceData.findLanguage(LanguageKeys.languageKey(shortName));
+        return referenceLanguage != null ? Optional.of(referenceLanguage) : this.storage.findByShortName(shortName);
+    }
+
+    @Override
+    public Map<String, LanguageET> findByShortNames(final Collection<String> shortNames) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        final Map<String, LanguageET> found = new LinkedHashMap<>();
+        final List<String> runtimeShortNames = new ArrayList<>();
+        for(final String shortName : shortNames) {
+            if(shortName != null) {
+                final LanguageET referenceLanguage = this.referenceData.findLanguage(LanguageKeys.languageKey(shortName));
+                if(referenceLanguage != null) {
+                    found.put(shortName, referenceLanguage);
+                } else {
+                    runtimeShortNames.add(shortName);
+                }
+            }
+        }
+        return runtimeShortNames.isEmpty() ? found : merge(shortNames, found, this.storage.findByShortNames(runtimeShortNames));
+    }
+
+    @Override
+    public List<LanguageET> findByName(final String query, final int limit) {
+        Preconditions.checkNotNull(query, LanguageNameIndex.QUERY_NOT_NULL);
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final List<LanguageET> referenceMatches = this.referenceData.findLanguagesByName(query, limit);
+        final List<LanguageET> runtimeMatches = this.storage.findByName(query, limit);
+        if(runtimeMatches.isEmpty()) {
+            return referenceMatches;
+        } // else: merge the matches of both layers, which are in the same order. Runtime languages hidden by the reference data are skipped.
+        final Comparator<LanguageET> order = LanguageNameIndex.matchOrder(query);
+        final List<LanguageET> matches = new ArrayList<>(limit);
+        int referenceIndex = 0;
+        int runtimeIndex = 0;
+        while(matches.size() < limit && (referenceIndex < referenceMatches.size() || runtimeIndex < runtimeMatches.size())) {
+            if(runtimeIndex == runtimeMatches.size()
+               || referenceIndex < referenceMatches.size() && order.compare(referenceMatches.get(referenceIndex), runtimeMatches.get(runtimeIndex)) <= 0) {
+                matches.add(referenceMatches.get(referenceIndex++));
+            } else {
+                final LanguageET runtimeLanguage = runtimeMatches.get(runtimeIndex++);
+                if(this.referenceData.indexOfLanguage(LanguageKeys.languageKeyOf(runtimeLanguage)) < 0) {
+                    matches.add(runtimeLanguage);
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Override
+    public List<String> findDisplayLocales() {
+        return this.referenceData.getDisplayLocales();
+    }
+
+    @Override
+    public Map<String, String> findDisplayNames(final Collection<String> shortNames, final String locale) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        Preconditions.checkNotNull(locale, LanguageKeys.LOCALE_NOT_NULL);
+        final int localeIndex = this.referenceData.getDisplayLocales().indexOf(locale);
+        if(localeIndex < 0) {
+            return Collections.emptyMap();
+        } // else: the display names of the reference languages, runtime languages have none.
+        final Map<String, String> displayNames = new HashMap<>();
+        for(final String shortName : shortNames) {
+            final int index = shortName != null ? this.referenceData.indexOfLanguage(LanguageKeys.languageKey(shortName)) : -1;
+            final String displayName = index >= 0 ? this.referenceData.displayNameAt(index, localeIndex) : null;
+            if(displayName != null) {
+                displayNames.put(shortName, displayName);
+            }
+        }
+        return displayNames;
+    }
+
+    @Override
+    public Set<LanguageET> addLanguage(final LanguageET language) {
+        createLanguage(language);
+        return findAll();
+    }
+
+    @Override
+    public LanguageET createLanguage(final LanguageET language) {
+        LanguageValidation.validateLanguageET(language);
+        final LanguageET referenceLanguage = this.referenceData.findLanguage(LanguageKeys.languageKey(language.getShortName()));
+        return referenceLanguage != null ? referenceLanguage : this.storage.createLanguage(language);
+    }
+
+    @Override
+    public Map<String, LanguageET> findAllCountriesWithLanguage() {
+        return this.countriesWithLanguageView;
+    }
+
+    @Override
+    public Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        createCountryWithLanguage(countryShortName, language);
+        return findAllCountriesWithLanguage();
+    }
+
+    @Override
+    public LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        LanguageValidation.validateLanguageET(language);
+        final LanguageET referenceLanguageOfCountry = this.referenceData.findCountryLanguage(LanguageKeys.countryKey(countryShortName));
+        if(referenceLanguageOfCountry != null) {
+            return referenceLanguageOfCountry;
+        } // else: the country is added at runtime, referring to the reference language if existing.
+        final LanguageET referenceLanguage = this.referenceData.findLanguage(LanguageKeys.languageKey(language.getShortName()));
+        return this.storage.createCountryWithLanguage(countryShortName, referenceLanguage != null ? referenceLanguage : language);
+    }
+
+    @Override
+    public void addAll(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        // validates the whole batch before anything is added, also the entries of the reference data which are skipped.
+        final LanguageBatch batch = new LanguageBatch(languages, countriesWithLanguage);
+        final LanguageCodeMap<LanguageET> batchLanguages = batch.getLanguages();
+        final List<LanguageET> runtimeLanguages = new ArrayList<>();
+        for(int slot = 0; slot < batchLanguages.capacity(); slot++) {
+            final int languageKey = batchLanguages.keyAt(slot);
+            if(languageKey != LanguageKeys.NO_KEY && this.referenceData.indexOfLanguage(languageKey) < 0) {
+                runtimeLanguages.add(batchLanguages.valueAt(slot));
+            }
+        }
+        final LanguageCodeMap<LanguageET> batchCountries = batch.getCountriesWithLanguage();
+        final Map<String, LanguageET> runtimeCountries = new LinkedHashMap<>();
+        for(int slot = 0; slot < batchCountries.capacity(); slot++) {
+            final int countryKey = batchCountries.keyAt(slot);
+            if(countryKey != LanguageKeys.NO_KEY && this.referenceData.indexOfCountry(countryKey) < 0) {
+                final LanguageET language = batchCountries.valueAt(slot);
+                final LanguageET referenceLanguage = this.referenceData.findLanguage(LanguageKeys.languageKey(language.getShortName()));
+                runtimeCountries.put(LanguageKeys.shortName(countryKey), referenceLanguage != null ? referenceLanguage : language);
+            }
+        }
+        if(!runtimeLanguages.isEmpty() || !runtimeCountries.isEmpty()) {
+            this.storage.addAll(runtimeLanguages, runtimeCountries);
+        }
+    }
+
+    @Override
+    public Optional<LanguageET> findLanguageByCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        final LanguageET referenceLanguage = this.referenceData.findCountryLanguage(LanguageKeys.countryKey(countryShortName));
+        return referenceLanguage != null ? Optional.of(referenceLanguage) : this.storage.findLanguageByCountry(countryShortName);
+    }
+
+    @Override
+    public Map<String, LanguageET> findLanguagesByCountries(final Collection<String> countryShortNames) {
+        Preconditions.checkNotNull(countryShortNames, "Country short names must not be null");
+        final Map<String, LanguageET> found = new LinkedHashMap<>();
+        final List<String> runtimeCountryShortNames = new ArrayList<>();
+        for(final String countryShortName : countryShortNames) {
+            if(countryShortName != null) {
+                final LanguageET referenceLanguage = this.referenceData.findCountryLanguage(LanguageKeys.countryKey(countryShortName));
+                if(referenceLanguage != null) {
+                    found.put(countryShortName, referenceLanguage);
+                } else {
+                    runtimeCountryShortNames.add(countryShortName);
+                }
+            }
+        }
+        return runtimeCountryShortNames.isEmpty() ? found : merge(countryShortNames, found, this.storage.findLanguagesByCountries(runtimeCountryShortNames));
+    }
+
+    @Override
+    public Set<String> findCountriesByLanguage(final String shortName) {
+        final Set<String> runtimeCountries = this.storage.findCountriesByLanguage(shortName);
+        final int[] referenceCountryKeys = this.referenceData.findCountryKeysByLanguage(LanguageKeys.languageKey(shortName));
+        if(referenceCountryKeys.length == 0) {
+            return runtimeCountries;
+        } // else: merge the sorted countries of both layers.
+        final int[] runtimeCountryKeys = new int[runtimeCountries.size()];
+        int count = 0;
+        for(final String countryShortName : runtimeCountries) {
+            runtimeCountryKeys[count++] = LanguageKeys.countryKey(countryShortName);
+        }
+        return LanguageKeys.shortNames(LanguageKeys.addKeys(referenceCountryKeys, runtimeCountryKeys));
+    }
+
+    @Override
+    public Map<String, List<CountryLanguageET>> findAllCountryLanguages() {
+        // the reference data only contains the language of each country, all relations are added at runtime.
+        return this.storage.findAllCountryLanguages();
+    }
+
+    @Override
+    public List<CountryLanguageET> findLanguagesOfCountry(final String countryShortName) {
+        return this.storage.findLanguagesOfCountry(countryShortName);
+    }
+
+    @Override
+    public List<CountryLanguageET> findCountriesOfLanguage(final String shortName) {
+        return this.storage.findCountriesOfLanguage(shortName);
+    }
+
+    @Override
+    public CountryLanguageET createCountryLanguage(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        return this.storage.createCountryLanguage(withReferenceLanguage(countryLanguage));
+    }
+
+    @Override
+    public CountryLanguageET createLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        LanguageValidation.validateLanguageET(countryLanguage.getLanguage());
+        if(this.referenceData.findCountryLanguage(LanguageKeys.countryKey(countryLanguage.getCountryShortName())) != null) {
+            // the country of the reference data keeps its language, only the relation is added at runtime.
+            return this.storage.createCountryLanguage(withReferenceLanguage(countryLanguage));
+        } // else: the country is added at runtime if not existing yet, referring to the reference language if existing.
+        return this.storage.createLanguageOfCountry(withReferenceLanguage(countryLanguage));
+    }
+
+    @Override
+    public void addAllCountryLanguages(final Collection<CountryLanguageET> countryLanguages) {
+        Preconditions.checkNotNull(countryLanguages, "Country languages must not be null");
+        countryLanguages.forEach(CountryLanguageGraph::checkRelation);
+        final List<CountryLanguageET> runtimeCountryLanguages = new ArrayList<>(countryLanguages.size());
+        for(final CountryLanguageET countryLanguage : countryLanguages) {
+            runtimeCountryLanguages.add(withReferenceLanguage(countryLanguage));
+        }
+        this.storage.addAllCountryLanguages(runtimeCountryLanguages);
+    }
+
+    @Override
+    public List<LanguageET> findPage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final int afterKey = LanguageKeys.pageKey(after, LanguageKeys::languageKey);
+        // each runtime language taken for the page is either added or hidden by a reference language added at the same time,
+        // so a runtime page of the same limit is always sufficient.
+        final List<LanguageET> runtimePage = this.storage.findPage(after, limit);
+        final List<LanguageET> page = new ArrayList<>();
+        int referenceIndex = indexAfter(this.referenceData.indexOfLanguage(afterKey));
+        int runtimeIndex = 0;
+        while(page.size() < limit && (referenceIndex < this.referenceData.getLanguageCount() || runtimeIndex < runtimePage.size())) {
+            final int referenceKey = referenceIndex < this.referenceData.getLanguageCount() ? this.referenceData.languageKeyAt(referenceIndex) : Integer.MAX_VALUE;
+            final int runtimeKey = runtimeIndex < runtimePage.size() ? LanguageKeys.languageKey(runtimePage.get(runtimeIndex).getShortName()) : Integer.MAX_VALUE;
+            if(referenceKey <= runtimeKey) {
+                page.add(this.referenceData.languageAt(referenceIndex++));
+                if(referenceKey == runtimeKey) {
+                    runtimeIndex++;
+                }
+            } else {
+                page.add(runtimePage.get(runtimeIndex++));
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public Map<String, LanguageET> findCountriesWithLanguagePage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final int afterKey = LanguageKeys.pageKey(after, LanguageKeys::countryKey);
+        final List<Map.Entry<String, LanguageET>> runtimePage = new ArrayList<>(this.storage.findCountriesWithLanguagePage(after, limit).entrySet());
+        final Map<String, LanguageET> page = new LinkedHashMap<>();
+        int referenceIndex = indexAfter(this.referenceData.indexOfCountry(afterKey));
+        int runtimeIndex = 0;
+        while(page.size() < limit && (referenceIndex < this.referenceData.getCountryCount() || runtimeIndex < runtimePage.size())) {
+            final int referenceKey = referenceIndex < this.referenceData.getCountryCount() ? this.referenceData.countryKeyAt(referenceIndex) : Integer.MAX_VALUE;
+            final int runtimeKey = runtimeIndex < runtimePage.size() ? LanguageKeys.countryKey(runtimePage.get(runtimeIndex).getKey()) : Integer.MAX_VALUE;
+            if(referenceKey <= runtimeKey) {
+                page.put(LanguageKeys.shortName(referenceKey), this.referenceData.countryLanguageAt(referenceIndex++));
+                if(referenceKey == runtimeKey) {
+                    runtimeIndex++;
+                }
+            } else {
+                final Map.Entry<String, LanguageET> runtimeCountry = runtimePage.get(runtimeIndex++);
+                page.put(runtimeCountry.getKey(), runtimeCountry.getValue());
+            }
+        }
+        return page;
+    }
+
+    @Override
+    public long getVersion() {
+        // the reference data never changes.
+        return this.storage.getVersion();
+    }
+
+    @Override
+    public long estimateMemory() {
+        return this.referenceData.estimateMemory() + this.storage.estimateMemory();
+    }
+
+    /**
+     * Get the position after a search result of the {@link ReferenceDataset}.
+     *
+     * @param index the index of the searched key or {@code -(insertion point) - 1} if not contained.
+     * @return the index of the first key greater than the searched key.
+     */
+    private static int indexAfter(final int index) {
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Let the given relation refer to the language of the reference data, if existing.
+     *
+     * @param countryLanguage the relation.
+     * @return the relation referring to the reference language or the given relation.
+     */
+    private CountryLanguageET withReferenceLanguage(final CountryLanguageET countryLanguage) {
+        final LanguageET referenceLanguage = this.referenceData.findLanguage(LanguageKeys.languageKey(countryLanguage.getLanguage().getShortName()));
+        return referenceLanguage == null || referenceLanguage == countryLanguage.getLanguage() ? countryLanguage
+                : new CountryLanguageET(countryLanguage.getCountryShortName(), referenceLanguage, countryLanguage.getOfficial(), countryLanguage.getPopulationShare());
+    }
+
+    /**
+     * Merge the values found in both layers in the order of the requested short names.
+     *
+     * @param shortNames the requested short names.
+     * @param referenceValues the values found in the reference data.
+     * @param runtimeValues the values found in the storage engine.
+     * @return the found values by the requested short name.
+     */
+    private static Map<String, LanguageET> merge(final Collection<String> shortNames, final Map<String, LanguageET> referenceValues,
+                                                 final Map<String, LanguageET> runtimeValues) {
+        if(referenceValues.isEmpty()) {
+            return runtimeValues;
+        } // else: keep the order of the requested short names.
+        final Map<String, LanguageET> found = new LinkedHashMap<>();
+        for(final String shortName : shortNames) {
+            final LanguageET referenceValue = referenceValues.get(shortName);
+            final LanguageET value = referenceValue != null ? referenceValue : runtimeValues.get(shortName);
+            if(value != null) {
+                found.put(shortName, value);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Get the number of runtime entries hidden by the reference data, counted only if the data version changed since the last count.
+     * The sizes of the views are read on each scrape of the storage metrics, so they must not walk the runtime entries each time.
+     *
+     * @param cache the count of the last data version.
+     * @param version the current data version of the storage engine, read before the entries are counted.
+     * @param counter counts the hidden entries.
+     * @return the number of hidden entries.
+     */
+    private static int hiddenCount(final AtomicReference<HiddenCount> cache, final long version, final IntSupplier counter) {
+        final HiddenCount current = cache.get();
+        if(current.version == version) {
+            return current.count;
+        } // else: count again. Concurrent counts of the same version are harmless, the last one wins.
+        final int count = counter.getAsInt();
+        cache.set(new HiddenCount(version, count));
+        return count;
+    }
+
+    /**
+     * {@link Set} view of the languages of both layers. Runtime languages hidden by the reference data are skipped.
+     */
+    private final class LanguagesView extends AbstractSet<LanguageET> {
+        @Override
+        public boolean contains(final Object o) {
+            final LanguageET referenceLanguage = LayeredLanguageStorage.this.referenceData.findLanguage(LanguageKeys.languageKeyOf(o));
+            return referenceLanguage != null ? referenceLanguage.equals(o) : LayeredLanguageStorage.this.storage.findAll().contains(o);
+        }
+
+        @Override
+        public Iterator<LanguageET> iterator() {
+            final ReferenceDataset reference = LayeredLanguageStorage.this.referenceData;
+            return new LayeredIterator<>(reference.getLanguageCount(), reference::languageAt, LayeredLanguageStorage.this.storage.findAll().iterator(),
+                                         language -> reference.indexOfLanguage(LanguageKeys.languageKeyOf(language)) >= 0);
+        }
+
+        @Override
+        public int size() {
+            final LanguageRepository runtime = LayeredLanguageStorage.this.storage;
+            final int hidden = hiddenCount(LayeredLanguageStorage.this.hiddenLanguages, runtime.getVersion(), () -> {
+                int count = 0;
+                for(final LanguageET language : runtime.findAll()) {
+                    if(LayeredLanguageStorage.this.referenceData.indexOfLanguage(LanguageKeys.languageKeyOf(language)) >= 0) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            return LayeredLanguageStorage.this.referenceData.getLanguageCount() + runtime.findAll().size() - hidden;
+        }
+    }
+
+    /**
+     * {@link Map} view of the countries with their language of both layers. Runtime countries hidden by the reference data are skipped.
+     */
+    private final class CountriesWithLanguageView extends AbstractMap<String, LanguageET> {
+        private final Set<Entry<String, LanguageET>> entries = new AbstractSet<Entry<String, LanguageET>>() {
+            @Override
+            public Iterator<Entry<String, LanguageET>> iterator() {
+                final ReferenceDataset reference = LayeredLanguageStorage.this.referenceData;
+                return new LayeredIterator<>(reference.getCountryCount(),
+                                             index -> new SimpleImmutableEntry<>(LanguageKeys.shortName(reference.countryKeyAt(index)), reference.countryLanguageAt(index)),
+                                             LayeredLanguageStorage.this.storage.findAllCountriesWithLanguage().entrySet().iterator(),
+                                             country -> reference.indexOfCountry(LanguageKeys.countryKey(country.getKey())) >= 0);
+            }
+
+            @Override
+            public int size() {
+                return CountriesWithLanguageView.this.size();
+            }
+        };
+
+        @Override
+        public LanguageET get(final Object key) {
+            final LanguageET referenceLanguage = LayeredLanguageStorage.this.referenceData.findCountryLanguage(LanguageKeys.countryKeyOf(key));
+            return referenceLanguage != null ? referenceLanguage : LayeredLanguageStorage.this.storage.findAllCountriesWithLanguage().get(key);
+        }
+
+        @Override
+        public boolean containsKey(final Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public int size() {
+            final LanguageRepository runtime = LayeredLanguageStorage.this.storage;
+            final int hidden = hiddenCount(LayeredLanguageStorage.this.hiddenCountries, runtime.getVersion(), () -> {
+                int count = 0;
+                for(final String countryShortName : runtime.findAllCountriesWithLanguage().keySet()) {
+                    if(LayeredLanguageStorage.this.referenceData.indexOfCountry(LanguageKeys.countryKey(countryShortName)) >= 0) {
+                        count++;
+                    }
+                }
+                return count;
+            });
+            return LayeredLanguageStorage.this.referenceData.getCountryCount() + runtime.findAllCountriesWithLanguage().size() - hidden;
+        }
+
+        @Override
+        public Set<Entry<String, LanguageET>> entrySet() {
+            return this.entries;
+        }
+    }
+
+    /**
+     * Iterates over the elements of the reference data by their index, followed by the runtime elements which are not hidden by the reference data.
+     *
+     * @param <E> the type of the elements.
+     */
+    private static final class LayeredIterator<E> implements Iterator<E> {
+        private final int referenceCount;
+        private final IntFunction<E> referenceElement;
+        private final Iterator<E> runtimeElements;
+        private final Predicate<E> hidden;
+        private int referenceIndex;
+        private E nextRuntimeElement;
+
+        private LayeredIterator(final int referenceCount, final IntFunction<E> referenceElement, final Iterator<E> runtimeElements, final Predicate<E> hidden) {
+            this.referenceCount = referenceCount;
+            this.referenceElement = referenceElement;
+            this.runtimeElements = runtimeElements;
+            this.hidden = hidden;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(this.referenceIndex < this.referenceCount || this.nextRuntimeElement != null) {
+                return true;
+            } // else: search the next runtime element which is not hidden.
+            while(this.runtimeElements.hasNext()) {
+                final E element = this.runtimeElements.next();
+                if(!this.hidden.test(element)) {
+                    this.nextRuntimeElement = element;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public E next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            } else if(this.referenceIndex < this.referenceCount) {
+                return this.referenceElement.apply(this.referenceIndex++);
+            } // else: return the runtime element found by hasNext().
+            final E element = this.nextRuntimeElement;
+            this.nextRuntimeElement = null;
+            return element;
+        }
+    }
+
+    /**
+     * A number of hidden runtime entries together with the data version it was counted for.
+     */
+    private static final class HiddenCount {
+        private static final HiddenCount NOT_COUNTED = new HiddenCount(-1L, 0);
+        private final long version;
+        private final int count;
+
+        private HiddenCount(final long version, final int count) {
+            this.version = version;
+            this.count = count;
+        }
+    }
+}
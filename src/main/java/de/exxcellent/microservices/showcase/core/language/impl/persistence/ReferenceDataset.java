@@ -0,0 +1,459 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.zip.CRC32;
+
+/**
+ * The read-only reference data of the storage (ISO 639-3 languages and ISO 3166 countries with their primary language), compiled at build time
+ * by {@code ReferenceDatasetGenerator} (see {@code src/build/java}) from {@code src/main/reference}.
+ * <p>
+ * The keys of languages and countries and the language of each country are the constant lookup tables of the generated {@code ReferenceTables}:
+ * sorted arrays of the packed short names (see {@link LanguageKeys}) which are binary searched, so nothing is parsed on startup.
+ * The names of the languages are packaged as resource {@value #RESOURCE}, which is memory-mapped if it is a file, otherwise it is read into one direct buffer.
+ * A {@link LanguageET} is only created when a language is read first, and is then shared by all readers like in the storage engines.
+ * The names are indexed for the search by name in a background thread after loading (see {@link LanguageNameIndex}).
+ * The display names of the languages in further locales stay in the buffer as well and are only decoded when read, so they do not retain any heap memory.
+ * <p>
+ * Layout of the resource (big endian): header (magic number, format version, number of languages), the offsets of the language names in the name pool
+ * (one more than languages), the name pool (UTF-8), the display names and a CRC-32 checksum of all preceding bytes, which must match the checksum of the lookup tables.
+ * The display names start with the number of display locales and the number of strings, followed by the string id of the language tag of each locale,
+ * the position of the first entry of each locale (one more than locales), the index of the language of each entry (ascending within each locale),
+ * the string id of the display name of each entry, the offsets of the strings in the string pool (one more than strings) and the string pool (UTF-8).
+ * Each distinct string is contained once, languages without display name in a locale have no entry.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class ReferenceDataset {
+    /**
+     * The {@link Logger} of this {@link ReferenceDataset}.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ReferenceDataset.class);
+    /**
+     * The name of the packaged resource.
+     */
+    static final String RESOURCE = "reference-data.bin";
+    /**
+     * The magic number at the start of each dataset: {@code LREF}.
+     */
+    private static final int MAGIC = 0x4C524546;
+    /**
+     * The version of the dataset format.
+     */
+    private static final int FORMAT_VERSION = 3;
+    /**
+     * Number of bytes of the header: magic number, format version and the number of languages.
+     */
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    /**
+     * The position of the offsets of the language names.
+     */
+    private static final int NAME_OFFSETS_POSITION = HEADER_BYTES;
+    /**
+     * The position of the name pool.
+     */
+    private static final int NAME_POOL_POSITION = NAME_OFFSETS_POSITION + (ReferenceTables.LANGUAGE_KEYS.length + 1) * Integer.BYTES;
+
+    private final ByteBuffer names;
+    /**
+     * The language tags of the display locales, in the order of their index.
+     */
+    private final List<String> displayLocales;
+    /**
+     * The position of the first entry of each display locale.
+     */
+    private final int entryOffsetsPosition;
+    /**
+     * The position of the language index of each entry.
+     */
+    private final int entryLanguagesPosition;
+    /**
+     * The position of the string id of the display name of each entry.
+     */
+    private final int entryNamesPosition;
+    /**
+     * The position of the offsets of the strings in the string pool.
+     */
+    private final int stringOffsetsPosition;
+    /**
+     * The position of the string pool.
+     */
+    private final int stringPoolPosition;
+    /**
+     * The {@link LanguageET}s created so far by their index, {@code null} if not read yet.
+     */
+    private final AtomicReferenceArray<LanguageET> languages;
+    /**
+     * The {@link LanguageNameIndex} of the names with the index of each language as id, {@code null} until it is built.
+     */
+    private volatile LanguageNameIndex nameIndex;
+
+    /**
+     * Constructor.
+     *
+     * @param names the names and display names of the languages (verified, not changed afterwards).
+     */
+    private ReferenceDataset(final ByteBuffer names) {
+        this.names = names;
+        this.languages = new AtomicReferenceArray<>(ReferenceTables.LANGUAGE_KEYS.length);
+        final int displayNamesPosition = NAME_POOL_POSITION + names.getInt(NAME_OFFSETS_POSITION + getLanguageCount() * Integer.BYTES);
+        final int localeCount = names.getInt(displayNamesPosition);
+        final int stringCount = names.getInt(displayNamesPosition + Integer.BYTES);
+        final int localeTagsPosition = displayNamesPosition + 2 * Integer.BYTES;
+        this.entryOffsetsPosition = localeTagsPosition + localeCount * Integer.BYTES;
+        this.entryLanguagesPosition = this.entryOffsetsPosition + (localeCount + 1) * Integer.BYTES;
+        this.entryNamesPosition = this.entryLanguagesPosition + names.getInt(this.entryOffsetsPosition + localeCount * Integer.BYTES) * Integer.BYTES;
+        this.stringOffsetsPosition = this.entryNamesPosition + (this.entryNamesPosition - this.entryLanguagesPosition);
+        this.stringPoolPosition = this.stringOffsetsPosition + (stringCount + 1) * Integer.BYTES;
+        final String[] tags = new String[localeCount];
+        for(int i = 0; i < localeCount; i++) {
+            tags[i] = stringAt(names.getInt(localeTagsPosition + i * Integer.BYTES));
+        }
+        this.displayLocales = Collections.unmodifiableList(Arrays.asList(tags));
+    }
+
+    /**
+     * Load the packaged dataset.
+     *
+     * @return the {@link ReferenceDataset}.
+     * @exception TechnicalException if the resource is missing, cannot be read, is corrupt or was not generated with the lookup tables.
+     */
+    static ReferenceDataset load() {
+        final URL resource = ReferenceDataset.class.getClassLoader().getResource(RESOURCE);
+        if(resource == null) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Reference dataset " + RESOURCE + " is missing");
+        } // else: map or read the resource.
+        final long start = System.nanoTime();
+        final boolean mapped = "file".equals(resource.getProtocol());
+        final ByteBuffer data;
+        try {
+            if(mapped) {
+                try(FileChannel channel = FileChannel.open(Paths.get(resource.toURI()), StandardOpenOption.READ)) {
+                    data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                }
+            } else {
+                data = read(resource);
+            }
+        } catch(final IOException | URISyntaxException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not read reference dataset " + resource, e);
+        }
+        verify(data, resource);
+        final ReferenceDataset dataset = new ReferenceDataset(data);
+        // the index of the names is built in the background, so neither the startup nor a search waits for it.
+        final Thread indexer = new Thread(dataset::buildNameIndex, "reference-name-index");
+        indexer.setDaemon(true);
+        indexer.start();
+        LOG.info("{} reference dataset with {} languages, {} countries and {} display locales ({} bytes) in {} ms", mapped ? "Mapped" : "Read",
+                 dataset.getLanguageCount(), dataset.getCountryCount(), dataset.getDisplayLocales().size(), data.limit(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return dataset;
+    }
+
+    /**
+     * Get the number of languages.
+     *
+     * @return the number of languages.
+     */
+    int getLanguageCount() {
+        return ReferenceTables.LANGUAGE_KEYS.length;
+    }
+
+    /**
+     * Get the number of countries.
+     *
+     * @return the number of countries.
+     */
+    int getCountryCount() {
+        return ReferenceTables.COUNTRY_KEYS.length;
+    }
+
+    /**
+     * Get the index of the language with the given key.
+     *
+     * @param languageKey the key of the language (see {@link LanguageKeys#languageKey(String)}).
+     * @return the index of the language or {@code -(insertion point) - 1} if not contained, like {@link Arrays#binarySearch(int[], int)}.
+     */
+    int indexOfLanguage(final int languageKey) {
+        return Arrays.binarySearch(ReferenceTables.LANGUAGE_KEYS, languageKey);
+    }
+
+    /**
+     * Get the key of the language with the given index.
+     *
+     * @param index the index of the language.
+     * @return the key of the language.
+     */
+    int languageKeyAt(final int index) {
+        return ReferenceTables.LANGUAGE_KEYS[index];
+    }
+
+    /**
+     * Get the language with the given index.
+     *
+     * @param index the index of the language.
+     * @return the language as {@link LanguageET}, the same instance for each call.
+     */
+    LanguageET languageAt(final int index) {
+        final LanguageET language = this.languages.get(index);
+        if(language != null) {
+            return language;
+        } // else: decode the language and share it with concurrent readers.
+        final LanguageET decodedLanguage = new LanguageET(LanguageKeys.shortName(languageKeyAt(index)), nameAt(index));
+        return this.languages.compareAndSet(index, null, decodedLanguage) ? decodedLanguage : this.languages.get(index);
+    }
+
+    /**
+     * Search the languages by their name, see {@link LanguageNameIndex#search(String, int, IntFunction)}.
+     * The {@link LanguageNameIndex} is built from the names in the background after loading. Searches never wait for it, as they may run on the event loop:
+     * until it is built, they scan the names (see {@link LanguageNameIndex#scan(int, IntUnaryOperator, IntFunction, String, int, IntFunction)}).
+     * Only the found languages are created.
+     *
+     * @param query the (part of the) name to search (not {@code null}).
+     * @param limit the maximum number of languages to return (positive).
+     * @return the best matching languages as {@link List} of {@link LanguageET}s, empty if none matches.
+     */
+    List<LanguageET> findLanguagesByName(final String query, final int limit) {
+        final LanguageNameIndex index = this.nameIndex;
+        if(index == null) {
+            return LanguageNameIndex.scan(getLanguageCount(), languageIndex -> languageIndex, this::nameAt, query, limit, this::languageAt);
+        } // else: search the index.
+        return index.search(query, limit, this::languageAt);
+    }
+
+    /**
+     * Build the {@link LanguageNameIndex} of the names and publish it for the searches. Called once by the background thread started by {@link #load()}.
+     */
+    private void buildNameIndex() {
+        final long start = System.nanoTime();
+        final LanguageNameIndex index = LanguageNameIndex.of(getLanguageCount(), languageIndex -> languageIndex, this::nameAt);
+        this.nameIndex = index;
+        LOG.info("Indexed the names of {} reference languages in {} ms", index.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Decode the name of the language with the given index.
+     *
+     * @param index the index of the language.
+     * @return the name of the language.
+     */
+    private String nameAt(final int index) {
+        return decode(NAME_OFFSETS_POSITION, NAME_POOL_POSITION, index);
+    }
+
+    /**
+     * Get the language tags of the display locales with display names.
+     *
+     * @return the language tags (BCP 47) as unmodifiable {@link List}, the position of a tag is the index of its display locale.
+     */
+    List<String> getDisplayLocales() {
+        return this.displayLocales;
+    }
+
+    /**
+     * Get the display name of the language with the given index in the display locale with the given index.
+     * Binary searches the entries of the display locale and only decodes the found name.
+     *
+     * @param index the index of the language.
+     * @param localeIndex the index of the display locale in {@link #getDisplayLocales()}.
+     * @return the display name or {@code null} if the language has no display name in the display locale.
+     */
+    String displayNameAt(final int index, final int localeIndex) {
+        int low = this.names.getInt(this.entryOffsetsPosition + localeIndex * Integer.BYTES);
+        int high = this.names.getInt(this.entryOffsetsPosition + (localeIndex + 1) * Integer.BYTES) - 1;
+        while(low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int languageIndex = this.names.getInt(this.entryLanguagesPosition + middle * Integer.BYTES);
+            if(languageIndex < index) {
+                low = middle + 1;
+            } else if(languageIndex > index) {
+                high = middle - 1;
+            } else {
+                return stringAt(this.names.getInt(this.entryNamesPosition + middle * Integer.BYTES));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Decode the string with the given id of the string table.
+     *
+     * @param id the id of the string.
+     * @return the string.
+     */
+    private String stringAt(final int id) {
+        return decode(this.stringOffsetsPosition, this.stringPoolPosition, id);
+    }
+
+    /**
+     * Decode a string of a pool.
+     *
+     * @param offsetsPosition the position of the offsets of the strings in the pool.
+     * @param poolPosition the position of the pool.
+     * @param index the index of the string.
+     * @return the string.
+     */
+    private String decode(final int offsetsPosition, final int poolPosition, final int index) {
+        final int start = this.names.getInt(offsetsPosition + index * Integer.BYTES);
+        final int end = this.names.getInt(offsetsPosition + (index + 1) * Integer.BYTES);
+        final byte[] string = new byte[end - start];
+        final ByteBuffer pool = this.names.duplicate();
+        pool.position(poolPosition + start);
+        pool.get(string);
+        return new String(string, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the language with the given key.
+     *
+     * @param languageKey the key of the language (see {@link LanguageKeys#languageKey(String)}).
+     * @return the language as {@link LanguageET} or {@code null} if not contained.
+     */
+    LanguageET findLanguage(final int languageKey) {
+        final int index = indexOfLanguage(languageKey);
+        return index >= 0 ? languageAt(index) : null;
+    }
+
+    /**
+     * Get the index of the country with the given key.
+     *
+     * @param countryKey the key of the country (see {@link LanguageKeys#countryKey(String)}).
+     * @return the index of the country or {@code -(insertion point) - 1} if not contained, like {@link Arrays#binarySearch(int[], int)}.
+     */
+    int indexOfCountry(final int countryKey) {
+        return Arrays.binarySearch(ReferenceTables.COUNTRY_KEYS, countryKey);
+    }
+
+    /**
+     * Get the key of the country with the given index.
+     *
+     * @param index the index of the country.
+     * @return the key of the country.
+     */
+    int countryKeyAt(final int index) {
+        return ReferenceTables.COUNTRY_KEYS[index];
+    }
+
+    /**
+     * Get the language of the country with the given index.
+     *
+     * @param index the index of the country.
+     * @return the language of the country as {@link LanguageET}.
+     */
+    LanguageET countryLanguageAt(final int index) {
+        return languageAt(ReferenceTables.COUNTRY_LANGUAGES[index]);
+    }
+
+    /**
+     * Get the language of the country with the given key.
+     *
+     * @param countryKey the key of the country (see {@link LanguageKeys#countryKey(String)}).
+     * @return the language of the country as {@link LanguageET} or {@code null} if the country is not contained.
+     */
+    LanguageET findCountryLanguage(final int countryKey) {
+        final int index = indexOfCountry(countryKey);
+        return index >= 0 ? countryLanguageAt(index) : null;
+    }
+
+    /**
+     * Get the countries using the language with the given key from the reverse index of the lookup tables.
+     *
+     * @param languageKey the key of the language (see {@link LanguageKeys#languageKey(String)}).
+     * @return the sorted keys of the countries, empty if no country uses the language.
+     */
+    int[] findCountryKeysByLanguage(final int languageKey) {
+        final int languageIndex = indexOfLanguage(languageKey);
+        final int position = languageIndex < 0 ? -1 : Arrays.binarySearch(ReferenceTables.LANGUAGES_OF_COUNTRIES, languageIndex);
+        if(position < 0) {
+            return new int[0];
+        } // else: the countries of the language in the order of their keys.
+        final int first = ReferenceTables.COUNTRIES_BY_LANGUAGE_OFFSETS[position];
+        final int[] countryKeys = new int[ReferenceTables.COUNTRIES_BY_LANGUAGE_OFFSETS[position + 1] - first];
+        for(int i = 0; i < countryKeys.length; i++) {
+            countryKeys[i] = countryKeyAt(ReferenceTables.COUNTRIES_BY_LANGUAGE[first + i]);
+        }
+        return countryKeys;
+    }
+
+    /**
+     * Estimate the heap memory retained by this dataset: the languages read so far and the {@link LanguageNameIndex}, if built.
+     * The constant lookup tables are not counted, the names and display names are kept outside of the heap.
+     *
+     * @return the estimated number of bytes.
+     */
+    long estimateMemory() {
+        long bytes = StorageFootprint.referenceArray(this.languages.length());
+        for(int i = 0; i < this.languages.length(); i++) {
+            final LanguageET language = this.languages.get(i);
+            if(language != null) {
+                bytes += StorageFootprint.language(language);
+            }
+        }
+        final LanguageNameIndex index = this.nameIndex;
+        return index != null ? bytes + index.estimateMemory() : bytes;
+    }
+
+    /**
+     * Read the given resource into a direct buffer, if it cannot be mapped (e.g. packaged in a jar).
+     *
+     * @param resource the {@link URL} of the resource.
+     * @return the content as {@link ByteBuffer}.
+     * @throws IOException if the resource cannot be read.
+     */
+    private static ByteBuffer read(final URL resource) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream(256 * 1024);
+        try(InputStream input = resource.openStream()) {
+            final byte[] buffer = new byte[16 * 1024];
+            int read;
+            while((read = input.read(buffer)) >= 0) {
+                content.write(buffer, 0, read);
+            }
+        }
+        final ByteBuffer data = ByteBuffer.allocateDirect(content.size());
+        data.put(content.toByteArray()).flip();
+        return data;
+    }
+
+    /**
+     * Verify the format and the checksum of the given dataset, which must match the lookup tables.
+     *
+     * @param data the dataset.
+     * @param resource the {@link URL} of the dataset for the error messages.
+     * @exception TechnicalException if the dataset has an unknown format, is corrupt or was not generated with the lookup tables.
+     */
+    private static void verify(final ByteBuffer data, final URL resource) {
+        if(data.limit() < NAME_POOL_POSITION + Integer.BYTES || data.getInt(0) != MAGIC || data.getInt(Integer.BYTES) != FORMAT_VERSION) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Reference dataset " + resource + " has an unknown format");
+        } // else: verify the checksum.
+        final int checksumPosition = data.limit() - Integer.BYTES;
+        final ByteBuffer content = data.duplicate();
+        content.position(0).limit(checksumPosition);
+        final CRC32 checksum = new CRC32();
+        checksum.update(content);
+        if((int) checksum.getValue() != data.getInt(checksumPosition)) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Reference dataset " + resource + " is corrupt");
+        } else if(data.getInt(checksumPosition) != ReferenceTables.DATASET_CHECKSUM || data.getInt(2 * Integer.BYTES) != ReferenceTables.LANGUAGE_KEYS.length) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Reference dataset " + resource + " does not match the generated lookup tables");
+        } // else: the dataset is complete.
+    }
+}
@@ -0,0 +1,179 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A simple helper class to write and read the snapshot of all data of a {@link LanguageRepository}.
+ * The snapshot consists of a header (magic number, format version, sequence number of the first record of the {@link WriteAheadLog}
+ * not contained), all languages, all countries referring to their language by its short name, all relations between countries and languages
+ * (since format version 2) and a CRC-32 checksum (see {@link LanguageRecordCodec} for the encoding).
+ * It is written to a temporary file which replaces the previous snapshot atomically, and it is memory-mapped for reading.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class SnapshotFile {
+    /**
+     * The name of the snapshot file.
+     */
+    static final String FILE_NAME = "snapshot.bin";
+    /**
+     * The magic number at the start of each snapshot: {@code LSNP}.
+     */
+    private static final int MAGIC = 0x4C534E50;
+    /**
+     * The version of the snapshot format.
+     */
+    private static final byte FORMAT_VERSION = 2;
+    /**
+     * The version of the snapshot format without relations between countries and languages, which can still be read.
+     */
+    private static final byte FORMAT_VERSION_WITHOUT_RELATIONS = 1;
+    /**
+     * Number of bytes of the header: magic number, format version and sequence number.
+     */
+    private static final int HEADER_BYTES = Integer.BYTES + 1 + Long.BYTES;
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private SnapshotFile() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "SnapshotFile is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Write a snapshot durably, replacing the previous one. The directory is synced after the rename, so the new snapshot survives a crash.
+     *
+     * @param directory the directory of the snapshot.
+     * @param sequence the sequence number of the first record of the {@link WriteAheadLog} not contained in the snapshot.
+     * @param languages all languages.
+     * @param countriesWithLanguage all countries with their language.
+     * @param countryLanguages all relations between countries and languages, referring to the given languages.
+     * @exception TechnicalException if the snapshot cannot be written.
+     */
+    static void write(final Path directory, final long sequence, final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage,
+                      final Collection<CountryLanguageET> countryLanguages) {
+        final ByteArrayOutputStream entries = new ByteArrayOutputStream(16 + 24 * (languages.size() + countriesWithLanguage.size()));
+        LanguageRecordCodec.writeVarInt(entries, languages.size());
+        for(final LanguageET language : languages) {
+            LanguageRecordCodec.writeLanguage(entries, language);
+        }
+        LanguageRecordCodec.writeVarInt(entries, countriesWithLanguage.size());
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : countriesWithLanguage.entrySet()) {
+            LanguageRecordCodec.writeShortName(entries, countryWithLanguage.getKey());
+            LanguageRecordCodec.writeShortName(entries, countryWithLanguage.getValue().getShortName());
+        }
+        LanguageRecordCodec.writeVarInt(entries, countryLanguages.size());
+        for(final CountryLanguageET countryLanguage : countryLanguages) {
+            LanguageRecordCodec.writeShortName(entries, countryLanguage.getCountryShortName());
+            LanguageRecordCodec.writeShortName(entries, countryLanguage.getLanguage().getShortName());
+            LanguageRecordCodec.writeRelationAttributes(entries, countryLanguage);
+        }
+        final ByteBuffer snapshot = ByteBuffer.allocate(HEADER_BYTES + entries.size() + Integer.BYTES);
+        snapshot.putInt(MAGIC).put(FORMAT_VERSION).putLong(sequence).put(entries.toByteArray());
+        final CRC32 checksum = new CRC32();
+        checksum.update(snapshot.array(), 0, snapshot.position());
+        snapshot.putInt((int) checksum.getValue()).flip();
+        final Path temporary = directory.resolve(FILE_NAME + ".tmp");
+        try {
+            try(FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                while(snapshot.hasRemaining()) {
+                    channel.write(snapshot);
+                }
+                channel.force(true);
+            }
+            Files.move(temporary, directory.resolve(FILE_NAME), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            WriteAheadLog.syncDirectory(directory);
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not write snapshot to " + directory, e);
+        }
+    }
+
+    /**
+     * Read the snapshot, if existing, and add its data to the given {@link LanguageRepository} in one batch.
+     *
+     * @param directory the directory of the snapshot.
+     * @param target the {@link LanguageRepository} to add the data to.
+     * @return the sequence number of the first record of the {@link WriteAheadLog} not contained in the snapshot, 0 if there is no snapshot.
+     * @exception TechnicalException if the snapshot cannot be read or is corrupt.
+     */
+    static long read(final Path directory, final LanguageRepository target) {
+        final Path file = directory.resolve(FILE_NAME);
+        if(!Files.exists(file)) {
+            return 0L;
+        } // else: map and verify the snapshot.
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedByteBuffer snapshot = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(snapshot.remaining() < HEADER_BYTES + Integer.BYTES || snapshot.getInt() != MAGIC) {
+                throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Snapshot " + file + " has an unknown format");
+            } // else: check the format version.
+            final byte formatVersion = snapshot.get();
+            if(formatVersion != FORMAT_VERSION && formatVersion != FORMAT_VERSION_WITHOUT_RELATIONS) {
+                throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Snapshot " + file + " has an unknown format");
+            } // else: verify the checksum.
+            final int checksumPosition = snapshot.limit() - Integer.BYTES;
+            final ByteBuffer content = snapshot.duplicate();
+            content.position(0).limit(checksumPosition);
+            final CRC32 checksum = new CRC32();
+            checksum.update(content);
+            if((int) checksum.getValue() != snapshot.getInt(checksumPosition)) {
+                throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Snapshot " + file + " is corrupt");
+            } // else: add the entries.
+            final long sequence = snapshot.getLong();
+            snapshot.limit(checksumPosition);
+            final int languageCount = LanguageRecordCodec.readVarInt(snapshot);
+            final List<LanguageET> languages = new ArrayList<>(languageCount);
+            final LanguageCodeMap<LanguageET> languagesByKey = new LanguageCodeMap<>(languageCount);
+            for(int i = 0; i < languageCount; i++) {
+                final LanguageET language = LanguageRecordCodec.readLanguage(snapshot);
+                languages.add(language);
+                languagesByKey.put(LanguageKeys.languageKey(language.getShortName()), language);
+            }
+            final int countryCount = LanguageRecordCodec.readVarInt(snapshot);
+            final Map<String, LanguageET> countriesWithLanguage = new HashMap<>(countryCount * 4 / 3 + 1);
+            for(int i = 0; i < countryCount; i++) {
+                final String countryShortName = LanguageRecordCodec.readShortName(snapshot);
+                final LanguageET language = languagesByKey.get(LanguageKeys.languageKey(LanguageRecordCodec.readShortName(snapshot)));
+                if(language == null) {
+                    throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Snapshot " + file + " refers to an unknown language for country " + countryShortName);
+                } // else: the country shares the language of the snapshot.
+                countriesWithLanguage.put(countryShortName, language);
+            }
+            final int relationCount = formatVersion == FORMAT_VERSION ? LanguageRecordCodec.readVarInt(snapshot) : 0;
+            final List<CountryLanguageET> countryLanguages = new ArrayList<>(relationCount);
+            for(int i = 0; i < relationCount; i++) {
+                final String countryShortName = LanguageRecordCodec.readShortName(snapshot);
+                final LanguageET language = languagesByKey.get(LanguageKeys.languageKey(LanguageRecordCodec.readShortName(snapshot)));
+                if(language == null) {
+                    throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Snapshot " + file + " refers to an unknown language for country " + countryShortName);
+                } // else: the relation shares the language of the snapshot.
+                countryLanguages.add(LanguageRecordCodec.readRelationAttributes(snapshot, countryShortName, language));
+            }
+            target.addAll(languages, countriesWithLanguage);
+            target.addAllCountryLanguages(countryLanguages);
+            return sequence;
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not read snapshot " + file, e);
+        }
+    }
+}
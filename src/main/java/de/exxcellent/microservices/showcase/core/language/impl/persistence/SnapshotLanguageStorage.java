@@ -0,0 +1,468 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link LanguageRepository} keeping all data in an immutable {@link Snapshot} published through one {@link AtomicReference}.
+ * Readers always see a consistent state of languages and countries without locking. Writers copy the current snapshot,
+ * apply their change and publish the copy with a compare-and-set, retrying if another writer was faster.
+ * <p>
+ * The language index holds exactly one {@link LanguageET} per short name, which is shared by all countries using the language.
+ *
+ * @author Felix Riess
+ * @since 27.01.20
+ */
+class SnapshotLanguageStorage implements LanguageRepository {
+    /**
+     * The currently published {@link Snapshot}.
+     */
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(
+                    new Snapshot(0L, new LanguageCodeMap<>(), new int[0], new LanguageCodeMap<>(), new int[0], new LanguageCodeMap<>(),
+                                 CountryLanguageGraph.EMPTY, LanguageNameIndex.EMPTY));
+
+    @Override
+    public Set<LanguageET> findAll() {
+        return this.snapshot.get().languagesView;
+    }
+
+    @Override
+    public Optional<LanguageET> findByShortName(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        return Optional.ofNullable(this.snapshot.get().languages.get(LanguageKeys.languageKey(shortName)));
+    }
+
+    @Override
+    public Map<String, LanguageET> findByShortNames(final Collection<String> shortNames) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        // all short names are looked up in the same snapshot.
+        return this.snapshot.get().languages.getAll(shortNames, LanguageKeys::languageKey);
+    }
+
+    @Override
+    public List<LanguageET> findByName(final String query, final int limit) {
+        Preconditions.checkNotNull(query, LanguageNameIndex.QUERY_NOT_NULL);
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final Snapshot current = this.snapshot.get();
+        return current.names.search(query, limit, current.languages::get);
+    }
+
+    @Override
+    public List<String> findDisplayLocales() {
+        // languages added at runtime only have their name.
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Map<String, String> findDisplayNames(final Collection<String> shortNames, final String locale) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        Preconditions.checkNotNull(locale, LanguageKeys.LOCALE_NOT_NULL);
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public Set<LanguageET> addLanguage(final LanguageET language) {
+        createLanguage(language);
+        return findAll();
+    }
+
+    @Override
+    public LanguageET createLanguage(final LanguageET language) {
+        LanguageValidation.validateLanguageET(language);
+        final int languageKey = LanguageKeys.languageKey(language.getShortName());
+        Preconditions.checkArgument(languageKey != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = this.snapshot.get();
+            final LanguageET existingLanguage = current.languages.get(languageKey);
+            if(existingLanguage != null) {
+                return existingLanguage;
+            } // else: copy the current languages and add the new one.
+            final LanguageCodeMap<LanguageET> languages = current.languages.copy();
+            languages.put(languageKey, language);
+            updated = new Snapshot(current.version + 1, languages, LanguageKeys.addKey(current.languageOrder, languageKey), current.countriesWithLanguage,
+                                   current.countryOrder, current.countriesByLanguage, current.relations, current.names.withAll(Collections.singletonList(language)));
+        } while(!this.snapshot.compareAndSet(current, updated));
+        return language;
+    }
+
+    @Override
+    public Map<String, LanguageET> findAllCountriesWithLanguage() {
+        return this.snapshot.get().countriesWithLanguageView;
+    }
+
+    @Override
+    public Map<String, LanguageET> addCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        createCountryWithLanguage(countryShortName, language);
+        return findAllCountriesWithLanguage();
+    }
+
+    @Override
+    public LanguageET createCountryWithLanguage(final String countryShortName, final LanguageET language) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        LanguageValidation.validateLanguageET(language);
+        final int countryKey = LanguageKeys.countryKey(countryShortName);
+        final int languageKey = LanguageKeys.languageKey(language.getShortName());
+        Preconditions.checkArgument(countryKey != LanguageKeys.NO_KEY && languageKey != LanguageKeys.NO_KEY, LanguageKeys.SHORT_NAME_ASCII);
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = this.snapshot.get();
+            LanguageET existingLanguage = current.languages.get(languageKey);
+            final LanguageET existingLanguageOfCountry = current.countriesWithLanguage.get(countryKey);
+            final boolean countryExisting = existingLanguageOfCountry != null;
+            if(existingLanguage != null && countryExisting) {
+                return existingLanguageOfCountry;
+            } // else: copy the changed indexes and add language and country in one step.
+            LanguageCodeMap<LanguageET> languages = current.languages;
+            int[] languageOrder = current.languageOrder;
+            LanguageNameIndex names = current.names;
+            if(existingLanguage == null) {
+                languages = current.languages.copy();
+                languages.put(languageKey, language);
+                languageOrder = LanguageKeys.addKey(languageOrder, languageKey);
+                names = current.names.withAll(Collections.singletonList(language));
+                existingLanguage = language;
+            }
+            LanguageCodeMap<LanguageET> countriesWithLanguage = current.countriesWithLanguage;
+            int[] countryOrder = current.countryOrder;
+            LanguageCodeMap<int[]> countriesByLanguage = current.countriesByLanguage;
+            if(!countryExisting) {
+                countriesWithLanguage = current.countriesWithLanguage.copy();
+                countriesWithLanguage.put(countryKey, existingLanguage);
+                countryOrder = LanguageKeys.addKey(countryOrder, countryKey);
+                countriesByLanguage = current.countriesByLanguage.copy();
+                countriesByLanguage.put(languageKey, LanguageKeys.addKey(countriesByLanguage.get(languageKey), countryKey));
+            }
+            updated = new Snapshot(current.version + 1, languages, languageOrder, countriesWithLanguage, countryOrder, countriesByLanguage, current.relations, names);
+        } while(!this.snapshot.compareAndSet(current, updated));
+        return updated.countriesWithLanguage.get(countryKey);
+    }
+
+    @Override
+    public void addAll(final Collection<LanguageET> languages, final Map<String, LanguageET> countriesWithLanguage) {
+        final LanguageBatch batch = new LanguageBatch(languages, countriesWithLanguage);
+        if(batch.isEmpty()) {
+            return;
+        } // else: copy the current snapshot once per attempt and publish the whole batch with one compare-and-set.
+        final LanguageCodeMap<LanguageET> addedLanguages = batch.getLanguages();
+        final LanguageCodeMap<LanguageET> addedCountries = batch.getCountriesWithLanguage();
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = this.snapshot.get();
+            final LanguageCodeMap<LanguageET> updatedLanguages = current.languages.copy();
+            final int[] addedLanguageKeys = new int[addedLanguages.size()];
+            int addedLanguageCount = 0;
+            for(int slot = 0; slot < addedLanguages.capacity(); slot++) {
+                final int languageKey = addedLanguages.keyAt(slot);
+                if(languageKey != LanguageKeys.NO_KEY && updatedLanguages.putIfAbsent(languageKey, addedLanguages.valueAt(slot)) == null) {
+                    addedLanguageKeys[addedLanguageCount++] = languageKey;
+                }
+            }
+            final LanguageCodeMap<LanguageET> updatedCountries = current.countriesWithLanguage.copy();
+            final int[] addedCountryKeys = new int[addedCountries.size()];
+            final long[] relations = new long[addedCountries.size()];
+            int relationCount = 0;
+            for(int slot = 0; slot < addedCountries.capacity(); slot++) {
+                final int countryKey = addedCountries.keyAt(slot);
+                if(countryKey != LanguageKeys.NO_KEY) {
+                    final int languageKey = LanguageKeys.languageKey(addedCountries.valueAt(slot).getShortName());
+                    if(updatedCountries.putIfAbsent(countryKey, updatedLanguages.get(languageKey)) == null) {
+                        addedCountryKeys[relationCount] = countryKey;
+                        relations[relationCount++] = LanguageKeys.relation(languageKey, countryKey);
+                    } // else: country is already existing and keeps its language.
+                }
+            }
+            if(addedLanguageCount == 0 && relationCount == 0) {
+                return;
+            } // else: merge the added keys into the orders and the added countries into the reverse index, then publish.
+            final int[] languageOrder = LanguageKeys.addKeys(current.languageOrder, sortedKeys(addedLanguageKeys, addedLanguageCount));
+            final int[] countryOrder = LanguageKeys.addKeys(current.countryOrder, sortedKeys(addedCountryKeys, relationCount));
+            LanguageCodeMap<int[]> updatedCountriesByLanguage = current.countriesByLanguage;
+            if(relationCount > 0) {
+                updatedCountriesByLanguage = current.countriesByLanguage.copy();
+                final LanguageCodeMap<int[]> addedCountriesByLanguage = LanguageKeys.countriesByLanguage(relations, relationCount);
+                for(int slot = 0; slot < addedCountriesByLanguage.capacity(); slot++) {
+                    final int languageKey = addedCountriesByLanguage.keyAt(slot);
+                    if(languageKey != LanguageKeys.NO_KEY) {
+                        updatedCountriesByLanguage.put(languageKey,
+                                                       LanguageKeys.addKeys(updatedCountriesByLanguage.get(languageKey), addedCountriesByLanguage.valueAt(slot)));
+                    }
+                }
+            }
+            updated = new Snapshot(current.version + 1, updatedLanguages, languageOrder, updatedCountries, countryOrder, updatedCountriesByLanguage,
+                                   current.relations, current.names.withAll(languagesOf(updatedLanguages, addedLanguageKeys, addedLanguageCount)));
+        } while(!this.snapshot.compareAndSet(current, updated));
+    }
+
+    @Override
+    public Optional<LanguageET> findLanguageByCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        return Optional.ofNullable(this.snapshot.get().countriesWithLanguage.get(LanguageKeys.countryKey(countryShortName)));
+    }
+
+    @Override
+    public Map<String, LanguageET> findLanguagesByCountries(final Collection<String> countryShortNames) {
+        Preconditions.checkNotNull(countryShortNames, "Country short names must not be null");
+        // all short names are looked up in the same snapshot.
+        return this.snapshot.get().countriesWithLanguage.getAll(countryShortNames, LanguageKeys::countryKey);
+    }
+
+    @Override
+    public Set<String> findCountriesByLanguage(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        return LanguageKeys.shortNames(this.snapshot.get().countriesByLanguage.get(LanguageKeys.languageKey(shortName)));
+    }
+
+    @Override
+    public Map<String, List<CountryLanguageET>> findAllCountryLanguages() {
+        final Snapshot current = this.snapshot.get();
+        return CountryLanguageGraph.byCountry(current.relations.all(CountryLanguageGraph.toET(current.languages::get)));
+    }
+
+    @Override
+    public List<CountryLanguageET> findLanguagesOfCountry(final String countryShortName) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        final Snapshot current = this.snapshot.get();
+        return current.relations.ofCountry(LanguageKeys.countryKey(countryShortName), CountryLanguageGraph.toET(current.languages::get));
+    }
+
+    @Override
+    public List<CountryLanguageET> findCountriesOfLanguage(final String shortName) {
+        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+        final Snapshot current = this.snapshot.get();
+        return current.relations.ofLanguage(LanguageKeys.languageKey(shortName), CountryLanguageGraph.toET(current.languages::get));
+    }
+
+    @Override
+    public CountryLanguageET createCountryLanguage(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        final int countryKey = LanguageKeys.countryKey(countryLanguage.getCountryShortName());
+        final int languageKey = LanguageKeys.languageKey(countryLanguage.getLanguage().getShortName());
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = this.snapshot.get();
+            final boolean languageExisting = current.languages.get(languageKey) != null;
+            if(languageExisting && current.relations.contains(countryKey, languageKey)) {
+                return current.relations.get(countryKey, languageKey, CountryLanguageGraph.toET(current.languages::get));
+            } // else: add the language if necessary and the relation in one step.
+            LanguageCodeMap<LanguageET> languages = current.languages;
+            int[] languageOrder = current.languageOrder;
+            LanguageNameIndex names = current.names;
+            if(!languageExisting) {
+                languages = current.languages.copy();
+                languages.put(languageKey, countryLanguage.getLanguage());
+                languageOrder = LanguageKeys.addKey(languageOrder, languageKey);
+                names = current.names.withAll(Collections.singletonList(countryLanguage.getLanguage()));
+            }
+            updated = new Snapshot(current.version + 1, languages, languageOrder, current.countriesWithLanguage, current.countryOrder,
+                                   current.countriesByLanguage, current.relations.withAll(Collections.singletonList(countryLanguage)), names);
+        } while(!this.snapshot.compareAndSet(current, updated));
+        return updated.relations.get(countryKey, languageKey, CountryLanguageGraph.toET(updated.languages::get));
+    }
+
+    @Override
+    public CountryLanguageET createLanguageOfCountry(final CountryLanguageET countryLanguage) {
+        CountryLanguageGraph.checkRelation(countryLanguage);
+        // the relation is published before the country, so a reader never sees the new country without its relation.
+        final CountryLanguageET storedRelation = createCountryLanguage(countryLanguage);
+        createCountryWithLanguage(countryLanguage.getCountryShortName(), storedRelation.getLanguage());
+        return storedRelation;
+    }
+
+    @Override
+    public void addAllCountryLanguages(final Collection<CountryLanguageET> countryLanguages) {
+        Preconditions.checkNotNull(countryLanguages, "Country languages must not be null");
+        countryLanguages.forEach(CountryLanguageGraph::checkRelation);
+        if(countryLanguages.isEmpty()) {
+            return;
+        } // else: copy the current snapshot once per attempt and publish all relations with one compare-and-set.
+        Snapshot current;
+        Snapshot updated;
+        do {
+            current = this.snapshot.get();
+            final LanguageCodeMap<LanguageET> updatedLanguages = current.languages.copy();
+            final int[] addedLanguageKeys = new int[countryLanguages.size()];
+            int addedLanguageCount = 0;
+            for(final CountryLanguageET countryLanguage : countryLanguages) {
+                final int languageKey = LanguageKeys.languageKey(countryLanguage.getLanguage().getShortName());
+                if(updatedLanguages.putIfAbsent(languageKey, countryLanguage.getLanguage()) == null) {
+                    addedLanguageKeys[addedLanguageCount++] = languageKey;
+                }
+            }
+            final CountryLanguageGraph relations = current.relations.withAll(countryLanguages);
+            if(addedLanguageCount == 0 && relations == current.relations) {
+                return;
+            } // else: publish the added languages and relations.
+            final int[] languageOrder = LanguageKeys.addKeys(current.languageOrder, sortedKeys(addedLanguageKeys, addedLanguageCount));
+            updated = new Snapshot(current.version + 1, addedLanguageCount == 0 ? current.languages : updatedLanguages, languageOrder,
+                                   current.countriesWithLanguage, current.countryOrder, current.countriesByLanguage, relations,
+                                   current.names.withAll(languagesOf(updatedLanguages, addedLanguageKeys, addedLanguageCount)));
+        } while(!this.snapshot.compareAndSet(current, updated));
+    }
+
+    @Override
+    public List<LanguageET> findPage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final int afterKey = LanguageKeys.pageKey(after, LanguageKeys::languageKey);
+        final Snapshot current = this.snapshot.get();
+        final List<LanguageET> page = new ArrayList<>();
+        for(int i = LanguageKeys.indexAfter(current.languageOrder, afterKey); i < current.languageOrder.length && page.size() < limit; i++) {
+            page.add(current.languages.get(current.languageOrder[i]));
+        }
+        return page;
+    }
+
+    @Override
+    public Map<String, LanguageET> findCountriesWithLanguagePage(final String after, final int limit) {
+        Preconditions.checkArgument(limit > 0, LanguageKeys.LIMIT_POSITIVE);
+        final int afterKey = LanguageKeys.pageKey(after, LanguageKeys::countryKey);
+        final Snapshot current = this.snapshot.get();
+        final Map<String, LanguageET> page = new LinkedHashMap<>();
+        for(int i = LanguageKeys.indexAfter(current.countryOrder, afterKey); i < current.countryOrder.length && page.size() < limit; i++) {
+            page.put(LanguageKeys.shortName(current.countryOrder[i]), current.countriesWithLanguage.get(current.countryOrder[i]));
+        }
+        return page;
+    }
+
+    @Override
+    public long getVersion() {
+        return this.snapshot.get().version;
+    }
+
+    @Override
+    public long estimateMemory() {
+        final Snapshot current = this.snapshot.get();
+        return StorageFootprint.slots(current.languages) + StorageFootprint.languages(current.languages)
+               + StorageFootprint.keyArray(current.languageOrder.length)
+               + StorageFootprint.slots(current.countriesWithLanguage) + StorageFootprint.keyArray(current.countryOrder.length)
+               + StorageFootprint.slots(current.countriesByLanguage) + StorageFootprint.keyArrays(current.countriesByLanguage)
+               + current.relations.estimateMemory() + current.names.estimateMemory();
+    }
+
+    /**
+     * Get the languages with the first keys of the given array.
+     *
+     * @param languages the languages by their key.
+     * @param keys the keys of the languages.
+     * @param count the number of keys.
+     * @return the languages as {@link List} of {@link LanguageET}s.
+     */
+    private static List<LanguageET> languagesOf(final LanguageCodeMap<LanguageET> languages, final int[] keys, final int count) {
+        final List<LanguageET> found = new ArrayList<>(count);
+        for(int i = 0; i < count; i++) {
+            found.add(languages.get(keys[i]));
+        }
+        return found;
+    }
+
+    /**
+     * Sort the first keys of the given array.
+     *
+     * @param keys the keys (sorted in place).
+     * @param count the number of keys to be sorted.
+     * @return the sorted keys as new array of length {@code count}.
+     */
+    private static int[] sortedKeys(final int[] keys, final int count) {
+        final int[] sortedKeys = Arrays.copyOf(keys, count);
+        Arrays.sort(sortedKeys);
+        return sortedKeys;
+    }
+
+    /**
+     * An immutable state of all languages, countries with their language and relations between countries and languages including the lookup indexes.
+     * Is never changed after publishing, so it can be read by any number of threads.
+     * Unchanged indexes are shared between consecutive snapshots.
+     */
+    private static final class Snapshot {
+        /**
+         * The data version of this snapshot, increased by one with each published snapshot.
+         */
+        private final long version;
+        /**
+         * Index of all known languages by their packed short name (see {@link LanguageKeys#languageKey(String)}).
+         */
+        private final LanguageCodeMap<LanguageET> languages;
+        /**
+         * The packed short names of all languages in ascending order, i.e. ordered by their lower case short name.
+         */
+        private final int[] languageOrder;
+        /**
+         * All relations between packed country short names (key, see {@link LanguageKeys#countryKey(String)}) and languages (value).
+         */
+        private final LanguageCodeMap<LanguageET> countriesWithLanguage;
+        /**
+         * The packed short names of all countries in ascending order, i.e. ordered by their upper case short name.
+         */
+        private final int[] countryOrder;
+        /**
+         * Reverse index from packed language short names (key) to the sorted packed short names of the countries using the language (value).
+         */
+        private final LanguageCodeMap<int[]> countriesByLanguage;
+        /**
+         * All relations between countries and their languages, the languages of the relations are contained in {@link #languages}.
+         */
+        private final CountryLanguageGraph relations;
+        /**
+         * The {@link LanguageNameIndex} of all languages of {@link #languages}.
+         */
+        private final LanguageNameIndex names;
+        /**
+         * Unmodifiable {@link Set} view of {@link #languages} to be handed out.
+         */
+        private final Set<LanguageET> languagesView;
+        /**
+         * Unmodifiable {@link Map} view of {@link #countriesWithLanguage} to be handed out.
+         */
+        private final Map<String, LanguageET> countriesWithLanguageView;
+
+        /**
+         * Constructor.
+         *
+         * @param version the data version of this snapshot.
+         * @param languages the languages of this snapshot (must not be changed afterwards).
+         * @param languageOrder the sorted keys of the languages (must not be changed afterwards).
+         * @param countriesWithLanguage the countries with their language of this snapshot (must not be changed afterwards).
+         * @param countryOrder the sorted keys of the countries (must not be changed afterwards).
+         * @param countriesByLanguage the countries by their language of this snapshot (must not be changed afterwards).
+         * @param relations the relations between countries and their languages of this snapshot.
+         * @param names the index of the names of all languages of this snapshot.
+         */
+        private Snapshot(final long version, final LanguageCodeMap<LanguageET> languages, final int[] languageOrder,
+                        final LanguageCodeMap<LanguageET> countriesWithLanguage, final int[] countryOrder, final LanguageCodeMap<int[]> countriesByLanguage,
+                        final CountryLanguageGraph relations, final LanguageNameIndex names) {
+            this.version = version;
+            this.languages = languages;
+            this.languageOrder = languageOrder;
+            this.countriesWithLanguage = countriesWithLanguage;
+            this.countryOrder = countryOrder;
+            this.countriesByLanguage = countriesByLanguage;
+            this.relations = relations;
+            this.names = names;
+            this.languagesView = LanguageCodeViews.valueSet(languages, LanguageKeys::languageKeyOf);
+            this.countriesWithLanguageView = LanguageCodeViews.map(countriesWithLanguage, LanguageKeys::countryKeyOf);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+
+/**
+ * A simple helper class to estimate the heap memory retained by the storages, assuming a 64 bit JVM with compressed references
+ * and compact strings. The estimate is meant for sizing and trends, not for exact accounting.
+ *
+ * @author Felix Riess
+ * @since 13.02.20
+ */
+final class StorageFootprint {
+    /**
+     * The size of an object header.
+     */
+    private static final long OBJECT_HEADER_BYTES = 12;
+    /**
+     * The size of an array header including the length.
+     */
+    private static final long ARRAY_HEADER_BYTES = 16;
+    /**
+     * The size of a compressed reference.
+     */
+    private static final long REFERENCE_BYTES = 4;
+    /**
+     * The size of a {@link String} object without its characters (header, value reference, hash and coder).
+     */
+    private static final long STRING_BYTES = 24;
+    /**
+     * The size of an entry of a {@link java.util.concurrent.ConcurrentSkipListSet} of {@link Integer}s, i.e. node, boxed key and the average index nodes.
+     */
+    static final long SKIP_LIST_ENTRY_BYTES = 64;
+    /**
+     * The size of a boxed {@link Double}.
+     */
+    private static final long DOUBLE_BYTES = 16;
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private StorageFootprint() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "StorageFootprint is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Estimate the memory of the slots of the given table, without the values.
+     *
+     * @param table the {@link LanguageCodeTable}.
+     * @return the estimated bytes.
+     */
+    static long slots(final LanguageCodeTable<?> table) {
+        long bytes = 0;
+        for(final LanguageCodeSegment<?> segment : table.segments()) {
+            bytes += OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES + Integer.BYTES + ARRAY_HEADER_BYTES * 2 + segment.capacity() * (Integer.BYTES + REFERENCE_BYTES);
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimate the memory of the given languages, i.e. the {@link LanguageET}s and their names.
+     *
+     * @param languages the {@link LanguageCodeTable} holding the languages.
+     * @return the estimated bytes.
+     */
+    static long languages(final LanguageCodeTable<LanguageET> languages) {
+        long bytes = 0;
+        for(final LanguageCodeSegment<LanguageET> segment : languages.segments()) {
+            for(int slot = 0; slot < segment.capacity(); slot++) {
+                if(segment.keyAt(slot) != LanguageKeys.NO_KEY) {
+                    bytes += language(segment.valueAt(slot));
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimate the memory of the given language, i.e. the {@link LanguageET} and its names.
+     *
+     * @param language the {@link LanguageET}.
+     * @return the estimated bytes.
+     */
+    static long language(final LanguageET language) {
+        return align(OBJECT_HEADER_BYTES + 2 * REFERENCE_BYTES) + string(language.getShortName()) + string(language.getName());
+    }
+
+    /**
+     * Estimate the memory of the given relation, i.e. the {@link CountryLanguageET}, its country short name and its share, without the shared language.
+     *
+     * @param countryLanguage the {@link CountryLanguageET}.
+     * @return the estimated bytes.
+     */
+    static long countryLanguage(final CountryLanguageET countryLanguage) {
+        return align(OBJECT_HEADER_BYTES + 4 * REFERENCE_BYTES) + string(countryLanguage.getCountryShortName())
+               + (countryLanguage.getPopulationShare() != null ? DOUBLE_BYTES : 0);
+    }
+
+    /**
+     * Estimate the memory of the given table of key arrays.
+     *
+     * @param keys the {@link LanguageCodeTable} holding the key arrays.
+     * @return the estimated bytes.
+     */
+    static long keyArrays(final LanguageCodeTable<int[]> keys) {
+        long bytes = 0;
+        for(final LanguageCodeSegment<int[]> segment : keys.segments()) {
+            for(int slot = 0; slot < segment.capacity(); slot++) {
+                if(segment.keyAt(slot) != LanguageKeys.NO_KEY) {
+                    bytes += keyArray(segment.valueAt(slot).length);
+                }
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimate the memory of a key array.
+     *
+     * @param length the length of the array.
+     * @return the estimated bytes.
+     */
+    static long keyArray(final int length) {
+        return primitiveArray(length, Integer.BYTES);
+    }
+
+    /**
+     * Estimate the memory of an array of primitive values.
+     *
+     * @param length the length of the array.
+     * @param elementBytes the size of each element.
+     * @return the estimated bytes.
+     */
+    static long primitiveArray(final int length, final int elementBytes) {
+        return align(ARRAY_HEADER_BYTES + (long) length * elementBytes);
+    }
+
+    /**
+     * Estimate the memory of a reference array.
+     *
+     * @param length the length of the array.
+     * @return the estimated bytes.
+     */
+    static long referenceArray(final int length) {
+        return align(ARRAY_HEADER_BYTES + length * REFERENCE_BYTES);
+    }
+
+    /**
+     * Estimate the memory of a {@link String} with only latin-1 characters.
+     *
+     * @param value the {@link String}.
+     * @return the estimated bytes.
+     */
+    static long string(final String value) {
+        return STRING_BYTES + align(ARRAY_HEADER_BYTES + value.length());
+    }
+
+    /**
+     * Align the given size to the object alignment of 8 bytes.
+     *
+     * @param bytes the size.
+     * @return the aligned size.
+     */
+    private static long align(final long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
@@ -0,0 +1,22 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+/**
+ * The selectable strategies of the {@link LanguageRuntimeStorage}.
+ * Configured with the property {@code language.storage.strategy}.
+ *
+ * @author Felix Riess
+ * @since 27.01.20
+ */
+public enum StorageStrategy {
+    /**
+     * Immutable copy-on-write snapshots published through a single atomic reference (see {@link SnapshotLanguageStorage}).
+     * Reads never lock, writes copy the data. Best suited for read-heavy usage.
+     */
+    SNAPSHOT,
+    /**
+     * Concurrent hash based collections and skip lists changed in place (see {@link ConcurrentLanguageStorage}).
+     * Reads never lock, writes lock only a stripe of the hash tables and copy nothing but a stripe which has to grow. Best suited for write-heavy usage.
+     */
+    CONCURRENT,
+    ;
+}
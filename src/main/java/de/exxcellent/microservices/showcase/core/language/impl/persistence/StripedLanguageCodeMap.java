@@ -0,0 +1,272 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe {@link LanguageCodeTable} split into stripes, each an open-addressing table with linear probing like the {@link LanguageCodeMap}.
+ * Writes lock only the stripe of their key and change its table in place, so writes to different stripes do not interfere and a write copies nothing
+ * but the table of its stripe when it has to grow. Reads never lock: the value of a slot is set before its key, so a reader finding a key also sees its value.
+ * Iterating over the {@link #segments()} is weakly consistent: it sees the entries added before and may see entries added during the iteration.
+ *
+ * @param <V> the type of the values.
+ * @author Felix Riess
+ * @since 29.01.20
+ */
+final class StripedLanguageCodeMap<V> implements LanguageCodeTable<V> {
+    /**
+     * The number of stripes (must be a power of two).
+     */
+    private static final int STRIPES = 16;
+    /**
+     * The initial capacity of the table of each stripe (must be a power of two).
+     */
+    private static final int INITIAL_CAPACITY = 8;
+    /**
+     * The stripes, each guarded by its own monitor.
+     */
+    private final List<Stripe<V>> stripes = new ArrayList<>(STRIPES);
+
+    /**
+     * Constructor.
+     */
+    StripedLanguageCodeMap() {
+        for(int i = 0; i < STRIPES; i++) {
+            this.stripes.add(new Stripe<>());
+        }
+    }
+
+    @Override
+    public V get(final int key) {
+        return key == LanguageKeys.NO_KEY ? null : this.stripes.get(stripe(key)).table.get(key);
+    }
+
+    /**
+     * Associate the given value with the given key if the key is not existing yet.
+     *
+     * @param key the key (not {@link LanguageKeys#NO_KEY}).
+     * @param value the value (not {@code null}).
+     * @return the existing value of the key or {@code null} if the value was added.
+     */
+    V putIfAbsent(final int key, final V value) {
+        final Stripe<V> stripe = this.stripes.get(stripe(key));
+        final V existingValue = stripe.table.get(key);
+        if(existingValue != null) {
+            return existingValue;
+        } // else: check again while holding the lock of the stripe.
+        synchronized(stripe) {
+            final V lockedValue = stripe.table.get(key);
+            if(lockedValue == null) {
+                stripe.put(key, value);
+            }
+            return lockedValue;
+        }
+    }
+
+    /**
+     * Associate all values of the given map with their keys if the keys are not existing yet.
+     * Each stripe is locked once, the entries become visible one by one.
+     *
+     * @param entries the entries to be added (not changed).
+     * @return the entries which were added.
+     */
+    LanguageCodeMap<V> putAllIfAbsent(final LanguageCodeMap<V> entries) {
+        final LanguageCodeMap<V> added = new LanguageCodeMap<>(entries.size());
+        final int[][] slotsByStripe = slotsByStripe(entries);
+        for(int i = 0; i < STRIPES; i++) {
+            final int[] slots = slotsByStripe[i];
+            if(slots.length == 0) {
+                continue;
+            } // else: lock the stripe once and add all of its entries.
+            final Stripe<V> stripe = this.stripes.get(i);
+            synchronized(stripe) {
+                for(final int slot : slots) {
+                    final int key = entries.keyAt(slot);
+                    if(stripe.table.get(key) == null) {
+                        stripe.put(key, entries.valueAt(slot));
+                        added.put(key, entries.valueAt(slot));
+                    }
+                }
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Group the used slots of the given map by the stripe of their key.
+     *
+     * @param entries the map.
+     * @return the used slots of the map by stripe.
+     */
+    private static int[][] slotsByStripe(final LanguageCodeMap<?> entries) {
+        final int[] counts = new int[STRIPES];
+        for(int slot = 0; slot < entries.capacity(); slot++) {
+            if(entries.keyAt(slot) != LanguageKeys.NO_KEY) {
+                counts[stripe(entries.keyAt(slot))]++;
+            }
+        }
+        final int[][] slotsByStripe = new int[STRIPES][];
+        for(int stripe = 0; stripe < STRIPES; stripe++) {
+            slotsByStripe[stripe] = new int[counts[stripe]];
+            counts[stripe] = 0;
+        }
+        for(int slot = 0; slot < entries.capacity(); slot++) {
+            if(entries.keyAt(slot) != LanguageKeys.NO_KEY) {
+                final int stripe = stripe(entries.keyAt(slot));
+                slotsByStripe[stripe][counts[stripe]++] = slot;
+            }
+        }
+        return slotsByStripe;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for(final Stripe<V> stripe : this.stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+
+    @Override
+    public List<LanguageCodeSegment<V>> segments() {
+        final List<LanguageCodeSegment<V>> segments = new ArrayList<>(STRIPES);
+        for(final Stripe<V> stripe : this.stripes) {
+            segments.add(stripe.table);
+        }
+        return segments;
+    }
+
+    /**
+     * Get the stripe of the given key. Uses the upper bits of the hash, the tables of the stripes use the lower ones.
+     *
+     * @param key the key.
+     * @return the index of the stripe.
+     */
+    private static int stripe(final int key) {
+        return LanguageCodeMap.hash(key) >>> (Integer.SIZE - Integer.numberOfTrailingZeros(STRIPES));
+    }
+
+    /**
+     * A stripe with its current table. Writers hold the monitor of the stripe.
+     *
+     * @param <V> the type of the values.
+     */
+    private static final class Stripe<V> {
+        /**
+         * The current table, replaced by a larger one when it is half full.
+         */
+        private volatile Table<V> table = new Table<>(INITIAL_CAPACITY);
+        /**
+         * The number of keys, only written while holding the monitor.
+         */
+        private volatile int size;
+
+        /**
+         * Associate the given value with the given key. Must hold the monitor of this stripe.
+         *
+         * @param key the key (not {@link LanguageKeys#NO_KEY}).
+         * @param value the value (not {@code null}).
+         */
+        private void put(final int key, final V value) {
+            Table<V> current = this.table;
+            if((this.size + 1) * 2 > current.capacity()) {
+                current = current.grow();
+                this.table = current;
+            }
+            if(current.put(key, value)) {
+                this.size++;
+            }
+        }
+    }
+
+    /**
+     * An open-addressing table whose slots are read and written atomically.
+     *
+     * @param <V> the type of the values.
+     */
+    private static final class Table<V> implements LanguageCodeSegment<V> {
+        private final AtomicIntegerArray keys;
+        private final AtomicReferenceArray<V> values;
+
+        private Table(final int capacity) {
+            this.keys = new AtomicIntegerArray(capacity);
+            this.values = new AtomicReferenceArray<>(capacity);
+        }
+
+        /**
+         * Get the value of the given key.
+         *
+         * @param key the key (not {@link LanguageKeys#NO_KEY}).
+         * @return the value or {@code null} if the key is not existing.
+         */
+        private V get(final int key) {
+            final int mask = this.keys.length() - 1;
+            int slot = LanguageCodeMap.hash(key) & mask;
+            while(true) {
+                final int existingKey = this.keys.get(slot);
+                if(existingKey == key) {
+                    return this.values.get(slot);
+                } else if(existingKey == LanguageKeys.NO_KEY) {
+                    return null;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Associate the given value with the given key. The table must have a free slot. Must hold the monitor of the stripe.
+         *
+         * @param key the key (not {@link LanguageKeys#NO_KEY}).
+         * @param value the value (not {@code null}).
+         * @return {@code true} if the key was added, {@code false} if its value was replaced.
+         */
+        private boolean put(final int key, final V value) {
+            final int mask = this.keys.length() - 1;
+            int slot = LanguageCodeMap.hash(key) & mask;
+            while(this.keys.get(slot) != LanguageKeys.NO_KEY && this.keys.get(slot) != key) {
+                slot = (slot + 1) & mask;
+            }
+            // the value is set before the key, so readers finding the key also find the value.
+            this.values.set(slot, value);
+            if(this.keys.get(slot) == LanguageKeys.NO_KEY) {
+                this.keys.set(slot, key);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Create a table of twice the capacity with all entries of this table. Must hold the monitor of the stripe.
+         *
+         * @return the new table.
+         */
+        private Table<V> grow() {
+            final Table<V> grown = new Table<>(capacity() * 2);
+            for(int slot = 0; slot < capacity(); slot++) {
+                final int key = this.keys.get(slot);
+                if(key != LanguageKeys.NO_KEY) {
+                    grown.put(key, this.values.get(slot));
+                }
+            }
+            return grown;
+        }
+
+        @Override
+        public int capacity() {
+            return this.keys.length();
+        }
+
+        @Override
+        public int keyAt(final int slot) {
+            return this.keys.get(slot);
+        }
+
+        @Override
+        public V valueAt(final int slot) {
+            return this.values.get(slot);
+        }
+    }
+}
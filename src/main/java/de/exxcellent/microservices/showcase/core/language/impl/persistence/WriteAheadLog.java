@@ -0,0 +1,355 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of the writes of a {@link LanguageRepository}, split into segment files named by the sequence number of their first record.
+ * Each record is framed by its length and a CRC-32 checksum, so a record torn by a crash is detected and cut off on recovery.
+ * <p>
+ * Appending only writes to the file, {@link #sync(long)} makes the records durable: concurrent writers waiting for their records
+ * share one {@code fsync} (group commit), as each {@code fsync} covers all records appended before it.
+ * Lock order: {@link #syncLock} before the monitor of this log.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class WriteAheadLog {
+    /**
+     * The {@link Logger} of this {@link WriteAheadLog}.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(WriteAheadLog.class);
+    /**
+     * Prefix of the segment file names.
+     */
+    private static final String SEGMENT_PREFIX = "wal-";
+    /**
+     * Suffix of the segment file names.
+     */
+    private static final String SEGMENT_SUFFIX = ".log";
+    /**
+     * Number of bytes of the frame of each record: length and checksum.
+     */
+    private static final int FRAME_BYTES = 2 * Integer.BYTES;
+    /**
+     * The directory of the segment files.
+     */
+    private final Path directory;
+    /**
+     * Serializes the {@code fsync}s, writers waiting for it are covered by the running {@code fsync} or the next one.
+     */
+    private final Lock syncLock = new ReentrantLock();
+    /**
+     * The segment records are appended to, {@code null} if not opened yet or closed.
+     */
+    private FileChannel segment;
+    /**
+     * The sequence number of the next appended record.
+     */
+    private long nextSequence;
+    /**
+     * All records before this sequence number are durable.
+     */
+    private volatile long durableSequence;
+
+    /**
+     * Constructor.
+     *
+     * @param directory the directory of the segment files (must exist).
+     */
+    WriteAheadLog(final Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Replay all records starting with the given sequence number. A torn or corrupt record at the end of the last segment is cut off,
+     * as it was not acknowledged to a writer yet.
+     *
+     * @param fromSequence the sequence number of the first record to be replayed, all records before are contained in the snapshot.
+     * @param replay consumes each record from its position to its limit.
+     * @return the sequence number following the last replayed record.
+     * @exception TechnicalException if a segment cannot be read, a record before the last segment is corrupt or records are missing.
+     */
+    long recover(final long fromSequence, final Consumer<ByteBuffer> replay) {
+        final List<Long> segments = listSegments();
+        long sequence = fromSequence;
+        for(int i = 0; i < segments.size(); i++) {
+            final long firstSequence = segments.get(i);
+            if(firstSequence > sequence) {
+                throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Write-ahead log is missing the records from " + sequence + " to " + (firstSequence - 1));
+            } // else: the segment continues the recovered data.
+            sequence = Math.max(sequence, replaySegment(segmentPath(firstSequence), firstSequence, fromSequence, i == segments.size() - 1, replay));
+        }
+        return sequence;
+    }
+
+    /**
+     * Replay the records of one segment.
+     *
+     * @param path the path of the segment.
+     * @param firstSequence the sequence number of the first record of the segment.
+     * @param fromSequence the sequence number of the first record to be replayed.
+     * @param last {@code true} if it is the last segment, which may end with a torn record.
+     * @param replay consumes each record.
+     * @return the sequence number following the last record of the segment.
+     */
+    private static long replaySegment(final Path path, final long firstSequence, final long fromSequence, final boolean last, final Consumer<ByteBuffer> replay) {
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final MappedByteBuffer records = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            final CRC32 checksum = new CRC32();
+            long sequence = firstSequence;
+            while(records.hasRemaining()) {
+                final int position = records.position();
+                final ByteBuffer record = nextRecord(records, checksum);
+                if(record == null) {
+                    if(!last) {
+                        throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Corrupt record " + sequence + " in write-ahead log segment " + path);
+                    } // else: the last write was torn by a crash and was never acknowledged.
+                    LOG.warn("Cutting off torn record {} at byte {} of write-ahead log segment {}", sequence, position, path);
+                    channel.truncate(position);
+                    channel.force(true);
+                    break;
+                } // else: the record is complete.
+                if(sequence >= fromSequence) {
+                    replay.accept(record);
+                }
+                sequence++;
+            }
+            return sequence;
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not read write-ahead log segment " + path, e);
+        }
+    }
+
+    /**
+     * Read the next record and verify its checksum.
+     *
+     * @param records the records, positioned at the frame of the next record. Positioned after the record if it is complete.
+     * @param checksum the {@link CRC32} to use.
+     * @return the record or {@code null} if the record is torn or corrupt.
+     */
+    private static ByteBuffer nextRecord(final ByteBuffer records, final CRC32 checksum) {
+        if(records.remaining() < FRAME_BYTES) {
+            return null;
+        } // else: read the frame.
+        final int length = records.getInt();
+        final int expectedChecksum = records.getInt();
+        if(length <= 0 || length > records.remaining()) {
+            return null;
+        } // else: verify the record.
+        final ByteBuffer record = records.slice();
+        record.limit(length);
+        checksum.reset();
+        checksum.update(record.duplicate());
+        if((int) checksum.getValue() != expectedChecksum) {
+            return null;
+        } // else: the record is complete.
+        records.position(records.position() + length);
+        return record;
+    }
+
+    /**
+     * Open a new segment for appending records. The directory is synced, so the segment survives a crash even before its first record was synced.
+     *
+     * @param firstSequence the sequence number of the first record to be appended.
+     */
+    synchronized void open(final long firstSequence) {
+        try {
+            this.segment = FileChannel.open(segmentPath(firstSequence), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            syncDirectory(this.directory);
+            this.nextSequence = firstSequence;
+            this.durableSequence = firstSequence;
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not create write-ahead log segment in " + this.directory, e);
+        }
+    }
+
+    /**
+     * Append a record. The record is not durable before {@link #sync(long)} returned for its sequence number.
+     *
+     * @param record the record.
+     * @return the sequence number of the record.
+     * @exception IllegalStateException if the log is not open.
+     */
+    synchronized long append(final byte[] record) {
+        checkOpen();
+        final CRC32 checksum = new CRC32();
+        checksum.update(record, 0, record.length);
+        final ByteBuffer frame = ByteBuffer.allocate(FRAME_BYTES + record.length);
+        frame.putInt(record.length).putInt((int) checksum.getValue()).put(record).flip();
+        try {
+            while(frame.hasRemaining()) {
+                this.segment.write(frame);
+            }
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not append to write-ahead log", e);
+        }
+        return this.nextSequence++;
+    }
+
+    /**
+     * Wait until the record with the given sequence number is durable. One {@code fsync} covers all records appended before it.
+     *
+     * @param sequence the sequence number of the record.
+     * @exception IllegalStateException if the log was closed before the record was durable.
+     */
+    void sync(final long sequence) {
+        if(sequence < this.durableSequence) {
+            return;
+        } // else: fsync or wait for the running fsync.
+        this.syncLock.lock();
+        try {
+            if(sequence < this.durableSequence) {
+                return;
+            } // else: all records appended up to now are made durable.
+            final FileChannel current;
+            final long appendedSequence;
+            synchronized(this) {
+                checkOpen();
+                current = this.segment;
+                appendedSequence = this.nextSequence;
+            }
+            current.force(false);
+            this.durableSequence = appendedSequence;
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not sync write-ahead log", e);
+        } finally {
+            this.syncLock.unlock();
+        }
+    }
+
+    /**
+     * Make all appended records durable and continue with a new segment, so the previous segments can be deleted after a snapshot.
+     *
+     * @return the sequence number of the first record of the new segment.
+     * @exception IllegalStateException if the log is not open.
+     */
+    long rollover() {
+        this.syncLock.lock();
+        try {
+            synchronized(this) {
+                checkOpen();
+                this.segment.force(false);
+                this.segment.close();
+                this.durableSequence = this.nextSequence;
+                open(this.nextSequence);
+                return this.nextSequence;
+            }
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not roll over write-ahead log", e);
+        } finally {
+            this.syncLock.unlock();
+        }
+    }
+
+    /**
+     * Delete all segments starting before the given sequence number, as their records are contained in a snapshot.
+     *
+     * @param sequence the sequence number of the first record not contained in the snapshot, must start a segment (see {@link #rollover()}).
+     */
+    void deleteSegmentsBefore(final long sequence) {
+        for(final Long firstSequence : listSegments()) {
+            if(firstSequence < sequence) {
+                try {
+                    Files.deleteIfExists(segmentPath(firstSequence));
+                } catch(final IOException e) {
+                    LOG.warn("Could not delete write-ahead log segment {}: {}", segmentPath(firstSequence), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Make all appended records durable and close the log.
+     */
+    void close() {
+        this.syncLock.lock();
+        try {
+            synchronized(this) {
+                if(this.segment != null) {
+                    this.segment.force(false);
+                    this.segment.close();
+                    this.segment = null;
+                    this.durableSequence = this.nextSequence;
+                }
+            }
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not close write-ahead log", e);
+        } finally {
+            this.syncLock.unlock();
+        }
+    }
+
+    /**
+     * Make the creation, renaming and deletion of files in the given directory durable by syncing the directory itself.
+     * Some platforms (e.g. Windows) cannot open a directory as {@link FileChannel}; there the file system makes these changes durable
+     * with its metadata journal, so the sync is skipped.
+     *
+     * @param directory the directory.
+     * @exception IOException if the directory cannot be synced.
+     */
+    static void syncDirectory(final Path directory) throws IOException {
+        final FileChannel channel;
+        try {
+            channel = FileChannel.open(directory, StandardOpenOption.READ);
+        } catch(final IOException e) {
+            LOG.debug("Cannot open directory {} to sync it, relying on the file system: {}", directory, e.getMessage());
+            return;
+        }
+        try(FileChannel opened = channel) {
+            opened.force(true);
+        }
+    }
+
+    /**
+     * Check that records can be appended. Must hold the monitor of this log.
+     *
+     * @exception IllegalStateException if the log is not opened yet or closed.
+     */
+    private void checkOpen() {
+        if(this.segment == null) {
+            throw new IllegalStateException("Write-ahead log in " + this.directory + " is closed");
+        } // else: the log is open.
+    }
+
+    /**
+     * List the sequence numbers of the first records of all segments.
+     *
+     * @return the sequence numbers in ascending order.
+     */
+    private List<Long> listSegments() {
+        final List<Long> segments = new ArrayList<>();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for(final Path file : files) {
+                final String name = file.getFileName().toString();
+                segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())));
+            }
+        } catch(final IOException | NumberFormatException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not list write-ahead log segments in " + this.directory, e);
+        }
+        Collections.sort(segments);
+        return segments;
+    }
+
+    private Path segmentPath(final long firstSequence) {
+        return this.directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+}
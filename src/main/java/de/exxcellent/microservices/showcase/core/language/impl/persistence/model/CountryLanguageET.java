@@ -0,0 +1,122 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence.model;
+
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * The entity type (ET) for the relation between a country and one of its languages.
+ * A country can have any number of languages and a language can be used in any number of countries.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public class CountryLanguageET implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = -2265146407530542193L;
+    /**
+     * the short name of the country (3 characters).
+     */
+    private final String countryShortName;
+    /**
+     * the language used in the country.
+     */
+    private final LanguageET language;
+    /**
+     * {@code true} if the language is an official language of the country, {@code null} if unknown.
+     */
+    private final Boolean official;
+    /**
+     * the share of the population of the country speaking the language in percent, {@code null} if unknown.
+     */
+    private final Double populationShare;
+
+    /**
+     * Constructor.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param language the language used in the country (must be valid, see {@link LanguageValidation#validateLanguageET(LanguageET)}).
+     * @param official {@code true} if the language is an official language of the country, {@code null} if unknown.
+     * @param populationShare the share of the population speaking the language in percent (0 to 100), {@code null} if unknown.
+     */
+    public CountryLanguageET(final String countryShortName, final LanguageET language, final Boolean official, final Double populationShare) {
+        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+        LanguageValidation.validateLanguageET(language);
+        LanguageValidation.checkPopulationShare(populationShare);
+        this.countryShortName = countryShortName;
+        this.language = language;
+        this.official = official;
+        this.populationShare = populationShare;
+    }
+
+    /**
+     * Get countryShortName
+     *
+     * @return value of countryShortName
+     */
+    public String getCountryShortName() {
+        return this.countryShortName;
+    }
+
+    /**
+     * Get language
+     *
+     * @return value of language
+     */
+    public LanguageET getLanguage() {
+        return this.language;
+    }
+
+    /**
+     * Get official
+     *
+     * @return value of official, {@code null} if unknown
+     */
+    public Boolean getOfficial() {
+        return this.official;
+    }
+
+    /**
+     * Get populationShare
+     *
+     * @return value of populationShare in percent, {@code null} if unknown
+     */
+    public Double getPopulationShare() {
+        return this.populationShare;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        CountryLanguageET that = (CountryLanguageET) o;
+        return Objects.equals(this.countryShortName, that.countryShortName) &&
+                Objects.equals(this.language, that.language) &&
+                Objects.equals(this.official, that.official) &&
+                Objects.equals(this.populationShare, that.populationShare);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.countryShortName, this.language, this.official, this.populationShare);
+    }
+
+    @Override
+    public String toString() {
+        return "CountryLanguageET{" +
+                "countryShortName='" + this.countryShortName + '\'' +
+                ", language=" + this.language +
+                ", official=" + this.official +
+                ", populationShare=" + this.populationShare +
+                '}';
+    }
+}
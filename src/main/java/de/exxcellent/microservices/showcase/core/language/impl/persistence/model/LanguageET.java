@@ -73,7 +73,8 @@ public class LanguageET implements Serializable {
 
     @Override
     public int hashCode() {
-        return Objects.hash(this.shortName, this.name);
+        // same result as Objects.hash(shortName, name) without allocating the varargs array. Both hash codes are cached by String.
+        return 31 * (31 + this.shortName.hashCode()) + this.name.hashCode();
     }
 
     @Override
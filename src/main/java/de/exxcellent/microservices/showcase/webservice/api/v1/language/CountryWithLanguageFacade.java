@@ -5,7 +5,15 @@ import de.exxcellent.microservices.showcase.common.errorhandling.exception.Busin
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
 import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
 import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
 import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.webservice.cache.ResponseCache;
+import de.exxcellent.microservices.showcase.webservice.cbor.CborCodec;
+import de.exxcellent.microservices.showcase.webservice.json.JsonCodec;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,75 +24,162 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Provides a REST API to manage countries with their languages.
+ * Each country has one language and can have further languages, which are added with {@code POST {countryShortName}/languages}.
+ * The resources produce and consume JSON (see {@link JsonCodec}) or, if requested with the {@code Accept} or {@code Content-Type} header, CBOR (see {@link CborCodec}).
+ * The read resources are handled by the {@link LanguageReadResources}, with {@link ExecutionMode#EVENT_LOOP} they are served by the {@link LanguageRoutes} instead.
  *
  * @author Felix Riess, eXXcellent solutions consulting & software gmbh
  * @since 22.01.2020
  */
 @Path("/api/v1/countries-with-language")
-@Consumes(MediaType.APPLICATION_JSON)
-@Produces(MediaType.APPLICATION_JSON)
+@Consumes({MediaType.APPLICATION_JSON, CborCodec.APPLICATION_CBOR})
+@Produces({MediaType.APPLICATION_JSON, CborCodec.APPLICATION_CBOR})
 public class CountryWithLanguageFacade {
     /**
      * The {@link Logger} of this {@link CountryWithLanguageFacade}.
      */
     private static final Logger LOG = LoggerFactory.getLogger(CountryWithLanguageFacade.class);
     private final LanguageBCI languageService;
+    /**
+     * The read resources shared with the {@link LanguageRoutes}.
+     */
+    private final LanguageReadResources readResources;
+    /**
+     * The {@link WriteResponseMode} of the write resources.
+     */
+    private final WriteResponseMode writeResponseMode;
 
     @Inject
-    CountryWithLanguageFacade(final LanguageBCI languageService) {
+    CountryWithLanguageFacade(final LanguageBCI languageService, final LanguageReadResources readResources,
+                              @ConfigProperty(name = "language.api.write-response", defaultValue = "CREATED") final WriteResponseMode writeResponseMode) {
         this.languageService = languageService;
+        this.readResources = readResources;
+        this.writeResponseMode = writeResponseMode;
     }
 
     /**
-     * Get all available countries with their language.
+     * Get all available countries with their language ordered by the country short name, a page of them or, if codes are given, the countries with the given short names.
      *
-     * @return a {@link Set} of countries with their language as {@link CountryWithLanguageCTO}.
+     * @param codes the short names of the countries to be looked up, comma separated (optional, see {@link LookupCodes}).
+     * @param cursor the cursor of the requested page as returned with the previous page (optional, see {@link Paging}).
+     * @param limit the maximum number of countries of the requested page (optional, see {@link Paging}).
+     * @param headers the {@link HttpHeaders} of the request, used for conditional and compressed responses.
+     * @return completes with a {@link Set} of countries with their language as {@link CountryWithLanguageCTO} or a page as {@link PageCTO} if cursor or limit are given
+     * (served from the {@link ResponseCache}), or the found countries and missing short names as {@link LookupResultCTO} if codes are given.
      * @exception BusinessException with {@link ErrorCode#EMPTY_LIST_ERROR} if no countries with their language are defined to produce HTTP 204.
      */
     @GET
-    public Set<CountryWithLanguageCTO> getCountriesWithLanguage() {
-        LOG.info("Resource to get countries with their language triggered");
-        final Set<CountryWithLanguageCTO> countriesWithLanguage = this.languageService.getCountriesWithLanguage();
-        if(countriesWithLanguage.isEmpty()) {
-            throw new BusinessException(ErrorCode.EMPTY_LIST_ERROR, "No countries with languages are available");
-        } else {
-            return countriesWithLanguage;
-        }
+    @Timed(name = EndpointMetrics.COUNTRIES_LIST, absolute = true, reusable = true)
+    public CompletionStage<Response> getCountriesWithLanguage(@QueryParam(LookupCodes.PARAMETER) final List<String> codes, @QueryParam(Paging.CURSOR) final String cursor,
+                                                              @QueryParam(Paging.LIMIT) final String limit, @Context final HttpHeaders headers) {
+        return this.readResources.getCountriesWithLanguage(codes, cursor, limit, headers::getHeaderString);
     }
 
     /**
      * Get the language of the country with the provided short name.
      *
      * @param countryShortName the short name of the country where the language should be returned (3 characters, not {@code null}).
-     * @return the language of the country with the provided short name as {@link CountryWithLanguageCTO}.
+     * @param headers the {@link HttpHeaders} of the request, used for conditional and compressed responses.
+     * @return completes with the language of the country with the provided short name as {@link CountryWithLanguageCTO} (served from the {@link ResponseCache}).
      */
     @GET
     @Path("{countryShortName}")
-    public CountryWithLanguageCTO getCountryWithLanguage(@PathParam("countryShortName") final String countryShortName) {
-        Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
-        Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
-        LOG.info("Resource to get language of country with short name {} triggered", countryShortName);
-        return this.languageService.getCountryWithLanguage(countryShortName);
+    @Timed(name = EndpointMetrics.COUNTRIES_GET, absolute = true, reusable = true)
+    public CompletionStage<Response> getCountryWithLanguage(@PathParam("countryShortName") final String countryShortName, @Context final HttpHeaders headers) {
+        return this.readResources.getCountryWithLanguage(countryShortName, headers::getHeaderString);
+    }
+
+    /**
+     * Get many countries with their language by their short names at once.
+     *
+     * @param countryShortNames the short names of the countries to be returned as JSON array (not {@code null}, at most {@link LanguageBCI#MAX_LOOKUP_CODES}).
+     * @return the found countries with their language and the missing short names as {@link LookupResultCTO}.
+     */
+    @POST
+    @Path("lookup")
+    @Timed(name = EndpointMetrics.COUNTRIES_LOOKUP, absolute = true)
+    public LookupResultCTO<CountryWithLanguageCTO> lookupCountriesWithLanguage(final List<String> countryShortNames) {
+        Preconditions.checkNotNull(countryShortNames, "Country short names must not be null");
+        LOG.debug("Resource to look up {} countries with their language triggered", countryShortNames.size());
+        return this.languageService.getCountriesWithLanguage(countryShortNames);
     }
 
     /**
      * Add a language to a country.
      *
-     * @param countryWithLanguage the information about the country and the language as {@link CountryWithLanguageCTO}.
-     * @return all available countries with their language as {@link Set} of {@link CountryWithLanguageCTO} including the new one.
+     * @param countryWithLanguage the information about the country and the language as {@link CountryWithLanguageCTO}
+     * (must be valid, see {@link LanguageValidation#validateCountryWithLanguageCTO(CountryWithLanguageCTO)}).
+     * @param uriInfo the {@link UriInfo} of the request to build the location of the created country.
+     * @return HTTP 201 with the location and the stored country with its language as {@link CountryWithLanguageCTO}, HTTP 200 with the stored country
+     * if the country was already existing and was not created or, with {@link WriteResponseMode#COLLECTION},
+     * all available countries with their language as {@link Set} of {@link CountryWithLanguageCTO} including the new one.
      */
     @POST
-    public Set<CountryWithLanguageCTO> createCountryWithLanguage(final CountryWithLanguageCTO countryWithLanguage) {
-        Preconditions.checkNotNull(countryWithLanguage, "Country with language must not be null");
-        Preconditions.checkNotNull(countryWithLanguage.getCountryShortName(), "Country short name must not be null");
-        Preconditions.checkStringLength(countryWithLanguage.getCountryShortName(), 3, "Country short name must have 3 characters");
-        LanguageValidation.validateLanguageTO(countryWithLanguage.getLanguage());
-        LOG.info("Resource to add language {} to country with short name {} triggered", countryWithLanguage.getLanguage().getName(), countryWithLanguage.getCountryShortName());
-        return this.languageService.addCountryWithLanguage(countryWithLanguage);
+    @Timed(name = EndpointMetrics.COUNTRIES_CREATE, absolute = true)
+    public Response createCountryWithLanguage(final CountryWithLanguageCTO countryWithLanguage, @Context final UriInfo uriInfo) {
+        LOG.info("Resource to add a language to a country triggered");
+        if(this.writeResponseMode == WriteResponseMode.COLLECTION) {
+            return Response.ok(new GenericEntity<Set<CountryWithLanguageCTO>>(this.languageService.addCountryWithLanguage(countryWithLanguage)) { }).build();
+        } // else: only respond with the created country.
+        final boolean existing = isExisting(countryWithLanguage);
+        final CountryWithLanguageCTO createdCountry = this.languageService.createCountryWithLanguage(countryWithLanguage);
+        if(existing) {
+            return Response.ok(createdCountry).build();
+        } // else: the country was created.
+        return Response.created(uriInfo.getAbsolutePathBuilder().path(createdCountry.getCountryShortName()).build())
+                       .entity(createdCountry)
+                       .build();
+    }
+
+    /**
+     * Add a further language to the languages of a country, which is created with this language if not existing.
+     *
+     * @param countryShortName the short name of the country (3 characters, not {@code null}).
+     * @param languageOfCountry the language with the attributes of its use in the country as {@link LanguageOfCountryTO}
+     * (must be valid, see {@link LanguageValidation#validateLanguageOfCountryTO(LanguageOfCountryTO)}).
+     * @param uriInfo the {@link UriInfo} of the request to build the location of the country.
+     * @return HTTP 201 with the location and the stored country with all its languages as {@link CountryWithLanguageCTO} or, with {@link WriteResponseMode#COLLECTION},
+     * all available countries with their languages as {@link Set} of {@link CountryWithLanguageCTO}.
+     */
+    @POST
+    @Path("{countryShortName}/languages")
+    @Timed(name = EndpointMetrics.COUNTRIES_ADD_LANGUAGE, absolute = true)
+    public Response addLanguageOfCountry(@PathParam("countryShortName") final String countryShortName, final LanguageOfCountryTO languageOfCountry,
+                                         @Context final UriInfo uriInfo) {
+        LOG.info("Resource to add a language to the languages of country with short name {} triggered", countryShortName);
+        final CountryWithLanguageCTO country = this.languageService.addLanguageOfCountry(countryShortName, languageOfCountry);
+        if(this.writeResponseMode == WriteResponseMode.COLLECTION) {
+            return Response.ok(new GenericEntity<Set<CountryWithLanguageCTO>>(this.languageService.getCountriesWithLanguage()) { }).build();
+        } // else: only respond with the country.
+        return Response.created(uriInfo.getBaseUriBuilder().path(CountryWithLanguageFacade.class).path(country.getCountryShortName()).build())
+                       .entity(country)
+                       .build();
+    }
+
+    /**
+     * Check if the country of the given country with language is already existing, so creating it does not create the country.
+     *
+     * @param countryWithLanguage the country to be created as {@link CountryWithLanguageCTO} (may be invalid, it is validated when created).
+     * @return {@code true} if a country with the short name of the given country is existing.
+     */
+    private boolean isExisting(final CountryWithLanguageCTO countryWithLanguage) {
+        if(countryWithLanguage == null || countryWithLanguage.getCountryShortName() == null) {
+            return false;
+        } // else: look up the short name, invalid short names are reported as missing.
+        return this.languageService.getCountriesWithLanguage(Collections.singletonList(countryWithLanguage.getCountryShortName())).getMissing().isEmpty();
     }
 }
@@ -0,0 +1,82 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A simple helper class for the display locale of the names of languages, chosen with the query parameter {@code locale} (e.g. {@code ?locale=de})
+ * or, if not present, with the {@code Accept-Language} header. The names are only localized if a supported display locale is chosen.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class DisplayLocales {
+    /**
+     * The name of the query parameter holding the language tag of the display locale.
+     */
+    static final String PARAMETER = "locale";
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private DisplayLocales() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "DisplayLocales is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Resolve the display locale of a request.
+     *
+     * @param locale the value of the locale parameter ({@code null} if not present).
+     * @param acceptLanguage the value of the {@code Accept-Language} header ({@code null} if not present).
+     * @param supported the language tags of the supported display locales (see {@link de.exxcellent.microservices.showcase.core.language.api.LanguageBCI#getDisplayLocales()}).
+     * @return the supported language tag equal to the locale parameter (ignoring the letter case), the locale parameter as given if not supported
+     * (to be rejected by the business facade), the best supported match of the {@code Accept-Language} header (see {@link Locale#lookupTag(List, java.util.Collection)})
+     * or {@code null} if the names are not to be localized.
+     */
+    static String resolve(final String locale, final String acceptLanguage, final List<String> supported) {
+        if(locale != null) {
+            for(final String tag : supported) {
+                if(tag.equalsIgnoreCase(locale.trim())) {
+                    return tag;
+                }
+            }
+            return locale;
+        } else if(acceptLanguage == null) {
+            return null;
+        } // else: look up the best match of the preferred languages.
+        try {
+            return Locale.lookupTag(Locale.LanguageRange.parse(acceptLanguage), supported);
+        } catch(final IllegalArgumentException e) {
+            // a malformed header is ignored like a missing one.
+            return null;
+        }
+    }
+
+    /**
+     * Get the key of a localized resource in the {@link de.exxcellent.microservices.showcase.webservice.cache.ResponseCache}.
+     *
+     * @param resource the key of the resource.
+     * @param locale the resolved display locale ({@code null} if not localized).
+     * @return the key of the localized resource.
+     */
+    static String cacheKey(final String resource, final String locale) {
+        return locale != null ? resource + (resource.indexOf('?') < 0 ? "?" : "&") + PARAMETER + "=" + locale : resource;
+    }
+
+    /**
+     * Add the {@code Accept-Language} header to the headers the given response varies on, if the display locale was resolved from it.
+     *
+     * @param response the {@link Response} of a localized resource.
+     * @param locale the value of the locale parameter ({@code null} if not present).
+     * @return the {@link Response} varying on the {@code Accept-Language} header if the locale parameter is not present, otherwise the given {@link Response}.
+     */
+    static Response vary(final Response response, final String locale) {
+        return locale != null ? response : Response.fromResponse(response).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE).build();
+    }
+}
@@ -0,0 +1,55 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricID;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.MetricUnits;
+import org.eclipse.microprofile.metrics.Timer;
+
+/**
+ * The names of the latency timers of the resources. The timers of the read resources are shared by the facades and the {@link LanguageRoutes},
+ * so a resource has the same metric regardless of the {@link ExecutionMode}. Shared timers must be declared reusable.
+ *
+ * @author Felix Riess
+ * @since 13.02.20
+ */
+final class EndpointMetrics {
+    static final String LANGUAGES_LIST = "language.api.languages.list";
+    static final String LANGUAGES_GET = "language.api.languages.get";
+    static final String LANGUAGES_COUNTRIES = "language.api.languages.countries";
+    static final String LANGUAGES_SEARCH = "language.api.languages.search";
+    static final String LANGUAGES_RESOLVE = "language.api.languages.resolve";
+    static final String LANGUAGES_LOOKUP = "language.api.languages.lookup";
+    static final String LANGUAGES_CREATE = "language.api.languages.create";
+    static final String COUNTRIES_LIST = "language.api.countries.list";
+    static final String COUNTRIES_GET = "language.api.countries.get";
+    static final String COUNTRIES_LOOKUP = "language.api.countries.lookup";
+    static final String COUNTRIES_CREATE = "language.api.countries.create";
+    static final String COUNTRIES_ADD_LANGUAGE = "language.api.countries.languages.add";
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private EndpointMetrics() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "EndpointMetrics is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Get the shared timer with the given name, registered on startup for the {@code @Timed(reusable = true)} annotation of a facade.
+     *
+     * @param registry the {@link MetricRegistry} holding the timer.
+     * @param name the name of the timer.
+     * @return the {@link Timer}.
+     */
+    static Timer sharedTimer(final MetricRegistry registry, final String name) {
+        final Timer timer = registry.getTimers().get(new MetricID(name));
+        if(timer != null) {
+            return timer;
+        } // else: not registered by the facade yet.
+        return registry.timer(Metadata.builder().withName(name).withType(MetricType.TIMER).withUnit(MetricUnits.NANOSECONDS).reusable().build());
+    }
+}
@@ -0,0 +1,20 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+/**
+ * The selectable execution modes of the read resources of the REST API.
+ * Configured with the property {@code language.api.execution}.
+ *
+ * @author Felix Riess
+ * @since 11.02.20
+ */
+public enum ExecutionMode {
+    /**
+     * Serve the read resources directly on the event loop thread which received the request (see {@link LanguageRoutes}).
+     */
+    EVENT_LOOP,
+    /**
+     * Dispatch every request to a worker thread of the JAX-RS runtime (legacy behaviour).
+     */
+    WORKER,
+    ;
+}
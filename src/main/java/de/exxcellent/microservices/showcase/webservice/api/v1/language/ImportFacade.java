@@ -0,0 +1,64 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportResultCTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.POST;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.io.InputStream;
+
+/**
+ * Provides the REST API to import many languages and countries with their language at once (see {@link ImportRecords} for the format of the records).
+ * The records are read as a stream, validated one by one and added to the storage in one write.
+ *
+ * @author Felix Riess
+ * @since 06.02.20
+ */
+@Path("/api/v1/import")
+@Produces(MediaType.APPLICATION_JSON)
+public class ImportFacade {
+    /**
+     * The {@link Logger} of this {@link ImportFacade}.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ImportFacade.class);
+    private final LanguageBCI languageService;
+
+    @Inject
+    ImportFacade(final LanguageBCI languageService) {
+        this.languageService = languageService;
+    }
+
+    /**
+     * Import records from newline delimited JSON, one record per line.
+     *
+     * @param input the NDJSON records.
+     * @return the result of the import as {@link ImportResultCTO} with the errors of all rejected records (numbered by non-blank lines, starting with 1).
+     */
+    @POST
+    @Consumes(ImportRecords.NDJSON)
+    public ImportResultCTO importNdjson(final InputStream input) {
+        LOG.info("Resource to import NDJSON records triggered");
+        final ImportRecords records = ImportRecords.fromNdjson(input);
+        return records.withReadErrors(this.languageService.importAll(records.getRecords()));
+    }
+
+    /**
+     * Import records from a JSON array of records.
+     *
+     * @param input the JSON array of records.
+     * @return the result of the import as {@link ImportResultCTO} with the errors of all rejected records (numbered by array position, starting with 1).
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public ImportResultCTO importJsonArray(final InputStream input) {
+        LOG.info("Resource to import a JSON array of records triggered");
+        final ImportRecords records = ImportRecords.fromJsonArray(input);
+        return records.withReadErrors(this.languageService.importAll(records.getRecords()));
+    }
+}
@@ -0,0 +1,203 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportErrorTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+
+import javax.json.Json;
+import javax.json.JsonException;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
+import javax.json.JsonValue;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParserFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The records of an import, read record by record from a stream of NDJSON (one record per line) or a JSON array.
+ * A record either is a language ({@code {"shortName": "deu", "name": "German"}})
+ * or a country with its language ({@code {"countryShortName": "GER", "language": {"shortName": "deu", "name": "German"}}}).
+ * Records which cannot be read are kept as {@code null} together with their error, so the numbering of all records is preserved.
+ *
+ * @author Felix Riess
+ * @since 06.02.20
+ */
+final class ImportRecords {
+    /**
+     * Media type of newline delimited JSON.
+     */
+    static final String NDJSON = "application/x-ndjson";
+    /**
+     * Shared factories, as looking up the JSON-P provider for each record is expensive.
+     */
+    private static final JsonReaderFactory READER_FACTORY = Json.createReaderFactory(null);
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+    private static final String COUNTRY_SHORT_NAME = "countryShortName";
+    private static final String LANGUAGE = "language";
+    private static final String SHORT_NAME = "shortName";
+    private static final String NAME = "name";
+    /**
+     * All records in the order of the input, {@code null} if the record could not be read.
+     */
+    private final List<CountryWithLanguageCTO> records = new ArrayList<>();
+    /**
+     * The errors of all records which could not be read by their number (starting with 1).
+     */
+    private final Map<Long, String> errors = new HashMap<>();
+
+    private ImportRecords() {
+
+    }
+
+    /**
+     * Read the records from newline delimited JSON. Blank lines are skipped, each other line is one record.
+     * A malformed line only rejects its record.
+     *
+     * @param input the {@link InputStream} of the UTF-8 encoded NDJSON.
+     * @return the read {@link ImportRecords}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the input cannot be read.
+     */
+    static ImportRecords fromNdjson(final InputStream input) {
+        final ImportRecords importRecords = new ImportRecords();
+        try(BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while((line = reader.readLine()) != null) {
+                if(!line.trim().isEmpty()) {
+                    importRecords.addLine(line);
+                } // else: skip blank lines.
+            }
+        } catch(final IOException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Could not read import: " + e.getMessage());
+        }
+        return importRecords;
+    }
+
+    /**
+     * Read the records from a JSON array of records with a streaming parser, so the array is never held as a whole.
+     * Elements which are no JSON objects only reject their record, malformed JSON rejects the whole import.
+     *
+     * @param input the {@link InputStream} of the JSON array.
+     * @return the read {@link ImportRecords}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the input is no well-formed JSON array.
+     */
+    static ImportRecords fromJsonArray(final InputStream input) {
+        final ImportRecords importRecords = new ImportRecords();
+        try(JsonParser parser = PARSER_FACTORY.createParser(input)) {
+            if(!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Import must be a JSON array of records");
+            } // else: read the elements of the array.
+            JsonParser.Event event;
+            while((event = parser.next()) != JsonParser.Event.END_ARRAY) {
+                if(event == JsonParser.Event.START_OBJECT) {
+                    importRecords.addRecord(parser.getObject());
+                } else {
+                    if(event == JsonParser.Event.START_ARRAY) {
+                        parser.skipArray();
+                    }
+                    importRecords.addError("Record must be a JSON object");
+                }
+            }
+        } catch(final JsonException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Malformed JSON after record " + importRecords.records.size() + ": " + e.getMessage());
+        }
+        return importRecords;
+    }
+
+    /**
+     * Get the records.
+     *
+     * @return all records as {@link List} of {@link CountryWithLanguageCTO}s, {@code null} for records which could not be read.
+     */
+    List<CountryWithLanguageCTO> getRecords() {
+        return this.records;
+    }
+
+    /**
+     * Replace the errors of all records which could not be read in the given result by the reason why they could not be read.
+     *
+     * @param result the {@link ImportResultCTO} of importing {@link #getRecords()}.
+     * @return the given {@link ImportResultCTO}.
+     */
+    ImportResultCTO withReadErrors(final ImportResultCTO result) {
+        if(!this.errors.isEmpty()) {
+            for(final ImportErrorTO error : result.getErrors()) {
+                final String readError = this.errors.get(error.getRecord());
+                if(readError != null) {
+                    error.setMessage(readError);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read a line of NDJSON as record.
+     *
+     * @param line the line.
+     */
+    private void addLine(final String line) {
+        try(JsonReader reader = READER_FACTORY.createReader(new StringReader(line))) {
+            addRecord(reader.readObject());
+        } catch(final JsonException e) {
+            addError("Malformed JSON: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Map the given JSON object to a record.
+     *
+     * @param record the record as {@link JsonObject}.
+     */
+    private void addRecord(final JsonObject record) {
+        try {
+            final CountryWithLanguageCTO countryWithLanguage = new CountryWithLanguageCTO();
+            if(record.containsKey(COUNTRY_SHORT_NAME)) {
+                countryWithLanguage.setCountryShortName(record.getString(COUNTRY_SHORT_NAME, null));
+                final JsonValue language = record.get(LANGUAGE);
+                countryWithLanguage.setLanguage(language instanceof JsonObject ? toLanguage((JsonObject) language) : null);
+            } else {
+                countryWithLanguage.setLanguage(toLanguage(record));
+            }
+            this.records.add(countryWithLanguage);
+        } catch(final BusinessException e) {
+            addError(e.getMessage());
+        }
+    }
+
+    /**
+     * Keep a record which could not be read.
+     *
+     * @param message the reason why the record could not be read.
+     */
+    private void addError(final String message) {
+        this.records.add(null);
+        this.errors.put((long) this.records.size(), message);
+    }
+
+    /**
+     * Map the given JSON object to a {@link LanguageTO}.
+     *
+     * @param language the language as {@link JsonObject}.
+     * @return the {@link LanguageTO}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the language is invalid.
+     */
+    private static LanguageTO toLanguage(final JsonObject language) {
+        final LanguageTO languageTO = new LanguageTO();
+        languageTO.setShortName(language.getString(SHORT_NAME, null));
+        languageTO.setName(language.getString(NAME, null));
+        return languageTO;
+    }
+}
@@ -5,7 +5,14 @@ import de.exxcellent.microservices.showcase.common.errorhandling.exception.Busin
 import de.exxcellent.microservices.showcase.common.validation.Preconditions;
 import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
 import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
 import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.webservice.cache.ResponseCache;
+import de.exxcellent.microservices.showcase.webservice.cbor.CborCodec;
+import de.exxcellent.microservices.showcase.webservice.json.JsonCodec;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.annotation.Timed;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -16,72 +23,205 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import java.util.Collections;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Provides the REST API for the language component.
+ * The resources produce and consume JSON (see {@link JsonCodec}) or, if requested with the {@code Accept} or {@code Content-Type} header, CBOR (see {@link CborCodec}).
+ * The read resources are handled by the {@link LanguageReadResources}, with {@link ExecutionMode#EVENT_LOOP} they are served by the {@link LanguageRoutes} instead.
  *
  * @author Felix Riess
  * @since 21.01.20
  */
 @Path("/api/v1/languages")
-@Consumes(MediaType.APPLICATION_JSON)
-@Produces(MediaType.APPLICATION_JSON)
+@Consumes({MediaType.APPLICATION_JSON, CborCodec.APPLICATION_CBOR})
+@Produces({MediaType.APPLICATION_JSON, CborCodec.APPLICATION_CBOR})
 public class LanguageFacade {
     /**
      * The {@link Logger} of this {@link LanguageFacade}.
      */
     private static final Logger LOG = LoggerFactory.getLogger(LanguageFacade.class);
+    /**
+     * The name of the query parameter holding the (part of the) name to search.
+     */
+    static final String SEARCH_QUERY = "query";
+    /**
+     * The maximum number of search results if no limit is given.
+     */
+    static final int DEFAULT_SEARCH_LIMIT = 10;
+    /**
+     * The name of the query parameter holding the language preference list to resolve, instead of the {@code Accept-Language} header.
+     */
+    static final String PREFERENCES = "preferences";
+    /**
+     * The name of the query parameter holding the short name of the country of the user.
+     */
+    static final String COUNTRY = "country";
     private final LanguageBCI languageService;
+    /**
+     * The read resources shared with the {@link LanguageRoutes}.
+     */
+    private final LanguageReadResources readResources;
+    /**
+     * The {@link WriteResponseMode} of the write resources.
+     */
+    private final WriteResponseMode writeResponseMode;
 
     @Inject
-    LanguageFacade(final LanguageBCI languageService) {
+    LanguageFacade(final LanguageBCI languageService, final LanguageReadResources readResources,
+                   @ConfigProperty(name = "language.api.write-response", defaultValue = "CREATED") final WriteResponseMode writeResponseMode) {
         this.languageService = languageService;
+        this.readResources = readResources;
+        this.writeResponseMode = writeResponseMode;
     }
 
     /**
-     * Get all available languages.
+     * Get all available languages ordered by their short name, a page of them or, if codes are given, the languages with the given short names.
+     * All languages and pages contain the name of each language in the requested display locale (see {@link DisplayLocales}).
      *
-     * @return a {@link Set} containing all languages as {@link LanguageTO}.
+     * @param codes the short names of the languages to be looked up, comma separated (optional, see {@link LookupCodes}).
+     * @param cursor the cursor of the requested page as returned with the previous page (optional, see {@link Paging}).
+     * @param limit the maximum number of languages of the requested page (optional, see {@link Paging}).
+     * @param locale the language tag of the display locale of the names (optional, see {@link DisplayLocales}).
+     * @param headers the {@link HttpHeaders} of the request, used for conditional, compressed and localized responses.
+     * @return completes with a {@link Set} containing all languages as {@link LanguageTO} or a page as {@link PageCTO} if cursor or limit are given (served from the {@link ResponseCache}),
+     * or the found languages and missing short names as {@link LookupResultCTO} if codes are given.
      * @exception BusinessException with {@link ErrorCode#EMPTY_LIST_ERROR} if no languages are available to produce HTTP 204.
      */
     @GET
-    public Set<LanguageTO> getLanguages() {
-        LOG.info("Resource to get all languages triggered");
-        final Set<LanguageTO> languages = this.languageService.getLanguages();
-        if(languages.isEmpty()) {
-            throw new BusinessException(ErrorCode.EMPTY_LIST_ERROR, "No languages are existing");
-        } else {
-            return languages;
-        }
+    @Timed(name = EndpointMetrics.LANGUAGES_LIST, absolute = true, reusable = true)
+    public CompletionStage<Response> getLanguages(@QueryParam(LookupCodes.PARAMETER) final List<String> codes, @QueryParam(Paging.CURSOR) final String cursor,
+                                                  @QueryParam(Paging.LIMIT) final String limit, @QueryParam(DisplayLocales.PARAMETER) final String locale,
+                                                  @Context final HttpHeaders headers) {
+        return this.readResources.getLanguages(codes, cursor, limit, locale, headers::getHeaderString);
     }
 
     /**
      * Get the language with the provided short name (ISO code).
      *
      * @param shortName the short name (ISO code) of the language to be returned (3 characters, not {@code null}).
-     * @return the language with the provided short name as {@link LanguageTO}.
+     * @param locale the language tag of the display locale of the name (optional, see {@link DisplayLocales}).
+     * @param headers the {@link HttpHeaders} of the request, used for conditional, compressed and localized responses.
+     * @return completes with the language with the provided short name as {@link LanguageTO} (served from the {@link ResponseCache}).
      */
     @GET
     @Path("{shortName}")
-    public LanguageTO getLanguage(@PathParam("shortName") final String shortName) {
-        Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
-        Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
-        LOG.info("Resource to get language with short name {} triggered", shortName);
-        return this.languageService.getLanguage(shortName);
+    @Timed(name = EndpointMetrics.LANGUAGES_GET, absolute = true, reusable = true)
+    public CompletionStage<Response> getLanguage(@PathParam("shortName") final String shortName, @QueryParam(DisplayLocales.PARAMETER) final String locale,
+                                                 @Context final HttpHeaders headers) {
+        return this.readResources.getLanguage(shortName, locale, headers::getHeaderString);
+    }
+
+    /**
+     * Get the countries using the language with the provided short name (ISO code), served from the reverse indexes of the storage.
+     *
+     * @param shortName the short name (ISO code) of the language (3 characters, not {@code null}).
+     * @param headers the {@link HttpHeaders} of the request, used for conditional and compressed responses.
+     * @return completes with the language with its countries as {@link de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO}
+     * (served from the {@link ResponseCache}).
+     */
+    @GET
+    @Path("{shortName}/countries")
+    @Timed(name = EndpointMetrics.LANGUAGES_COUNTRIES, absolute = true, reusable = true)
+    public CompletionStage<Response> getCountriesOfLanguage(@PathParam("shortName") final String shortName, @Context final HttpHeaders headers) {
+        return this.readResources.getCountriesOfLanguage(shortName, headers::getHeaderString);
+    }
+
+    /**
+     * Search languages by (a part of) their name, e.g. {@code ?query=germ&limit=5}, see {@link LanguageBCI#searchLanguages(String, int)}.
+     * The results are not cached, as they are found with an index of the names.
+     *
+     * @param query the (part of the) name to search (not blank).
+     * @param limit the maximum number of languages to return (optional, {@value #DEFAULT_SEARCH_LIMIT} if not given, at most {@link LanguageBCI#MAX_SEARCH_RESULTS}).
+     * @param locale the language tag of the display locale of the names (optional, see {@link DisplayLocales}).
+     * @param headers the {@link HttpHeaders} of the request, used for localized responses.
+     * @return completes with the best matching languages as {@link List} of {@link LanguageTO}s, empty if no language matches.
+     */
+    @GET
+    @Path("search")
+    @Timed(name = EndpointMetrics.LANGUAGES_SEARCH, absolute = true, reusable = true)
+    public CompletionStage<Response> searchLanguages(@QueryParam(SEARCH_QUERY) final String query, @QueryParam(Paging.LIMIT) final String limit,
+                                                     @QueryParam(DisplayLocales.PARAMETER) final String locale, @Context final HttpHeaders headers) {
+        return this.readResources.searchLanguages(query, limit, locale, headers::getHeaderString);
+    }
+
+    /**
+     * Resolve the best available language for a user, e.g. {@code ?country=CHE} with the header {@code Accept-Language: de-CH, fr;q=0.8},
+     * see {@link LanguageBCI#resolveLanguage(String, String)}. The results are cached by the business facade, not as serialized responses.
+     *
+     * @param preferences the language preference list in the format of the {@code Accept-Language} header (optional, the header of the request if not given).
+     * @param country the short name of the country of the user (optional).
+     * @param headers the {@link HttpHeaders} of the request, providing the {@code Accept-Language} header.
+     * @return completes with the resolved language with the matching language range as {@link de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO}.
+     */
+    @GET
+    @Path("resolve")
+    @Timed(name = EndpointMetrics.LANGUAGES_RESOLVE, absolute = true, reusable = true)
+    public CompletionStage<Response> resolveLanguage(@QueryParam(PREFERENCES) final String preferences, @QueryParam(COUNTRY) final String country,
+                                                     @Context final HttpHeaders headers) {
+        return this.readResources.resolveLanguage(preferences, country, headers::getHeaderString);
+    }
+
+    /**
+     * Get many languages by their short names (ISO codes) at once.
+     *
+     * @param shortNames the short names of the languages to be returned as JSON array (not {@code null}, at most {@link LanguageBCI#MAX_LOOKUP_CODES}).
+     * @return the found languages and the missing short names as {@link LookupResultCTO}.
+     */
+    @POST
+    @Path("lookup")
+    @Timed(name = EndpointMetrics.LANGUAGES_LOOKUP, absolute = true)
+    public LookupResultCTO<LanguageTO> lookupLanguages(final List<String> shortNames) {
+        Preconditions.checkNotNull(shortNames, "Short names must not be null");
+        LOG.debug("Resource to look up {} languages triggered", shortNames.size());
+        return this.languageService.getLanguages(shortNames);
     }
 
     /**
      * Create a new language from the provided information.
      *
      * @param language the information about the language to be created as {@link LanguageTO}. (must be valid, see {@link LanguageValidation#validateLanguageTO(LanguageTO)}).
-     * @return all available languages including the new one as {@link Set} of {@link LanguageTO}s.
+     * @param uriInfo the {@link UriInfo} of the request to build the location of the created language.
+     * @return HTTP 201 with the location and the stored language as {@link LanguageTO}, HTTP 200 with the stored language if the language was already existing
+     * and nothing was created or, with {@link WriteResponseMode#COLLECTION}, all available languages including the new one as {@link Set} of {@link LanguageTO}s.
      */
     @POST
-    public Set<LanguageTO> createLanguage(final LanguageTO language) {
-        LanguageValidation.validateLanguageTO(language);
-        LOG.info("Resource to create new language {} with short name {} triggered", language.getName(), language.getShortName());
-        return this.languageService.addLanguage(language);
+    @Timed(name = EndpointMetrics.LANGUAGES_CREATE, absolute = true)
+    public Response createLanguage(final LanguageTO language, @Context final UriInfo uriInfo) {
+        LOG.info("Resource to create a new language triggered");
+        if(this.writeResponseMode == WriteResponseMode.COLLECTION) {
+            return Response.ok(new GenericEntity<Set<LanguageTO>>(this.languageService.addLanguage(language)) { }).build();
+        } // else: only respond with the created language.
+        final boolean existing = isExisting(language);
+        final LanguageTO createdLanguage = this.languageService.createLanguage(language);
+        if(existing) {
+            return Response.ok(createdLanguage).build();
+        } // else: the language was created.
+        return Response.created(uriInfo.getAbsolutePathBuilder().path(createdLanguage.getShortName()).build())
+                       .entity(createdLanguage)
+                       .build();
+    }
+
+    /**
+     * Check if a language with the short name of the given language is already existing, so creating it does not create anything.
+     *
+     * @param language the language to be created as {@link LanguageTO} (may be invalid, it is validated when created).
+     * @return {@code true} if a language with the short name of the given language is existing.
+     */
+    private boolean isExisting(final LanguageTO language) {
+        if(language == null || language.getShortName() == null) {
+            return false;
+        } // else: look up the short name, invalid short names are reported as missing.
+        return this.languageService.getLanguages(Collections.singletonList(language.getShortName())).getMissing().isEmpty();
     }
 }
@@ -0,0 +1,252 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.common.validation.Preconditions;
+import de.exxcellent.microservices.showcase.core.language.api.LanguageAsyncBCI;
+import de.exxcellent.microservices.showcase.core.language.impl.access.LanguageValidation;
+import de.exxcellent.microservices.showcase.webservice.cache.ResponseCache;
+import de.exxcellent.microservices.showcase.webservice.exceptionmapper.ErrorResponses;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Handles the read resources of the {@link LanguageFacade} and the {@link CountryWithLanguageFacade}, called by the facades on worker threads
+ * and by the {@link LanguageRoutes} on event loop threads, so both {@link ExecutionMode}s produce the same responses.
+ * All entities are serialized in the format accepted by the request (see {@link ResponseCache}) and errors are mapped by the {@link ErrorResponses},
+ * so the returned {@link CompletionStage}s never complete exceptionally. The {@link LanguageAsyncBCI} never blocks, so neither do the resources.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@ApplicationScoped
+public class LanguageReadResources {
+    /**
+     * The {@link Logger} of these {@link LanguageReadResources}. Requests are only logged at debug level to keep console output off the event loop.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(LanguageReadResources.class);
+    private final LanguageAsyncBCI languageService;
+    /**
+     * The {@link ResponseCache} holding the serialized responses.
+     */
+    private final ResponseCache responseCache;
+
+    @Inject
+    LanguageReadResources(final LanguageAsyncBCI languageService, final ResponseCache responseCache) {
+        this.languageService = languageService;
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Get all available languages, a page of them or the languages with the given codes, see {@link LanguageFacade#getLanguages(List, String, String, String, HttpHeaders)}.
+     *
+     * @param codes the short names of the languages to be looked up (see {@link LookupCodes}).
+     * @param cursor the cursor of the requested page ({@code null} if not present).
+     * @param limit the maximum number of languages of the requested page ({@code null} if not present).
+     * @param locale the value of the locale parameter ({@code null} if not present).
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> getLanguages(final List<String> codes, final String cursor, final String limit, final String locale,
+                                           final UnaryOperator<String> headers) {
+        return respond(() -> {
+            final List<String> shortNames = LookupCodes.parse(codes);
+            final Integer pageLimit = Paging.parseLimit(limit);
+            if(!shortNames.isEmpty()) {
+                LOG.debug("Resource to look up {} languages triggered", shortNames.size());
+                return this.languageService.getLanguages(shortNames).thenApply(lookup -> this.responseCache.uncached(lookup, headers));
+            } // else: all languages or a page in the display locale.
+            final String displayLocale = displayLocale(locale, headers);
+            final CompletionStage<Response> response;
+            if(Paging.isPageRequested(cursor, pageLimit)) {
+                final int limitOfPage = Paging.limit(pageLimit);
+                LOG.debug("Resource to get {} languages after cursor {} triggered", limitOfPage, cursor);
+                response = this.responseCache.getAsync(DisplayLocales.cacheKey(Paging.cacheKey("languages", cursor, limitOfPage), displayLocale),
+                                                       this.languageService.getDataVersion(), headers,
+                                                       () -> displayLocale != null ? this.languageService.getLanguagePage(cursor, limitOfPage, displayLocale)
+                                                                                   : this.languageService.getLanguagePage(cursor, limitOfPage));
+            } else {
+                LOG.debug("Resource to get all languages triggered");
+                response = this.responseCache.getAsync(DisplayLocales.cacheKey("languages", displayLocale), this.languageService.getDataVersion(), headers,
+                                                       () -> (displayLocale != null ? this.languageService.getLanguages(displayLocale) : this.languageService.getLanguages())
+                                                               .thenApply(languages -> {
+                                                                   if(languages.isEmpty()) {
+                                                                       throw new BusinessException(ErrorCode.EMPTY_LIST_ERROR, "No languages are existing");
+                                                                   } else {
+                                                                       return languages;
+                                                                   }
+                                                               }));
+            }
+            return response.thenApply(result -> DisplayLocales.vary(result, locale));
+        });
+    }
+
+    /**
+     * Get the language with the provided short name, see {@link LanguageFacade#getLanguage(String, String, HttpHeaders)}.
+     *
+     * @param shortName the short name of the language.
+     * @param locale the value of the locale parameter ({@code null} if not present).
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> getLanguage(final String shortName, final String locale, final UnaryOperator<String> headers) {
+        return respond(() -> {
+            Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+            Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+            LOG.debug("Resource to get language with short name {} triggered", shortName);
+            final String displayLocale = displayLocale(locale, headers);
+            return this.responseCache.getAsync(DisplayLocales.cacheKey("languages/" + shortName, displayLocale), this.languageService.getDataVersion(), headers,
+                                               () -> displayLocale != null ? this.languageService.getLanguage(shortName, displayLocale)
+                                                                           : this.languageService.getLanguage(shortName))
+                                     .thenApply(result -> DisplayLocales.vary(result, locale));
+        });
+    }
+
+    /**
+     * Get the countries using the language with the provided short name, see {@link LanguageFacade#getCountriesOfLanguage(String, HttpHeaders)}.
+     *
+     * @param shortName the short name of the language.
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> getCountriesOfLanguage(final String shortName, final UnaryOperator<String> headers) {
+        return respond(() -> {
+            Preconditions.checkNotNull(shortName, LanguageValidation.LANGUAGE_SHORT_NAME_NOT_NULL);
+            Preconditions.checkStringLength(shortName, 3, LanguageValidation.LANGUAGE_SHORT_NAME_LENGTH);
+            LOG.debug("Resource to get countries of language with short name {} triggered", shortName);
+            return this.responseCache.getAsync("languages/" + shortName + "/countries", this.languageService.getDataVersion(), headers,
+                                               () -> this.languageService.getCountriesOfLanguage(shortName));
+        });
+    }
+
+    /**
+     * Search languages by (a part of) their name, see {@link LanguageFacade#searchLanguages(String, String, String, HttpHeaders)}.
+     *
+     * @param query the (part of the) name to search.
+     * @param limit the maximum number of languages to return ({@code null} if not present).
+     * @param locale the value of the locale parameter ({@code null} if not present).
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> searchLanguages(final String query, final String limit, final String locale, final UnaryOperator<String> headers) {
+        return respond(() -> {
+            LOG.debug("Resource to search languages by name {} triggered", query);
+            final Integer parsedLimit = Paging.parseLimit(limit);
+            final int searchLimit = parsedLimit != null ? parsedLimit : LanguageFacade.DEFAULT_SEARCH_LIMIT;
+            final String displayLocale = displayLocale(locale, headers);
+            return (displayLocale != null ? this.languageService.searchLanguages(query, searchLimit, displayLocale)
+                                          : this.languageService.searchLanguages(query, searchLimit))
+                    .thenApply(languages -> DisplayLocales.vary(this.responseCache.uncached(languages, headers), locale));
+        });
+    }
+
+    /**
+     * Resolve the best available language for a user, see {@link LanguageFacade#resolveLanguage(String, String, HttpHeaders)}.
+     *
+     * @param preferences the language preference list ({@code null} to resolve the {@code Accept-Language} header).
+     * @param country the short name of the country of the user ({@code null} if not present).
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> resolveLanguage(final String preferences, final String country, final UnaryOperator<String> headers) {
+        return respond(() -> {
+            LOG.debug("Resource to resolve language for preferences {} and country {} triggered", preferences, country);
+            if(preferences != null) {
+                return this.languageService.resolveLanguage(preferences, country).thenApply(match -> this.responseCache.uncached(match, headers));
+            } // else: resolve the preferences of the request.
+            return this.languageService.resolveLanguage(headers.apply(HttpHeaders.ACCEPT_LANGUAGE), country)
+                                       .thenApply(match -> Response.fromResponse(this.responseCache.uncached(match, headers))
+                                                                   .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE)
+                                                                   .build());
+        });
+    }
+
+    /**
+     * Get all available countries with their language, a page of them or the countries with the given codes,
+     * see {@link CountryWithLanguageFacade#getCountriesWithLanguage(List, String, String, HttpHeaders)}.
+     *
+     * @param codes the short names of the countries to be looked up (see {@link LookupCodes}).
+     * @param cursor the cursor of the requested page ({@code null} if not present).
+     * @param limit the maximum number of countries of the requested page ({@code null} if not present).
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> getCountriesWithLanguage(final List<String> codes, final String cursor, final String limit, final UnaryOperator<String> headers) {
+        return respond(() -> {
+            final List<String> countryShortNames = LookupCodes.parse(codes);
+            final Integer pageLimit = Paging.parseLimit(limit);
+            if(!countryShortNames.isEmpty()) {
+                LOG.debug("Resource to look up {} countries with their language triggered", countryShortNames.size());
+                return this.languageService.getCountriesWithLanguage(countryShortNames).thenApply(lookup -> this.responseCache.uncached(lookup, headers));
+            } else if(Paging.isPageRequested(cursor, pageLimit)) {
+                final int limitOfPage = Paging.limit(pageLimit);
+                LOG.debug("Resource to get {} countries with their language after cursor {} triggered", limitOfPage, cursor);
+                return this.responseCache.getAsync(Paging.cacheKey("countries-with-language", cursor, limitOfPage), this.languageService.getDataVersion(), headers,
+                                                   () -> this.languageService.getCountriesWithLanguagePage(cursor, limitOfPage));
+            } // else: get all countries.
+            LOG.debug("Resource to get countries with their language triggered");
+            return this.responseCache.getAsync("countries-with-language", this.languageService.getDataVersion(), headers,
+                                               () -> this.languageService.getCountriesWithLanguage().thenApply(countriesWithLanguage -> {
+                                                   if(countriesWithLanguage.isEmpty()) {
+                                                       throw new BusinessException(ErrorCode.EMPTY_LIST_ERROR, "No countries with languages are available");
+                                                   } else {
+                                                       return countriesWithLanguage;
+                                                   }
+                                               }));
+        });
+    }
+
+    /**
+     * Get the language of the country with the provided short name, see {@link CountryWithLanguageFacade#getCountryWithLanguage(String, HttpHeaders)}.
+     *
+     * @param countryShortName the short name of the country.
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link CompletionStage} of the {@link Response}.
+     */
+    CompletionStage<Response> getCountryWithLanguage(final String countryShortName, final UnaryOperator<String> headers) {
+        return respond(() -> {
+            Preconditions.checkNotNull(countryShortName, "Country short name must not be null");
+            Preconditions.checkStringLength(countryShortName, 3, "Country short name must have 3 characters");
+            LOG.debug("Resource to get language of country with short name {} triggered", countryShortName);
+            return this.responseCache.getAsync("countries-with-language/" + countryShortName, this.languageService.getDataVersion(), headers,
+                                               () -> this.languageService.getCountryWithLanguage(countryShortName));
+        });
+    }
+
+    /**
+     * Resolve the display locale of a request, see {@link DisplayLocales#resolve(String, String, List)}.
+     *
+     * @param locale the value of the locale parameter ({@code null} if not present).
+     * @param headers the request headers by their name.
+     * @return the language tag of the display locale or {@code null} if the names are not to be localized.
+     */
+    private String displayLocale(final String locale, final UnaryOperator<String> headers) {
+        return DisplayLocales.resolve(locale, headers.apply(HttpHeaders.ACCEPT_LANGUAGE), this.languageService.getDisplayLocales());
+    }
+
+    /**
+     * Create the {@link Response} of a resource, or the error response if the resource fails.
+     *
+     * @param resource creates the {@link CompletionStage} of the {@link Response}. May throw exceptions or complete exceptionally to produce error responses.
+     * @return the {@link CompletionStage} of the {@link Response}, never completing exceptionally.
+     */
+    private static CompletionStage<Response> respond(final Supplier<CompletionStage<Response>> resource) {
+        final CompletionStage<Response> response;
+        try {
+            response = resource.get();
+        } catch(final RuntimeException e) {
+            return CompletableFuture.completedFuture(ErrorResponses.of(e));
+        }
+        return response.handle((result, error) -> error == null ? result : ErrorResponses.of(error));
+    }
+}
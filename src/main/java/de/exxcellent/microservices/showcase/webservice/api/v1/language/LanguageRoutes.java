@@ -0,0 +1,157 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.webservice.exceptionmapper.ErrorResponses;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Supplier;
+
+/**
+ * Serves the read resources of the {@link LanguageFacade} and the {@link CountryWithLanguageFacade} directly on the event loop thread
+ * which received the request, if the property {@code language.api.execution} is {@link ExecutionMode#EVENT_LOOP}.
+ * All data is kept in memory, so the {@link LanguageReadResources} never block and the hop to a worker thread of the JAX-RS runtime is saved.
+ * The routes are registered before the JAX-RS runtime, all other resources (and all resources with {@link ExecutionMode#WORKER}) are still served by the facades.
+ * <p>
+ * The routes only read the parameters and write the responses: the resources are handled by the same {@link LanguageReadResources} as in the facades
+ * and the latency is recorded by the same timers.
+ *
+ * @author Felix Riess
+ * @since 11.02.20
+ */
+@ApplicationScoped
+public class LanguageRoutes {
+    /**
+     * The {@link Logger} of these {@link LanguageRoutes}.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(LanguageRoutes.class);
+    private static final String LANGUAGES_PATH = "/api/v1/languages";
+    private static final String COUNTRIES_WITH_LANGUAGE_PATH = "/api/v1/countries-with-language";
+    /**
+     * The read resources shared with the facades.
+     */
+    private final LanguageReadResources resources;
+    /**
+     * The configured {@link ExecutionMode}.
+     */
+    private final ExecutionMode executionMode;
+    /**
+     * The {@link MetricRegistry} holding the latency timers of the resources (see {@link EndpointMetrics}).
+     */
+    private final MetricRegistry metricRegistry;
+
+    @Inject
+    LanguageRoutes(final LanguageReadResources resources,
+                   @ConfigProperty(name = "language.api.execution", defaultValue = "EVENT_LOOP") final ExecutionMode executionMode,
+                   final MetricRegistry metricRegistry) {
+        this.resources = resources;
+        this.executionMode = executionMode;
+        this.metricRegistry = metricRegistry;
+    }
+
+    /**
+     * Register the read resources at the given {@link Router} if the {@link ExecutionMode} is {@link ExecutionMode#EVENT_LOOP}.
+     *
+     * @param router the {@link Router} of the HTTP server, observed on startup.
+     */
+    void registerRoutes(@Observes final Router router) {
+        if(this.executionMode != ExecutionMode.EVENT_LOOP) {
+            LOG.info("Read resources are served on worker threads");
+            return;
+        } // else: register the routes.
+        final Timer languagesListTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.LANGUAGES_LIST);
+        final Timer languagesGetTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.LANGUAGES_GET);
+        final Timer languagesCountriesTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.LANGUAGES_COUNTRIES);
+        final Timer languagesSearchTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.LANGUAGES_SEARCH);
+        final Timer languagesResolveTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.LANGUAGES_RESOLVE);
+        final Timer countriesListTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.COUNTRIES_LIST);
+        final Timer countriesGetTimer = EndpointMetrics.sharedTimer(this.metricRegistry, EndpointMetrics.COUNTRIES_GET);
+        router.get(LANGUAGES_PATH).handler(context -> send(context, languagesListTimer, () -> this.resources.getLanguages(
+                context.queryParam(LookupCodes.PARAMETER), parameter(context, Paging.CURSOR), parameter(context, Paging.LIMIT), parameter(context, DisplayLocales.PARAMETER),
+                context.request()::getHeader)));
+        // registered before the language route, which would take the path segment as short name.
+        router.get(LANGUAGES_PATH + "/search").handler(context -> send(context, languagesSearchTimer, () -> this.resources.searchLanguages(
+                parameter(context, LanguageFacade.SEARCH_QUERY), parameter(context, Paging.LIMIT), parameter(context, DisplayLocales.PARAMETER), context.request()::getHeader)));
+        router.get(LANGUAGES_PATH + "/resolve").handler(context -> send(context, languagesResolveTimer, () -> this.resources.resolveLanguage(
+                parameter(context, LanguageFacade.PREFERENCES), parameter(context, LanguageFacade.COUNTRY), context.request()::getHeader)));
+        router.get(LANGUAGES_PATH + "/:shortName").handler(context -> send(context, languagesGetTimer, () -> this.resources.getLanguage(
+                context.pathParam("shortName"), parameter(context, DisplayLocales.PARAMETER), context.request()::getHeader)));
+        router.get(LANGUAGES_PATH + "/:shortName/countries").handler(context -> send(context, languagesCountriesTimer, () -> this.resources.getCountriesOfLanguage(
+                context.pathParam("shortName"), context.request()::getHeader)));
+        router.get(COUNTRIES_WITH_LANGUAGE_PATH).handler(context -> send(context, countriesListTimer, () -> this.resources.getCountriesWithLanguage(
+                context.queryParam(LookupCodes.PARAMETER), parameter(context, Paging.CURSOR), parameter(context, Paging.LIMIT), context.request()::getHeader)));
+        router.get(COUNTRIES_WITH_LANGUAGE_PATH + "/:countryShortName").handler(context -> send(context, countriesGetTimer, () -> this.resources.getCountryWithLanguage(
+                context.pathParam("countryShortName"), context.request()::getHeader)));
+        LOG.info("Read resources are served on event loop threads");
+    }
+
+    /**
+     * Read a query parameter.
+     *
+     * @param context the {@link RoutingContext} of the request.
+     * @param name the name of the parameter.
+     * @return the value or {@code null} if not present.
+     */
+    private static String parameter(final RoutingContext context, final String name) {
+        return context.request().getParam(name);
+    }
+
+    /**
+     * Send the {@link Response} created by the given resource.
+     *
+     * @param context the {@link RoutingContext} of the request.
+     * @param timer the {@link Timer} recording the latency of the resource.
+     * @param resource creates the {@link CompletionStage} of the {@link Response}. May throw exceptions while reading the parameters to produce error responses.
+     */
+    private static void send(final RoutingContext context, final Timer timer, final Supplier<CompletionStage<Response>> resource) {
+        final Timer.Context timing = timer.time();
+        final CompletionStage<Response> response;
+        try {
+            response = resource.get();
+        } catch(final RuntimeException e) {
+            write(context, ErrorResponses.of(e));
+            timing.stop();
+            return;
+        }
+        response.thenAccept(result -> {
+            write(context, result);
+            timing.stop();
+        });
+    }
+
+    /**
+     * Write the given {@link Response} to the HTTP response.
+     *
+     * @param context the {@link RoutingContext} of the request.
+     * @param response the {@link Response} with a serialized ({@code byte[]}) or text ({@link String}) entity, as created by the {@link LanguageReadResources}.
+     */
+    private static void write(final RoutingContext context, final Response response) {
+        final HttpServerResponse httpResponse = context.response();
+        httpResponse.setStatusCode(response.getStatus());
+        for(final Map.Entry<String, List<String>> header : response.getStringHeaders().entrySet()) {
+            httpResponse.putHeader(header.getKey(), header.getValue());
+        }
+        final Object entity = response.getEntity();
+        if(entity == null) {
+            httpResponse.end();
+        } else if(entity instanceof byte[]) {
+            httpResponse.end(Buffer.buffer((byte[]) entity));
+        } else {
+            httpResponse.end(Buffer.buffer(((String) entity).getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
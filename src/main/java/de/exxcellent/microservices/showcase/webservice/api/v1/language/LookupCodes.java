@@ -0,0 +1,51 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A simple helper class to read the codes of a batch lookup from the {@code codes} query parameter.
+ * The parameter may be repeated and each value may contain several codes separated by commas, e.g. {@code ?codes=deu,fra&codes=eng}.
+ *
+ * @author Felix Riess
+ * @since 07.02.20
+ */
+final class LookupCodes {
+    /**
+     * The name of the query parameter holding the codes.
+     */
+    static final String PARAMETER = "codes";
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private LookupCodes() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "LookupCodes is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Split the given values of the query parameter into codes. Blank codes are skipped.
+     *
+     * @param values the values of the query parameter ({@code null} or empty if not present).
+     * @return the codes in the order of the request, empty if no codes are given.
+     */
+    static List<String> parse(final List<String> values) {
+        final List<String> codes = new ArrayList<>();
+        if(values == null) {
+            return codes;
+        } // else: split each value.
+        for(final String value : values) {
+            for(final String code : value.split(",")) {
+                final String trimmedCode = code.trim();
+                if(!trimmedCode.isEmpty()) {
+                    codes.add(trimmedCode);
+                }
+            }
+        }
+        return codes;
+    }
+}
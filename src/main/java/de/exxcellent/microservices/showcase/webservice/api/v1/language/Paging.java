@@ -0,0 +1,86 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+
+/**
+ * A simple helper class for the query parameters of paged list resources, e.g. {@code ?limit=50&cursor=ZGV1}.
+ * A page is requested if any of both parameters is present, otherwise the whole list is returned.
+ *
+ * @author Felix Riess
+ * @since 10.02.20
+ */
+final class Paging {
+    /**
+     * The name of the query parameter holding the cursor returned with the previous page.
+     */
+    static final String CURSOR = "cursor";
+    /**
+     * The name of the query parameter holding the maximum number of items of a page.
+     */
+    static final String LIMIT = "limit";
+    /**
+     * The number of items of a page if no limit is given.
+     */
+    private static final int DEFAULT_LIMIT = 100;
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private Paging() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "Paging is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Parse the limit query parameter. Parsed by the resources instead of the JAX-RS runtime, so an invalid limit is rejected the same way in each {@link ExecutionMode}.
+     *
+     * @param limit the value of the limit parameter ({@code null} if not present).
+     * @return the limit or {@code null} if not present.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the limit is not a number.
+     */
+    static Integer parseLimit(final String limit) {
+        if(limit == null) {
+            return null;
+        } // else: parse the limit.
+        try {
+            return Integer.valueOf(limit.trim());
+        } catch(final NumberFormatException e) {
+            throw new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Limit must be a number: " + limit);
+        }
+    }
+
+    /**
+     * Check if a page is requested.
+     *
+     * @param cursor the value of the cursor parameter ({@code null} if not present).
+     * @param limit the value of the limit parameter ({@code null} if not present).
+     * @return {@code true} if a page is requested.
+     */
+    static boolean isPageRequested(final String cursor, final Integer limit) {
+        return cursor != null || limit != null;
+    }
+
+    /**
+     * Get the limit of the requested page.
+     *
+     * @param limit the value of the limit parameter ({@code null} if not present).
+     * @return the given limit or the default limit if not present.
+     */
+    static int limit(final Integer limit) {
+        return limit != null ? limit : DEFAULT_LIMIT;
+    }
+
+    /**
+     * Get the key of a page in the {@link de.exxcellent.microservices.showcase.webservice.cache.ResponseCache}.
+     *
+     * @param resource the key of the list resource.
+     * @param cursor the cursor of the page ({@code null} for the first page).
+     * @param limit the limit of the page.
+     * @return the key of the page.
+     */
+    static String cacheKey(final String resource, final String cursor, final int limit) {
+        return resource + "?" + LIMIT + "=" + limit + (cursor != null ? "&" + CURSOR + "=" + cursor : "");
+    }
+}
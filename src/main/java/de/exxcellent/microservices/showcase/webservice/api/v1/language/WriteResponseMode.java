@@ -0,0 +1,20 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+/**
+ * The selectable response modes of the write resources of the REST API.
+ * Configured with the property {@code language.api.write-response}.
+ *
+ * @author Felix Riess
+ * @since 05.02.20
+ */
+public enum WriteResponseMode {
+    /**
+     * Respond with HTTP 201, a {@code Location} header and only the created resource.
+     */
+    CREATED,
+    /**
+     * Respond with HTTP 200 and the complete collection including the created resource (legacy behaviour).
+     */
+    COLLECTION,
+    ;
+}
@@ -0,0 +1,117 @@
+package de.exxcellent.microservices.showcase.webservice.cache;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized response body of one data version together with its precompressed variant and strong entity tags.
+ *
+ * @author Felix Riess
+ * @since 04.02.20
+ */
+final class CachedResponse {
+    /**
+     * Number of bytes of the content hash used for the entity tag.
+     */
+    private static final int ETAG_BYTES = 12;
+    /**
+     * Suffix of the entity tag of the gzip variant, as its bytes differ from the identity variant.
+     */
+    private static final String GZIP_ETAG_SUFFIX = "-gzip";
+    /**
+     * The data version the body was serialized from.
+     */
+    private final long version;
+    /**
+     * The uncompressed body.
+     */
+    private final byte[] identity;
+    /**
+     * The gzip compressed body or {@code null} if compressing does not reduce the size.
+     */
+    private final byte[] gzip;
+    /**
+     * The strong entity tag of the uncompressed body (without quotes).
+     */
+    private final String identityTag;
+    /**
+     * The strong entity tag of the gzip compressed body (without quotes).
+     */
+    private final String gzipTag;
+
+    /**
+     * Constructor.
+     *
+     * @param version the data version the body was serialized from.
+     * @param identity the uncompressed body.
+     */
+    CachedResponse(final long version, final byte[] identity) {
+        this.version = version;
+        this.identity = identity;
+        final byte[] compressed = gzip(identity);
+        this.gzip = compressed.length < identity.length ? compressed : null;
+        this.identityTag = contentHash(identity);
+        this.gzipTag = this.identityTag + GZIP_ETAG_SUFFIX;
+    }
+
+    long getVersion() {
+        return this.version;
+    }
+
+    byte[] getIdentity() {
+        return this.identity;
+    }
+
+    byte[] getGzip() {
+        return this.gzip;
+    }
+
+    String getIdentityTag() {
+        return this.identityTag;
+    }
+
+    String getGzipTag() {
+        return this.gzipTag;
+    }
+
+    /**
+     * Compress the given bytes with gzip.
+     *
+     * @param bytes the bytes to be compressed.
+     * @return the compressed bytes.
+     */
+    private static byte[] gzip(final byte[] bytes) {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 2 + 32);
+        try(GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+            gzipStream.write(bytes);
+        } catch(final IOException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Could not compress response", e);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Compute a hash of the given bytes to be used as strong entity tag.
+     *
+     * @param bytes the bytes.
+     * @return the hex encoded hash.
+     */
+    private static String contentHash(final byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            final StringBuilder hash = new StringBuilder(ETAG_BYTES * 2);
+            for(int i = 0; i < ETAG_BYTES; i++) {
+                hash.append(Character.forDigit((digest[i] >> 4) & 0xF, 16)).append(Character.forDigit(digest[i] & 0xF, 16));
+            }
+            return hash.toString();
+        } catch(final NoSuchAlgorithmException e) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package de.exxcellent.microservices.showcase.webservice.cache;
+
+import de.exxcellent.microservices.showcase.webservice.cbor.CborCodec;
+import de.exxcellent.microservices.showcase.webservice.json.JsonCodec;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.json.bind.Jsonb;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the serialized responses of the REST API per data version and {@link WireFormat}, negotiated with the {@code Accept} header.
+ * Each response is serialized and compressed once per data version and format and served with a strong entity tag,
+ * a request with a matching {@code If-None-Match} header is answered with HTTP 304 without a body.
+ * Clients accepting gzip get the precompressed variant.
+ *
+ * @author Felix Riess
+ * @since 04.02.20
+ */
+@ApplicationScoped
+public class ResponseCache {
+    /**
+     * The maximum number of cached responses. The cache is cleared if it grows larger, e.g. by lookups with many different letter cases.
+     */
+    private static final int MAX_ENTRIES = 10_000;
+    /**
+     * The content coding of the compressed variant.
+     */
+    private static final String GZIP = "gzip";
+    /**
+     * Pattern of a quality parameter which does not accept a content coding.
+     */
+    private static final Pattern ZERO_QUALITY = Pattern.compile("q=0(\\.0{0,3})?");
+    /**
+     * The headers all cached responses vary on.
+     */
+    private static final String VARY = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
+    /**
+     * Suffix of the keys of the resources encoded with {@link WireFormat#CBOR}.
+     */
+    private static final String CBOR_KEY_SUFFIX = "#cbor";
+    /**
+     * The JSON-B instance also used by the JAX-RS runtime to serialize responses which are not written by the {@link JsonCodec}.
+     */
+    private final Jsonb jsonb;
+    /**
+     * The cached responses by their resource key.
+     */
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+
+    @Inject
+    ResponseCache(final Jsonb jsonb) {
+        this.jsonb = jsonb;
+    }
+
+    /**
+     * Get the response for the given resource.
+     *
+     * @param key the key of the resource, e.g. its path (not {@code null}).
+     * @param version the current data version. Must be read before the entity is created, so the entity is never older than the version.
+     * @param headers the {@link HttpHeaders} of the request to evaluate {@code If-None-Match}, {@code Accept} and {@code Accept-Encoding}.
+     * @param entity creates the entity to be serialized if no response is cached for the data version. May throw exceptions to produce error responses.
+     * @return the {@link Response} with the serialized entity or HTTP 304 if the client already has the current representation.
+     */
+    public Response get(final String key, final long version, final HttpHeaders headers, final Supplier<?> entity) {
+        final WireFormat format = WireFormat.of(headers.getHeaderString(HttpHeaders.ACCEPT));
+        final String formatKey = formatKey(key, format);
+        CachedResponse cached = this.responses.get(formatKey);
+        if(cached == null || cached.getVersion() != version) {
+            cached = cache(formatKey, version, format, entity.get());
+        }
+        return toResponse(cached, format, headers::getHeaderString);
+    }
+
+    /**
+     * Get the response for the given resource like {@link #get(String, long, HttpHeaders, Supplier)}, but with an asynchronously created entity.
+     * Never blocks, so it can be used on an event loop thread.
+     *
+     * @param key the key of the resource, e.g. its path (not {@code null}).
+     * @param version the current data version. Must be read before the entity is created, so the entity is never older than the version.
+     * @param headers the request headers by their name to evaluate {@code If-None-Match}, {@code Accept} and {@code Accept-Encoding} (returns {@code null} if not present).
+     * @param entity creates the {@link CompletionStage} of the entity to be serialized if no response is cached for the data version.
+     * May complete exceptionally to produce error responses.
+     * @return the {@link CompletionStage} of the {@link Response} with the serialized entity or HTTP 304 if the client already has the current representation.
+     */
+    public CompletionStage<Response> getAsync(final String key, final long version, final UnaryOperator<String> headers,
+                                              final Supplier<? extends CompletionStage<?>> entity) {
+        final WireFormat format = WireFormat.of(headers.apply(HttpHeaders.ACCEPT));
+        final String formatKey = formatKey(key, format);
+        final CachedResponse cached = this.responses.get(formatKey);
+        if(cached != null && cached.getVersion() == version) {
+            return CompletableFuture.completedFuture(toResponse(cached, format, headers));
+        } // else: create and serialize the entity.
+        return entity.get().thenApply(createdEntity -> toResponse(cache(formatKey, version, format, createdEntity), format, headers));
+    }
+
+    /**
+     * Get the response of an entity which is not cached, e.g. the result of a lookup or a search, serialized in the {@link WireFormat} accepted by the request.
+     *
+     * @param entity the entity to be serialized (not {@code null}).
+     * @param headers the request headers by their name to evaluate {@code Accept} (returns {@code null} if not present).
+     * @return the {@link Response} with the serialized entity, varying on the {@code Accept} header.
+     */
+    public Response uncached(final Object entity, final UnaryOperator<String> headers) {
+        final WireFormat format = WireFormat.of(headers.apply(HttpHeaders.ACCEPT));
+        return Response.ok(serialize(entity, format), format.getMediaType())
+                       .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                       .build();
+    }
+
+    /**
+     * Serialize the given entity in the given {@link WireFormat}, like the JAX-RS runtime would.
+     *
+     * @param entity the entity to be serialized.
+     * @param format the {@link WireFormat}.
+     * @return the serialized entity.
+     */
+    public byte[] serialize(final Object entity, final WireFormat format) {
+        if(format == WireFormat.CBOR) {
+            return CborCodec.encode(entity);
+        } // else: JSON, with the generated codec for the API types.
+        return JsonCodec.isWriteable(entity) ? JsonCodec.encode(entity) : this.jsonb.toJson(entity).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Get the key of the given resource in the given {@link WireFormat}.
+     *
+     * @param key the key of the resource.
+     * @param format the {@link WireFormat}.
+     * @return the key of the cached response.
+     */
+    private static String formatKey(final String key, final WireFormat format) {
+        return format == WireFormat.JSON ? key : key + CBOR_KEY_SUFFIX;
+    }
+
+    /**
+     * Serialize the given entity and cache it.
+     *
+     * @param key the key of the resource in the format.
+     * @param version the data version of the entity.
+     * @param format the {@link WireFormat} to serialize the entity in.
+     * @param entity the entity to be serialized.
+     * @return the {@link CachedResponse}.
+     */
+    private CachedResponse cache(final String key, final long version, final WireFormat format, final Object entity) {
+        final CachedResponse cached = new CachedResponse(version, serialize(entity, format));
+        if(this.responses.size() >= MAX_ENTRIES) {
+            this.responses.clear();
+        }
+        this.responses.put(key, cached);
+        return cached;
+    }
+
+    /**
+     * Create the {@link Response} for the given {@link CachedResponse}.
+     *
+     * @param cached the {@link CachedResponse}.
+     * @param format the {@link WireFormat} of the {@link CachedResponse}.
+     * @param headers the request headers by their name (returns {@code null} if not present).
+     * @return the {@link Response}.
+     */
+    private static Response toResponse(final CachedResponse cached, final WireFormat format, final UnaryOperator<String> headers) {
+        final boolean compressed = cached.getGzip() != null && acceptsGzip(headers.apply(HttpHeaders.ACCEPT_ENCODING));
+        final String tag = compressed ? cached.getGzipTag() : cached.getIdentityTag();
+        final String ifNoneMatch = headers.apply(HttpHeaders.IF_NONE_MATCH);
+        final Response.ResponseBuilder response;
+        if(ifNoneMatch != null && matches(ifNoneMatch, tag)) {
+            response = Response.notModified();
+        } else if(compressed) {
+            response = Response.ok(cached.getGzip(), format.getMediaType()).header(HttpHeaders.CONTENT_ENCODING, GZIP);
+        } else {
+            response = Response.ok(cached.getIdentity(), format.getMediaType());
+        }
+        return response.tag(new EntityTag(tag))
+                       .header(HttpHeaders.VARY, VARY)
+                       .build();
+    }
+
+    /**
+     * Check if the given {@code If-None-Match} header matches the given entity tag.
+     *
+     * @param ifNoneMatch the value of the {@code If-None-Match} header, a list of quoted entity tags or {@code *}.
+     * @param tag the entity tag of the current representation (without quotes).
+     * @return {@code true} if the client already has the current representation.
+     */
+    private static boolean matches(final String ifNoneMatch, final String tag) {
+        for(final String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if(value.equals("*")) {
+                return true;
+            } else if(value.startsWith("W/")) {
+                // weak comparison is used for If-None-Match.
+                value = value.substring(2);
+            }
+            if(value.length() == tag.length() + 2 && value.startsWith("\"") && value.endsWith("\"") && value.regionMatches(1, tag, 0, tag.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the given {@code Accept-Encoding} header accepts gzip.
+     *
+     * @param acceptEncoding the value of the {@code Accept-Encoding} header ({@code null} if not present).
+     * @return {@code true} if gzip is accepted.
+     */
+    private static boolean acceptsGzip(final String acceptEncoding) {
+        if(acceptEncoding == null) {
+            return false;
+        } // else: find gzip without a quality of zero.
+        for(final String coding : acceptEncoding.split(",")) {
+            final String[] parameters = coding.split(";");
+            if(GZIP.equalsIgnoreCase(parameters[0].trim())) {
+                for(int i = 1; i < parameters.length; i++) {
+                    if(ZERO_QUALITY.matcher(parameters[i].trim()).matches()) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+}
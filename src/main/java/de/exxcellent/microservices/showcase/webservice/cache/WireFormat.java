@@ -0,0 +1,101 @@
+package de.exxcellent.microservices.showcase.webservice.cache;
+
+import de.exxcellent.microservices.showcase.webservice.cbor.CborCodec;
+
+import javax.ws.rs.core.MediaType;
+import java.util.Locale;
+
+/**
+ * The formats of the response bodies of the REST API. JSON is the default, CBOR is only chosen if a client prefers it with the {@code Accept} header.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public enum WireFormat {
+    /**
+     * JSON serialized with the generated {@link de.exxcellent.microservices.showcase.webservice.json.JsonCodec}.
+     */
+    JSON(MediaType.APPLICATION_JSON_TYPE),
+    /**
+     * CBOR (RFC 8949) encoded with the {@link CborCodec}.
+     */
+    CBOR(CborCodec.APPLICATION_CBOR_TYPE);
+
+    /**
+     * The quality of a media range without quality parameter.
+     */
+    private static final double DEFAULT_QUALITY = 1.0;
+    private final MediaType mediaType;
+
+    WireFormat(final MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    /**
+     * Get mediaType
+     *
+     * @return value of mediaType
+     */
+    public MediaType getMediaType() {
+        return this.mediaType;
+    }
+
+    /**
+     * Negotiate the format of a response body.
+     *
+     * @param accept the value of the {@code Accept} header ({@code null} if not present).
+     * @return {@link #CBOR} if the most specific media range matching CBOR has a higher quality than the one matching JSON, otherwise {@link #JSON}.
+     */
+    public static WireFormat of(final String accept) {
+        if(accept == null || !accept.toLowerCase(Locale.ROOT).contains("cbor")) {
+            // only clients asking for CBOR explicitly get it, so most requests are not parsed.
+            return JSON;
+        } // else: compare the qualities of both formats.
+        return quality(accept, CBOR.mediaType) > quality(accept, JSON.mediaType) ? CBOR : JSON;
+    }
+
+    /**
+     * Get the quality of the given media type in the given {@code Accept} header.
+     *
+     * @param accept the value of the {@code Accept} header.
+     * @param mediaType the {@link MediaType}.
+     * @return the quality of the most specific media range matching the media type, 0 if no range matches.
+     */
+    private static double quality(final String accept, final MediaType mediaType) {
+        double quality = 0;
+        int specificity = -1;
+        for(final String range : accept.split(",")) {
+            final MediaType candidate;
+            try {
+                candidate = MediaType.valueOf(range.trim());
+            } catch(final IllegalArgumentException e) {
+                // a malformed media range is ignored.
+                continue;
+            }
+            final int candidateSpecificity = candidate.isWildcardType() ? 0 : candidate.isWildcardSubtype() ? 1 : 2;
+            if(candidateSpecificity > specificity && candidate.isCompatible(mediaType)) {
+                specificity = candidateSpecificity;
+                quality = quality(candidate);
+            }
+        }
+        return quality;
+    }
+
+    /**
+     * Get the quality parameter of the given media range.
+     *
+     * @param range the media range.
+     * @return the quality, {@value #DEFAULT_QUALITY} if not given or malformed.
+     */
+    private static double quality(final MediaType range) {
+        final String quality = range.getParameters().get("q");
+        if(quality == null) {
+            return DEFAULT_QUALITY;
+        } // else: parse the quality.
+        try {
+            return Double.parseDouble(quality);
+        } catch(final NumberFormatException e) {
+            return DEFAULT_QUALITY;
+        }
+    }
+}
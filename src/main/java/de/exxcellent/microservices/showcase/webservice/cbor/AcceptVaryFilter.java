@@ -0,0 +1,29 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.Provider;
+
+/**
+ * Adds the {@code Accept} header to the headers a response varies on, if its entity is serialized as JSON or CBOR by the JAX-RS runtime,
+ * as the format depends on the {@code Accept} header of the request. The responses of the
+ * {@link de.exxcellent.microservices.showcase.webservice.cache.ResponseCache} are already serialized and carry the header themselves.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@Provider
+public class AcceptVaryFilter implements ContainerResponseFilter {
+
+    @Override
+    public void filter(final ContainerRequestContext requestContext, final ContainerResponseContext responseContext) {
+        final MediaType mediaType = responseContext.getMediaType();
+        if(responseContext.hasEntity() && !(responseContext.getEntity() instanceof byte[]) && mediaType != null
+           && (mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE) || mediaType.isCompatible(CborCodec.APPLICATION_CBOR_TYPE))) {
+            responseContext.getHeaders().add(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+        }
+    }
+}
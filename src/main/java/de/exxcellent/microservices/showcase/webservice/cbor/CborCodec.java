@@ -0,0 +1,326 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryOfLanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
+
+import javax.ws.rs.core.MediaType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A simple helper class to encode the API types of the language component to CBOR (RFC 8949) and to decode the request bodies from it.
+ * <p>
+ * Each type is encoded as a map with the same keys as its JSON representation, collections as arrays and, like with JSON-B,
+ * {@code null} properties are left out. So a client reads the CBOR body with any CBOR library just like the JSON body,
+ * but the body is smaller and encoding and parsing do not have to format and scan text.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class CborCodec {
+    /**
+     * The media type of CBOR.
+     */
+    public static final String APPLICATION_CBOR = "application/cbor";
+    /**
+     * The media type of CBOR.
+     */
+    public static final MediaType APPLICATION_CBOR_TYPE = MediaType.valueOf(APPLICATION_CBOR);
+    /**
+     * The estimated number of bytes of an encoded item of a collection, to size the buffer.
+     */
+    private static final int ITEM_BYTES = 32;
+    private static final String SHORT_NAME = "shortName";
+    private static final String NAME = "name";
+    private static final String DISPLAY_NAME = "displayName";
+    private static final String COUNTRY_SHORT_NAME = "countryShortName";
+    private static final String LANGUAGE = "language";
+    private static final String LANGUAGES = "languages";
+    private static final String OFFICIAL = "official";
+    private static final String POPULATION_SHARE = "populationShare";
+    private static final String PRIMARY = "primary";
+    private static final String COUNTRIES = "countries";
+    private static final String ITEMS = "items";
+    private static final String NEXT_CURSOR = "nextCursor";
+    private static final String FOUND = "found";
+    private static final String MISSING = "missing";
+    private static final String RANGE = "range";
+    private static final String QUALITY = "quality";
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private CborCodec() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "CborCodec is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Check if entities of the given type can be encoded.
+     *
+     * @param type the class of the entity.
+     * @return {@code true} for the API types of the language component and collections of them.
+     */
+    static boolean isWriteable(final Class<?> type) {
+        return Collection.class.isAssignableFrom(type) || type == LanguageTO.class || type == CountryWithLanguageCTO.class || type == LanguageOfCountryTO.class
+               || type == CountriesOfLanguageCTO.class || type == CountryOfLanguageTO.class || type == PageCTO.class || type == LookupResultCTO.class
+               || type == LanguageMatchCTO.class;
+    }
+
+    /**
+     * Check if entities of the given type can be decoded.
+     *
+     * @param type the class of the entity.
+     * @param genericType the generic type of the entity.
+     * @return {@code true} for the request bodies of the language component: {@link LanguageTO}, {@link CountryWithLanguageCTO},
+     * {@link LanguageOfCountryTO} and lists of short names.
+     */
+    static boolean isReadable(final Class<?> type, final Type genericType) {
+        return type == LanguageTO.class || type == CountryWithLanguageCTO.class || type == LanguageOfCountryTO.class
+               || (type == List.class && genericType instanceof ParameterizedType
+                   && ((ParameterizedType) genericType).getActualTypeArguments()[0] == String.class);
+    }
+
+    /**
+     * Encode the given entity.
+     *
+     * @param entity the entity, an API type of the language component, a string or a collection of them (not {@code null}).
+     * @return the CBOR encoded entity.
+     * @exception TechnicalException with {@link ErrorCode#INTERNAL_ERROR} if the entity (or an item of it) cannot be encoded.
+     */
+    public static byte[] encode(final Object entity) {
+        final CborWriter writer = new CborWriter(entity instanceof Collection ? ((Collection<?>) entity).size() * ITEM_BYTES : ITEM_BYTES * 2);
+        write(writer, entity);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Decode an entity of the given type.
+     *
+     * @param bytes the CBOR encoded entity.
+     * @param type the class of the entity, see {@link #isReadable(Class, Type)}.
+     * @return the decoded entity, not yet validated.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the bytes are no valid encoding of the type.
+     */
+    static Object decode(final byte[] bytes, final Class<?> type) {
+        final CborReader reader = new CborReader(bytes);
+        final Object entity;
+        if(reader.readNull()) {
+            entity = null;
+        } else if(type == LanguageTO.class) {
+            entity = readLanguage(reader);
+        } else if(type == CountryWithLanguageCTO.class) {
+            entity = readCountryWithLanguage(reader);
+        } else if(type == LanguageOfCountryTO.class) {
+            entity = readLanguageOfCountry(reader);
+        } else {
+            entity = readTexts(reader);
+        }
+        reader.checkEnd();
+        return entity;
+    }
+
+    /**
+     * Write the given entity.
+     *
+     * @param writer the {@link CborWriter}.
+     * @param entity the entity.
+     */
+    private static void write(final CborWriter writer, final Object entity) {
+        if(entity instanceof LanguageTO) {
+            writeLanguage(writer, (LanguageTO) entity);
+        } else if(entity instanceof CountryWithLanguageCTO) {
+            writeCountryWithLanguage(writer, (CountryWithLanguageCTO) entity);
+        } else if(entity instanceof Collection) {
+            writeItems(writer, (Collection<?>) entity);
+        } else if(entity instanceof LanguageOfCountryTO) {
+            writeLanguageOfCountry(writer, (LanguageOfCountryTO) entity);
+        } else if(entity instanceof CountryOfLanguageTO) {
+            writeCountryOfLanguage(writer, (CountryOfLanguageTO) entity);
+        } else if(entity instanceof CountriesOfLanguageCTO) {
+            final CountriesOfLanguageCTO countriesOfLanguage = (CountriesOfLanguageCTO) entity;
+            writer.writeMapHeader(count(countriesOfLanguage.getLanguage(), countriesOfLanguage.getCountries()));
+            writeProperty(writer, LANGUAGE, countriesOfLanguage.getLanguage());
+            writeProperty(writer, COUNTRIES, countriesOfLanguage.getCountries());
+        } else if(entity instanceof PageCTO) {
+            final PageCTO<?> page = (PageCTO<?>) entity;
+            writer.writeMapHeader(count(page.getItems(), page.getNextCursor()));
+            writeProperty(writer, ITEMS, page.getItems());
+            writeProperty(writer, NEXT_CURSOR, page.getNextCursor());
+        } else if(entity instanceof LookupResultCTO) {
+            final LookupResultCTO<?> lookup = (LookupResultCTO<?>) entity;
+            writer.writeMapHeader(count(lookup.getFound(), lookup.getMissing()));
+            writeProperty(writer, FOUND, lookup.getFound());
+            writeProperty(writer, MISSING, lookup.getMissing());
+        } else if(entity instanceof LanguageMatchCTO) {
+            final LanguageMatchCTO match = (LanguageMatchCTO) entity;
+            writer.writeMapHeader(count(match.getLanguage(), match.getRange(), match.getQuality()));
+            writeProperty(writer, LANGUAGE, match.getLanguage());
+            writeProperty(writer, RANGE, match.getRange());
+            writeProperty(writer, QUALITY, match.getQuality());
+        } else if(entity instanceof String) {
+            writer.writeText((String) entity);
+        } else {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Cannot encode " + entity.getClass().getName() + " to CBOR");
+        }
+    }
+
+    private static void writeLanguage(final CborWriter writer, final LanguageTO language) {
+        writer.writeMapHeader(count(language.getShortName(), language.getName(), language.getDisplayName()));
+        writeProperty(writer, SHORT_NAME, language.getShortName());
+        writeProperty(writer, NAME, language.getName());
+        writeProperty(writer, DISPLAY_NAME, language.getDisplayName());
+    }
+
+    private static void writeCountryWithLanguage(final CborWriter writer, final CountryWithLanguageCTO countryWithLanguage) {
+        writer.writeMapHeader(count(countryWithLanguage.getCountryShortName(), countryWithLanguage.getLanguage(), countryWithLanguage.getLanguages()));
+        writeProperty(writer, COUNTRY_SHORT_NAME, countryWithLanguage.getCountryShortName());
+        writeProperty(writer, LANGUAGE, countryWithLanguage.getLanguage());
+        writeProperty(writer, LANGUAGES, countryWithLanguage.getLanguages());
+    }
+
+    private static void writeLanguageOfCountry(final CborWriter writer, final LanguageOfCountryTO languageOfCountry) {
+        writer.writeMapHeader(count(languageOfCountry.getLanguage(), languageOfCountry.getOfficial(), languageOfCountry.getPopulationShare()));
+        writeProperty(writer, LANGUAGE, languageOfCountry.getLanguage());
+        writeProperty(writer, OFFICIAL, languageOfCountry.getOfficial());
+        writeProperty(writer, POPULATION_SHARE, languageOfCountry.getPopulationShare());
+    }
+
+    private static void writeCountryOfLanguage(final CborWriter writer, final CountryOfLanguageTO countryOfLanguage) {
+        writer.writeMapHeader(1 + count(countryOfLanguage.getCountryShortName(), countryOfLanguage.getOfficial(), countryOfLanguage.getPopulationShare()));
+        writeProperty(writer, COUNTRY_SHORT_NAME, countryOfLanguage.getCountryShortName());
+        writeProperty(writer, PRIMARY, countryOfLanguage.isPrimary());
+        writeProperty(writer, OFFICIAL, countryOfLanguage.getOfficial());
+        writeProperty(writer, POPULATION_SHARE, countryOfLanguage.getPopulationShare());
+    }
+
+    private static void writeItems(final CborWriter writer, final Collection<?> items) {
+        writer.writeArrayHeader(items.size());
+        for(final Object item : items) {
+            write(writer, item);
+        }
+    }
+
+    /**
+     * Write a property as map entry, if its value is not {@code null}.
+     *
+     * @param writer the {@link CborWriter}.
+     * @param key the name of the property.
+     * @param value the value of the property ({@code null} if not set).
+     */
+    private static void writeProperty(final CborWriter writer, final String key, final Object value) {
+        if(value == null) {
+            return;
+        } // else: write the key and the value.
+        writer.writeText(key);
+        if(value instanceof Boolean) {
+            writer.writeBoolean((Boolean) value);
+        } else if(value instanceof Double) {
+            writer.writeDouble((Double) value);
+        } else {
+            write(writer, value);
+        }
+    }
+
+    /**
+     * Count the properties which are not {@code null}, i.e. the entries of the map.
+     *
+     * @param values the values of the properties.
+     * @return the number of values which are not {@code null}.
+     */
+    private static int count(final Object... values) {
+        int count = 0;
+        for(final Object value : values) {
+            if(value != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static LanguageTO readLanguage(final CborReader reader) {
+        final LanguageTO language = new LanguageTO();
+        final int length = reader.readMapHeader();
+        for(int i = 0; reader.hasNext(length, i); i++) {
+            final String key = reader.readText();
+            if(reader.readNull()) {
+                continue;
+            } else if(SHORT_NAME.equals(key)) {
+                language.setShortName(reader.readText());
+            } else if(NAME.equals(key)) {
+                language.setName(reader.readText());
+            } else if(DISPLAY_NAME.equals(key)) {
+                language.setDisplayName(reader.readText());
+            } else {
+                reader.skip();
+            }
+        }
+        return language;
+    }
+
+    private static CountryWithLanguageCTO readCountryWithLanguage(final CborReader reader) {
+        final CountryWithLanguageCTO countryWithLanguage = new CountryWithLanguageCTO();
+        final int length = reader.readMapHeader();
+        for(int i = 0; reader.hasNext(length, i); i++) {
+            final String key = reader.readText();
+            if(reader.readNull()) {
+                continue;
+            } else if(COUNTRY_SHORT_NAME.equals(key)) {
+                countryWithLanguage.setCountryShortName(reader.readText());
+            } else if(LANGUAGE.equals(key)) {
+                countryWithLanguage.setLanguage(readLanguage(reader));
+            } else if(LANGUAGES.equals(key)) {
+                final List<LanguageOfCountryTO> languages = new ArrayList<>();
+                final int items = reader.readArrayHeader();
+                for(int j = 0; reader.hasNext(items, j); j++) {
+                    languages.add(reader.readNull() ? null : readLanguageOfCountry(reader));
+                }
+                countryWithLanguage.setLanguages(languages);
+            } else {
+                reader.skip();
+            }
+        }
+        return countryWithLanguage;
+    }
+
+    private static LanguageOfCountryTO readLanguageOfCountry(final CborReader reader) {
+        final LanguageOfCountryTO languageOfCountry = new LanguageOfCountryTO();
+        final int length = reader.readMapHeader();
+        for(int i = 0; reader.hasNext(length, i); i++) {
+            final String key = reader.readText();
+            if(reader.readNull()) {
+                continue;
+            } else if(LANGUAGE.equals(key)) {
+                languageOfCountry.setLanguage(readLanguage(reader));
+            } else if(OFFICIAL.equals(key)) {
+                languageOfCountry.setOfficial(reader.readBoolean());
+            } else if(POPULATION_SHARE.equals(key)) {
+                languageOfCountry.setPopulationShare(reader.readDouble());
+            } else {
+                reader.skip();
+            }
+        }
+        return languageOfCountry;
+    }
+
+    private static List<String> readTexts(final CborReader reader) {
+        final List<String> texts = new ArrayList<>();
+        final int length = reader.readArrayHeader();
+        for(int i = 0; reader.hasNext(length, i); i++) {
+            texts.add(reader.readNull() ? null : reader.readText());
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,33 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes the API types of the language component as CBOR for clients accepting {@value CborCodec#APPLICATION_CBOR}, see {@link CborCodec}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@Provider
+@Produces(CborCodec.APPLICATION_CBOR)
+public class CborMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return CborCodec.isWriteable(type);
+    }
+
+    @Override
+    public void writeTo(final Object entity, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType,
+                        final MultivaluedMap<String, Object> httpHeaders, final OutputStream entityStream) throws IOException {
+        entityStream.write(CborCodec.encode(entity));
+    }
+}
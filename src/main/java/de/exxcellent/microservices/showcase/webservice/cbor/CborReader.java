@@ -0,0 +1,364 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads data items of the Concise Binary Object Representation (CBOR, RFC 8949) from a byte array.
+ * Maps and arrays may have a definite or an indefinite length, numbers may be integers or floating point numbers of any precision.
+ * Items not needed by the API types (e.g. unknown map entries) are skipped, tags are ignored.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class CborReader {
+    /**
+     * The length of a map or an array of indefinite length, which ends with a break.
+     */
+    static final int INDEFINITE = -1;
+    private static final int MAJOR_UNSIGNED = 0;
+    private static final int MAJOR_NEGATIVE = 1;
+    private static final int MAJOR_BYTES = 2;
+    private static final int MAJOR_TEXT = 3;
+    private static final int MAJOR_ARRAY = 4;
+    private static final int MAJOR_MAP = 5;
+    private static final int MAJOR_TAG = 6;
+    private static final int MAJOR_SIMPLE = 7;
+    private static final int FALSE = 20;
+    private static final int TRUE = 21;
+    private static final int NULL = 22;
+    private static final int UNDEFINED = 23;
+    private static final int FLOAT16 = 25;
+    private static final int FLOAT32 = 26;
+    private static final int FLOAT64 = 27;
+    private static final int BREAK = 0xFF;
+    /**
+     * The maximum nesting of skipped maps and arrays.
+     */
+    private static final int MAX_DEPTH = 64;
+
+    private final byte[] bytes;
+    private int position;
+
+    /**
+     * Constructor.
+     *
+     * @param bytes the encoded data items.
+     */
+    CborReader(final byte[] bytes) {
+        this.bytes = bytes;
+    }
+
+    /**
+     * Read the head of a map.
+     *
+     * @return the number of entries or {@link #INDEFINITE}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next item is not a map.
+     */
+    int readMapHeader() {
+        return readLength(MAJOR_MAP, "map");
+    }
+
+    /**
+     * Read the head of an array.
+     *
+     * @return the number of items or {@link #INDEFINITE}.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next item is not an array.
+     */
+    int readArrayHeader() {
+        return readLength(MAJOR_ARRAY, "array");
+    }
+
+    /**
+     * Check if a map or an array has a further entry or item, and read the break ending it if not.
+     *
+     * @param length the length of the map or the array ({@link #INDEFINITE} if not known).
+     * @param index the number of entries or items read so far.
+     * @return {@code true} if a further entry or item follows.
+     */
+    boolean hasNext(final int length, final int index) {
+        if(length != INDEFINITE) {
+            return index < length;
+        } else if((peek() & 0xFF) == BREAK) {
+            this.position++;
+            return false;
+        } else {
+            return true;
+        }
+    }
+
+    /**
+     * Read a text string.
+     *
+     * @return the text.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next item is not a text string of definite length.
+     */
+    String readText() {
+        skipTags();
+        final int initial = read();
+        if(initial >>> 5 != MAJOR_TEXT) {
+            throw malformed("Expected a text string");
+        } // else: read the UTF-8 bytes.
+        final long length = readArgument(initial);
+        if(isIndefinite(initial)) {
+            throw malformed("Text strings of indefinite length are not supported");
+        } else if(length < 0 || length > this.bytes.length - this.position) {
+            throw malformed("Text string is truncated");
+        }
+        final String text = new String(this.bytes, this.position, (int) length, StandardCharsets.UTF_8);
+        this.position += (int) length;
+        return text;
+    }
+
+    /**
+     * Read a boolean.
+     *
+     * @return the value.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next item is not a boolean.
+     */
+    boolean readBoolean() {
+        skipTags();
+        final int initial = read();
+        if(initial == (MAJOR_SIMPLE << 5 | TRUE)) {
+            return true;
+        } else if(initial == (MAJOR_SIMPLE << 5 | FALSE)) {
+            return false;
+        } else {
+            throw malformed("Expected a boolean");
+        }
+    }
+
+    /**
+     * Read a number.
+     *
+     * @return the value of an integer or a floating point number.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the next item is not a number.
+     */
+    double readDouble() {
+        skipTags();
+        final int initial = read();
+        final int major = initial >>> 5;
+        final int additional = initial & 0x1F;
+        if(major == MAJOR_UNSIGNED || major == MAJOR_NEGATIVE) {
+            final long argument = readArgument(initial);
+            return major == MAJOR_UNSIGNED ? unsigned(argument) : -1 - unsigned(argument);
+        } else if(major != MAJOR_SIMPLE) {
+            throw malformed("Expected a number");
+        } else if(additional == FLOAT16) {
+            return halfToDouble((int) readBytes(2));
+        } else if(additional == FLOAT32) {
+            return Float.intBitsToFloat((int) readBytes(4));
+        } else if(additional == FLOAT64) {
+            return Double.longBitsToDouble(readBytes(8));
+        } else {
+            throw malformed("Expected a number");
+        }
+    }
+
+    /**
+     * Read a null (or undefined) value if it is the next item.
+     *
+     * @return {@code true} if a null value was read, {@code false} if the next item is not null and was not read.
+     */
+    boolean readNull() {
+        skipTags();
+        final int initial = peek() & 0xFF;
+        if(initial == (MAJOR_SIMPLE << 5 | NULL) || initial == (MAJOR_SIMPLE << 5 | UNDEFINED)) {
+            this.position++;
+            return true;
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Skip the next item including all nested items.
+     *
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the item is malformed.
+     */
+    void skip() {
+        skip(0);
+    }
+
+    /**
+     * Check that all bytes were read.
+     *
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if bytes are left after the read items.
+     */
+    void checkEnd() {
+        if(this.position != this.bytes.length) {
+            throw malformed("Unexpected data after the first item");
+        }
+    }
+
+    /**
+     * Skip the next item including all nested items.
+     *
+     * @param depth the nesting of the item.
+     */
+    private void skip(final int depth) {
+        if(depth > MAX_DEPTH) {
+            throw malformed("Items are nested too deep");
+        } // else: skip the item.
+        final int initial = read();
+        final int major = initial >>> 5;
+        final long argument = readArgument(initial);
+        final boolean indefinite = isIndefinite(initial);
+        if(!indefinite && (major == MAJOR_BYTES || major == MAJOR_TEXT || major == MAJOR_ARRAY || major == MAJOR_MAP)
+           && (argument < 0 || argument > this.bytes.length - this.position)) {
+            // each byte, entry or item needs at least one byte.
+            throw malformed("Item is truncated");
+        } else if(major == MAJOR_BYTES || major == MAJOR_TEXT) {
+            if(indefinite) {
+                // indefinite length strings consist of definite length chunks.
+                while((peek() & 0xFF) != BREAK) {
+                    skip(depth + 1);
+                }
+                this.position++;
+            } else {
+                this.position += (int) argument;
+            }
+        } else if(major == MAJOR_ARRAY || major == MAJOR_MAP) {
+            final long items = major == MAJOR_MAP ? argument * 2 : argument;
+            for(long i = 0; indefinite ? (peek() & 0xFF) != BREAK : i < items; i++) {
+                skip(depth + 1);
+            }
+            if(indefinite) {
+                this.position++;
+            }
+        } else if(major == MAJOR_TAG) {
+            skip(depth + 1);
+        } // else: integers and simple values consist of their head only.
+    }
+
+    /**
+     * Read the head of a map or an array.
+     *
+     * @param major the expected major type.
+     * @param type the name of the expected type for the error message.
+     * @return the length or {@link #INDEFINITE}.
+     */
+    private int readLength(final int major, final String type) {
+        skipTags();
+        final int initial = read();
+        if(initial >>> 5 != major) {
+            throw malformed("Expected a " + type);
+        } // else: read the length.
+        final long length = readArgument(initial);
+        if(isIndefinite(initial)) {
+            return INDEFINITE;
+        } else if(length < 0 || length > this.bytes.length - this.position) {
+            // each entry or item needs at least one byte.
+            throw malformed("The " + type + " is truncated");
+        } else {
+            return (int) length;
+        }
+    }
+
+    /**
+     * Skip the tags of the next item, as they are not needed to read the API types.
+     */
+    private void skipTags() {
+        while(((peek() & 0xFF) >>> 5) == MAJOR_TAG) {
+            readArgument(read());
+        }
+    }
+
+    /**
+     * Check if the given head starts a string, an array or a map of indefinite length.
+     *
+     * @param initial the initial byte of the head.
+     * @return {@code true} if the length is indefinite.
+     */
+    private static boolean isIndefinite(final int initial) {
+        return (initial & 0x1F) == 31 && initial >>> 5 >= MAJOR_BYTES && initial >>> 5 <= MAJOR_MAP;
+    }
+
+    /**
+     * Read the argument of the given head.
+     *
+     * @param initial the initial byte of the head.
+     * @return the argument (as unsigned value, so arguments of 8 bytes may be negative), 0 for an indefinite length.
+     */
+    private long readArgument(final int initial) {
+        final int additional = initial & 0x1F;
+        if(additional < 24) {
+            return additional;
+        } else if(additional <= 27) {
+            return readBytes(1 << (additional - 24));
+        } else if(isIndefinite(initial)) {
+            return 0;
+        } else if(additional == 31 && initial == BREAK) {
+            throw malformed("Unexpected break");
+        } else {
+            throw malformed("Reserved additional information " + additional);
+        }
+    }
+
+    /**
+     * Read the given number of bytes in network byte order.
+     *
+     * @param count the number of bytes (at most 8).
+     * @return the bytes as value.
+     */
+    private long readBytes(final int count) {
+        if(count > this.bytes.length - this.position) {
+            throw malformed("Unexpected end of data");
+        } // else: read the bytes.
+        long value = 0;
+        for(int i = 0; i < count; i++) {
+            value = value << 8 | (this.bytes[this.position++] & 0xFF);
+        }
+        return value;
+    }
+
+    private int read() {
+        if(this.position >= this.bytes.length) {
+            throw malformed("Unexpected end of data");
+        }
+        return this.bytes[this.position++] & 0xFF;
+    }
+
+    private byte peek() {
+        if(this.position >= this.bytes.length) {
+            throw malformed("Unexpected end of data");
+        }
+        return this.bytes[this.position];
+    }
+
+    /**
+     * Convert an unsigned 64 bit value to a double.
+     *
+     * @param value the unsigned value.
+     * @return the value as double.
+     */
+    private static double unsigned(final long value) {
+        return value >= 0 ? value : (value >>> 1) * 2.0 + (value & 1);
+    }
+
+    /**
+     * Convert a half precision floating point number (IEEE 754 binary16) to a double.
+     *
+     * @param half the bits of the half precision number.
+     * @return the value as double.
+     */
+    private static double halfToDouble(final int half) {
+        final int exponent = (half >> 10) & 0x1F;
+        final int mantissa = half & 0x3FF;
+        final double value;
+        if(exponent == 0) {
+            value = mantissa * Math.pow(2, -24);
+        } else if(exponent != 31) {
+            value = (mantissa + 1024) * Math.pow(2, exponent - 25);
+        } else {
+            value = mantissa == 0 ? Double.POSITIVE_INFINITY : Double.NaN;
+        }
+        return (half & 0x8000) != 0 ? -value : value;
+    }
+
+    private BusinessException malformed(final String message) {
+        return new BusinessException(ErrorCode.INVALID_ARGUMENT_ERROR, "Malformed CBOR at byte " + this.position + ": " + message);
+    }
+}
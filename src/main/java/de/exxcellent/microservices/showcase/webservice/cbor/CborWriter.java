@@ -0,0 +1,161 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Writes data items of the Concise Binary Object Representation (CBOR, RFC 8949) into a growing byte array.
+ * Only the items used by the API types are supported: definite length maps and arrays, text strings, booleans and floating point numbers.
+ * Each item is written with the shortest head, so a body is smaller than its JSON representation.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+final class CborWriter {
+    private static final int MAJOR_TEXT = 3 << 5;
+    private static final int MAJOR_ARRAY = 4 << 5;
+    private static final int MAJOR_MAP = 5 << 5;
+    private static final int FALSE = 0xF4;
+    private static final int TRUE = 0xF5;
+    private static final int FLOAT32 = 0xFA;
+    private static final int FLOAT64 = 0xFB;
+
+    private byte[] buffer;
+    private int size;
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the initial capacity of the buffer in bytes.
+     */
+    CborWriter(final int capacity) {
+        this.buffer = new byte[Math.max(capacity, 16)];
+    }
+
+    /**
+     * Write the head of a map.
+     *
+     * @param entries the number of entries of the map.
+     */
+    void writeMapHeader(final int entries) {
+        writeHead(MAJOR_MAP, entries);
+    }
+
+    /**
+     * Write the head of an array.
+     *
+     * @param items the number of items of the array.
+     */
+    void writeArrayHeader(final int items) {
+        writeHead(MAJOR_ARRAY, items);
+    }
+
+    /**
+     * Write a text string.
+     *
+     * @param text the text (not {@code null}).
+     */
+    void writeText(final String text) {
+        final int length = text.length();
+        int ascii = 0;
+        while(ascii < length && text.charAt(ascii) < 0x80) {
+            ascii++;
+        }
+        if(ascii < length) {
+            // only non-ASCII text is encoded by the JDK, as the head needs the number of bytes.
+            final byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            writeHead(MAJOR_TEXT, utf8.length);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, this.buffer, this.size, utf8.length);
+            this.size += utf8.length;
+            return;
+        } // else: ASCII text has one byte per character.
+        writeHead(MAJOR_TEXT, length);
+        ensureCapacity(length);
+        for(int i = 0; i < length; i++) {
+            this.buffer[this.size++] = (byte) text.charAt(i);
+        }
+    }
+
+    /**
+     * Write a boolean.
+     *
+     * @param value the value.
+     */
+    void writeBoolean(final boolean value) {
+        ensureCapacity(1);
+        this.buffer[this.size++] = (byte) (value ? TRUE : FALSE);
+    }
+
+    /**
+     * Write a floating point number, as single precision if this does not lose precision.
+     *
+     * @param value the value.
+     */
+    void writeDouble(final double value) {
+        final float single = (float) value;
+        if(single == value || Double.isNaN(value)) {
+            ensureCapacity(5);
+            this.buffer[this.size++] = (byte) FLOAT32;
+            writeBytes(Float.floatToIntBits(single), 4);
+        } else {
+            ensureCapacity(9);
+            this.buffer[this.size++] = (byte) FLOAT64;
+            writeBytes(Double.doubleToLongBits(value), 8);
+        }
+    }
+
+    /**
+     * Get the written bytes.
+     *
+     * @return a copy of the written bytes.
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.size);
+    }
+
+    /**
+     * Write the head of a data item with the shortest encoding of its argument.
+     *
+     * @param major the major type in the upper three bits.
+     * @param argument the argument (a length or a count).
+     */
+    private void writeHead(final int major, final int argument) {
+        ensureCapacity(5);
+        if(argument < 24) {
+            this.buffer[this.size++] = (byte) (major | argument);
+        } else if(argument < 0x100) {
+            this.buffer[this.size++] = (byte) (major | 24);
+            writeBytes(argument, 1);
+        } else if(argument < 0x10000) {
+            this.buffer[this.size++] = (byte) (major | 25);
+            writeBytes(argument, 2);
+        } else {
+            this.buffer[this.size++] = (byte) (major | 26);
+            writeBytes(argument, 4);
+        }
+    }
+
+    /**
+     * Write the lower bytes of the given value in network byte order. The capacity must already be ensured.
+     *
+     * @param value the value.
+     * @param bytes the number of bytes to write.
+     */
+    private void writeBytes(final long value, final int bytes) {
+        for(int shift = (bytes - 1) * 8; shift >= 0; shift -= 8) {
+            this.buffer[this.size++] = (byte) (value >>> shift);
+        }
+    }
+
+    /**
+     * Grow the buffer if it has not space for the given number of bytes.
+     *
+     * @param bytes the number of bytes to be written.
+     */
+    private void ensureCapacity(final int bytes) {
+        if(this.size + bytes > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length * 2, this.size + bytes));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package de.exxcellent.microservices.showcase.webservice.diagnostics;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import java.util.List;
+
+/**
+ * Provides the admin REST API to inspect the {@link RequestDiagnostics}.
+ *
+ * @author Felix Riess
+ * @since 12.02.20
+ */
+@Path("/api/v1/admin/diagnostics")
+@Produces(MediaType.APPLICATION_JSON)
+public class DiagnosticsFacade {
+
+    private final RequestDiagnostics requestDiagnostics;
+
+    @Inject
+    DiagnosticsFacade(final RequestDiagnostics requestDiagnostics) {
+        this.requestDiagnostics = requestDiagnostics;
+    }
+
+    /**
+     * Dump the recent traces of the sampled requests.
+     *
+     * @return the traces kept in the ring buffer as {@link List} of {@link RequestTraceTO}s, the latest first.
+     */
+    @GET
+    @Path("traces")
+    public List<RequestTraceTO> getRecentTraces() {
+        return this.requestDiagnostics.getRecentTraces();
+    }
+}
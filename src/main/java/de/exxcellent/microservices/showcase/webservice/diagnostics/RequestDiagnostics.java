@@ -0,0 +1,149 @@
+package de.exxcellent.microservices.showcase.webservice.diagnostics;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import javax.inject.Inject;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Low-overhead diagnostics of the HTTP requests, replacing logging on every layer of every request.
+ * A sample of the requests (property {@code language.diagnostics.sample-rate}) is traced by a handler in front of all other routes,
+ * so requests served by the JAX-RS facades and on the event loop are traced alike. Requests not sampled only cost one random number.
+ * <p>
+ * The traces are kept in a ring buffer of the recent traces (property {@code language.diagnostics.buffer-size}), which can be dumped with the
+ * {@link DiagnosticsFacade}, and are written to the log in batches by a background thread (every {@code language.diagnostics.flush-interval} milliseconds),
+ * so the request threads never format or write log output.
+ *
+ * @author Felix Riess
+ * @since 12.02.20
+ */
+@ApplicationScoped
+public class RequestDiagnostics {
+    /**
+     * The {@link Logger} of the batched request traces.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(RequestDiagnostics.class);
+    /**
+     * The probability of a request to be traced.
+     */
+    private final double sampleRate;
+    /**
+     * The recent traces.
+     */
+    private final TraceBuffer traces;
+    /**
+     * Writes the traces to the log in batches, {@code null} if no requests are traced.
+     */
+    private final ScheduledExecutorService logWriter;
+    /**
+     * The sequence number of the latest trace written to the log. Only accessed by the {@link #logWriter}.
+     */
+    private long loggedSequence;
+
+    @Inject
+    RequestDiagnostics(@ConfigProperty(name = "language.diagnostics.sample-rate", defaultValue = "0.01") final double sampleRate,
+                       @ConfigProperty(name = "language.diagnostics.buffer-size", defaultValue = "256") final int bufferSize,
+                       @ConfigProperty(name = "language.diagnostics.flush-interval", defaultValue = "1000") final long flushInterval) {
+        if(sampleRate < 0 || sampleRate > 1 || bufferSize <= 0 || flushInterval <= 0) {
+            throw new TechnicalException(ErrorCode.INTERNAL_ERROR, "Invalid diagnostics configuration: sample rate must be between 0 and 1, buffer size and flush interval must be positive");
+        } // else: configuration is valid.
+        this.sampleRate = sampleRate;
+        this.traces = new TraceBuffer(bufferSize);
+        if(sampleRate > 0) {
+            this.logWriter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "request-diagnostics");
+                thread.setDaemon(true);
+                return thread;
+            });
+            this.logWriter.scheduleWithFixedDelay(this::writeLog, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        } else {
+            this.logWriter = null;
+        }
+    }
+
+    /**
+     * Register the tracing handler in front of all other routes of the given {@link Router}.
+     *
+     * @param router the {@link Router} of the HTTP server, observed on startup.
+     */
+    void registerTracing(@Observes final Router router) {
+        if(this.sampleRate > 0) {
+            router.route().order(Integer.MIN_VALUE).handler(this::trace);
+        }
+    }
+
+    /**
+     * Get the recent traces.
+     *
+     * @return the traces kept in the ring buffer as {@link List} of {@link RequestTraceTO}s, the latest first.
+     */
+    public List<RequestTraceTO> getRecentTraces() {
+        final List<RequestTraceTO> recentTraces = this.traces.since(0);
+        Collections.reverse(recentTraces);
+        return recentTraces;
+    }
+
+    /**
+     * Trace the request of the given {@link RoutingContext} if it is sampled, and pass it on to the next route.
+     *
+     * @param context the {@link RoutingContext} of the request.
+     */
+    private void trace(final RoutingContext context) {
+        if(this.sampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < this.sampleRate) {
+            final long startedAt = System.currentTimeMillis();
+            final long start = System.nanoTime();
+            context.addBodyEndHandler(ignored -> {
+                final long duration = System.nanoTime() - start;
+                final HttpServerRequest request = context.request();
+                this.traces.add(new RequestTraceTO(this.traces.nextSequence(), startedAt, request.rawMethod(), request.uri(),
+                                                   context.response().getStatusCode(), context.response().bytesWritten(),
+                                                   TimeUnit.NANOSECONDS.toMicros(duration)));
+            });
+        }
+        context.next();
+    }
+
+    /**
+     * Write the traces added since the last run to the log as one batch.
+     */
+    private void writeLog() {
+        final long latestSequence = this.traces.latestSequence();
+        if(latestSequence == this.loggedSequence || !LOG.isInfoEnabled()) {
+            this.loggedSequence = latestSequence;
+            return;
+        } // else: write the new traces.
+        final List<RequestTraceTO> newTraces = this.traces.since(this.loggedSequence);
+        final StringBuilder batch = new StringBuilder(newTraces.size() * 160);
+        for(final RequestTraceTO trace : newTraces) {
+            batch.append(System.lineSeparator()).append(trace);
+        }
+        final long skippedTraces = latestSequence - this.loggedSequence - newTraces.size();
+        LOG.info("{} sampled requests ({} skipped as overwritten or incomplete):{}", newTraces.size(), skippedTraces, batch);
+        this.loggedSequence = latestSequence;
+    }
+
+    /**
+     * Stop writing the traces to the log.
+     */
+    @PreDestroy
+    void stop() {
+        if(this.logWriter != null) {
+            this.logWriter.shutdown();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package de.exxcellent.microservices.showcase.webservice.diagnostics;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * The transport object (TO) of the trace of a single HTTP request.
+ *
+ * @author Felix Riess
+ * @since 12.02.20
+ */
+public class RequestTraceTO implements Serializable {
+    /**
+     * generated serialVersionUID
+     */
+    private static final long serialVersionUID = -3216549873025847361L;
+    /**
+     * the sequence number of the trace, increasing with every traced request.
+     */
+    private long sequence;
+    /**
+     * the start of the request in milliseconds since the epoch.
+     */
+    private long startedAt;
+    /**
+     * the HTTP method of the request.
+     */
+    private String method;
+    /**
+     * the path and query of the request.
+     */
+    private String uri;
+    /**
+     * the HTTP status of the response.
+     */
+    private int status;
+    /**
+     * the number of bytes of the response body.
+     */
+    private long responseBytes;
+    /**
+     * the time from receiving the request to sending the response in microseconds.
+     */
+    private long durationMicros;
+
+    /**
+     * empty constructor for JSON mapping.
+     */
+    public RequestTraceTO() {
+
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param sequence the sequence number of the trace.
+     * @param startedAt the start of the request in milliseconds since the epoch.
+     * @param method the HTTP method of the request.
+     * @param uri the path and query of the request.
+     * @param status the HTTP status of the response.
+     * @param responseBytes the number of bytes of the response body.
+     * @param durationMicros the time from receiving the request to sending the response in microseconds.
+     */
+    public RequestTraceTO(final long sequence, final long startedAt, final String method, final String uri, final int status,
+                          final long responseBytes, final long durationMicros) {
+        this.sequence = sequence;
+        this.startedAt = startedAt;
+        this.method = method;
+        this.uri = uri;
+        this.status = status;
+        this.responseBytes = responseBytes;
+        this.durationMicros = durationMicros;
+    }
+
+    public long getSequence() {
+        return this.sequence;
+    }
+
+    public void setSequence(final long sequence) {
+        this.sequence = sequence;
+    }
+
+    public long getStartedAt() {
+        return this.startedAt;
+    }
+
+    public void setStartedAt(final long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public String getMethod() {
+        return this.method;
+    }
+
+    public void setMethod(final String method) {
+        this.method = method;
+    }
+
+    public String getUri() {
+        return this.uri;
+    }
+
+    public void setUri(final String uri) {
+        this.uri = uri;
+    }
+
+    public int getStatus() {
+        return this.status;
+    }
+
+    public void setStatus(final int status) {
+        this.status = status;
+    }
+
+    public long getResponseBytes() {
+        return this.responseBytes;
+    }
+
+    public void setResponseBytes(final long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    public long getDurationMicros() {
+        return this.durationMicros;
+    }
+
+    public void setDurationMicros(final long durationMicros) {
+        this.durationMicros = durationMicros;
+    }
+
+    @Override
+    public String toString() {
+        return "RequestTraceTO{" +
+                        "sequence=" + this.sequence +
+                        ", startedAt=" + Instant.ofEpochMilli(this.startedAt) +
+                        ", method='" + this.method + '\'' +
+                        ", uri='" + this.uri + '\'' +
+                        ", status=" + this.status +
+                        ", responseBytes=" + this.responseBytes +
+                        ", durationMicros=" + this.durationMicros +
+                        '}';
+    }
+}
@@ -0,0 +1,89 @@
+package de.exxcellent.microservices.showcase.webservice.diagnostics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A lock-free ring buffer keeping the most recent {@link RequestTraceTO}s. Adding a trace overwrites the oldest one if the buffer is full.
+ *
+ * @author Felix Riess
+ * @since 12.02.20
+ */
+final class TraceBuffer {
+    /**
+     * The slots of the buffer, the trace with sequence number {@code n} is stored in slot {@code (n - 1) % capacity}.
+     */
+    private final AtomicReferenceArray<RequestTraceTO> slots;
+    /**
+     * The sequence number of the latest added trace, {@code 0} if no trace was added yet.
+     */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * Constructor.
+     *
+     * @param capacity the maximum number of kept traces (positive).
+     */
+    TraceBuffer(final int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Get the next sequence number for a trace to be added.
+     *
+     * @return the sequence number.
+     */
+    long nextSequence() {
+        return this.sequence.incrementAndGet();
+    }
+
+    /**
+     * Add the given trace.
+     *
+     * @param trace the {@link RequestTraceTO} with a sequence number from {@link #nextSequence()}.
+     */
+    void add(final RequestTraceTO trace) {
+        this.slots.set(slot(trace.getSequence()), trace);
+    }
+
+    /**
+     * Get the sequence number of the latest trace.
+     *
+     * @return the sequence number, {@code 0} if no trace was added yet.
+     */
+    long latestSequence() {
+        return this.sequence.get();
+    }
+
+    /**
+     * Get the kept traces with a sequence number greater than the given one in ascending order.
+     * Traces already overwritten or not yet completely added are skipped.
+     *
+     * @param after the sequence number after which the traces are returned.
+     * @return the traces as {@link List} of {@link RequestTraceTO}s.
+     */
+    List<RequestTraceTO> since(final long after) {
+        final long latest = this.sequence.get();
+        final long first = Math.max(after, latest - this.slots.length()) + 1;
+        final List<RequestTraceTO> traces = new ArrayList<>((int) Math.max(0, latest - first + 1));
+        for(long current = first; current <= latest; current++) {
+            final RequestTraceTO trace = this.slots.get(slot(current));
+            if(trace != null && trace.getSequence() == current) {
+                traces.add(trace);
+            }
+        }
+        return traces;
+    }
+
+    /**
+     * Get the slot of the given sequence number.
+     *
+     * @param sequence the sequence number (positive).
+     * @return the slot.
+     */
+    private int slot(final long sequence) {
+        return (int) ((sequence - 1) % this.slots.length());
+    }
+}
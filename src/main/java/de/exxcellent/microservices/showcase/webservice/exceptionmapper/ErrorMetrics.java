@@ -0,0 +1,57 @@
+package de.exxcellent.microservices.showcase.webservice.exceptionmapper;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.IErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import io.smallrye.metrics.MetricRegistries;
+import org.eclipse.microprofile.metrics.Counter;
+import org.eclipse.microprofile.metrics.Metadata;
+import org.eclipse.microprofile.metrics.MetricRegistry;
+import org.eclipse.microprofile.metrics.MetricType;
+import org.eclipse.microprofile.metrics.Tag;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Counts the error responses by their {@link ErrorCode}, published as metric {@code language.errors} with the tag {@code code}.
+ * The counters of all {@link ErrorCode}s are registered up front, so every outcome is published even before it occurred.
+ *
+ * @author Felix Riess
+ * @since 13.02.20
+ */
+final class ErrorMetrics {
+    /**
+     * The counter of each {@link ErrorCode}.
+     */
+    private static final Map<ErrorCode, Counter> COUNTERS = new EnumMap<>(ErrorCode.class);
+
+    static {
+        final MetricRegistry registry = MetricRegistries.get(MetricRegistry.Type.APPLICATION);
+        final Metadata metadata = Metadata.builder()
+                                          .withName("language.errors")
+                                          .withType(MetricType.COUNTER)
+                                          .withDescription("Number of error responses by error code")
+                                          .build();
+        for(final ErrorCode errorCode : ErrorCode.values()) {
+            COUNTERS.put(errorCode, registry.counter(metadata, new Tag("code", errorCode.name())));
+        }
+    }
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private ErrorMetrics() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "ErrorMetrics is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Count an error response with the given {@link IErrorCode}.
+     *
+     * @param errorCode the {@link IErrorCode} of the error, counted as {@link ErrorCode#UNDEFINED} if it is no {@link ErrorCode}.
+     */
+    static void count(final IErrorCode errorCode) {
+        COUNTERS.get(errorCode instanceof ErrorCode ? (ErrorCode) errorCode : ErrorCode.UNDEFINED).inc();
+    }
+}
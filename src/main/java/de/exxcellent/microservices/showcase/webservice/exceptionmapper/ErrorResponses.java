@@ -0,0 +1,115 @@
+package de.exxcellent.microservices.showcase.webservice.exceptionmapper;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.IErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Creates the HTTP responses of errors, used by the exception mappers of the JAX-RS runtime and by the resources completing asynchronously,
+ * so an error gets the same response and is counted the same way (see {@link ErrorMetrics}) regardless of the thread serving the request.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class ErrorResponses {
+    /**
+     * The {@link Logger} of the {@link ErrorResponses}.
+     */
+    private static final Logger LOG = LoggerFactory.getLogger(ErrorResponses.class);
+    /**
+     * The HTTP status of each {@link ErrorCode} of a {@link BusinessException} differing from {@link Response.Status#BAD_REQUEST}.
+     */
+    private static final Map<ErrorCode, Response.Status> RESPONSE_STATUS = new EnumMap<>(ErrorCode.class);
+
+    static {
+        RESPONSE_STATUS.put(ErrorCode.EMPTY_LIST_ERROR, Response.Status.NO_CONTENT);
+        RESPONSE_STATUS.put(ErrorCode.NOT_FOUND_ERROR, Response.Status.NOT_FOUND);
+    }
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private ErrorResponses() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "ErrorResponses is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Create the response of the given error like the exception mapper of its type.
+     *
+     * @param error the error, possibly wrapped in a {@link CompletionException}.
+     * @return the error {@link Response}.
+     */
+    public static Response of(final Throwable error) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if(cause instanceof BusinessException) {
+            return business((BusinessException) cause);
+        } else if(cause instanceof TechnicalException) {
+            return technical((TechnicalException) cause);
+        } else if(cause instanceof RuntimeException) {
+            return unexpected((RuntimeException) cause);
+        } // else: an error which no exception mapper handles.
+        LOG.error("Unexpected error", cause);
+        return technical(new TechnicalException(ErrorCode.UNEXPECTED_ERROR, "Unexpected error"));
+    }
+
+    /**
+     * Create the response of the given {@link BusinessException}.
+     *
+     * @param e the {@link BusinessException}.
+     * @return the {@link Response} with the status of the {@link ErrorCode}, {@link Response.Status#BAD_REQUEST} if no other status is defined.
+     */
+    static Response business(final BusinessException e) {
+        ErrorMetrics.count(e.getErrorCode());
+        return textResponse(getResponseStatus(e.getErrorCode()), e.getMessage());
+    }
+
+    /**
+     * Create the response of the given {@link TechnicalException}.
+     *
+     * @param e the {@link TechnicalException}.
+     * @return the {@link Response} with {@link Response.Status#INTERNAL_SERVER_ERROR}.
+     */
+    static Response technical(final TechnicalException e) {
+        ErrorMetrics.count(e.getErrorCode());
+        return textResponse(Response.Status.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+
+    /**
+     * Create the response of the given {@link RuntimeException}, which is no {@link BusinessException} or {@link TechnicalException}.
+     *
+     * @param e the {@link RuntimeException}.
+     * @return the {@link Response} with {@link Response.Status#INTERNAL_SERVER_ERROR}.
+     */
+    static Response unexpected(final RuntimeException e) {
+        ErrorMetrics.count(ErrorCode.UNEXPECTED_ERROR);
+        return textResponse(Response.Status.INTERNAL_SERVER_ERROR, e.getMessage());
+    }
+
+    private static Response textResponse(final Response.Status status, final String message) {
+        return Response.status(status)
+                .entity(message)
+                .type(MediaType.TEXT_PLAIN_TYPE)
+                .build();
+    }
+
+    /**
+     * Get the HTTP status of the given {@link IErrorCode}.
+     *
+     * @param errorCode the {@link IErrorCode} of the exception.
+     * @return the HTTP status, {@link Response.Status#BAD_REQUEST} if no other status is defined.
+     */
+    private static Response.Status getResponseStatus(final IErrorCode errorCode) {
+        final Response.Status responseStatus = errorCode instanceof ErrorCode ? RESPONSE_STATUS.get(errorCode) : null;
+        return responseStatus != null ? responseStatus : Response.Status.BAD_REQUEST;
+    }
+}
@@ -1,12 +1,11 @@
 package de.exxcellent.microservices.showcase.webservice.exceptionmapper;
 
-import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import javax.ws.rs.ext.ExceptionMapper;
 import javax.ws.rs.ext.Provider;
 
 /**
- * Maps {@link RuntimeException}s to suitable HTTP responses.
+ * Maps {@link RuntimeException}s to suitable HTTP responses (see {@link ErrorResponses}).
  *
  * @author Felix Riess
  * @since 21.01.20
@@ -16,9 +15,6 @@ public class RuntimeExceptionMapper implements ExceptionMapper<RuntimeException>
 
     @Override
     public Response toResponse(final RuntimeException e) {
-        return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-                .entity(e.getMessage())
-                .type(MediaType.TEXT_PLAIN_TYPE)
-                .build();
+        return ErrorResponses.unexpected(e);
     }
 }
@@ -0,0 +1,127 @@
+package de.exxcellent.microservices.showcase.webservice.json;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.common.json.JsonReader;
+import de.exxcellent.microservices.showcase.common.json.JsonWriter;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageJsonCodec;
+
+import javax.ws.rs.Priorities;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A simple helper class to serialize the API types of the language component to JSON and to parse the request bodies from it
+ * with the {@link LanguageJsonCodec} generated at build time, instead of binding them by reflection with JSON-B.
+ * <p>
+ * The output equals the one of JSON-B. The request bodies are parsed without validation,
+ * the language service validates them once like the bodies of all other formats.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class JsonCodec {
+    /**
+     * The priority of the JSON providers, higher than the default priority {@link Priorities#USER} of the JSON-B provider of the runtime,
+     * so they take precedence for the types they support.
+     */
+    static final int PROVIDER_PRIORITY = Priorities.USER - 100;
+    /**
+     * The estimated number of bytes of a serialized item of a collection, to size the buffer.
+     */
+    private static final int ITEM_BYTES = 48;
+
+    /**
+     * private constructor to hide implicit public one.
+     * @exception TechnicalException when class is tried to be instantiated.
+     */
+    private JsonCodec() {
+        throw new TechnicalException(ErrorCode.ILLEGAL_ACCESS_ERROR, "JsonCodec is a utility class with static methods and must not be instantiated");
+    }
+
+    /**
+     * Check if entities of the given type can be serialized.
+     *
+     * @param type the class of the entity.
+     * @param genericType the generic type of the entity.
+     * @return {@code true} for the API types of the language component and collections of them or of strings, if their item type is known.
+     */
+    static boolean isWriteable(final Class<?> type, final Type genericType) {
+        if(!Collection.class.isAssignableFrom(type)) {
+            return LanguageJsonCodec.isWriteable(type);
+        } else if(!(genericType instanceof ParameterizedType)) {
+            return false;
+        } // else: check the item type of the collection.
+        final Type itemType = ((ParameterizedType) genericType).getActualTypeArguments()[0];
+        return itemType == String.class || (itemType instanceof Class && LanguageJsonCodec.isWriteable((Class<?>) itemType));
+    }
+
+    /**
+     * Check if the given entity can be serialized.
+     *
+     * @param entity the entity (not {@code null}).
+     * @return {@code true} for the API types of the language component and collections of them or of strings.
+     */
+    public static boolean isWriteable(final Object entity) {
+        if(!(entity instanceof Collection)) {
+            return LanguageJsonCodec.isWriteable(entity.getClass());
+        } // else: check all items of the collection.
+        for(final Object item : (Collection<?>) entity) {
+            if(item != null && !(item instanceof String) && !LanguageJsonCodec.isWriteable(item.getClass())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if entities of the given type can be parsed.
+     *
+     * @param type the class of the entity.
+     * @param genericType the generic type of the entity.
+     * @return {@code true} for the request bodies of the language component: {@link LanguageJsonCodec#isReadable(Class)} and lists of short names.
+     */
+    static boolean isReadable(final Class<?> type, final Type genericType) {
+        return LanguageJsonCodec.isReadable(type)
+               || (type == List.class && genericType instanceof ParameterizedType
+                   && ((ParameterizedType) genericType).getActualTypeArguments()[0] == String.class);
+    }
+
+    /**
+     * Serialize the given entity.
+     *
+     * @param entity the entity, see {@link #isWriteable(Object)}.
+     * @return the UTF-8 encoded JSON.
+     * @exception TechnicalException with {@link ErrorCode#INTERNAL_ERROR} if the entity (or an item of it) cannot be serialized.
+     */
+    public static byte[] encode(final Object entity) {
+        final JsonWriter writer = new JsonWriter(entity instanceof Collection ? ((Collection<?>) entity).size() * ITEM_BYTES : ITEM_BYTES * 2);
+        LanguageJsonCodec.write(writer, entity);
+        return writer.toByteArray();
+    }
+
+    /**
+     * Parse an entity of the given type.
+     *
+     * @param bytes the UTF-8 encoded JSON.
+     * @param type the class of the entity, see {@link #isReadable(Class, Type)}.
+     * @return the parsed entity, not yet validated.
+     * @exception BusinessException with {@link ErrorCode#INVALID_ARGUMENT_ERROR} if the bytes are no valid JSON representation of the type.
+     */
+    public static Object decode(final byte[] bytes, final Class<?> type) {
+        final JsonReader reader = new JsonReader(bytes);
+        final Object entity;
+        if(reader.readNull()) {
+            entity = null;
+        } else if(type == List.class) {
+            entity = LanguageJsonCodec.readStrings(reader);
+        } else {
+            entity = LanguageJsonCodec.read(reader, type);
+        }
+        reader.checkEnd();
+        return entity;
+    }
+}
@@ -0,0 +1,47 @@
+package de.exxcellent.microservices.showcase.webservice.json;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Consumes;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyReader;
+import javax.ws.rs.ext.Provider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Reads the request bodies of the language component sent as JSON with the generated codec, see {@link JsonCodec}.
+ * Malformed bodies are rejected with HTTP 400, the parsed bodies are validated by the language service.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@Provider
+@Priority(JsonCodec.PROVIDER_PRIORITY)
+@Consumes(MediaType.APPLICATION_JSON)
+public class JsonMessageBodyReader implements MessageBodyReader<Object> {
+    /**
+     * The size of the buffer reading the body.
+     */
+    private static final int BUFFER_SIZE = 512;
+
+    @Override
+    public boolean isReadable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return JsonCodec.isReadable(type, genericType);
+    }
+
+    @Override
+    public Object readFrom(final Class<Object> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType,
+                           final MultivaluedMap<String, String> httpHeaders, final InputStream entityStream) throws IOException {
+        final ByteArrayOutputStream body = new ByteArrayOutputStream(BUFFER_SIZE);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+        while((read = entityStream.read(buffer)) >= 0) {
+            body.write(buffer, 0, read);
+        }
+        return JsonCodec.decode(body.toByteArray(), type);
+    }
+}
@@ -0,0 +1,36 @@
+package de.exxcellent.microservices.showcase.webservice.json;
+
+import javax.annotation.Priority;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Provider;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+/**
+ * Writes the API types of the language component as JSON with the generated codec, see {@link JsonCodec}.
+ * All other entities are left to JSON-B.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@Provider
+@Priority(JsonCodec.PROVIDER_PRIORITY)
+@Produces(MediaType.APPLICATION_JSON)
+public class JsonMessageBodyWriter implements MessageBodyWriter<Object> {
+
+    @Override
+    public boolean isWriteable(final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType) {
+        return JsonCodec.isWriteable(type, genericType);
+    }
+
+    @Override
+    public void writeTo(final Object entity, final Class<?> type, final Type genericType, final Annotation[] annotations, final MediaType mediaType,
+                        final MultivaluedMap<String, Object> httpHeaders, final OutputStream entityStream) throws IOException {
+        entityStream.write(JsonCodec.encode(entity));
+    }
+}
@@ -0,0 +1,301 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link LanguageRepository} storage engines, run against each engine by the subclasses.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+abstract class AbstractLanguageStorageTest {
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final int WRITES_PER_WRITER = 600;
+
+    private LanguageRepository storage;
+
+    /**
+     * Create the storage engine under test.
+     *
+     * @return a new, empty storage engine.
+     */
+    abstract LanguageRepository createStorage();
+
+    @BeforeEach
+    void setUp() {
+        this.storage = createStorage();
+    }
+
+    @Test
+    void createLanguageKeepsExistingLanguage() {
+        final LanguageET german = new LanguageET("deu", "German");
+        assertSame(german, this.storage.createLanguage(german));
+        assertSame(german, this.storage.createLanguage(new LanguageET("deu", "Deutsch")));
+        assertEquals(1, this.storage.findAll().size());
+        assertEquals("German", this.storage.findByShortName("deu").map(LanguageET::getName).orElse(null));
+    }
+
+    @Test
+    void createCountryWithLanguageSharesLanguage() {
+        final LanguageET german = new LanguageET("deu", "German");
+        this.storage.createLanguage(german);
+        assertSame(german, this.storage.createCountryWithLanguage("AUT", new LanguageET("deu", "Deutsch")));
+        assertSame(german, this.storage.findLanguageByCountry("AUT").orElse(null));
+        assertEquals(1, this.storage.findAll().size());
+    }
+
+    @Test
+    void pagesAreOrderedByShortName() {
+        this.storage.createCountryWithLanguage("FRA", new LanguageET("fra", "French"));
+        this.storage.createCountryWithLanguage("AUT", new LanguageET("deu", "German"));
+        this.storage.createCountryWithLanguage("ESP", new LanguageET("spa", "Spanish"));
+        assertEquals(listOf("deu", "fra"), namesOf(this.storage.findPage(null, 2)));
+        assertEquals(listOf("spa"), namesOf(this.storage.findPage("fra", 2)));
+        assertEquals(listOf("AUT", "ESP"), new ArrayList<>(this.storage.findCountriesWithLanguagePage(null, 2).keySet()));
+        assertEquals(listOf("FRA"), new ArrayList<>(this.storage.findCountriesWithLanguagePage("ESP", 2).keySet()));
+    }
+
+    @Test
+    void relationsAreFoundByCountryAndLanguage() {
+        final LanguageET german = new LanguageET("deu", "German");
+        this.storage.createCountryWithLanguage("AUT", german);
+        this.storage.createCountryWithLanguage("DEU", new LanguageET("deu", "Deutsch"));
+        this.storage.addAllCountryLanguages(Arrays.asList(new CountryLanguageET("CHE", new LanguageET("fra", "French"), true, 22.556),
+                                                          new CountryLanguageET("CHE", german, true, 62.1),
+                                                          new CountryLanguageET("AUT", german, true, null),
+                                                          new CountryLanguageET("CHE", german, false, 1.0)));
+        assertEquals(listOf("AUT", "DEU"), new ArrayList<>(this.storage.findCountriesByLanguage("deu")));
+        final List<CountryLanguageET> languagesOfSwitzerland = this.storage.findLanguagesOfCountry("CHE");
+        assertEquals(listOf("deu", "fra"), namesOf(languagesOfSwitzerland.stream().map(CountryLanguageET::getLanguage).collect(Collectors.toList())));
+        // the first relation of a pair is kept and the share is stored in hundredths of a percent.
+        assertEquals(62.1, languagesOfSwitzerland.get(0).getPopulationShare());
+        assertEquals(22.56, languagesOfSwitzerland.get(1).getPopulationShare());
+        assertSame(german, languagesOfSwitzerland.get(0).getLanguage());
+        assertEquals(listOf("AUT", "CHE"), this.storage.findCountriesOfLanguage("deu").stream().map(CountryLanguageET::getCountryShortName)
+                                                      .collect(Collectors.toList()));
+        assertEquals(listOf("AUT", "CHE"), new ArrayList<>(this.storage.findAllCountryLanguages().keySet()));
+        assertEquals(Boolean.FALSE, this.storage.createCountryLanguage(new CountryLanguageET("ITA", german, false, null)).getOfficial());
+    }
+
+    @Test
+    void createLanguageOfCountryAddsNewCountryWithItsRelation() {
+        final LanguageET first = new LanguageET("qfa", "First");
+        final CountryLanguageET added = this.storage.createLanguageOfCountry(new CountryLanguageET("XFA", first, true, 22.556));
+        assertSame(first, added.getLanguage());
+        assertEquals(22.56, added.getPopulationShare());
+        assertSame(first, this.storage.findLanguageByCountry("XFA").orElse(null));
+        assertEquals(listOf("XFA"), new ArrayList<>(this.storage.findCountriesByLanguage("qfa")));
+
+        // an existing country keeps its language and gets a further relation, an existing relation keeps its attributes.
+        this.storage.createLanguageOfCountry(new CountryLanguageET("XFA", new LanguageET("qfb", "Second"), false, 1.0));
+        assertEquals(Boolean.TRUE, this.storage.createLanguageOfCountry(new CountryLanguageET("xfa", new LanguageET("qfa", "Other"), false, null)).getOfficial());
+        assertSame(first, this.storage.findLanguageByCountry("XFA").orElse(null));
+        assertEquals(listOf("qfa", "qfb"), namesOf(this.storage.findLanguagesOfCountry("XFA").stream().map(CountryLanguageET::getLanguage)
+                                                              .collect(Collectors.toList())));
+        assertEquals(2, this.storage.findAll().size());
+        assertEquals(1, this.storage.findAllCountriesWithLanguage().size());
+    }
+
+    @Test
+    void searchFindsCreatedLanguages() {
+        this.storage.createLanguage(new LanguageET("deu", "German"));
+        this.storage.createCountryWithLanguage("CHE", new LanguageET("gsw", "Swiss German"));
+        assertEquals(listOf("deu", "gsw"), namesOf(this.storage.findByName("germ", 10)));
+        this.storage.addAllCountryLanguages(Arrays.asList(new CountryLanguageET("USA", new LanguageET("pdc", "Pennsylvania German"), false, null)));
+        assertEquals(listOf("deu", "gsw", "pdc"), namesOf(this.storage.findByName("germ", 10)));
+    }
+
+    /**
+     * Writers concurrently add languages and countries while readers iterate, look up and page through the data.
+     * No write must be lost and no reader must see a country whose language is not stored.
+     */
+    @Test
+    void concurrentWritesAreNotLostAndReadersSeeNoCountryWithoutLanguage() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final AtomicBoolean writing = new AtomicBoolean(true);
+            final List<Future<?>> writers = new ArrayList<>();
+            for(int writer = 0; writer < WRITERS; writer++) {
+                final int first = writer * WRITES_PER_WRITER;
+                writers.add(executor.submit(() -> {
+                    await(start);
+                    for(int index = first; index < first + WRITES_PER_WRITER; index++) {
+                        if(index % 2 == 0) {
+                            this.storage.createLanguage(language(index));
+                        } else {
+                            this.storage.addCountryWithLanguage(countryShortName(index), language(index));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            final List<Future<?>> readers = new ArrayList<>();
+            for(int reader = 0; reader < READERS; reader++) {
+                readers.add(executor.submit(() -> {
+                    await(start);
+                    do {
+                        readConsistently();
+                    } while(writing.get());
+                    return null;
+                }));
+            }
+            start.countDown();
+            try {
+                awaitAll(writers);
+            } finally {
+                writing.set(false);
+            }
+            awaitAll(readers);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        final int writes = WRITERS * WRITES_PER_WRITER;
+        assertEquals(writes, this.storage.findAll().size());
+        assertEquals(writes / 2, this.storage.findAllCountriesWithLanguage().size());
+        for(int index = 0; index < writes; index++) {
+            assertTrue(this.storage.findByShortName(languageShortName(index)).isPresent(), "lost language " + languageShortName(index));
+            if(index % 2 == 1) {
+                assertEquals(languageShortName(index), this.storage.findLanguageByCountry(countryShortName(index)).map(LanguageET::getShortName).orElse(null),
+                             "lost country " + countryShortName(index));
+            }
+        }
+        assertEquals(writes, countLanguagePages());
+        assertEquals(writes / 2, countCountryPages());
+    }
+
+    /**
+     * Read all data in the ways clients do and check that each country refers to a stored language.
+     */
+    private void readConsistently() {
+        for(final LanguageET language : this.storage.findAll()) {
+            assertNotNull(language);
+        }
+        for(final Map.Entry<String, LanguageET> countryWithLanguage : this.storage.findAllCountriesWithLanguage().entrySet()) {
+            assertLanguageStored(countryWithLanguage.getKey(), countryWithLanguage.getValue());
+        }
+        final int index = ThreadLocalRandom.current().nextInt(WRITERS * WRITES_PER_WRITER);
+        final Optional<LanguageET> languageOfCountry = this.storage.findLanguageByCountry(countryShortName(index));
+        languageOfCountry.ifPresent(language -> assertLanguageStored(countryShortName(index), language));
+        countLanguagePages();
+        countCountryPages();
+    }
+
+    private void assertLanguageStored(final String countryShortName, final LanguageET language) {
+        assertNotNull(language, "country " + countryShortName + " without language");
+        assertTrue(this.storage.findByShortName(language.getShortName()).isPresent(),
+                   "country " + countryShortName + " with unknown language " + language.getShortName());
+    }
+
+    /**
+     * Page through all languages and check the order and the entries of the pages.
+     *
+     * @return the number of paged languages.
+     */
+    private int countLanguagePages() {
+        int count = 0;
+        String after = null;
+        List<LanguageET> page;
+        do {
+            page = this.storage.findPage(after, 100);
+            for(final LanguageET language : page) {
+                assertNotNull(language);
+                assertTrue(after == null || after.compareTo(language.getShortName()) < 0, "language page out of order");
+                after = language.getShortName();
+                count++;
+            }
+        } while(!page.isEmpty());
+        return count;
+    }
+
+    /**
+     * Page through all countries and check the order and the languages of the pages.
+     *
+     * @return the number of paged countries.
+     */
+    private int countCountryPages() {
+        int count = 0;
+        String after = null;
+        Map<String, LanguageET> page;
+        do {
+            page = this.storage.findCountriesWithLanguagePage(after, 100);
+            for(final Map.Entry<String, LanguageET> countryWithLanguage : page.entrySet()) {
+                assertLanguageStored(countryWithLanguage.getKey(), countryWithLanguage.getValue());
+                assertTrue(after == null || after.compareTo(countryWithLanguage.getKey()) < 0, "country page out of order");
+                after = countryWithLanguage.getKey();
+                count++;
+            }
+        } while(!page.isEmpty());
+        return count;
+    }
+
+    static LanguageET language(final int index) {
+        return new LanguageET(languageShortName(index), "Language " + index);
+    }
+
+    static String languageShortName(final int index) {
+        return shortName(index, 'a');
+    }
+
+    static String countryShortName(final int index) {
+        return shortName(index, 'A');
+    }
+
+    private static String shortName(final int index, final char first) {
+        return new String(new char[] {(char) (first + index / 676 % 26), (char) (first + index / 26 % 26), (char) (first + index % 26)});
+    }
+
+    private static List<String> namesOf(final List<LanguageET> languages) {
+        final List<String> shortNames = new ArrayList<>();
+        languages.forEach(language -> shortNames.add(language.getShortName()));
+        return shortNames;
+    }
+
+    private static List<String> listOf(final String... values) {
+        return Arrays.asList(values);
+    }
+
+    private static void await(final CountDownLatch latch) throws InterruptedException {
+        if(!latch.await(10, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Test threads were not started");
+        }
+    }
+
+    private static void awaitAll(final List<Future<?>> futures) throws Exception {
+        for(final Future<?> future : futures) {
+            try {
+                future.get(60, TimeUnit.SECONDS);
+            } catch(final ExecutionException e) {
+                if(e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                } // else: rethrow the failure of the thread.
+                throw (Exception) e.getCause();
+            }
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+/**
+ * Tests of the {@link ConcurrentLanguageStorage}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class ConcurrentLanguageStorageTest extends AbstractLanguageStorageTest {
+    @Override
+    LanguageRepository createStorage() {
+        return new ConcurrentLanguageStorage();
+    }
+}
@@ -0,0 +1,198 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DurableLanguageStorage} over a {@link SnapshotLanguageStorage} and of its {@link WriteAheadLog}.
+ * A crash is simulated by recovering the directory into a new storage without closing the previous one.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class DurableLanguageStorageTest extends AbstractLanguageStorageTest {
+    private static final int SNAPSHOT_INTERVAL = 100;
+
+    @TempDir
+    Path directory;
+
+    private final List<DurableLanguageStorage> openStorages = new ArrayList<>();
+
+    @Override
+    LanguageRepository createStorage() {
+        return open(SNAPSHOT_INTERVAL);
+    }
+
+    @AfterEach
+    void closeStorages() {
+        this.openStorages.forEach(DurableLanguageStorage::close);
+    }
+
+    @Test
+    void writesSurviveRestart() {
+        final DurableLanguageStorage storage = open(SNAPSHOT_INTERVAL);
+        writeAllKinds(storage);
+        storage.close();
+        this.openStorages.remove(storage);
+        assertAllKindsRecovered(open(SNAPSHOT_INTERVAL));
+    }
+
+    @Test
+    void writesSurviveCrash() {
+        writeAllKinds(crashed(open(SNAPSHOT_INTERVAL)));
+        assertAllKindsRecovered(open(SNAPSHOT_INTERVAL));
+    }
+
+    @Test
+    void crashAfterSnapshotsReplaysOnlyLaterRecords() throws InterruptedException {
+        final DurableLanguageStorage storage = crashed(open(3));
+        for(int i = 0; i < 20; i++) {
+            storage.createLanguage(new LanguageET("q" + (char) ('a' + i) + "a", "Language " + i));
+        }
+        // let the last background snapshot finish, the records after it stay in the log.
+        Thread.sleep(500);
+        final DurableLanguageStorage recovered = open(3);
+        assertEquals(20, recovered.findAll().size());
+        assertEquals("Language 19", recovered.findByShortName("qta").map(LanguageET::getName).orElse(null));
+    }
+
+    @Test
+    void tornRecordIsCutOff() throws IOException {
+        final DurableLanguageStorage storage = crashed(open(SNAPSHOT_INTERVAL));
+        storage.createLanguage(new LanguageET("qaa", "First"));
+        storage.createLanguage(new LanguageET("qab", "Second"));
+        try(FileChannel segment = FileChannel.open(lastSegment(), StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // the frame of a record of 100 bytes, but only 3 bytes of the record were written before the crash.
+            final ByteBuffer tornRecord = ByteBuffer.allocate(11).putInt(100).putInt(42).put(new byte[] {1, 2, 3});
+            tornRecord.flip();
+            segment.write(tornRecord);
+        }
+        final DurableLanguageStorage recovered = crashed(open(SNAPSHOT_INTERVAL));
+        assertEquals(2, recovered.findAll().size());
+        recovered.createLanguage(new LanguageET("qac", "Third"));
+        assertEquals(3, open(SNAPSHOT_INTERVAL).findAll().size());
+    }
+
+    @Test
+    void invalidWritesAreNeitherLoggedNorApplied() throws IOException {
+        final DurableLanguageStorage storage = open(SNAPSHOT_INTERVAL);
+        final LanguageET invalidLanguage = new LanguageET("qé1", "Invalid");
+        assertThrows(BusinessException.class, () -> storage.createLanguage(invalidLanguage));
+        assertThrows(BusinessException.class, () -> storage.createCountryWithLanguage("XA", new LanguageET("qaa", "Valid")));
+        assertThrows(BusinessException.class, () -> storage.addAll(Arrays.asList(new LanguageET("qab", "Valid"), invalidLanguage), Collections.emptyMap()));
+        assertThrows(BusinessException.class, () -> storage.createCountryLanguage(new CountryLanguageET("XAÄ", new LanguageET("qac", "Valid"), true, null)));
+        assertThrows(BusinessException.class, () -> storage.createLanguageOfCountry(new CountryLanguageET("XAD", invalidLanguage, true, null)));
+        assertEquals(0, storage.findAll().size());
+        assertEquals(0, storage.findAllCountriesWithLanguage().size());
+        assertEquals(0, Files.size(lastSegment()));
+    }
+
+    @Test
+    void writesWithoutChangeAreNotLogged() throws IOException {
+        final DurableLanguageStorage storage = open(SNAPSHOT_INTERVAL);
+        storage.createCountryWithLanguage("XAA", new LanguageET("qaa", "First"));
+        storage.createCountryLanguage(new CountryLanguageET("XAA", new LanguageET("qaa", "First"), true, 50.0));
+        final long logged = Files.size(lastSegment());
+        storage.createLanguage(new LanguageET("qaa", "Other"));
+        storage.createCountryWithLanguage("XAA", new LanguageET("qaa", "Other"));
+        storage.createCountryLanguage(new CountryLanguageET("XAA", new LanguageET("qaa", "Other"), false, null));
+        storage.createLanguageOfCountry(new CountryLanguageET("XAA", new LanguageET("qaa", "Other"), false, null));
+        storage.addAll(Collections.emptyList(), Collections.emptyMap());
+        storage.addAllCountryLanguages(Collections.emptyList());
+        assertEquals(logged, Files.size(lastSegment()));
+    }
+
+    @Test
+    void writesAfterCloseAreRejected() {
+        final DurableLanguageStorage storage = open(SNAPSHOT_INTERVAL);
+        storage.close();
+        this.openStorages.remove(storage);
+        assertThrows(IllegalStateException.class, () -> storage.createLanguage(new LanguageET("qaa", "First")));
+        assertFalse(storage.findByShortName("qaa").isPresent());
+    }
+
+    @Test
+    void closedLogRejectsAppendAndSync() {
+        final WriteAheadLog log = new WriteAheadLog(this.directory);
+        log.open(0);
+        final long sequence = log.append(new byte[] {1});
+        log.close();
+        // the record was made durable by closing the log.
+        log.sync(sequence);
+        assertThrows(IllegalStateException.class, () -> log.sync(sequence + 1));
+        assertThrows(IllegalStateException.class, () -> log.append(new byte[] {2}));
+        assertThrows(IllegalStateException.class, log::rollover);
+    }
+
+    private DurableLanguageStorage open(final int snapshotInterval) {
+        final DurableLanguageStorage storage = new DurableLanguageStorage(new SnapshotLanguageStorage(), this.directory, snapshotInterval);
+        this.openStorages.add(storage);
+        return storage;
+    }
+
+    /**
+     * Simulate a crash of the given storage: it is not closed, so no final snapshot is written and the log keeps all records since the last snapshot.
+     *
+     * @param storage the storage.
+     * @return the storage.
+     */
+    private DurableLanguageStorage crashed(final DurableLanguageStorage storage) {
+        this.openStorages.remove(storage);
+        return storage;
+    }
+
+    private static void writeAllKinds(final LanguageRepository storage) {
+        storage.createLanguage(new LanguageET("qaa", "First"));
+        storage.createCountryWithLanguage("XAA", new LanguageET("qab", "Second"));
+        final Map<String, LanguageET> countriesWithLanguage = new TreeMap<>();
+        countriesWithLanguage.put("XAB", new LanguageET("qac", "Third"));
+        storage.addAll(Collections.singletonList(new LanguageET("qad", "Fourth")), countriesWithLanguage);
+        storage.createCountryLanguage(new CountryLanguageET("XAA", new LanguageET("qaa", "First"), false, 10.0));
+        storage.addAllCountryLanguages(Collections.singletonList(new CountryLanguageET("XAC", new LanguageET("qae", "Fifth"), true, null)));
+        storage.createLanguageOfCountry(new CountryLanguageET("XAD", new LanguageET("qaf", "Sixth"), true, 5.0));
+    }
+
+    private static void assertAllKindsRecovered(final LanguageRepository storage) {
+        assertEquals(6, storage.findAll().size());
+        assertEquals("Second", storage.findLanguageByCountry("XAA").map(LanguageET::getName).orElse(null));
+        assertEquals("Third", storage.findLanguageByCountry("XAB").map(LanguageET::getName).orElse(null));
+        assertEquals(1, storage.findLanguagesOfCountry("XAA").size());
+        assertEquals(1, storage.findCountriesOfLanguage("qae").size());
+        // the country and its relation are recovered from the same record.
+        assertEquals("Sixth", storage.findLanguageByCountry("XAD").map(LanguageET::getName).orElse(null));
+        assertEquals(5.0, storage.findLanguagesOfCountry("XAD").get(0).getPopulationShare());
+    }
+
+    private Path lastSegment() throws IOException {
+        final List<Path> segments = new ArrayList<>();
+        try(DirectoryStream<Path> files = Files.newDirectoryStream(this.directory, "wal-*.log")) {
+            files.forEach(segments::add);
+        }
+        assertTrue(!segments.isEmpty(), "No write-ahead log segment in " + this.directory);
+        Collections.sort(segments);
+        return segments.get(segments.size() - 1);
+    }
+}
@@ -0,0 +1,147 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link LanguageNameIndex}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class LanguageNameIndexTest {
+    private static final int LANGUAGES = 520;
+    private static final String[] WORDS = {"north", "south", "old", "middle", "german", "germanic", "tagalog", "ñandeva", "Ōkinawan", "sign", "language",
+                                           "cree", "sami", "low", "high", "creole"};
+
+    @Test
+    void foldIgnoresCaseAccentsAndSeparators() {
+        assertEquals("nandeva", LanguageNameIndex.fold("Ñandeva"));
+        assertEquals("okinawan", LanguageNameIndex.fold("Ōkinawan"));
+        assertEquals("german swiss", LanguageNameIndex.fold("  German, (Swiss) "));
+        assertEquals("", LanguageNameIndex.fold(" - "));
+    }
+
+    @Test
+    void searchRanksPrefixBeforeWordBeforeSubstring() {
+        final Map<String, LanguageET> languages = new HashMap<>();
+        final LanguageNameIndex index = LanguageNameIndex.EMPTY.withAll(Arrays.asList(
+                add(languages, "qaa", "Swiss German"),
+                add(languages, "qab", "German"),
+                add(languages, "qac", "Germanic Old"),
+                add(languages, "qad", "Low Saxon"),
+                add(languages, "qae", "Pennsylvania Germanic")));
+        assertEquals(Arrays.asList("qab", "qac", "qaa", "qae"), search(index, languages, "GERM", 10));
+        assertEquals(Arrays.asList("qab", "qac"), search(index, languages, "germ", 2));
+        assertEquals(Collections.singletonList("qad"), search(index, languages, "axo", 10));
+    }
+
+    @Test
+    void shortQueriesOnlyMatchStartOfWords() {
+        final Map<String, LanguageET> languages = new HashMap<>();
+        final LanguageNameIndex index = LanguageNameIndex.EMPTY.withAll(Arrays.asList(
+                add(languages, "qaa", "Axo"),
+                add(languages, "qab", "Low Saxon"),
+                add(languages, "qac", "Old Axe")));
+        assertEquals(Arrays.asList("qaa", "qac"), search(index, languages, "ax", 10));
+        assertEquals(Collections.emptyList(), search(index, languages, " ", 10));
+    }
+
+    /**
+     * Compare the results of indexes with merged and pending entries with the matches found by scanning all names.
+     */
+    @Test
+    void searchFindsSameLanguagesAsScan() {
+        final Random random = new Random(42);
+        final Map<String, LanguageET> languages = new HashMap<>();
+        LanguageNameIndex index = LanguageNameIndex.EMPTY;
+        for(int i = 0; i < LANGUAGES; i++) {
+            final String shortName = "q" + (char) ('a' + i / 26) + (char) ('a' + i % 26);
+            final StringBuilder name = new StringBuilder(WORDS[random.nextInt(WORDS.length)]);
+            for(int words = random.nextInt(3); words > 0; words--) {
+                name.append(random.nextBoolean() ? " " : "-").append(WORDS[random.nextInt(WORDS.length)]);
+            }
+            // the pending entries are merged into the postings twice.
+            index = index.withAll(Collections.singletonList(add(languages, shortName, name.toString())));
+            if(i % 97 == 0 || i == LANGUAGES - 1) {
+                for(final String query : Arrays.asList("g", "ge", "Germ", "man", "SIGN", "ree", "old s", "nand", "oki", "zzz")) {
+                    assertEquals(scan(languages, query, 20), search(index, languages, query, 20), "query " + query + " after " + (i + 1) + " languages");
+                }
+            }
+        }
+        assertEquals(languages.size(), index.size());
+        assertTrue(index.estimateMemory() > 0);
+    }
+
+    /**
+     * The scan without index, used until the index of the reference data is built, must find the same languages as the built index.
+     */
+    @Test
+    void scanFindsSameLanguagesAsBuiltIndex() {
+        final Random random = new Random(7);
+        final List<String> names = new ArrayList<>();
+        for(int i = 0; i < LANGUAGES; i++) {
+            names.add(WORDS[random.nextInt(WORDS.length)] + (random.nextBoolean() ? " " + WORDS[random.nextInt(WORDS.length)] : ""));
+        }
+        final LanguageNameIndex index = LanguageNameIndex.of(names.size(), position -> position, names::get);
+        final IntFunction<LanguageET> language = position -> new LanguageET("q" + (char) ('a' + position / 26) + (char) ('a' + position % 26), names.get(position));
+        for(final String query : Arrays.asList("g", "ge", "Germ", "man", "SIGN", "ree", "old s", "nand", "oki", "zzz", " ")) {
+            for(final int limit : new int[] {1, 20, LANGUAGES}) {
+                assertEquals(index.search(query, limit, language), LanguageNameIndex.scan(names.size(), position -> position, names::get, query, limit, language),
+                             "query " + query + " with limit " + limit);
+            }
+        }
+    }
+
+    private static LanguageET add(final Map<String, LanguageET> languages, final String shortName, final String name) {
+        final LanguageET language = new LanguageET(shortName, name);
+        languages.put(shortName, language);
+        return language;
+    }
+
+    private static List<String> search(final LanguageNameIndex index, final Map<String, LanguageET> languages, final String query, final int limit) {
+        final List<String> shortNames = new ArrayList<>();
+        for(final LanguageET language : index.search(query, limit, key -> languages.get(LanguageKeys.shortName(key)))) {
+            shortNames.add(language.getShortName());
+        }
+        return shortNames;
+    }
+
+    /**
+     * Find the matches of a query by checking each name.
+     *
+     * @param languages the languages by their short name.
+     * @param query the query.
+     * @param limit the maximum number of matches.
+     * @return the short names of the best matches in the order of {@link LanguageNameIndex#matchOrder(String)}.
+     */
+    private static List<String> scan(final Map<String, LanguageET> languages, final String query, final int limit) {
+        final String folded = LanguageNameIndex.fold(query);
+        final List<LanguageET> matches = new ArrayList<>();
+        for(final LanguageET language : languages.values()) {
+            final String name = LanguageNameIndex.fold(language.getName());
+            final boolean wordStart = name.startsWith(folded) || name.contains(" " + folded);
+            if(wordStart || folded.length() >= 3 && name.contains(folded)) {
+                matches.add(language);
+            }
+        }
+        matches.sort(LanguageNameIndex.matchOrder(query));
+        final List<String> shortNames = new ArrayList<>();
+        for(final LanguageET language : matches.subList(0, Math.min(limit, matches.size()))) {
+            shortNames.add(language.getShortName());
+        }
+        return shortNames;
+    }
+}
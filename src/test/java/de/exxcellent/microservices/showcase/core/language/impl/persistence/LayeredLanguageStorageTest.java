@@ -0,0 +1,87 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.CountryLanguageET;
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Tests of the {@link LayeredLanguageStorage} on top of the packaged {@link ReferenceDataset}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class LayeredLanguageStorageTest {
+    private static final ReferenceDataset REFERENCE_DATA = ReferenceDataset.load();
+
+    private LanguageRepository engine;
+    private LanguageRepository storage;
+
+    @BeforeEach
+    void setUp() {
+        this.engine = new SnapshotLanguageStorage();
+        this.storage = new LayeredLanguageStorage(REFERENCE_DATA, this.engine);
+    }
+
+    @Test
+    void writesOfReferenceDataDoNotTouchEngine() {
+        final LanguageET german = this.storage.findByShortName("deu").orElseThrow(IllegalStateException::new);
+        assertSame(german, this.storage.createLanguage(new LanguageET("deu", "German")));
+        assertEquals(0L, this.engine.getVersion());
+        assertEquals(REFERENCE_DATA.getLanguageCount(), this.storage.findAll().size());
+    }
+
+    @Test
+    void sizesSkipHiddenRuntimeEntries() {
+        // entries of the reference data stored in the engine, e.g. recovered from a log written before the reference data contained them.
+        this.engine.createCountryWithLanguage("DEU", new LanguageET("deu", "German"));
+        this.engine.createCountryWithLanguage("XAA", new LanguageET("qaa", "Test Language A"));
+        assertSizes(REFERENCE_DATA.getLanguageCount() + 1, REFERENCE_DATA.getCountryCount() + 1);
+
+        this.storage.createLanguage(new LanguageET("qab", "Test Language B"));
+        assertSizes(REFERENCE_DATA.getLanguageCount() + 2, REFERENCE_DATA.getCountryCount() + 1);
+
+        final LanguageET french = this.storage.findByShortName("fra").orElseThrow(IllegalStateException::new);
+        // the relation adds the reference language to the engine, where it is hidden.
+        this.storage.addAllCountryLanguages(Collections.singletonList(new CountryLanguageET("XAA", french, false, 0.1)));
+        this.storage.createCountryWithLanguage("XAB", new LanguageET("qab", "Test Language B"));
+        assertSizes(REFERENCE_DATA.getLanguageCount() + 2, REFERENCE_DATA.getCountryCount() + 2);
+    }
+
+    @Test
+    void createLanguageOfCountryKeepsLanguageOfReferenceCountries() {
+        final LanguageET german = this.storage.findByShortName("deu").orElseThrow(IllegalStateException::new);
+        final LanguageET french = this.storage.findByShortName("fra").orElseThrow(IllegalStateException::new);
+        this.storage.createLanguageOfCountry(new CountryLanguageET("DEU", new LanguageET("qaa", "Test Language A"), false, 0.1));
+        assertSame(german, this.storage.findLanguageByCountry("DEU").orElse(null));
+        assertEquals(1, this.storage.findLanguagesOfCountry("DEU").size());
+
+        // a new country refers to the reference language.
+        assertSame(french, this.storage.createLanguageOfCountry(new CountryLanguageET("XAA", new LanguageET("fra", "French"), true, 90.0)).getLanguage());
+        assertSame(french, this.storage.findLanguageByCountry("XAA").orElse(null));
+        assertSizes(REFERENCE_DATA.getLanguageCount() + 1, REFERENCE_DATA.getCountryCount() + 1);
+    }
+
+    /**
+     * Check the sizes of the views, which must be equal to the number of iterated elements.
+     *
+     * @param languages the expected number of languages.
+     * @param countries the expected number of countries.
+     */
+    private void assertSizes(final int languages, final int countries) {
+        assertEquals(languages, this.storage.findAll().size());
+        assertEquals(languages, (int) this.storage.findAll().stream().count());
+        final Map<String, LanguageET> countriesWithLanguage = this.storage.findAllCountriesWithLanguage();
+        assertEquals(countries, countriesWithLanguage.size());
+        assertEquals(countries, (int) countriesWithLanguage.entrySet().stream().count());
+        // the cached counts are reused as long as the data is not changed.
+        assertEquals(languages, this.storage.findAll().size());
+        assertEquals(countries, countriesWithLanguage.size());
+    }
+}
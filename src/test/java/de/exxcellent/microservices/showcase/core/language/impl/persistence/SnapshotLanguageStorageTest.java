@@ -0,0 +1,72 @@
+package de.exxcellent.microservices.showcase.core.language.impl.persistence;
+
+import de.exxcellent.microservices.showcase.core.language.impl.persistence.model.LanguageET;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link SnapshotLanguageStorage}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class SnapshotLanguageStorageTest extends AbstractLanguageStorageTest {
+    private static final int BATCH_SIZE = 2000;
+
+    @Override
+    LanguageRepository createStorage() {
+        return new SnapshotLanguageStorage();
+    }
+
+    /**
+     * A batch of an import is published at once: readers either see none or all of its languages and countries.
+     */
+    @Test
+    void addAllPublishesBatchAtOnce() throws Exception {
+        final LanguageRepository storage = createStorage();
+        final List<LanguageET> languages = new ArrayList<>();
+        final Map<String, LanguageET> countriesWithLanguage = new HashMap<>();
+        for(int index = 0; index < BATCH_SIZE; index++) {
+            languages.add(language(index));
+            countriesWithLanguage.put(countryShortName(index), language(index));
+        }
+        final AtomicBoolean adding = new AtomicBoolean(true);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> reader = executor.submit(() -> {
+                do {
+                    // the countries are read first, so the languages are read from the same or a later snapshot.
+                    final int countryCount = storage.findAllCountriesWithLanguage().size();
+                    final int languageCount = storage.findAll().size();
+                    assertTrue(languageCount == 0 || languageCount == BATCH_SIZE, "part of the batch published: " + languageCount);
+                    assertTrue(countryCount == 0 || countryCount == BATCH_SIZE, "part of the batch published: " + countryCount);
+                    assertTrue(countryCount == 0 || languageCount == BATCH_SIZE, "countries published before their languages");
+                } while(adding.get());
+                return null;
+            });
+            try {
+                storage.addAll(languages, countriesWithLanguage);
+            } finally {
+                adding.set(false);
+            }
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1L, storage.getVersion());
+        assertEquals(BATCH_SIZE, storage.findAll().size());
+        assertEquals(BATCH_SIZE, storage.findAllCountriesWithLanguage().size());
+    }
+}
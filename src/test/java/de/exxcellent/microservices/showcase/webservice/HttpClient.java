@@ -0,0 +1,150 @@
+package de.exxcellent.microservices.showcase.webservice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal HTTP client for the tests of the resources, as the Groovy runtime of REST Assured does not start on recent JDKs.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+public final class HttpClient {
+    private final URL baseUrl;
+
+    /**
+     * Constructor.
+     *
+     * @param baseUrl the {@link URL} of the application under test.
+     */
+    public HttpClient(final URL baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    public HttpResult get(final String path, final String... headers) throws IOException {
+        return send("GET", path, null, null, headers);
+    }
+
+    public HttpResult post(final String path, final String contentType, final String body, final String... headers) throws IOException {
+        return send("POST", path, contentType, body.getBytes(StandardCharsets.UTF_8), headers);
+    }
+
+    public HttpResult post(final String path, final String contentType, final byte[] body, final String... headers) throws IOException {
+        return send("POST", path, contentType, body, headers);
+    }
+
+    /**
+     * Send a request and read the complete response.
+     *
+     * @param method the HTTP method.
+     * @param path the path of the resource including the query.
+     * @param contentType the content type of the body ({@code null} without body).
+     * @param body the body ({@code null} without body).
+     * @param headers additional request headers as pairs of name and value.
+     * @return the {@link HttpResult}.
+     * @throws IOException if the request failed.
+     */
+    private HttpResult send(final String method, final String path, final String contentType, final byte[] body, final String... headers) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(this.baseUrl, path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setInstanceFollowRedirects(false);
+            for(int i = 0; i + 1 < headers.length; i += 2) {
+                connection.setRequestProperty(headers[i], headers[i + 1]);
+            }
+            if(body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", contentType);
+                try(final OutputStream output = connection.getOutputStream()) {
+                    output.write(body);
+                }
+            }
+            final int status = connection.getResponseCode();
+            final InputStream input = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            final ByteArrayOutputStream content = new ByteArrayOutputStream();
+            if(input != null) {
+                try(final InputStream in = input) {
+                    final byte[] buffer = new byte[8192];
+                    int read;
+                    while((read = in.read(buffer)) != -1) {
+                        content.write(buffer, 0, read);
+                    }
+                }
+            }
+            return new HttpResult(status, connection.getHeaderFields(), content.toByteArray());
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * The status, headers and body of a response.
+     */
+    public static final class HttpResult {
+        private final int status;
+        private final Map<String, List<String>> headers;
+        private final byte[] body;
+
+        private HttpResult(final int status, final Map<String, List<String>> headers, final byte[] body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+
+        public int getStatus() {
+            return this.status;
+        }
+
+        public String getBody() {
+            return new String(this.body, StandardCharsets.UTF_8);
+        }
+
+        public byte[] getBytes() {
+            return this.body.clone();
+        }
+
+        /**
+         * Get the first value of a response header.
+         *
+         * @param name the name of the header (case insensitive).
+         * @return the first value or {@code null} if the header is not present.
+         */
+        public String getHeader(final String name) {
+            for(final Map.Entry<String, List<String>> header : this.headers.entrySet()) {
+                if(header.getKey() != null && header.getKey().equalsIgnoreCase(name) && !header.getValue().isEmpty()) {
+                    return header.getValue().get(0);
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Get all values of a response header.
+         *
+         * @param name the name of the header (case insensitive).
+         * @return the values, empty if the header is not present.
+         */
+        public List<String> getHeaders(final String name) {
+            final List<String> values = new ArrayList<>();
+            for(final Map.Entry<String, List<String>> header : this.headers.entrySet()) {
+                if(header.getKey() != null && header.getKey().equalsIgnoreCase(name)) {
+                    values.addAll(header.getValue());
+                }
+            }
+            return values;
+        }
+
+        @Override
+        public String toString() {
+            return "HTTP " + this.status + ": " + getBody();
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
+import de.exxcellent.microservices.showcase.webservice.HttpClient;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.gunzip;
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.lookupBody;
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.parse;
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.pagedShortNames;
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.parseArray;
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.shortNames;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the resources of the {@link CountryWithLanguageFacade} and the country routes of the {@link LanguageRoutes}.
+ * The tests only create countries with user-assigned codes ({@code XAA} to {@code XZZ}) and languages with codes reserved for local use.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+class CountryWithLanguageFacadeTest {
+    private static final String COUNTRIES_WITH_LANGUAGE = "/api/v1/countries-with-language";
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.client = new HttpClient(this.baseUrl);
+    }
+
+    @Test
+    void createCountryWithLanguageRespondsCreatedWithLocation() throws Exception {
+        final HttpClient.HttpResult created = this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json",
+                                                               "{\"countryShortName\":\"XCA\",\"language\":{\"shortName\":\"qca\",\"name\":\"Test Language CA\"}}");
+        assertEquals(201, created.getStatus(), created.toString());
+        final String location = created.getHeader("Location");
+        assertNotNull(location);
+        assertTrue(location.endsWith(COUNTRIES_WITH_LANGUAGE + "/XCA"), location);
+        final JsonObject country = parse(created.getBody());
+        assertEquals("XCA", country.getString("countryShortName"));
+        assertEquals("qca", country.getJsonObject("language").getString("shortName"));
+
+        final HttpClient.HttpResult stored = this.client.get(new URL(location).getPath());
+        assertEquals(200, stored.getStatus(), stored.toString());
+        assertEquals("qca", parse(stored.getBody()).getJsonObject("language").getString("shortName"));
+        assertEquals(200, this.client.get("/api/v1/languages/qca").getStatus());
+    }
+
+    @Test
+    void createExistingCountryRespondsOkWithoutLocation() throws Exception {
+        final String body = "{\"countryShortName\":\"XCE\",\"language\":{\"shortName\":\"qce\",\"name\":\"Test Language CE\"}}";
+        assertEquals(201, this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json", body).getStatus());
+        final HttpClient.HttpResult existing = this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json", body);
+        assertEquals(200, existing.getStatus(), existing.toString());
+        assertNull(existing.getHeader("Location"));
+        assertEquals("qce", parse(existing.getBody()).getJsonObject("language").getString("shortName"));
+        // an existing country keeps its language.
+        final HttpClient.HttpResult france = this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json",
+                                                              "{\"countryShortName\":\"FRA\",\"language\":{\"shortName\":\"fra\",\"name\":\"French\"}}");
+        assertEquals(200, france.getStatus(), france.toString());
+        assertNull(france.getHeader("Location"));
+    }
+
+    @Test
+    void addLanguageOfCountryRespondsCreatedWithCountry() throws Exception {
+        assertEquals(201, this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json",
+                                           "{\"countryShortName\":\"XCB\",\"language\":{\"shortName\":\"qcb\",\"name\":\"Test Language CB\"}}").getStatus());
+        final HttpClient.HttpResult added = this.client.post(COUNTRIES_WITH_LANGUAGE + "/XCB/languages", "application/json",
+                                                             "{\"language\":{\"shortName\":\"qcc\",\"name\":\"Test Language CC\"},\"official\":false,\"share\":0.1}");
+        assertEquals(201, added.getStatus(), added.toString());
+        assertTrue(added.getHeader("Location").endsWith(COUNTRIES_WITH_LANGUAGE + "/XCB"), added.getHeader("Location"));
+        assertTrue(added.getBody().contains("\"qcc\""), added.getBody());
+    }
+
+    @Test
+    void legacyCountriesAreServed() throws Exception {
+        final HttpClient.HttpResult germany = this.client.get(COUNTRIES_WITH_LANGUAGE + "/GER");
+        assertEquals(200, germany.getStatus(), germany.toString());
+        assertEquals("deu", parse(germany.getBody()).getJsonObject("language").getString("shortName"));
+        final HttpClient.HttpResult scotland = this.client.get(COUNTRIES_WITH_LANGUAGE + "/SCO");
+        assertEquals(200, scotland.getStatus(), scotland.toString());
+        assertEquals("eng", parse(scotland.getBody()).getJsonObject("language").getString("shortName"));
+    }
+
+    @Test
+    void pagesContainAllCountriesInOrder() throws Exception {
+        final List<String> all = shortNames(parseArray(this.client.get(COUNTRIES_WITH_LANGUAGE).getBody()), "countryShortName");
+        final List<String> paged = pagedShortNames(this.client, COUNTRIES_WITH_LANGUAGE, 50, "countryShortName");
+        assertEquals(all, paged);
+        final List<String> sorted = new ArrayList<>(paged);
+        Collections.sort(sorted);
+        assertEquals(sorted, paged);
+    }
+
+    @Test
+    void createInvalidCountryIsRejected() throws Exception {
+        assertEquals(400, this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json",
+                                           "{\"countryShortName\":\"XCDD\",\"language\":{\"shortName\":\"qcd\",\"name\":\"Test Language CD\"}}").getStatus());
+        assertEquals(400, this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json", "{\"countryShortName\":\"XCD\"}").getStatus());
+        assertEquals(404, this.client.get(COUNTRIES_WITH_LANGUAGE + "/XCD").getStatus());
+    }
+
+    @Test
+    void lookupPartitionsFoundAndMissingCodes() throws Exception {
+        for(final HttpClient.HttpResult lookup : Arrays.asList(this.client.post(COUNTRIES_WITH_LANGUAGE + "/lookup", "application/json",
+                                                                                "[\"FRA\",\"XZZ\",\"GER\",\"FRA\",\"fra\",\"FR\"]"),
+                                                               this.client.get(COUNTRIES_WITH_LANGUAGE + "?codes=FRA,XZZ&codes=GER,FRA,fra,FR"))) {
+            assertEquals(200, lookup.getStatus(), lookup.toString());
+            final JsonObject result = parse(lookup.getBody());
+            final JsonArray found = result.getJsonArray("found");
+            assertEquals(Arrays.asList("FRA", "GER", "fra"), shortNames(found, "countryShortName"));
+            assertEquals("fra", found.getJsonObject(0).getJsonObject("language").getString("shortName"));
+            assertEquals("deu", found.getJsonObject(1).getJsonObject("language").getString("shortName"));
+            assertEquals("fra", found.getJsonObject(2).getJsonObject("language").getString("shortName"));
+            assertEquals(Arrays.asList("XZZ", "FR"), result.getJsonArray("missing").getValuesAs(JsonString.class).stream()
+                                                             .map(JsonString::getString).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void lookupOfTooManyCodesIsRejected() throws Exception {
+        final List<String> maximum = Collections.nCopies(LanguageBCI.MAX_LOOKUP_CODES, "FRA");
+        assertEquals(200, this.client.post(COUNTRIES_WITH_LANGUAGE + "/lookup", "application/json", lookupBody(maximum)).getStatus());
+        final List<String> tooMany = Collections.nCopies(LanguageBCI.MAX_LOOKUP_CODES + 1, "FRA");
+        final HttpClient.HttpResult rejected = this.client.post(COUNTRIES_WITH_LANGUAGE + "/lookup", "application/json", lookupBody(tooMany));
+        assertEquals(400, rejected.getStatus(), rejected.toString());
+        assertTrue(rejected.getBody().contains("Invalid Argument Error"), rejected.getBody());
+        assertEquals(400, this.client.get(COUNTRIES_WITH_LANGUAGE + "?codes=" + String.join(",", tooMany)).getStatus());
+    }
+
+    @Test
+    void responsesAreTaggedAndRevalidated() throws Exception {
+        final HttpClient.HttpResult country = this.client.get(COUNTRIES_WITH_LANGUAGE + "/FRA");
+        assertEquals(200, country.getStatus(), country.toString());
+        final String tag = country.getHeader("ETag");
+        assertNotNull(tag);
+        assertTrue(String.join(",", country.getHeaders("Vary")).contains("Accept-Encoding"), country.getHeaders("Vary").toString());
+        for(final String ifNoneMatch : Arrays.asList(tag, "W/" + tag, "*")) {
+            final HttpClient.HttpResult notModified = this.client.get(COUNTRIES_WITH_LANGUAGE + "/FRA", "If-None-Match", ifNoneMatch);
+            assertEquals(304, notModified.getStatus(), ifNoneMatch + ": " + notModified);
+            assertEquals(0, notModified.getBytes().length);
+        }
+        assertEquals(200, this.client.get(COUNTRIES_WITH_LANGUAGE + "/FRA", "If-None-Match", "W/\"other\"").getStatus());
+
+        final HttpClient.HttpResult list = this.client.get(COUNTRIES_WITH_LANGUAGE);
+        final HttpClient.HttpResult compressed = this.client.get(COUNTRIES_WITH_LANGUAGE, "Accept-Encoding", "gzip");
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        assertNotEquals(list.getHeader("ETag"), compressed.getHeader("ETag"));
+        assertArrayEquals(list.getBytes(), gunzip(compressed.getBytes()));
+        assertEquals(304, this.client.get(COUNTRIES_WITH_LANGUAGE, "Accept-Encoding", "gzip", "If-None-Match", compressed.getHeader("ETag")).getStatus());
+        assertNull(this.client.get(COUNTRIES_WITH_LANGUAGE, "Accept-Encoding", "gzip;q=0").getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void writesChangeTheTag() throws Exception {
+        final String tag = this.client.get(COUNTRIES_WITH_LANGUAGE).getHeader("ETag");
+        final String countryTag = this.client.get(COUNTRIES_WITH_LANGUAGE + "/FRA").getHeader("ETag");
+        assertEquals(201, this.client.post(COUNTRIES_WITH_LANGUAGE, "application/json",
+                                           "{\"countryShortName\":\"XEA\",\"language\":{\"shortName\":\"qeb\",\"name\":\"Tagged Language B\"}}").getStatus());
+        final HttpClient.HttpResult changed = this.client.get(COUNTRIES_WITH_LANGUAGE, "If-None-Match", tag);
+        assertEquals(200, changed.getStatus(), changed.toString());
+        assertNotEquals(tag, changed.getHeader("ETag"));
+        assertTrue(shortNames(parseArray(changed.getBody()), "countryShortName").contains("XEA"), changed.getBody());
+        // the representation of an unchanged country keeps its tag, as the tag is the hash of the content.
+        assertEquals(304, this.client.get(COUNTRIES_WITH_LANGUAGE + "/FRA", "If-None-Match", countryTag).getStatus());
+    }
+}
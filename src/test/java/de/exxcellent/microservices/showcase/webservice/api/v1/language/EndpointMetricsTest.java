@@ -0,0 +1,75 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.webservice.HttpClient;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.JsonObject;
+import java.net.URL;
+
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the metrics of the endpoints (see {@link EndpointMetrics}), the errors and the storage, published in the application scope.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+class EndpointMetricsTest {
+    private static final String METRICS = "/metrics/application";
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.client = new HttpClient(this.baseUrl);
+    }
+
+    @Test
+    void readsAreTimedOnEventLoop() throws Exception {
+        final long before = timerCount(EndpointMetrics.LANGUAGES_GET);
+        assertEquals(200, this.client.get("/api/v1/languages/deu").getStatus());
+        assertEquals(200, this.client.get("/api/v1/languages/fra").getStatus());
+        assertEquals(before + 2, timerCount(EndpointMetrics.LANGUAGES_GET));
+    }
+
+    @Test
+    void storageSizesFollowWrites() throws Exception {
+        final long languages = metrics().getJsonNumber("language.storage.languages").longValue();
+        final long countries = metrics().getJsonNumber("language.storage.countries").longValue();
+        assertTrue(languages > 0 && countries > 0, "reference data not counted");
+        assertEquals(201, this.client.post("/api/v1/countries-with-language", "application/json",
+                                           "{\"countryShortName\":\"XMA\",\"language\":{\"shortName\":\"qma\",\"name\":\"Metrics Language A\"}}").getStatus());
+        final JsonObject metrics = metrics();
+        assertEquals(languages + 1, metrics.getJsonNumber("language.storage.languages").longValue());
+        assertEquals(countries + 1, metrics.getJsonNumber("language.storage.countries").longValue());
+        assertTrue(metrics.getJsonNumber("language.storage.memory").longValue() > 0);
+    }
+
+    @Test
+    void errorsAreCountedByCode() throws Exception {
+        final HttpClient.HttpResult result = this.client.get("/api/v1/languages/toolong");
+        assertEquals(400, result.getStatus(), result.toString());
+        final String prometheus = this.client.get(METRICS, "Accept", "text/plain").getBody();
+        assertTrue(prometheus.contains("code=\"INVALID_ARGUMENT_ERROR\""), prometheus);
+    }
+
+    private long timerCount(final String name) throws Exception {
+        final JsonObject metrics = metrics();
+        return metrics.containsKey(name) ? metrics.getJsonObject(name).getJsonNumber("count").longValue() : 0L;
+    }
+
+    private JsonObject metrics() throws Exception {
+        final HttpClient.HttpResult result = this.client.get(METRICS, "Accept", "application/json");
+        assertEquals(200, result.getStatus(), result.toString());
+        return parse(result.getBody());
+    }
+}
@@ -0,0 +1,111 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.webservice.HttpClient;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import java.net.URL;
+
+import static de.exxcellent.microservices.showcase.webservice.api.v1.language.LanguageFacadeTest.parse;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the resources of the {@link ImportFacade}.
+ * The tests only import countries with user-assigned codes ({@code XAA} to {@code XZZ}) and languages with codes reserved for local use.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+class ImportFacadeTest {
+    private static final String IMPORT = "/api/v1/import";
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.client = new HttpClient(this.baseUrl);
+    }
+
+    @Test
+    void importNdjsonReportsErrorsPerRecord() throws Exception {
+        final String records = "{\"shortName\":\"qia\",\"name\":\"Import Language A\"}\n"
+                               + "\n"
+                               + "{\"countryShortName\":\"XIA\",\"language\":{\"shortName\":\"qia\",\"name\":\"Import Language A\"}}\n"
+                               + "{\"shortName\":\"qib\"\n"
+                               + "{\"shortName\":\"qicc\",\"name\":\"Too Long\"}\n"
+                               + "{\"countryShortName\":\"XIB\",\"language\":{\"shortName\":\"qia\",\"name\":\"Other Name\"}}\n"
+                               + "{\"countryShortName\":\"XIC\",\"language\":{\"shortName\":\"qid\",\"name\":\"Import Language D\"}}\n";
+        final HttpClient.HttpResult imported = this.client.post(IMPORT, ImportRecords.NDJSON, records);
+        assertEquals(200, imported.getStatus(), imported.toString());
+        final JsonObject result = parse(imported.getBody());
+        assertEquals(3, result.getInt("imported"));
+        assertEquals(3, result.getInt("rejected"));
+        final JsonArray errors = result.getJsonArray("errors");
+        assertEquals(3, errors.size());
+        // records are numbered by non-blank lines.
+        assertEquals(3, errors.getJsonObject(0).getInt("record"));
+        assertEquals(4, errors.getJsonObject(1).getInt("record"));
+        assertEquals(5, errors.getJsonObject(2).getInt("record"));
+
+        assertEquals(200, this.client.get("/api/v1/languages/qia").getStatus());
+        assertEquals(200, this.client.get("/api/v1/languages/qid").getStatus());
+        assertEquals("qia", parse(this.client.get("/api/v1/countries-with-language/XIA").getBody()).getJsonObject("language").getString("shortName"));
+        assertEquals("qid", parse(this.client.get("/api/v1/countries-with-language/XIC").getBody()).getJsonObject("language").getString("shortName"));
+        assertEquals(404, this.client.get("/api/v1/languages/qib").getStatus());
+        assertEquals(404, this.client.get("/api/v1/countries-with-language/XIB").getStatus());
+    }
+
+    @Test
+    void importJsonArrayReportsErrorsPerRecord() throws Exception {
+        final String records = "[{\"shortName\":\"qie\",\"name\":\"Import Language E\"},"
+                               + "{\"countryShortName\":\"XIE\",\"language\":{\"shortName\":\"qie\",\"name\":\"Import Language E\"}},"
+                               + "{\"countryShortName\":\"XIF\"}]";
+        final HttpClient.HttpResult imported = this.client.post(IMPORT, "application/json", records);
+        assertEquals(200, imported.getStatus(), imported.toString());
+        final JsonObject result = parse(imported.getBody());
+        assertEquals(2, result.getInt("imported"));
+        assertEquals(1, result.getInt("rejected"));
+        assertEquals(3, result.getJsonArray("errors").getJsonObject(0).getInt("record"));
+        assertEquals("qie", parse(this.client.get("/api/v1/countries-with-language/XIE").getBody()).getJsonObject("language").getString("shortName"));
+        assertEquals(404, this.client.get("/api/v1/countries-with-language/XIF").getStatus());
+    }
+
+    @Test
+    void importRejectsRecordsChangingTheLanguageOfACountry() throws Exception {
+        final String records = "{\"countryShortName\":\"FRA\",\"language\":{\"shortName\":\"qih\",\"name\":\"Import Language H\"}}\n"
+                               + "{\"countryShortName\":\"XIJ\",\"language\":{\"shortName\":\"qij\",\"name\":\"Import Language J\"}}\n"
+                               + "{\"countryShortName\":\"xij\",\"language\":{\"shortName\":\"qik\",\"name\":\"Import Language K\"}}\n"
+                               + "{\"countryShortName\":\"XIJ\",\"language\":{\"shortName\":\"QIJ\",\"name\":\"Import Language J\"}}\n"
+                               + "{\"countryShortName\":\"FRA\",\"language\":{\"shortName\":\"fra\",\"name\":\"French\"}}\n";
+        final HttpClient.HttpResult imported = this.client.post(IMPORT, ImportRecords.NDJSON, records);
+        assertEquals(200, imported.getStatus(), imported.toString());
+        final JsonObject result = parse(imported.getBody());
+        assertEquals(3, result.getInt("imported"));
+        assertEquals(2, result.getInt("rejected"));
+        final JsonArray errors = result.getJsonArray("errors");
+        assertEquals(1, errors.getJsonObject(0).getInt("record"));
+        assertTrue(errors.getJsonObject(0).getString("message").contains("FRA"), errors.toString());
+        assertEquals(3, errors.getJsonObject(1).getInt("record"));
+
+        assertEquals("fra", parse(this.client.get("/api/v1/countries-with-language/FRA").getBody()).getJsonObject("language").getString("shortName"));
+        assertEquals("qij", parse(this.client.get("/api/v1/countries-with-language/XIJ").getBody()).getJsonObject("language").getString("shortName"));
+        // the languages of rejected records are not imported either.
+        assertEquals(404, this.client.get("/api/v1/languages/qih").getStatus());
+        assertEquals(404, this.client.get("/api/v1/languages/qik").getStatus());
+    }
+
+    @Test
+    void importMalformedJsonArrayIsRejected() throws Exception {
+        assertEquals(400, this.client.post(IMPORT, "application/json", "{\"shortName\":\"qig\",\"name\":\"Not An Array\"}").getStatus());
+        assertEquals(404, this.client.get("/api/v1/languages/qig").getStatus());
+    }
+}
@@ -0,0 +1,529 @@
+package de.exxcellent.microservices.showcase.webservice.api.v1.language;
+
+import de.exxcellent.microservices.showcase.core.language.api.LanguageBCI;
+import de.exxcellent.microservices.showcase.webservice.HttpClient;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the resources of the {@link LanguageFacade} and the language routes of the {@link LanguageRoutes}.
+ * The application runs with the reference data, the tests only create languages with codes reserved for local use ({@code qaa} to {@code qtz}).
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+class LanguageFacadeTest {
+    private static final String LANGUAGES = "/api/v1/languages";
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.client = new HttpClient(this.baseUrl);
+    }
+
+    @Test
+    void createLanguageRespondsCreatedWithLocation() throws Exception {
+        final HttpClient.HttpResult created = this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qaa\",\"name\":\"Test Language A\"}");
+        assertEquals(201, created.getStatus(), created.toString());
+        final String location = created.getHeader("Location");
+        assertNotNull(location);
+        assertTrue(location.endsWith(LANGUAGES + "/qaa"), location);
+        final JsonObject language = parse(created.getBody());
+        assertEquals("qaa", language.getString("shortName"));
+        assertEquals("Test Language A", language.getString("name"));
+
+        final HttpClient.HttpResult stored = this.client.get(new URL(location).getPath());
+        assertEquals(200, stored.getStatus(), stored.toString());
+        assertEquals(language, parse(stored.getBody()));
+    }
+
+    @Test
+    void createExistingLanguageRespondsOkWithoutLocation() throws Exception {
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qag\",\"name\":\"Test Language G\"}").getStatus());
+        final HttpClient.HttpResult existing = this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qag\",\"name\":\"Test Language G\"}");
+        assertEquals(200, existing.getStatus(), existing.toString());
+        assertNull(existing.getHeader("Location"));
+        assertEquals("qag", parse(existing.getBody()).getString("shortName"));
+        // languages of the reference data are existing as well.
+        assertEquals(200, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"deu\",\"name\":\"German\"}").getStatus());
+    }
+
+    @Test
+    void createExistingLanguageIsRejected() throws Exception {
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qab\",\"name\":\"Test Language B\"}").getStatus());
+        final HttpClient.HttpResult existing = this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qab\",\"name\":\"Other Name\"}");
+        assertEquals(400, existing.getStatus(), existing.toString());
+        assertEquals("Test Language B", parse(this.client.get(LANGUAGES + "/qab").getBody()).getString("name"));
+    }
+
+    @Test
+    void createInvalidLanguageIsRejected() throws Exception {
+        assertEquals(400, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qaccc\",\"name\":\"Too Long\"}").getStatus());
+        assertEquals(400, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qad\"}").getStatus());
+        assertEquals(400, this.client.post(LANGUAGES, "application/json", "{\"shortName\":").getStatus());
+        assertEquals(404, this.client.get(LANGUAGES + "/qad").getStatus());
+    }
+
+    @Test
+    void malformedJsonBodiesAreRejected() throws Exception {
+        final String nested = String.join("", Collections.nCopies(5000, "[")) + String.join("", Collections.nCopies(5000, "]"));
+        for(final String body : Arrays.asList("{\"shortName\":\"qae\",\"name\":\"Number\",\"unknown\":01}",
+                                              "{\"shortName\":\"qae\",\"name\":\"Number\",\"unknown\":1.}", "{\"shortName\":\"qae\",\"unknown\":-}",
+                                              "{\"shortName\":\"qae", "{\"shortName\":\"q\\u00zze\",\"name\":\"Bad Escape\"}",
+                                              "{\"shortName\":\"qae\",\"name\":true}", "[\"qae\"]", "{\"shortName\":\"qae\",\"name\":\"Trailing\"} {}",
+                                              "{\"shortName\":\"qae\",\"name\":\"Nested\",\"unknown\":" + nested + "}")) {
+            final HttpClient.HttpResult rejected = this.client.post(LANGUAGES, "application/json", body);
+            assertEquals(400, rejected.getStatus(), body + ": " + rejected);
+            assertTrue(rejected.getBody().contains("Invalid Argument Error"), rejected.getBody());
+        }
+        assertEquals(404, this.client.get(LANGUAGES + "/qae").getStatus());
+    }
+
+    @Test
+    void pagesContainAllLanguagesInOrder() throws Exception {
+        final List<String> all = shortNames(parseArray(this.client.get(LANGUAGES).getBody()), "shortName");
+        final List<String> paged = pagedShortNames(this.client, LANGUAGES, 500, "shortName");
+        assertEquals(all, paged);
+        final List<String> sorted = new ArrayList<>(paged);
+        Collections.sort(sorted);
+        assertEquals(sorted, paged);
+    }
+
+    @Test
+    void pagesIncludeCreatedLanguagesInOrder() throws Exception {
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qpb\",\"name\":\"Paged Language B\"}").getStatus());
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qpa\",\"name\":\"Paged Language A\"}").getStatus());
+        final List<String> paged = pagedShortNames(this.client, LANGUAGES, 500, "shortName");
+        final int index = paged.indexOf("qpa");
+        assertTrue(index >= 0, "created language missing in pages");
+        assertEquals("qpb", paged.get(index + 1));
+    }
+
+    @Test
+    void invalidCursorIsRejected() throws Exception {
+        assertEquals(400, this.client.get(LANGUAGES + "?cursor=%21%21").getStatus());
+    }
+
+    @Test
+    void invalidLimitIsRejected() throws Exception {
+        assertEquals(400, this.client.get(LANGUAGES + "?limit=0").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "?limit=many").getStatus());
+    }
+
+    @Test
+    void searchFindsReferenceAndCreatedLanguages() throws Exception {
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qsa\",\"name\":\"Searchable Tëst Tongue\"}").getStatus());
+        final HttpClient.HttpResult found = this.client.get(LANGUAGES + "/search?query=GERM&limit=3");
+        assertEquals(200, found.getStatus(), found.toString());
+        final List<String> germ = shortNames(parseArray(found.getBody()), "shortName");
+        assertEquals(3, germ.size());
+        assertEquals("deu", germ.get(0));
+        assertEquals(Collections.singletonList("qsa"), shortNames(parseArray(this.client.get(LANGUAGES + "/search?query=test%20tong").getBody()), "shortName"));
+        assertEquals(Collections.singletonList("qsa"), shortNames(parseArray(this.client.get(LANGUAGES + "/search?query=searchable").getBody()), "shortName"));
+        assertEquals(0, parseArray(this.client.get(LANGUAGES + "/search?query=xqzxqz").getBody()).size());
+    }
+
+    @Test
+    void invalidSearchIsRejected() throws Exception {
+        assertEquals(400, this.client.get(LANGUAGES + "/search").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "/search?query=%20").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "/search?query=germ&limit=0").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "/search?query=germ&limit=101").getStatus());
+    }
+
+    @Test
+    void resolveMatchesAcceptLanguageHeader() throws Exception {
+        final HttpClient.HttpResult resolved = this.client.get(LANGUAGES + "/resolve", "Accept-Language", "de-CH, fr;q=0.8");
+        assertEquals(200, resolved.getStatus(), resolved.toString());
+        assertTrue(resolved.getHeaders("Vary").contains("Accept-Language"), resolved.getHeaders("Vary").toString());
+        final JsonObject match = parse(resolved.getBody());
+        assertEquals("deu", match.getJsonObject("language").getString("shortName"));
+        assertEquals("de-ch", match.getString("range"));
+        assertEquals(1.0, match.getJsonNumber("quality").doubleValue());
+    }
+
+    @Test
+    void resolveTriesRangesByQuality() throws Exception {
+        final JsonObject match = resolve("xx-unknown, de;q=0.2, fr;q=0.5", null);
+        assertEquals("fra", match.getJsonObject("language").getString("shortName"));
+        assertEquals("fr", match.getString("range"));
+        assertEquals(0.5, match.getJsonNumber("quality").doubleValue());
+        assertEquals("yue", resolve("zh-yue-HK", null).getJsonObject("language").getString("shortName"));
+    }
+
+    @Test
+    void resolveFallsBackToLanguageOfCountry() throws Exception {
+        assertEquals(201, this.client.post("/api/v1/countries-with-language", "application/json",
+                                           "{\"countryShortName\":\"XRA\",\"language\":{\"shortName\":\"qra\",\"name\":\"Resolved Language A\"}}").getStatus());
+        final JsonObject fallback = resolve("qrz", "XRA");
+        assertEquals("qra", fallback.getJsonObject("language").getString("shortName"));
+        assertTrue(!fallback.containsKey("range") || fallback.isNull("range"), fallback.toString());
+        final JsonObject wildcard = resolve("qrz, *;q=0.3", "xra");
+        assertEquals("qra", wildcard.getJsonObject("language").getString("shortName"));
+        assertEquals("*", wildcard.getString("range"));
+        assertEquals(404, this.client.get(LANGUAGES + "/resolve?preferences=qra%3Bq%3D0&country=XRA").getStatus());
+    }
+
+    @Test
+    void resolvePicksUpCreatedLanguages() throws Exception {
+        assertEquals(404, this.client.get(LANGUAGES + "/resolve?preferences=qrb").getStatus());
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qrb\",\"name\":\"Resolved Language B\"}").getStatus());
+        assertEquals("qrb", resolve("qrb", null).getJsonObject("language").getString("shortName"));
+    }
+
+    @Test
+    void invalidPreferencesAreRejected() throws Exception {
+        assertEquals(400, this.client.get(LANGUAGES + "/resolve?preferences=de%3Bq%3D2").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "/resolve?preferences=%20").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "/resolve?preferences=de&country=DE").getStatus());
+    }
+
+    @Test
+    void lookupPartitionsFoundAndMissingCodes() throws Exception {
+        for(final HttpClient.HttpResult lookup : Arrays.asList(this.client.post(LANGUAGES + "/lookup", "application/json",
+                                                                                "[\"fra\",\"qqq\",\"deu\",\"fra\",\"DEU\",\"toolong\",\"qqq\"]"),
+                                                               this.client.get(LANGUAGES + "?codes=fra,qqq,deu&codes=fra,%20DEU%20,toolong,,qqq"))) {
+            assertEquals(200, lookup.getStatus(), lookup.toString());
+            final JsonObject result = parse(lookup.getBody());
+            // duplicates are looked up once, the letter case is ignored but each requested spelling is reported.
+            assertEquals(Arrays.asList("fra", "deu", "deu"), shortNames(result.getJsonArray("found"), "shortName"));
+            assertEquals(Arrays.asList("qqq", "toolong"), result.getJsonArray("missing").getValuesAs(JsonString.class).stream()
+                                                                 .map(JsonString::getString).collect(Collectors.toList()));
+        }
+        final JsonObject empty = parse(this.client.post(LANGUAGES + "/lookup", "application/json", "[]").getBody());
+        assertEquals(0, empty.getJsonArray("found").size());
+        assertEquals(0, empty.getJsonArray("missing").size());
+    }
+
+    @Test
+    void lookupOfTooManyCodesIsRejected() throws Exception {
+        final List<String> maximum = Collections.nCopies(LanguageBCI.MAX_LOOKUP_CODES, "deu");
+        assertEquals(200, this.client.post(LANGUAGES + "/lookup", "application/json", lookupBody(maximum)).getStatus());
+        assertEquals(200, this.client.get(LANGUAGES + "?codes=" + String.join(",", maximum)).getStatus());
+
+        // duplicates count against the limit, as they are part of the request.
+        final List<String> tooMany = Collections.nCopies(LanguageBCI.MAX_LOOKUP_CODES + 1, "deu");
+        final HttpClient.HttpResult rejected = this.client.post(LANGUAGES + "/lookup", "application/json", lookupBody(tooMany));
+        assertEquals(400, rejected.getStatus(), rejected.toString());
+        assertTrue(rejected.getBody().contains("Invalid Argument Error"), rejected.getBody());
+        assertEquals(400, this.client.get(LANGUAGES + "?codes=" + String.join(",", tooMany)).getStatus());
+    }
+
+    @Test
+    void countriesOfLanguageAreOrderedWithRoundedShares() throws Exception {
+        final String countries = "/api/v1/countries-with-language";
+        assertEquals(201, this.client.post(countries, "application/json",
+                                           "{\"countryShortName\":\"XGC\",\"language\":{\"shortName\":\"qga\",\"name\":\"Graph Language A\"}}").getStatus());
+        assertEquals(201, this.client.post(countries, "application/json",
+                                           "{\"countryShortName\":\"XGB\",\"language\":{\"shortName\":\"qgb\",\"name\":\"Graph Language B\"}}").getStatus());
+        final String graphLanguageA = "{\"shortName\":\"qga\",\"name\":\"Graph Language A\"}";
+        assertEquals(201, this.client.post(countries + "/XGB/languages", "application/json",
+                                           "{\"language\":" + graphLanguageA + ",\"official\":true,\"populationShare\":12.345}").getStatus());
+        // the language of a new country is added together with its relation.
+        assertEquals(201, this.client.post(countries + "/XGA/languages", "application/json",
+                                           "{\"language\":" + graphLanguageA + ",\"official\":false,\"populationShare\":0.004}").getStatus());
+        assertEquals(201, this.client.post(countries + "/XGC/languages", "application/json",
+                                           "{\"language\":" + graphLanguageA + ",\"official\":true,\"populationShare\":99.995}").getStatus());
+        assertEquals("qga", parse(this.client.get(countries + "/XGA").getBody()).getJsonObject("language").getString("shortName"));
+        assertEquals("qgb", parse(this.client.get(countries + "/XGB").getBody()).getJsonObject("language").getString("shortName"));
+
+        final HttpClient.HttpResult countriesOfLanguage = this.client.get(LANGUAGES + "/QGA/countries");
+        assertEquals(200, countriesOfLanguage.getStatus(), countriesOfLanguage.toString());
+        final JsonObject result = parse(countriesOfLanguage.getBody());
+        assertEquals("qga", result.getJsonObject("language").getString("shortName"));
+        final JsonArray countriesOfA = result.getJsonArray("countries");
+        assertEquals(Arrays.asList("XGA", "XGB", "XGC"), shortNames(countriesOfA, "countryShortName"));
+        assertEquals(Arrays.asList(true, false, true), countriesOfA.getValuesAs(JsonObject.class).stream().map(country -> country.getBoolean("primary"))
+                                                                   .collect(Collectors.toList()));
+        // the shares are stored in hundredths of a percent.
+        assertEquals(0.0, countriesOfA.getJsonObject(0).getJsonNumber("populationShare").doubleValue());
+        assertEquals(12.35, countriesOfA.getJsonObject(1).getJsonNumber("populationShare").doubleValue());
+        assertEquals(100.0, countriesOfA.getJsonObject(2).getJsonNumber("populationShare").doubleValue());
+        assertEquals(false, countriesOfA.getJsonObject(0).getBoolean("official"));
+        assertEquals(true, countriesOfA.getJsonObject(1).getBoolean("official"));
+
+        // a language without countries has an empty list.
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qgc\",\"name\":\"Graph Language C\"}").getStatus());
+        assertEquals(0, parse(this.client.get(LANGUAGES + "/qgc/countries").getBody()).getJsonArray("countries").size());
+    }
+
+    @Test
+    void countriesOfUnknownLanguageAreNotFound() throws Exception {
+        assertEquals(404, this.client.get(LANGUAGES + "/qgz/countries").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "/qgzz/countries").getStatus());
+    }
+
+    @Test
+    void displayNamesFollowLocaleParameter() throws Exception {
+        final HttpClient.HttpResult german = this.client.get(LANGUAGES + "/deu?locale=de", "Accept-Language", "fr");
+        assertEquals(200, german.getStatus(), german.toString());
+        assertEquals("German", parse(german.getBody()).getString("name"));
+        assertEquals("Deutsch", parse(german.getBody()).getString("displayName"));
+        // the parameter overrides the header, so the response does not vary on it.
+        assertFalse(String.join(",", german.getHeaders("Vary")).contains("Accept-Language"), german.getHeaders("Vary").toString());
+
+        assertEquals("Deutsch", displayName(LANGUAGES + "/deu?locale=DE"));
+        assertEquals("德文", displayName(LANGUAGES + "/deu?locale=zh-hant"));
+        assertEquals("German", displayName(LANGUAGES + "/deu?locale=en"));
+        assertEquals(400, this.client.get(LANGUAGES + "/deu?locale=xx").getStatus());
+        assertEquals(400, this.client.get(LANGUAGES + "?locale=xx").getStatus());
+
+        // languages without a display name in the locale fall back to their English name.
+        assertEquals("Afar", displayName(LANGUAGES + "/aar?locale=de"));
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qla\",\"name\":\"Localized Language A\"}").getStatus());
+        assertEquals("Localized Language A", displayName(LANGUAGES + "/qla?locale=fr"));
+
+        assertEquals("allemand", displayNameOf(parseArray(this.client.get(LANGUAGES + "?locale=fr").getBody()), "deu"));
+        final JsonArray page = parse(this.client.get(LANGUAGES + "?limit=3&locale=de").getBody()).getJsonArray("items");
+        assertEquals(3, page.size());
+        for(final JsonObject language : page.getValuesAs(JsonObject.class)) {
+            assertEquals(displayName(LANGUAGES + "/" + language.getString("shortName") + "?locale=de"), language.getString("displayName"));
+        }
+
+        final JsonObject unlocalized = parse(this.client.get(LANGUAGES + "/deu").getBody());
+        assertTrue(!unlocalized.containsKey("displayName") || unlocalized.isNull("displayName"), unlocalized.toString());
+    }
+
+    @Test
+    void displayNamesFollowAcceptLanguage() throws Exception {
+        final HttpClient.HttpResult german = this.client.get(LANGUAGES + "/fra", "Accept-Language", "de-CH, fr;q=0.5");
+        assertEquals(200, german.getStatus(), german.toString());
+        assertEquals("Französisch", parse(german.getBody()).getString("displayName"));
+        assertTrue(String.join(",", german.getHeaders("Vary")).contains("Accept-Language"), german.getHeaders("Vary").toString());
+        assertEquals("français", parse(this.client.get(LANGUAGES + "/fra", "Accept-Language", "de;q=0.4, fr;q=0.8").getBody()).getString("displayName"));
+
+        // unsupported and malformed preferences are not localized.
+        for(final String acceptLanguage : Arrays.asList("xx-YY", "de;q=high")) {
+            final HttpClient.HttpResult unsupported = this.client.get(LANGUAGES + "/fra", "Accept-Language", acceptLanguage);
+            assertEquals(200, unsupported.getStatus(), acceptLanguage + ": " + unsupported);
+            final JsonObject language = parse(unsupported.getBody());
+            assertTrue(!language.containsKey("displayName") || language.isNull("displayName"), acceptLanguage + ": " + language);
+            assertTrue(String.join(",", unsupported.getHeaders("Vary")).contains("Accept-Language"), unsupported.getHeaders("Vary").toString());
+        }
+    }
+
+    @Test
+    void localizedResponsesAreCachedPerLocale() throws Exception {
+        final HttpClient.HttpResult german = this.client.get(LANGUAGES + "/spa", "Accept-Language", "de");
+        final HttpClient.HttpResult french = this.client.get(LANGUAGES + "/spa", "Accept-Language", "fr");
+        assertEquals("Spanisch", parse(german.getBody()).getString("displayName"));
+        assertEquals("espagnol", parse(french.getBody()).getString("displayName"));
+        assertEquals("Spanisch", displayName(LANGUAGES + "/spa?locale=de"));
+        assertNotEquals(german.getHeader("ETag"), french.getHeader("ETag"));
+        // the entity tag of one locale does not match the representation of another locale.
+        assertEquals(304, this.client.get(LANGUAGES + "/spa", "Accept-Language", "de", "If-None-Match", german.getHeader("ETag")).getStatus());
+        assertEquals(200, this.client.get(LANGUAGES + "/spa", "Accept-Language", "fr", "If-None-Match", german.getHeader("ETag")).getStatus());
+        assertEquals(200, this.client.get(LANGUAGES + "/spa", "If-None-Match", german.getHeader("ETag")).getStatus());
+
+        assertEquals("Deutsch", displayNameOf(parseArray(this.client.get(LANGUAGES, "Accept-Language", "de").getBody()), "deu"));
+        assertEquals("allemand", displayNameOf(parseArray(this.client.get(LANGUAGES, "Accept-Language", "fr").getBody()), "deu"));
+        assertEquals("Deutsch", displayNameOf(parseArray(this.client.get(LANGUAGES + "?locale=de").getBody()), "deu"));
+    }
+
+    @Test
+    void responsesAreTaggedAndRevalidated() throws Exception {
+        final HttpClient.HttpResult list = this.client.get(LANGUAGES);
+        assertEquals(200, list.getStatus(), list.toString());
+        final String tag = list.getHeader("ETag");
+        assertNotNull(tag);
+        assertTrue(tag.startsWith("\"") && tag.endsWith("\""), tag);
+        assertTrue(String.join(",", list.getHeaders("Vary")).contains("Accept-Encoding"), list.getHeaders("Vary").toString());
+        assertNull(list.getHeader("Content-Encoding"));
+
+        for(final String ifNoneMatch : Arrays.asList(tag, "W/" + tag, "*", "\"other\", " + tag)) {
+            final HttpClient.HttpResult notModified = this.client.get(LANGUAGES, "If-None-Match", ifNoneMatch);
+            assertEquals(304, notModified.getStatus(), ifNoneMatch + ": " + notModified);
+            assertEquals(0, notModified.getBytes().length);
+            assertEquals(tag, notModified.getHeader("ETag"));
+        }
+        assertEquals(200, this.client.get(LANGUAGES, "If-None-Match", "\"other\"").getStatus());
+        // the tag of another resource does not match.
+        assertEquals(200, this.client.get(LANGUAGES + "/deu", "If-None-Match", tag).getStatus());
+    }
+
+    @Test
+    void gzipVariantHasItsOwnTag() throws Exception {
+        final HttpClient.HttpResult identity = this.client.get(LANGUAGES);
+        final HttpClient.HttpResult compressed = this.client.get(LANGUAGES, "Accept-Encoding", "gzip");
+        assertEquals(200, compressed.getStatus(), compressed.toString());
+        assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+        final String gzipTag = compressed.getHeader("ETag");
+        assertNotEquals(identity.getHeader("ETag"), gzipTag);
+        assertTrue(compressed.getBytes().length < identity.getBytes().length);
+        assertArrayEquals(identity.getBytes(), gunzip(compressed.getBytes()));
+
+        assertEquals(304, this.client.get(LANGUAGES, "Accept-Encoding", "gzip", "If-None-Match", gzipTag).getStatus());
+        // the tags of the variants do not match each other, as their bytes differ.
+        assertEquals(200, this.client.get(LANGUAGES, "Accept-Encoding", "gzip", "If-None-Match", identity.getHeader("ETag")).getStatus());
+        assertEquals(200, this.client.get(LANGUAGES, "If-None-Match", gzipTag).getStatus());
+
+        for(final String acceptEncoding : Arrays.asList("gzip;q=0", "deflate, gzip; q=0.000", "identity")) {
+            final HttpClient.HttpResult refused = this.client.get(LANGUAGES, "Accept-Encoding", acceptEncoding);
+            assertEquals(200, refused.getStatus(), acceptEncoding + ": " + refused);
+            assertNull(refused.getHeader("Content-Encoding"), acceptEncoding);
+            assertEquals(identity.getHeader("ETag"), refused.getHeader("ETag"), acceptEncoding);
+        }
+        assertEquals("gzip", this.client.get(LANGUAGES, "Accept-Encoding", "deflate, GZIP;q=0.5").getHeader("Content-Encoding"));
+    }
+
+    @Test
+    void writesChangeTheTag() throws Exception {
+        final String tag = this.client.get(LANGUAGES).getHeader("ETag");
+        assertEquals(304, this.client.get(LANGUAGES, "If-None-Match", tag).getStatus());
+        assertEquals(201, this.client.post(LANGUAGES, "application/json", "{\"shortName\":\"qea\",\"name\":\"Tagged Language A\"}").getStatus());
+        final HttpClient.HttpResult changed = this.client.get(LANGUAGES, "If-None-Match", tag);
+        assertEquals(200, changed.getStatus(), changed.toString());
+        assertNotEquals(tag, changed.getHeader("ETag"));
+        assertTrue(shortNames(parseArray(changed.getBody()), "shortName").contains("qea"), changed.getBody());
+        assertEquals(304, this.client.get(LANGUAGES, "If-None-Match", changed.getHeader("ETag")).getStatus());
+    }
+
+    /**
+     * Get the display name of a language.
+     *
+     * @param path the path of the language resource including the query.
+     * @return the display name.
+     * @throws IOException if the request failed.
+     */
+    private String displayName(final String path) throws IOException {
+        final HttpClient.HttpResult language = this.client.get(path);
+        assertEquals(200, language.getStatus(), path + ": " + language);
+        return parse(language.getBody()).getString("displayName");
+    }
+
+    /**
+     * Get the display name of a language of a list.
+     *
+     * @param languages the languages.
+     * @param shortName the short name of the language.
+     * @return the display name.
+     */
+    private static String displayNameOf(final JsonArray languages, final String shortName) {
+        return languages.getValuesAs(JsonObject.class).stream().filter(language -> shortName.equals(language.getString("shortName")))
+                        .findFirst().orElseThrow(IllegalStateException::new).getString("displayName");
+    }
+
+    /**
+     * Resolve the language for the given preference list.
+     *
+     * @param preferences the language preference list.
+     * @param country the short name of the country, {@code null} if unknown.
+     * @return the match.
+     * @throws IOException if the request failed.
+     */
+    private JsonObject resolve(final String preferences, final String country) throws IOException {
+        final HttpClient.HttpResult resolved = this.client.get(LANGUAGES + "/resolve?preferences=" + URLEncoder.encode(preferences, "UTF-8")
+                                                               + (country != null ? "&country=" + country : ""));
+        assertEquals(200, resolved.getStatus(), resolved.toString());
+        return parse(resolved.getBody());
+    }
+
+    /**
+     * Page through a list resource with the cursors returned by the pages.
+     *
+     * @param client the {@link HttpClient}.
+     * @param path the path of the list resource.
+     * @param limit the limit of the pages.
+     * @param property the name of the property holding the short name of the items.
+     * @return the short names of the items of all pages in the order of the pages.
+     * @throws IOException if a request failed.
+     */
+    static List<String> pagedShortNames(final HttpClient client, final String path, final int limit, final String property) throws IOException {
+        final List<String> shortNames = new ArrayList<>();
+        String cursor = null;
+        do {
+            final HttpClient.HttpResult page = client.get(path + "?limit=" + limit + (cursor != null ? "&cursor=" + cursor : ""));
+            assertEquals(200, page.getStatus(), page.toString());
+            final JsonObject result = parse(page.getBody());
+            final JsonArray items = result.getJsonArray("items");
+            assertTrue(items.size() <= limit, "page larger than its limit");
+            shortNames.addAll(shortNames(items, property));
+            cursor = result.containsKey("nextCursor") ? result.getString("nextCursor") : null;
+        } while(cursor != null);
+        return shortNames;
+    }
+
+    /**
+     * Create the body of a lookup.
+     *
+     * @param codes the codes to be looked up.
+     * @return the codes as JSON array.
+     */
+    static String lookupBody(final List<String> codes) {
+        return codes.stream().map(code -> "\"" + code + "\"").collect(Collectors.joining(",", "[", "]"));
+    }
+
+    /**
+     * Decompress a gzip compressed body.
+     *
+     * @param compressed the compressed body.
+     * @return the decompressed body.
+     * @throws IOException if the body is not gzip compressed.
+     */
+    static byte[] gunzip(final byte[] compressed) throws IOException {
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        try(final GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            while((read = input.read(buffer)) != -1) {
+                content.write(buffer, 0, read);
+            }
+        }
+        return content.toByteArray();
+    }
+
+    static JsonObject parse(final String body) {
+        return Json.createReader(new StringReader(body)).readObject();
+    }
+
+    static JsonArray parseArray(final String body) {
+        return Json.createReader(new StringReader(body)).readArray();
+    }
+
+    /**
+     * Get the short names of the given objects.
+     *
+     * @param objects the JSON objects.
+     * @param property the name of the property holding the short name.
+     * @return the short names in the order of the objects.
+     */
+    static List<String> shortNames(final JsonArray objects, final String property) {
+        final List<String> shortNames = new ArrayList<>(objects.size());
+        for(int i = 0; i < objects.size(); i++) {
+            shortNames.add(objects.getJsonObject(i).getString(property));
+        }
+        return shortNames;
+    }
+}
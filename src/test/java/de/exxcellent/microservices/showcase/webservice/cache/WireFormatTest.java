@@ -0,0 +1,58 @@
+package de.exxcellent.microservices.showcase.webservice.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests of the negotiation of the {@link WireFormat}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class WireFormatTest {
+
+    @Test
+    void jsonIsTheDefault() {
+        assertEquals(WireFormat.JSON, WireFormat.of(null));
+        assertEquals(WireFormat.JSON, WireFormat.of("*/*"));
+        assertEquals(WireFormat.JSON, WireFormat.of("application/json"));
+        assertEquals(WireFormat.JSON, WireFormat.of("text/html, application/xml;q=0.9"));
+    }
+
+    @Test
+    void cborIsChosenIfRequested() {
+        assertEquals(WireFormat.CBOR, WireFormat.of("application/cbor"));
+        assertEquals(WireFormat.CBOR, WireFormat.of("Application/CBOR"));
+        assertEquals(WireFormat.CBOR, WireFormat.of("application/cbor, */*;q=0.1"));
+    }
+
+    @Test
+    void higherQualityWins() {
+        assertEquals(WireFormat.CBOR, WireFormat.of("application/json;q=0.9, application/cbor"));
+        assertEquals(WireFormat.JSON, WireFormat.of("application/cbor;q=0.5, application/json"));
+        assertEquals(WireFormat.CBOR, WireFormat.of("application/cbor;q=0.5, application/json;q=0.4"));
+        assertEquals(WireFormat.JSON, WireFormat.of("application/cbor;q=0"));
+    }
+
+    @Test
+    void equalQualityKeepsJson() {
+        assertEquals(WireFormat.JSON, WireFormat.of("application/cbor, application/json"));
+        assertEquals(WireFormat.JSON, WireFormat.of("application/cbor, */*"));
+    }
+
+    @Test
+    void mostSpecificRangeDeterminesQuality() {
+        // JSON only matches the wildcard of low quality.
+        assertEquals(WireFormat.CBOR, WireFormat.of("*/*;q=0.1, application/cbor;q=0.5"));
+        // the explicit range of CBOR overrides its wildcard match.
+        assertEquals(WireFormat.JSON, WireFormat.of("application/*, application/cbor;q=0.5"));
+        assertEquals(WireFormat.CBOR, WireFormat.of("application/*;q=0.2, application/cbor;q=0.3"));
+    }
+
+    @Test
+    void malformedRangesAreIgnored() {
+        assertEquals(WireFormat.CBOR, WireFormat.of("application/cbor;q=high, application/json;q=0.5"));
+        assertEquals(WireFormat.CBOR, WireFormat.of("no media type, application/cbor"));
+    }
+}
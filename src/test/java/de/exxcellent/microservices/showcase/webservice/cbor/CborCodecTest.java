@@ -0,0 +1,326 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryOfLanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the {@link CborCodec} with the {@link CborReader} and the {@link CborWriter}.
+ * The encoded entities are compared with their JSON-B representation, decoded by a minimal CBOR decoder of the test independent of the {@link CborReader}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class CborCodecTest {
+    private static Jsonb jsonb;
+
+    @BeforeAll
+    static void createJsonb() {
+        jsonb = JsonbBuilder.create();
+    }
+
+    @AfterAll
+    static void closeJsonb() throws Exception {
+        jsonb.close();
+    }
+
+    @Test
+    void languageIsEncodedLikeJson() {
+        assertEncodedLikeJson(new LanguageTO("deu", "German"));
+        assertEncodedLikeJson(new LanguageTO("fra", "French", "Französisch"));
+    }
+
+    @Test
+    void countryWithLanguageIsEncodedLikeJson() {
+        assertEncodedLikeJson(new CountryWithLanguageCTO("CHE", new LanguageTO("deu", "German")));
+        assertEncodedLikeJson(new CountryWithLanguageCTO("CHE", new LanguageTO("deu", "German"), Arrays.asList(
+                new LanguageOfCountryTO(new LanguageTO("deu", "German"), true, 0.625),
+                new LanguageOfCountryTO(new LanguageTO("fra", "French"), null, null))));
+    }
+
+    @Test
+    void languageOfCountryIsEncodedLikeJson() {
+        assertEncodedLikeJson(new LanguageOfCountryTO(new LanguageTO("roh", "Romansh"), false, 0.005));
+        assertEncodedLikeJson(new LanguageOfCountryTO(new LanguageTO("ita", "Italian"), true, 1.0E-4));
+    }
+
+    @Test
+    void countriesOfLanguageAreEncodedLikeJson() {
+        assertEncodedLikeJson(new CountryOfLanguageTO("AUT", true, null, null));
+        assertEncodedLikeJson(new CountriesOfLanguageCTO(new LanguageTO("deu", "German"), Arrays.asList(
+                new CountryOfLanguageTO("AUT", true, null, null), new CountryOfLanguageTO("CHE", false, true, 0.625))));
+    }
+
+    @Test
+    void pagesAndLookupsAreEncodedLikeJson() {
+        final List<LanguageTO> languages = Arrays.asList(new LanguageTO("deu", "German"), new LanguageTO("fra", "French"));
+        assertEncodedLikeJson(new PageCTO<>(languages, "ZnJh"));
+        assertEncodedLikeJson(new PageCTO<>(languages, null));
+        assertEncodedLikeJson(new LookupResultCTO<>(languages, Arrays.asList("qqq", "XXX")));
+        assertEncodedLikeJson(new LookupResultCTO<>(Collections.<LanguageTO>emptyList(), Collections.<String>emptyList()));
+    }
+
+    @Test
+    void matchesAndCollectionsAreEncodedLikeJson() {
+        assertEncodedLikeJson(new LanguageMatchCTO(new LanguageTO("deu", "German"), "de-ch", 0.8));
+        assertEncodedLikeJson(new LanguageMatchCTO(new LanguageTO("deu", "German"), null, null));
+        assertEncodedLikeJson(new HashSet<>(Arrays.asList(new LanguageTO("deu", "German"), new LanguageTO("fra", "French"))));
+        assertEncodedLikeJson(Collections.emptyList());
+        // more than 23 items and a text of more than 255 bytes need longer heads.
+        final List<LanguageTO> many = new ArrayList<>();
+        for(int i = 0; i < 300; i++) {
+            many.add(new LanguageTO("q" + (char) ('a' + i / 26) + (char) ('a' + i % 26), String.join("", Collections.nCopies(i + 1, "ä"))));
+        }
+        assertEncodedLikeJson(many);
+    }
+
+    @Test
+    void requestBodiesAreDecodedAfterEncoding() {
+        assertDecodedAfterEncoding(new LanguageTO("deu", "German", "Deutsch"), LanguageTO.class);
+        assertDecodedAfterEncoding(new LanguageOfCountryTO(new LanguageTO("roh", "Romansh"), false, 0.005), LanguageOfCountryTO.class);
+        assertDecodedAfterEncoding(new CountryWithLanguageCTO("CHE", new LanguageTO("deu", "German"), Arrays.asList(
+                new LanguageOfCountryTO(new LanguageTO("fra", "French"), true, 0.25))), CountryWithLanguageCTO.class);
+        assertEquals(Arrays.asList("deu", "fra"), CborCodec.decode(CborCodec.encode(Arrays.asList("deu", "fra")), List.class));
+        assertNull(CborCodec.decode(new byte[]{(byte) 0xF6}, LanguageTO.class));
+    }
+
+    @Test
+    void decoderAcceptsAnyValidEncoding() {
+        // an indefinite length map with a tagged key, an unknown nested entry and a null value.
+        final LanguageTO language = (LanguageTO) CborCodec.decode(bytes(0xBF, 0xC0, text("shortName"), text("qaa"),
+                                                                        text("unknown"), 0x9F, 0xA1, text("x"), 0x5F, 0x41, 0x00, 0xFF, 0xFF,
+                                                                        text("name"), 0xF6, 0xFF), LanguageTO.class);
+        assertEquals("qaa", language.getShortName());
+        assertNull(language.getName());
+        // a half precision share, a single precision share and an integer share.
+        assertEquals(0.5, populationShare(bytes(0xF9, 0x38, 0x00)));
+        assertEquals(0.25, populationShare(bytes(0xFA, 0x3E, 0x80, 0x00, 0x00)));
+        assertEquals(1.0, populationShare(bytes(0x01)));
+        assertEquals(-2.0, populationShare(bytes(0x21)));
+        assertEquals(5.960464477539063E-8, populationShare(bytes(0xF9, 0x00, 0x01)));
+        assertEquals(Double.POSITIVE_INFINITY, populationShare(bytes(0xF9, 0x7C, 0x00)));
+    }
+
+    @Test
+    void malformedBodiesAreRejected() {
+        // truncated heads, strings, maps and numbers.
+        assertMalformed(bytes());
+        assertMalformed(bytes(0xA1, text("shortName")));
+        assertMalformed(bytes(0xA1, text("shortName"), 0x63, 'q', 'a'));
+        assertMalformed(bytes(0xA1, text("shortName"), 0x7B, 0x7F, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF, 0xFF));
+        assertMalformed(bytes(0xBA, 0xFF, 0xFF, 0xFF, 0xFF));
+        assertMalformed(bytes(0xBF, text("shortName"), text("qaa")));
+        assertMalformed(bytes(0xA1, text("populationShare"), 0xFB, 0x3F, 0xE0));
+        // reserved additional information and an unexpected break.
+        assertMalformed(bytes(0xBC));
+        assertMalformed(bytes(0xA1, text("unknown"), 0x1D));
+        assertMalformed(bytes(0xA1, text("shortName"), 0xFF));
+        // items of the wrong type.
+        assertMalformed(bytes(0x80));
+        assertMalformed(bytes(0xA1, 0x01, text("qaa")));
+        assertMalformed(bytes(0xA1, text("language"), 0x01));
+        assertMalformed(bytes(0xA1, text("official"), 0x01));
+        assertMalformed(bytes(0xA1, text("populationShare"), text("half")));
+        assertMalformed(bytes(0xA1, text("language"), 0xA1, text("shortName"), 0x7F, 0x61, 'q', 0xFF));
+        // trailing data after the body.
+        assertMalformed(bytes(0xA1, text("shortName"), text("qaa"), 0x00));
+    }
+
+    @Test
+    void overNestedItemsAreRejected() {
+        final int[] nested = new int[200];
+        Arrays.fill(nested, 0x81);
+        assertMalformed(bytes(0xA1, text("unknown"), nested, 0x00));
+        final int[] indefinite = new int[200];
+        Arrays.fill(indefinite, 0x9F);
+        assertMalformed(bytes(0xA1, text("unknown"), indefinite));
+    }
+
+    /**
+     * Check that the CBOR encoding of the given entity has the structure of its JSON-B representation.
+     *
+     * @param entity the entity.
+     */
+    private static void assertEncodedLikeJson(final Object entity) {
+        assertEquals(toValue(Json.createReader(new StringReader(jsonb.toJson(entity))).readValue()), decodeItem(CborCodec.encode(entity)));
+    }
+
+    /**
+     * Check that the given request body is decoded to an equal entity after encoding it.
+     *
+     * @param entity the entity.
+     * @param type the class of the entity.
+     */
+    private static void assertDecodedAfterEncoding(final Object entity, final Class<?> type) {
+        assertEquals(jsonb.toJson(entity), jsonb.toJson(CborCodec.decode(CborCodec.encode(entity), type)));
+    }
+
+    private static void assertMalformed(final byte[] body) {
+        final BusinessException e = assertThrows(BusinessException.class, () -> CborCodec.decode(body, LanguageOfCountryTO.class));
+        assertEquals(ErrorCode.INVALID_ARGUMENT_ERROR, e.getErrorCode());
+    }
+
+    private static Double populationShare(final byte[] share) {
+        return ((LanguageOfCountryTO) CborCodec.decode(bytes(0xA1, text("populationShare"), share), LanguageOfCountryTO.class)).getPopulationShare();
+    }
+
+    /**
+     * Decode a CBOR data item of definite length, as written by the {@link CborWriter}, like {@link #toValue(JsonValue)} converts JSON.
+     *
+     * @param bytes the CBOR encoded item.
+     * @return the item as {@link Map}, {@link List}, {@link String}, {@link Double}, {@link Boolean} or {@code null}.
+     */
+    static Object decodeItem(final byte[] bytes) {
+        final int[] position = {0};
+        final Object item = decodeItem(bytes, position);
+        assertEquals(bytes.length, position[0], "unexpected data after the item");
+        return item;
+    }
+
+    private static Object decodeItem(final byte[] bytes, final int[] position) {
+        final int initial = bytes[position[0]++] & 0xFF;
+        final int additional = initial & 0x1F;
+        if(initial == 0xF4 || initial == 0xF5) {
+            return initial == 0xF5;
+        } else if(initial == 0xF6) {
+            return null;
+        } else if(initial == 0xFA) {
+            return (double) Float.intBitsToFloat((int) argument(bytes, position, 4));
+        } else if(initial == 0xFB) {
+            return Double.longBitsToDouble(argument(bytes, position, 8));
+        } // else: an item with a length or a value as argument.
+        final long argument = additional < 24 ? additional : argument(bytes, position, 1 << (additional - 24));
+        switch(initial >>> 5) {
+            case 0:
+                return (double) argument;
+            case 1:
+                return (double) (-1 - argument);
+            case 3:
+                final String text = new String(bytes, position[0], (int) argument, StandardCharsets.UTF_8);
+                position[0] += (int) argument;
+                return text;
+            case 4:
+                final List<Object> items = new ArrayList<>();
+                for(long i = 0; i < argument; i++) {
+                    items.add(decodeItem(bytes, position));
+                }
+                return items;
+            case 5:
+                final Map<Object, Object> entries = new LinkedHashMap<>();
+                for(long i = 0; i < argument; i++) {
+                    entries.put(decodeItem(bytes, position), decodeItem(bytes, position));
+                }
+                return entries;
+            default:
+                throw new AssertionError("Unexpected initial byte " + initial);
+        }
+    }
+
+    private static long argument(final byte[] bytes, final int[] position, final int count) {
+        long value = 0;
+        for(int i = 0; i < count; i++) {
+            value = value << 8 | (bytes[position[0]++] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Convert a JSON value to the values returned by {@link #decodeItem(byte[])}.
+     *
+     * @param value the {@link JsonValue}.
+     * @return the value as {@link Map}, {@link List}, {@link String}, {@link Double}, {@link Boolean} or {@code null}.
+     */
+    static Object toValue(final JsonValue value) {
+        switch(value.getValueType()) {
+            case OBJECT:
+                final Map<Object, Object> entries = new LinkedHashMap<>();
+                for(final Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+                    entries.put(entry.getKey(), toValue(entry.getValue()));
+                }
+                return entries;
+            case ARRAY:
+                final List<Object> items = new ArrayList<>();
+                for(final JsonValue item : (JsonArray) value) {
+                    items.add(toValue(item));
+                }
+                return items;
+            case STRING:
+                return ((JsonString) value).getString();
+            case NUMBER:
+                return ((JsonNumber) value).doubleValue();
+            case TRUE:
+                return true;
+            case FALSE:
+                return false;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Concatenate bytes, text strings and arrays of bytes.
+     *
+     * @param parts the parts, each an {@link Integer} byte, a {@code byte[]}, an {@code int[]} or a {@link Character}.
+     * @return the bytes.
+     */
+    static byte[] bytes(final Object... parts) {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for(final Object part : parts) {
+            if(part instanceof byte[]) {
+                bytes.write((byte[]) part, 0, ((byte[]) part).length);
+            } else if(part instanceof int[]) {
+                for(final int value : (int[]) part) {
+                    bytes.write(value);
+                }
+            } else if(part instanceof Character) {
+                bytes.write((Character) part);
+            } else {
+                bytes.write((Integer) part);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Encode a short ASCII text string.
+     *
+     * @param text the text (at most 23 characters).
+     * @return the encoded text string.
+     */
+    static byte[] text(final String text) {
+        return bytes(0x60 | text.length(), text.getBytes(StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,137 @@
+package de.exxcellent.microservices.showcase.webservice.cbor;
+
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.webservice.HttpClient;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import java.io.IOException;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+import static de.exxcellent.microservices.showcase.webservice.cbor.CborCodecTest.bytes;
+import static de.exxcellent.microservices.showcase.webservice.cbor.CborCodecTest.decodeItem;
+import static de.exxcellent.microservices.showcase.webservice.cbor.CborCodecTest.text;
+import static de.exxcellent.microservices.showcase.webservice.cbor.CborCodecTest.toValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the CBOR responses and request bodies of the language resources.
+ * The tests only create countries with user-assigned codes ({@code XAA} to {@code XZZ}) and languages with codes reserved for local use.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+class CborResourcesTest {
+    private static final String LANGUAGES = "/api/v1/languages";
+    private static final String COUNTRIES_WITH_LANGUAGE = "/api/v1/countries-with-language";
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    private HttpClient client;
+
+    @BeforeEach
+    void setUp() {
+        this.client = new HttpClient(this.baseUrl);
+    }
+
+    @Test
+    void resourcesRespondWithCborIfAccepted() throws Exception {
+        for(final String path : Arrays.asList(LANGUAGES + "/deu", LANGUAGES + "?limit=3", LANGUAGES + "/deu/countries", COUNTRIES_WITH_LANGUAGE + "/FRA",
+                                              COUNTRIES_WITH_LANGUAGE + "?limit=2", LANGUAGES + "/search?query=germ", LANGUAGES + "/resolve?preferences=de",
+                                              LANGUAGES + "?codes=deu,qqq")) {
+            final HttpClient.HttpResult cbor = this.client.get(path, "Accept", CborCodec.APPLICATION_CBOR);
+            assertEquals(200, cbor.getStatus(), path + ": " + cbor);
+            assertTrue(isCbor(cbor), path + ": " + cbor.getHeader("Content-Type"));
+            assertTrue(String.join(",", cbor.getHeaders("Vary")).contains("Accept"), path + ": " + cbor.getHeaders("Vary"));
+            assertEquals(json(path), decodeItem(cbor.getBytes()), path);
+        }
+    }
+
+    @Test
+    void higherQualityFormatIsServed() throws Exception {
+        assertCborServed(true, "application/json;q=0.9, application/cbor");
+        assertCborServed(false, "application/cbor;q=0.5, application/json");
+        assertCborServed(false, "application/cbor, application/json");
+        assertCborServed(true, "*/*;q=0.1, application/cbor");
+        assertCborServed(false, "application/cbor;q=0");
+    }
+
+    @Test
+    void cborRequestBodiesAreAccepted() throws Exception {
+        final HttpClient.HttpResult language = this.client.post(LANGUAGES, CborCodec.APPLICATION_CBOR,
+                                                                CborCodec.encode(new LanguageTO("qba", "Binary Language A")),
+                                                                "Accept", CborCodec.APPLICATION_CBOR);
+        assertEquals(201, language.getStatus(), language.toString());
+        assertEquals(json(LANGUAGES + "/qba"), decodeItem(language.getBytes()));
+
+        final HttpClient.HttpResult country = this.client.post(COUNTRIES_WITH_LANGUAGE, CborCodec.APPLICATION_CBOR,
+                                                               CborCodec.encode(new CountryWithLanguageCTO("XBA", new LanguageTO("qbb", "Binary Language B"))));
+        assertEquals(201, country.getStatus(), country.toString());
+        final HttpClient.HttpResult added = this.client.post(COUNTRIES_WITH_LANGUAGE + "/XBA/languages", CborCodec.APPLICATION_CBOR,
+                                                             CborCodec.encode(new LanguageOfCountryTO(new LanguageTO("qba", "Binary Language A"), true, 0.5)));
+        assertEquals(201, added.getStatus(), added.toString());
+        assertTrue(added.getBody().contains("\"qba\""), added.getBody());
+
+        final HttpClient.HttpResult lookup = this.client.post(LANGUAGES + "/lookup", CborCodec.APPLICATION_CBOR, CborCodec.encode(Arrays.asList("qba", "qbb")));
+        assertEquals(200, lookup.getStatus(), lookup.toString());
+        assertTrue(lookup.getBody().contains("\"qbb\""), lookup.getBody());
+    }
+
+    @Test
+    void malformedCborBodiesAreRejected() throws Exception {
+        final int[] nested = new int[200];
+        Arrays.fill(nested, 0x81);
+        for(final byte[] body : Arrays.asList(bytes(0xA2, text("shortName"), text("qbc"), text("name"), 0x6A, 'B', 'i', 'n'),
+                                              bytes(0xA2, text("shortName"), text("qbc"), text("name"), 0x7C),
+                                              bytes(0xA2, text("shortName"), text("qbc"), text("unknown"), nested, 0x00),
+                                              bytes(0xA2, text("shortName"), text("qbc"), text("name"), text("Binary C"), 0x00),
+                                              bytes(0xA2, text("shortName"), text("qbc"), text("name"), 0xFF),
+                                              bytes(0x82, text("qbc"), text("Binary C")))) {
+            final HttpClient.HttpResult rejected = this.client.post(LANGUAGES, CborCodec.APPLICATION_CBOR, body);
+            assertEquals(400, rejected.getStatus(), rejected.toString());
+            assertTrue(rejected.getBody().contains("Invalid Argument Error"), rejected.getBody());
+        }
+        assertEquals(404, this.client.get(LANGUAGES + "/qbc").getStatus());
+    }
+
+    private void assertCborServed(final boolean cbor, final String accept) throws IOException {
+        final HttpClient.HttpResult response = this.client.get(LANGUAGES + "/deu", "Accept", accept);
+        assertEquals(200, response.getStatus(), accept + ": " + response);
+        assertEquals(cbor, isCbor(response), accept + ": " + response.getHeader("Content-Type"));
+    }
+
+    /**
+     * Check if the given response is CBOR. Media types are case insensitive, the JAX-RS runtime writes the one of the first equal media type it parsed.
+     *
+     * @param response the response.
+     * @return {@code true} if the content type of the response is {@value CborCodec#APPLICATION_CBOR}.
+     */
+    private static boolean isCbor(final HttpClient.HttpResult response) {
+        return response.getHeader("Content-Type").toLowerCase(Locale.ROOT).startsWith(CborCodec.APPLICATION_CBOR);
+    }
+
+    /**
+     * Get the JSON response of the given resource as values comparable with a decoded CBOR response.
+     *
+     * @param path the path of the resource.
+     * @return the body as {@link Map} or {@link java.util.List} (see {@link CborCodecTest#toValue(javax.json.JsonValue)}).
+     * @throws IOException if the request failed.
+     */
+    private Object json(final String path) throws IOException {
+        final HttpClient.HttpResult json = this.client.get(path, "Accept", "application/json");
+        assertEquals(200, json.getStatus(), path + ": " + json);
+        return toValue(Json.createReader(new StringReader(json.getBody())).readValue());
+    }
+}
@@ -0,0 +1,72 @@
+package de.exxcellent.microservices.showcase.webservice.diagnostics;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.TechnicalException;
+import de.exxcellent.microservices.showcase.webservice.HttpClient;
+import io.quarkus.test.common.http.TestHTTPResource;
+import io.quarkus.test.junit.QuarkusTest;
+import org.junit.jupiter.api.Test;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import java.io.StringReader;
+import java.net.URL;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link DiagnosticsFacade} and the sampling of the {@link RequestDiagnostics} with the configured sample rate of 1%.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+@QuarkusTest
+class DiagnosticsFacadeTest {
+    /**
+     * The number of requests sent. With a sample rate of 1% the probability of no traced request is below 10^-8.
+     */
+    private static final int REQUESTS = 2000;
+    private static final String TRACED_URI = "/api/v1/languages/fra";
+
+    @TestHTTPResource
+    URL baseUrl;
+
+    @Test
+    void sampledRequestsAreTracedLatestFirst() throws Exception {
+        final HttpClient client = new HttpClient(this.baseUrl);
+        for(int i = 0; i < REQUESTS; i++) {
+            assertEquals(200, client.get(TRACED_URI).getStatus());
+        }
+        final HttpClient.HttpResult result = client.get("/api/v1/admin/diagnostics/traces");
+        assertEquals(200, result.getStatus(), result.toString());
+        final JsonArray traces = Json.createReader(new StringReader(result.getBody())).readArray();
+        assertFalse(traces.isEmpty(), "no request traced");
+        assertTrue(traces.size() <= 256, "more traces than the buffer size");
+        int tracedRequests = 0;
+        long previousSequence = Long.MAX_VALUE;
+        for(int i = 0; i < traces.size(); i++) {
+            final JsonObject trace = traces.getJsonObject(i);
+            final long sequence = trace.getJsonNumber("sequence").longValue();
+            assertTrue(sequence < previousSequence, "traces not ordered latest first");
+            previousSequence = sequence;
+            if(TRACED_URI.equals(trace.getString("uri"))) {
+                assertEquals("GET", trace.getString("method"));
+                assertEquals(200, trace.getInt("status"));
+                assertTrue(trace.getJsonNumber("responseBytes").longValue() > 0);
+                tracedRequests++;
+            }
+        }
+        // far more than 1% of the requests would indicate that the sampling is not applied.
+        assertTrue(tracedRequests > 0 && tracedRequests < REQUESTS / 10, tracedRequests + " of " + REQUESTS + " requests traced");
+    }
+
+    @Test
+    void invalidConfigurationIsRejected() {
+        assertThrows(TechnicalException.class, () -> new RequestDiagnostics(1.5, 256, 1000));
+        assertThrows(TechnicalException.class, () -> new RequestDiagnostics(0.01, 0, 1000));
+        assertThrows(TechnicalException.class, () -> new RequestDiagnostics(0.01, 256, 0));
+    }
+}
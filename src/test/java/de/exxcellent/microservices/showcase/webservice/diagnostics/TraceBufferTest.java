@@ -0,0 +1,81 @@
+package de.exxcellent.microservices.showcase.webservice.diagnostics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests of the {@link TraceBuffer}.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class TraceBufferTest {
+
+    @Test
+    void emptyBufferHasNoTraces() {
+        final TraceBuffer buffer = new TraceBuffer(4);
+        assertEquals(0L, buffer.latestSequence());
+        assertTrue(buffer.since(0).isEmpty());
+    }
+
+    @Test
+    void tracesAreReturnedInAscendingOrder() {
+        final TraceBuffer buffer = new TraceBuffer(4);
+        addTraces(buffer, 3);
+        assertEquals(Arrays.asList(1L, 2L, 3L), sequences(buffer.since(0)));
+        assertEquals(Arrays.asList(3L), sequences(buffer.since(2)));
+        assertTrue(buffer.since(3).isEmpty());
+    }
+
+    @Test
+    void oldestTracesAreOverwritten() {
+        final TraceBuffer buffer = new TraceBuffer(4);
+        addTraces(buffer, 10);
+        assertEquals(10L, buffer.latestSequence());
+        assertEquals(Arrays.asList(7L, 8L, 9L, 10L), sequences(buffer.since(0)));
+        assertEquals(Arrays.asList(9L, 10L), sequences(buffer.since(8)));
+    }
+
+    @Test
+    void incompleteTracesAreSkipped() {
+        final TraceBuffer buffer = new TraceBuffer(4);
+        addTraces(buffer, 1);
+        // the request of sequence 2 has not finished yet.
+        final long pending = buffer.nextSequence();
+        addTraces(buffer, 1);
+        assertEquals(Arrays.asList(1L, 3L), sequences(buffer.since(0)));
+        buffer.add(trace(pending));
+        assertEquals(Arrays.asList(1L, 2L, 3L), sequences(buffer.since(0)));
+    }
+
+    @Test
+    void staleTraceOfOverwrittenSlotIsSkipped() {
+        final TraceBuffer buffer = new TraceBuffer(2);
+        addTraces(buffer, 2);
+        // sequence 3 takes the slot of sequence 1, but its request has not finished yet.
+        buffer.nextSequence();
+        assertEquals(Arrays.asList(2L), sequences(buffer.since(0)));
+    }
+
+    private static void addTraces(final TraceBuffer buffer, final int count) {
+        for(int i = 0; i < count; i++) {
+            buffer.add(trace(buffer.nextSequence()));
+        }
+    }
+
+    private static RequestTraceTO trace(final long sequence) {
+        return new RequestTraceTO(sequence, System.currentTimeMillis(), "GET", "/api/v1/languages", 200, 42L, 100L);
+    }
+
+    private static List<Long> sequences(final List<RequestTraceTO> traces) {
+        final List<Long> sequences = new ArrayList<>();
+        traces.forEach(trace -> sequences.add(trace.getSequence()));
+        return sequences;
+    }
+}
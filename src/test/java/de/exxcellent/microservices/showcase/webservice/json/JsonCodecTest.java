@@ -0,0 +1,240 @@
+package de.exxcellent.microservices.showcase.webservice.json;
+
+import de.exxcellent.microservices.showcase.common.errorhandling.ErrorCode;
+import de.exxcellent.microservices.showcase.common.errorhandling.exception.BusinessException;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountriesOfLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryOfLanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.CountryWithLanguageCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportErrorTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.ImportResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageMatchCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageOfCountryTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LanguageTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.LookupResultCTO;
+import de.exxcellent.microservices.showcase.core.language.api.types.PageCTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.json.bind.Jsonb;
+import javax.json.bind.JsonbBuilder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests of the {@link JsonCodec} with the generated codec of the API types, the JSON reader and the JSON writer.
+ * The serialized entities are compared byte by byte with the output of JSON-B, which the codec replaces.
+ *
+ * @author Felix Riess
+ * @since 14.02.20
+ */
+class JsonCodecTest {
+    /**
+     * A text with characters JSON-B escapes, non-ASCII characters of two and three bytes and a supplementary character (a surrogate pair).
+     */
+    private static final String SPECIAL_TEXT = "\"quoted\" \\ / \b\f\n\r\t \u0001\u001f\u007f Français 中文 𝔊";
+
+    private static Jsonb jsonb;
+
+    @BeforeAll
+    static void createJsonb() {
+        jsonb = JsonbBuilder.create();
+    }
+
+    @AfterAll
+    static void closeJsonb() throws Exception {
+        jsonb.close();
+    }
+
+    @Test
+    void languageIsSerializedLikeJsonb() {
+        assertSerializedLikeJsonb(new LanguageTO("deu", "German"));
+        assertSerializedLikeJsonb(new LanguageTO("fra", "French", "Französisch"));
+        assertSerializedLikeJsonb(new LanguageTO("qaa", SPECIAL_TEXT, "😀"));
+        assertSerializedLikeJsonb(new LanguageTO());
+    }
+
+    @Test
+    void countryWithLanguageIsSerializedLikeJsonb() {
+        assertSerializedLikeJsonb(new CountryWithLanguageCTO("CHE", new LanguageTO("deu", "German")));
+        assertSerializedLikeJsonb(new CountryWithLanguageCTO("CHE", new LanguageTO("deu", "German"), Arrays.asList(
+                new LanguageOfCountryTO(new LanguageTO("deu", "German"), true, 0.625),
+                new LanguageOfCountryTO(new LanguageTO("roh", "Romansh"), null, null))));
+    }
+
+    @Test
+    void numbersAreSerializedLikeJsonb() {
+        for(final double number : new double[]{0, 1, 0.5, 1.0E-4, 1.0E-3, 0.1 + 0.2, 1.0E7, 123456.789, 9.99E-10, Double.MIN_VALUE, -0.0, -1.5E300}) {
+            // the setters do not validate, so numbers out of the range of a share are serialized as well.
+            final LanguageOfCountryTO languageOfCountry = new LanguageOfCountryTO();
+            languageOfCountry.setLanguage(new LanguageTO("ita", "Italian"));
+            languageOfCountry.setPopulationShare(number);
+            assertSerializedLikeJsonb(languageOfCountry);
+            assertSerializedLikeJsonb(new LanguageMatchCTO(new LanguageTO("ita", "Italian"), "it", number));
+        }
+        assertSerializedLikeJsonb(new LanguageOfCountryTO(new LanguageTO("ita", "Italian"), true, null));
+    }
+
+    @Test
+    void countriesOfLanguageAreSerializedLikeJsonb() {
+        assertSerializedLikeJsonb(new CountryOfLanguageTO("AUT", true, null, null));
+        assertSerializedLikeJsonb(new CountriesOfLanguageCTO(new LanguageTO("deu", "German"), Arrays.asList(
+                new CountryOfLanguageTO("AUT", true, null, null), new CountryOfLanguageTO("CHE", false, true, 0.625))));
+        assertSerializedLikeJsonb(new CountriesOfLanguageCTO(new LanguageTO("qaa", "Unused"), Collections.<CountryOfLanguageTO>emptyList()));
+    }
+
+    @Test
+    void importResultsAreSerializedLikeJsonb() {
+        assertSerializedLikeJsonb(new ImportErrorTO(3, "Malformed JSON at byte 12: " + SPECIAL_TEXT));
+        assertSerializedLikeJsonb(new ImportResultCTO(Long.MAX_VALUE - 2, Arrays.asList(new ImportErrorTO(1, "first"), new ImportErrorTO(2, "second"))));
+        assertSerializedLikeJsonb(new ImportResultCTO(0, Collections.<ImportErrorTO>emptyList()));
+    }
+
+    @Test
+    void pagesLookupsAndMatchesAreSerializedLikeJsonb() {
+        final List<LanguageTO> languages = Arrays.asList(new LanguageTO("deu", "German"), new LanguageTO("fra", "French"));
+        assertSerializedLikeJsonb(new PageCTO<>(languages, "ZnJh"));
+        assertSerializedLikeJsonb(new PageCTO<>(languages, null));
+        assertSerializedLikeJsonb(new LookupResultCTO<>(languages, Arrays.asList("qqq", SPECIAL_TEXT)));
+        assertSerializedLikeJsonb(new LookupResultCTO<>(Collections.<LanguageTO>emptyList(), Collections.<String>emptyList()));
+        assertSerializedLikeJsonb(new LanguageMatchCTO(new LanguageTO("deu", "German"), "de-ch", 0.8));
+        assertSerializedLikeJsonb(new LanguageMatchCTO(new LanguageTO("deu", "German"), null, null));
+    }
+
+    @Test
+    void collectionsAreSerializedLikeJsonb() {
+        assertSerializedLikeJsonb(Arrays.asList(new LanguageTO("deu", "German"), null, new LanguageTO("fra", "French")));
+        assertSerializedLikeJsonb(Arrays.asList("deu", SPECIAL_TEXT));
+        assertSerializedLikeJsonb(Collections.emptyList());
+    }
+
+    @Test
+    void unpairedSurrogatesAreEncodedLikeJsonb() {
+        final LanguageTO language = new LanguageTO("qaa", "broken \uD835 pair \uDD0A");
+        assertArrayEquals(jsonb.toJson(language).getBytes(StandardCharsets.UTF_8), JsonCodec.encode(language));
+    }
+
+    @Test
+    void requestBodiesAreParsedAfterSerializing() {
+        assertParsedAfterSerializing(new LanguageTO("qaa", SPECIAL_TEXT, "😀"), LanguageTO.class);
+        assertParsedAfterSerializing(new LanguageOfCountryTO(new LanguageTO("roh", "Romansh"), false, 1.0E-4), LanguageOfCountryTO.class);
+        assertParsedAfterSerializing(new CountryWithLanguageCTO("CHE", new LanguageTO("deu", "German"), Arrays.asList(
+                new LanguageOfCountryTO(new LanguageTO("fra", "French"), true, 0.25))), CountryWithLanguageCTO.class);
+        assertEquals(Arrays.asList("deu", SPECIAL_TEXT), JsonCodec.decode(JsonCodec.encode(Arrays.asList("deu", SPECIAL_TEXT)), List.class));
+        assertNull(JsonCodec.decode(bytes(" null "), LanguageTO.class));
+    }
+
+    @Test
+    void parserAcceptsAnyValidJson() {
+        final LanguageTO language = (LanguageTO) JsonCodec.decode(bytes(" {\r\n\t\"unknown\" : {\"a\":[1,-2.5e+3,true,false,null,\"}\",{}]},"
+                                                                        + "\"shortName\":\"q\\u0061a\",\"name\":\"\\ud835\\udd0a \\\"\\/\",\"displayName\":null} "),
+                                                                  LanguageTO.class);
+        assertEquals("qaa", language.getShortName());
+        assertEquals("𝔊 \"/", language.getName());
+        assertNull(language.getDisplayName());
+        assertEquals(0.0, populationShare("0"));
+        assertEquals(-0.0, populationShare("-0"));
+        assertEquals(1.0E-4, populationShare("1e-4"));
+        assertEquals(50.0, populationShare("0.5E+2"));
+        assertEquals(0.125, populationShare("0.125"));
+    }
+
+    @Test
+    void malformedNumbersAreRejected() {
+        for(final String number : Arrays.asList("01", "-01", "1.", "1.e5", "-", "+1", ".5", "1e", "1e+", "1.5.3", "1e5e3", "0x10", "NaN", "Infinity", "\"0.5\"")) {
+            assertMalformed("{\"populationShare\":" + number + "}");
+        }
+    }
+
+    @Test
+    void malformedStringsAreRejected() {
+        assertMalformed("{\"language\":{\"shortName\":\"qaa");
+        assertMalformed("{\"language\":{\"shortName\":\"qaa\\\"}}");
+        assertMalformed("{\"language\":{\"shortName\":\"q\\u00G1a\"}}");
+        assertMalformed("{\"language\":{\"shortName\":\"q\\u00\"}}");
+        assertMalformed("{\"language\":{\"shortName\":\"q\\u00");
+        assertMalformed("{\"language\":{\"shortName\":\"q\\xa\"}}");
+        assertMalformed("{\"language\":{\"shortName\":\"q\na\"}}");
+        assertMalformed("{\"language\":{\"shortName\":'qaa'}}");
+    }
+
+    @Test
+    void wrongTokensAreRejected() {
+        assertMalformed("");
+        assertMalformed("[]");
+        assertMalformed("\"qaa\"");
+        assertMalformed("{\"language\":\"qaa\"}");
+        assertMalformed("{\"language\":{\"shortName\":1}}");
+        assertMalformed("{\"official\":\"yes\"}");
+        assertMalformed("{\"official\":True}");
+        assertMalformed("{\"populationShare\":true}");
+        assertMalformed("{\"language\" {}}");
+        assertMalformed("{\"official\":true,}");
+        assertMalformed("{\"official\":true \"populationShare\":0.5}");
+        assertMalformed("{,\"official\":true}");
+        assertMalformed("{official:true}");
+        assertMalformed("{\"unknown\":[1,]}");
+        assertMalformed("{\"unknown\":[1 2]}");
+        assertMalformed("{\"unknown\":nul}");
+    }
+
+    @Test
+    void trailingDataIsRejected() {
+        assertMalformed("{} {}");
+        assertMalformed("{\"official\":true}}");
+        assertMalformed("{\"official\":true},");
+        assertMalformed("null null");
+    }
+
+    @Test
+    void overNestedValuesAreRejected() {
+        final String open = String.join("", Collections.nCopies(10000, "["));
+        final String close = String.join("", Collections.nCopies(10000, "]"));
+        assertMalformed("{\"unknown\":" + open + close + "}");
+        assertMalformed("{\"unknown\":" + String.join("", Collections.nCopies(10000, "{\"a\":")) + "1" + String.join("", Collections.nCopies(10000, "}")) + "}");
+    }
+
+    /**
+     * Check that the serialized entity equals the output of JSON-B.
+     *
+     * @param entity the entity.
+     */
+    private static void assertSerializedLikeJsonb(final Object entity) {
+        assertEquals(jsonb.toJson(entity), new String(JsonCodec.encode(entity), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Check that the given request body is parsed to an equal entity after serializing it.
+     *
+     * @param entity the entity.
+     * @param type the class of the entity.
+     */
+    private static void assertParsedAfterSerializing(final Object entity, final Class<?> type) {
+        assertEquals(jsonb.toJson(entity), jsonb.toJson(JsonCodec.decode(JsonCodec.encode(entity), type)));
+    }
+
+    /**
+     * Check that the given body of a {@link LanguageOfCountryTO} is rejected as invalid argument.
+     *
+     * @param body the JSON body.
+     */
+    private static void assertMalformed(final String body) {
+        final BusinessException e = assertThrows(BusinessException.class, () -> JsonCodec.decode(bytes(body), LanguageOfCountryTO.class), body);
+        assertEquals(ErrorCode.INVALID_ARGUMENT_ERROR, e.getErrorCode(), body);
+    }
+
+    private static Double populationShare(final String number) {
+        return ((LanguageOfCountryTO) JsonCodec.decode(bytes("{\"populationShare\":" + number + "}"), LanguageOfCountryTO.class)).getPopulationShare();
+    }
+
+    private static byte[] bytes(final String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}